@@ -18,6 +18,9 @@ package io.servicecomb.common.rest;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.ws.rs.core.Response.Status;
 
@@ -38,7 +41,11 @@ import io.servicecomb.core.Invocation;
 import io.servicecomb.core.Transport;
 import io.servicecomb.core.definition.MicroserviceMeta;
 import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.core.executor.ReactiveExecutor;
+import io.servicecomb.core.executor.RejectableTask;
 import io.servicecomb.core.invocation.InvocationFactory;
+import io.servicecomb.core.invocation.InvocationPool;
+import io.servicecomb.core.provider.consumer.ReactiveResponseExecutor;
 import io.servicecomb.serviceregistry.RegistryUtils;
 import io.servicecomb.swagger.invocation.Response;
 import io.servicecomb.swagger.invocation.exception.InvocationException;
@@ -50,6 +57,9 @@ public abstract class AbstractRestServer<HTTP_RESPONSE> {
     // 所属的Transport
     protected Transport transport;
 
+    // 本微服务路由表的引用，第一次处理请求时获取，schema加载完成时其中的内容被整体替换
+    private volatile AtomicReference<ServicePathManager> servicePathManagerRef;
+
     public void setTransport(Transport transport) {
         this.transport = transport;
     }
@@ -70,13 +80,29 @@ public abstract class AbstractRestServer<HTTP_RESPONSE> {
             RestOperationMeta restOperation = findRestOperation(restRequest);
             OperationMeta operationMeta = restOperation.getOperationMeta();
 
-            operationMeta.getExecutor().execute(() -> {
-                try {
-                    runOnExecutor(restRequest, restOperation, httpResponse);
-                } catch (Exception e) {
-                    LOGGER.error("rest server onRequest error", e);
+            Executor executor = operationMeta.getExecutor();
+            // reactive的operation在网络线程中解码、调用业务，业务异步应答时也回到该线程
+            Executor responseExecutor = executor instanceof ReactiveExecutor ? new ReactiveResponseExecutor() : null;
+            executor.execute(new RejectableTask() {
+                @Override
+                public void run() {
+                    try {
+                        runOnExecutor(restRequest, restOperation, httpResponse, responseExecutor);
+                    } catch (Exception e) {
+                        LOGGER.error("rest server onRequest error", e);
+                        sendFailResponse(restRequest, httpResponse, e);
+                    }
+                }
+
+                @Override
+                public void reject(InvocationException e) {
                     sendFailResponse(restRequest, httpResponse, e);
                 }
+
+                @Override
+                public String toString() {
+                    return operationMeta.getMicroserviceQualifiedName();
+                }
             });
         } catch (Exception e) {
             LOGGER.error("rest server onRequest error", e);
@@ -85,7 +111,7 @@ public abstract class AbstractRestServer<HTTP_RESPONSE> {
     }
 
     protected void runOnExecutor(RestServerRequestInternal restRequest, RestOperationMeta restOperation,
-            HTTP_RESPONSE httpResponse) throws Exception {
+            HTTP_RESPONSE httpResponse, Executor responseExecutor) throws Exception {
         String acceptType = restRequest.getHeaderParam("Accept");
         ProduceProcessor produceProcessor =
             locateProduceProcessor(restRequest, httpResponse, restOperation, acceptType);
@@ -95,24 +121,68 @@ public abstract class AbstractRestServer<HTTP_RESPONSE> {
         }
 
         Object[] args = RestCodec.restToArgs(restRequest, restOperation);
+        Executor executor = restOperation.getOperationMeta().getExecutor();
+        // 应答只能发送一次，池化时应答的引用也只能释放一次：应答回调与下面的异常处理谁先到谁负责
+        AtomicBoolean responded = new AtomicBoolean();
+        // 获取之后立即进入try，之后的任何异常都不会遗漏引用
         Invocation invocation =
             InvocationFactory.forProvider(transport.getEndpoint(),
                     restOperation.getOperationMeta(),
                     args);
+        try {
+            this.setContext(invocation, restRequest);
+            this.setHttpRequestContext(invocation, restRequest);
+            // rest应答可以边遍历边编码，producer返回的Iterator/Stream不必先展开
+            invocation.setStreamResponse(true);
+
+            invocation.next(resp -> {
+                if (!responded.compareAndSet(false, true)) {
+                    return;
+                }
+
+                if (responseExecutor == null) {
+                    sendResponseAndRelease(invocation, restRequest, httpResponse, produceProcessor, resp, executor);
+                    return;
+                }
+
+                try {
+                    responseExecutor.execute(() -> sendResponseAndRelease(invocation, restRequest, httpResponse,
+                            produceProcessor, resp, executor));
+                } catch (Throwable e) {
+                    LOGGER.error("rest server dispatch response error", e);
+                    sendFailResponseAndRelease(invocation, restRequest, httpResponse, e);
+                }
+            });
+        } catch (Throwable e) {
+            LOGGER.error("rest server onRequest error", e);
+            if (responded.compareAndSet(false, true)) {
+                sendFailResponseAndRelease(invocation, restRequest, httpResponse, e);
+            }
+        } finally {
+            InvocationPool.release(invocation);
+        }
+    }
 
-        this.setContext(invocation, restRequest);
-        this.setHttpRequestContext(invocation, restRequest);
+    private void sendResponseAndRelease(Invocation invocation, RestServerRequestInternal restRequest,
+            HTTP_RESPONSE httpResponse, ProduceProcessor produceProcessor, Response resp, Executor executor) {
+        try {
+            sendResponse(restRequest, httpResponse, produceProcessor, resp, executor);
+        } finally {
+            InvocationPool.release(invocation);
+        }
+    }
 
-        invocation.next(resp -> {
-            sendResponse(restRequest, httpResponse, produceProcessor, resp);
-        });
+    private void sendFailResponseAndRelease(Invocation invocation, RestServerRequestInternal restRequest,
+            HTTP_RESPONSE httpResponse, Throwable throwable) {
+        try {
+            sendFailResponse(restRequest, httpResponse, throwable);
+        } finally {
+            InvocationPool.release(invocation);
+        }
     }
 
     protected RestOperationMeta findRestOperation(RestServerRequestInternal restRequest) {
-        String selfName = RegistryUtils.getMicroservice().getServiceName();
-        MicroserviceMeta selfMicroserviceMeta =
-            CseContext.getInstance().getMicroserviceMetaManager().ensureFindValue(selfName);
-        ServicePathManager servicePathManager = ServicePathManager.getServicePathManager(selfMicroserviceMeta);
+        ServicePathManager servicePathManager = getServicePathManagerRef().get();
         if (servicePathManager == null) {
             LOGGER.error("No schema in microservice");
             throw new InvocationException(Status.NOT_FOUND, Status.NOT_FOUND.getReasonPhrase());
@@ -124,6 +194,16 @@ public abstract class AbstractRestServer<HTTP_RESPONSE> {
         return locator.getOperation();
     }
 
+    protected AtomicReference<ServicePathManager> getServicePathManagerRef() {
+        if (servicePathManagerRef == null) {
+            String selfName = RegistryUtils.getMicroservice().getServiceName();
+            MicroserviceMeta selfMicroserviceMeta =
+                CseContext.getInstance().getMicroserviceMetaManager().ensureFindValue(selfName);
+            servicePathManagerRef = ServicePathManager.getServicePathManagerRef(selfMicroserviceMeta);
+        }
+        return servicePathManagerRef;
+    }
+
     // 找不到processor，则已经完成了应答，外界不必再处理
     protected ProduceProcessor locateProduceProcessor(RestServerRequestInternal restRequest,
             HTTP_RESPONSE httpResponse,
@@ -148,8 +228,14 @@ public abstract class AbstractRestServer<HTTP_RESPONSE> {
     // 成功、失败的统一应答处理，这里不能再出异常了，再出了异常也没办法处理
     protected void sendResponse(RestServerRequestInternal restRequest, HTTP_RESPONSE httpServerResponse,
             ProduceProcessor produceProcessor, Response response) {
+        sendResponse(restRequest, httpServerResponse, produceProcessor, response, null);
+    }
+
+    // executor为operation的executor，流式应答的后续编码在其中执行，为null时表示没有关联的operation
+    protected void sendResponse(RestServerRequestInternal restRequest, HTTP_RESPONSE httpServerResponse,
+            ProduceProcessor produceProcessor, Response response, Executor executor) {
         try {
-            doSendResponse(httpServerResponse, produceProcessor, response);
+            doSendResponse(httpServerResponse, produceProcessor, response, executor);
         } catch (Throwable e) {
             // 这只能是bug，没有办法再兜底了，只能记录日志
             // 如果统一处理为500错误，也无法确定swagger中500对应的数据模型
@@ -162,6 +248,12 @@ public abstract class AbstractRestServer<HTTP_RESPONSE> {
         }
     }
 
+    // 需要在operation的executor中继续发送应答的transport覆盖这个方法
+    protected void doSendResponse(HTTP_RESPONSE httpServerResponse, ProduceProcessor produceProcessor,
+            Response response, Executor executor) throws Exception {
+        doSendResponse(httpServerResponse, produceProcessor, response);
+    }
+
     //  成功、失败的统一应答处理
     protected abstract void doSendResponse(HTTP_RESPONSE httpServerResponse, ProduceProcessor produceProcessor,
             Response response) throws Exception;
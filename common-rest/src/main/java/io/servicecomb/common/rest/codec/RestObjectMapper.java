@@ -20,6 +20,8 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.databind.util.ISO8601DateFormat;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.netflix.config.DynamicPropertyFactory;
 
 public final class RestObjectMapper extends ObjectMapper {
     public static final RestObjectMapper INSTANCE = new RestObjectMapper();
@@ -28,9 +30,16 @@ public final class RestObjectMapper extends ObjectMapper {
 
     private static final JavaType STRING_JAVA_TYPE = TypeFactory.defaultInstance().constructType(String.class);
 
+    public static final String AFTERBURNER_ENABLED = "cse.rest.jackson.afterburner.enabled";
+
     private RestObjectMapper() {
         // swagger中要求date使用ISO8601格式传递，这里与之做了功能绑定，这在cse中是没有问题的
         setDateFormat(new ISO8601DateFormat());
+
+        // 打开后通过生成的字节码访问属性，代替反射，默认关闭
+        if (DynamicPropertyFactory.getInstance().getBooleanProperty(AFTERBURNER_ENABLED, false).get()) {
+            registerModule(new AfterburnerModule());
+        }
     }
 
     public String convertToString(Object value) throws Exception {
@@ -16,6 +16,7 @@
 
 package io.servicecomb.common.rest.codec.param;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 
@@ -24,13 +25,16 @@ import javax.ws.rs.core.MediaType;
 import org.apache.commons.io.IOUtils;
 
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import io.servicecomb.common.rest.codec.RestClientRequest;
 import io.servicecomb.common.rest.codec.RestObjectMapper;
 import io.servicecomb.common.rest.codec.RestServerRequest;
+import io.servicecomb.foundation.vertx.stream.BufferInputStream;
 import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
 import io.servicecomb.swagger.generator.core.utils.ClassUtils;
+import io.netty.buffer.ByteBuf;
 import io.swagger.models.parameters.Parameter;
 import io.vertx.core.buffer.Buffer;
 
@@ -41,8 +45,12 @@ public class BodyProcessorCreator implements ParamValueProcessorCreator {
     public static class BodyProcessor implements ParamValueProcessor {
         protected JavaType targetType;
 
+        // 预先创建，解码时不必再根据targetType查找deserializer
+        protected ObjectReader reader;
+
         public BodyProcessor(JavaType targetType) {
             this.targetType = targetType;
+            this.reader = RestObjectMapper.INSTANCE.readerFor(targetType);
         }
 
         @Override
@@ -60,12 +68,27 @@ public class BodyProcessorCreator implements ParamValueProcessorCreator {
                 if (contentType != null && contentType.startsWith(MediaType.TEXT_PLAIN)) {
                     return IOUtils.toString(inputStream);
                 }
-                return RestObjectMapper.INSTANCE.readValue(inputStream, targetType);
+                return readValue(inputStream);
             }
 
             return RestObjectMapper.INSTANCE.convertValue(body, targetType);
         }
 
+        protected Object readValue(InputStream inputStream) throws IOException {
+            if (inputStream instanceof BufferInputStream) {
+                // 只有一块数据的heap buffer，直接按byte数组解析，不必经过stream复制到jackson的缓冲区
+                // 多块数据组合的buffer，经过stream逐块读取，同样不必先合并为一块
+                ByteBuf byteBuf = ((BufferInputStream) inputStream).getByteBuf();
+                if (byteBuf.hasArray()) {
+                    return reader.readValue(byteBuf.array(),
+                            byteBuf.arrayOffset() + byteBuf.readerIndex(),
+                            byteBuf.readableBytes());
+                }
+            }
+
+            return reader.readValue(inputStream);
+        }
+
         @Override
         public void setValue(RestClientRequest clientRequest, Object arg) throws Exception {
             try (BufferOutputStream output = new BufferOutputStream()) {
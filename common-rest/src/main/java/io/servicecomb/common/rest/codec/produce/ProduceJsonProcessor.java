@@ -18,26 +18,104 @@ package io.servicecomb.common.rest.codec.produce;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.ws.rs.core.MediaType;
 
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import io.netty.buffer.ByteBuf;
 import io.servicecomb.common.rest.codec.RestObjectMapper;
+import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
+import io.servicecomb.foundation.vertx.stream.BufferSizeEstimator;
+import io.vertx.core.buffer.Buffer;
 
 public class ProduceJsonProcessor extends AbstractProduceProcessor {
+    // 同一种返回值类型的writer与编码长度估算
+    static class WriterMeta {
+        final ObjectWriter writer;
+
+        final BufferSizeEstimator sizeEstimator = new BufferSizeEstimator();
+
+        WriterMeta(Class<?> cls) {
+            this.writer = RestObjectMapper.INSTANCE.writerFor(cls);
+        }
+    }
+
+    // key为返回值的实际类型，writer中已经解析好了serializer，不必每次经过ObjectMapper查找
+    private final Map<Class<?>, WriterMeta> writerMetaMap = new ConcurrentHashMap<>();
+
+    // key为ResponseMeta中的JavaType
+    private final Map<JavaType, ObjectReader> readerMap = new ConcurrentHashMap<>();
 
     @Override
     public String getName() {
         return MediaType.APPLICATION_JSON;
     }
 
+    protected WriterMeta findWriterMeta(Class<?> cls) {
+        WriterMeta writerMeta = writerMetaMap.get(cls);
+        if (writerMeta == null) {
+            writerMeta = writerMetaMap.computeIfAbsent(cls, WriterMeta::new);
+        }
+        return writerMeta;
+    }
+
+    protected ObjectReader findReader(JavaType type) {
+        ObjectReader reader = readerMap.get(type);
+        if (reader == null) {
+            reader = readerMap.computeIfAbsent(type, RestObjectMapper.INSTANCE::readerFor);
+        }
+        return reader;
+    }
+
     @Override
     public void encodeResponse(OutputStream output, Object result) throws Exception {
-        RestObjectMapper.INSTANCE.writeValue(output, result);
+        if (result == null) {
+            RestObjectMapper.INSTANCE.writeValue(output, null);
+            return;
+        }
+
+        findWriterMeta(result.getClass()).writer.writeValue(output, result);
+    }
+
+    @Override
+    public Buffer encodeResponse(Object result) throws Exception {
+        if (null == result) {
+            return null;
+        }
+
+        // 按同类型返回值最近的编码长度申请buffer，减少扩容与拷贝
+        WriterMeta writerMeta = findWriterMeta(result.getClass());
+        try (BufferOutputStream output = new BufferOutputStream(writerMeta.sizeEstimator.estimate(), false)) {
+            writerMeta.writer.writeValue(output, result);
+            writerMeta.sizeEstimator.record(output.length());
+            return output.getBuffer();
+        }
     }
 
     @Override
     public Object decodeResponse(InputStream input, JavaType type) throws Exception {
-        return RestObjectMapper.INSTANCE.readValue(input, type);
+        return findReader(type).readValue(input);
+    }
+
+    @Override
+    public Object decodeResponse(Buffer buffer, JavaType type) throws Exception {
+        if (buffer.length() == 0) {
+            return null;
+        }
+
+        // heap buffer直接按byte数组解析
+        ByteBuf byteBuf = buffer.getByteBuf();
+        if (byteBuf.hasArray()) {
+            return findReader(type).readValue(byteBuf.array(),
+                    byteBuf.arrayOffset() + byteBuf.readerIndex(),
+                    byteBuf.readableBytes());
+        }
+
+        return super.decodeResponse(buffer, type);
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.common.rest.codec.produce;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.config.DynamicIntProperty;
+import com.netflix.config.DynamicPropertyFactory;
+
+import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * producer返回Iterator/Stream时，边遍历边编码，每次产生一个chunk
+ * json格式应答为数组，与返回List时的应答相同，调用方感知不到区别
+ * 其他格式没有数组的概念，只能先收集成List再整体编码
+ *
+ * 同一时刻只能有一个线程调用nextChunk
+ * close可以在任意线程调用，比如连接断开时在网络线程中调用：与nextChunk并发时，由编码线程在本次编码结束后close
+ */
+public class ResponseStreamEncoder implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseStreamEncoder.class);
+
+    public static final String CHUNK_SIZE = "cse.rest.server.stream.chunk-size";
+
+    private static final DynamicIntProperty CHUNK_SIZE_PROPERTY =
+        DynamicPropertyFactory.getInstance().getIntProperty(CHUNK_SIZE, 8 * 1024);
+
+    private final ProduceProcessor produceProcessor;
+
+    private final Iterator<?> iterator;
+
+    // Stream需要close，比如底层是数据库游标
+    private final AutoCloseable closeable;
+
+    private final int chunkSize;
+
+    private boolean started;
+
+    // 连接断开时在网络线程中close，编码可能在业务线程中
+    private volatile boolean finished;
+
+    // 编码或者close资源期间为true，保证producer的资源不会在编码过程中被close
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    // 只在busy为true时访问
+    private boolean closed;
+
+    public static boolean isStream(Object body) {
+        return body instanceof Iterator || body instanceof Stream;
+    }
+
+    public ResponseStreamEncoder(ProduceProcessor produceProcessor, Object body) {
+        this.produceProcessor = produceProcessor;
+        if (body instanceof Stream) {
+            Stream<?> stream = (Stream<?>) body;
+            this.iterator = stream.iterator();
+            this.closeable = stream;
+        } else {
+            this.iterator = (Iterator<?>) body;
+            this.closeable = body instanceof AutoCloseable ? (AutoCloseable) body : null;
+        }
+        this.chunkSize = Math.max(CHUNK_SIZE_PROPERTY.get(), 1);
+    }
+
+    // 返回null表示已经全部编码完成
+    public Buffer nextChunk() throws Exception {
+        // busy被占用只可能是正在close
+        if (finished || !busy.compareAndSet(false, true)) {
+            return null;
+        }
+
+        try {
+            return finished ? null : doNextChunk();
+        } finally {
+            busy.set(false);
+            // 编码期间被要求close，或者已经编码完成
+            if (finished) {
+                tryClose();
+            }
+        }
+    }
+
+    private Buffer doNextChunk() throws Exception {
+        if (!ProduceJsonProcessor.class.isInstance(produceProcessor)) {
+            return encodeAll();
+        }
+
+        try (BufferOutputStream output = new BufferOutputStream(chunkSize + chunkSize / 4, false)) {
+            if (!started) {
+                output.write('[');
+            }
+
+            // 每个chunk至少包含一个元素
+            while (iterator.hasNext()) {
+                if (started) {
+                    output.write(',');
+                }
+                started = true;
+                produceProcessor.encodeResponse(output, iterator.next());
+                if (output.length() >= chunkSize) {
+                    break;
+                }
+            }
+
+            if (!iterator.hasNext()) {
+                output.write(']');
+                finished = true;
+            }
+            return output.getBuffer();
+        }
+    }
+
+    private Buffer encodeAll() throws Exception {
+        List<Object> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        finished = true;
+        return produceProcessor.encodeResponse(list);
+    }
+
+    // 正常结束或者连接断开，都需要释放producer的资源，允许重复调用，允许与nextChunk并发
+    @Override
+    public void close() {
+        finished = true;
+        tryClose();
+    }
+
+    private void tryClose() {
+        if (!busy.compareAndSet(false, true)) {
+            // 正在编码，由编码线程在结束时close
+            return;
+        }
+
+        try {
+            if (closed || closeable == null) {
+                return;
+            }
+            closed = true;
+            closeable.close();
+        } catch (Throwable e) {
+            LOGGER.error("close response stream failed.", e);
+        } finally {
+            busy.set(false);
+        }
+    }
+}
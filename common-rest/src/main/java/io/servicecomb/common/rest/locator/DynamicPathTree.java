@@ -0,0 +1,238 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.common.rest.locator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.servicecomb.common.rest.definition.RestOperationMeta;
+
+/**
+ * 按path段组织的动态path operation前缀树，替代按优先级逐个做正则匹配
+ *
+ * 静态段与{var}段直接在树上查找；遇到带正则表达式、一段中有多个变量、或含正则元字符的段时，
+ * 该operation挂在当前节点上，匹配时对完整path执行原来的正则表达式
+ * 所有匹配成功的operation中，取在排序列表中位置最靠前的，与RestOperationComparator的优先级一致
+ */
+public class DynamicPathTree {
+    private static final char SLASH = '/';
+
+    // 这些字符在PathRegExp中会被当作正则表达式处理，含这些字符的静态段不能按字面查找
+    private static final String REG_EXP_CHARS = ".*+?[]()|\\^$";
+
+    static class Entry {
+        // 在排好序的列表中的位置，越小优先级越高
+        final int priority;
+
+        final RestOperationMeta operation;
+
+        // 树上每个{var}段对应的变量名，以正则匹配的entry为null
+        final String[] varNames;
+
+        // 按变量个数预先算好的map容量，避免扩容
+        final int varMapCapacity;
+
+        Entry(int priority, RestOperationMeta operation, String[] varNames) {
+            this.priority = priority;
+            this.operation = operation;
+            this.varNames = varNames;
+            this.varMapCapacity = varNames == null ? 0 : (int) (varNames.length / 0.75f) + 1;
+        }
+    }
+
+    static class Node {
+        final Map<String, Node> staticChildren = new HashMap<>();
+
+        Node varChild;
+
+        // path在此结束的operation
+        final List<Entry> entries = new ArrayList<>();
+
+        // 剩余部分需要正则匹配的operation
+        final List<Entry> regExpEntries = new ArrayList<>();
+    }
+
+    // 一次查找过程中的状态
+    private static class MatchContext {
+        final String path;
+
+        final String httpMethod;
+
+        final String[] values;
+
+        Entry best;
+
+        Map<String, String> bestPathVarMap;
+
+        boolean resourceFound;
+
+        MatchContext(String path, String httpMethod, int maxDepth) {
+            this.path = path;
+            this.httpMethod = httpMethod;
+            this.values = new String[maxDepth];
+        }
+
+        boolean isBetter(Entry entry) {
+            return best == null || entry.priority < best.priority;
+        }
+    }
+
+    private final Node root = new Node();
+
+    // 树上最多的{var}段个数
+    private int maxVarCount;
+
+    // operationList已经按优先级从高到低排好序
+    public DynamicPathTree(List<RestOperationMeta> operationList) {
+        for (int idx = 0; idx < operationList.size(); idx++) {
+            addOperation(idx, operationList.get(idx));
+        }
+    }
+
+    protected void addOperation(int priority, RestOperationMeta operation) {
+        String path = operation.getAbsolutePath();
+        if (path.length() > 0 && path.charAt(path.length() - 1) == SLASH) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        Node node = root;
+        List<String> varNames = new ArrayList<>();
+        for (String segment : path.split(String.valueOf(SLASH), -1)) {
+            if (isStaticSegment(segment)) {
+                node = node.staticChildren.computeIfAbsent(segment, key -> new Node());
+                continue;
+            }
+
+            String varName = parseSimpleVarName(segment);
+            if (varName == null) {
+                node.regExpEntries.add(new Entry(priority, operation, null));
+                return;
+            }
+
+            if (node.varChild == null) {
+                node.varChild = new Node();
+            }
+            node = node.varChild;
+            varNames.add(varName);
+        }
+
+        node.entries.add(new Entry(priority, operation, varNames.toArray(new String[varNames.size()])));
+        maxVarCount = Math.max(maxVarCount, varNames.size());
+    }
+
+    protected static boolean isStaticSegment(String segment) {
+        for (int idx = 0; idx < segment.length(); idx++) {
+            char c = segment.charAt(idx);
+            if (c == '{' || REG_EXP_CHARS.indexOf(c) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 整段是不带正则表达式的{name}时返回name，否则返回null
+    protected static String parseSimpleVarName(String segment) {
+        if (segment.length() < 3 || segment.charAt(0) != '{' || segment.charAt(segment.length() - 1) != '}') {
+            return null;
+        }
+
+        String varName = segment.substring(1, segment.length() - 1).trim();
+        for (int idx = 0; idx < varName.length(); idx++) {
+            char c = varName.charAt(idx);
+            if (c == '{' || c == '}' || c == ':' || Character.isWhitespace(c)) {
+                return null;
+            }
+        }
+        return varName.isEmpty() ? null : varName;
+    }
+
+    /**
+     * path为标准格式，即a/b/c/
+     * 找到时以新的map替换locator的pathVarMap；只要有path匹配，无论http method是否匹配，locator.resourceFound都置为true
+     */
+    public RestOperationMeta locate(OperationLocator locator, String path, String httpMethod) {
+        MatchContext context = new MatchContext(path, httpMethod, maxVarCount);
+        match(context, root, 0, 0);
+        if (context.resourceFound) {
+            locator.resourceFound = true;
+        }
+        if (context.best == null) {
+            return null;
+        }
+
+        locator.pathVarMap = context.bestPathVarMap;
+        return context.best.operation;
+    }
+
+    private void match(MatchContext context, Node node, int pos, int depth) {
+        for (Entry entry : node.regExpEntries) {
+            matchRegExp(context, entry);
+        }
+
+        String path = context.path;
+        if (pos == path.length()) {
+            for (Entry entry : node.entries) {
+                context.resourceFound = true;
+                if (context.isBetter(entry) && entry.operation.getHttpMethod().equals(context.httpMethod)) {
+                    Map<String, String> pathVarMap = new HashMap<>(entry.varMapCapacity);
+                    for (int idx = 0; idx < entry.varNames.length; idx++) {
+                        pathVarMap.put(entry.varNames[idx], context.values[idx]);
+                    }
+                    context.best = entry;
+                    context.bestPathVarMap = pathVarMap;
+                }
+            }
+            return;
+        }
+
+        int end = path.indexOf(SLASH, pos);
+        if (end < 0) {
+            return;
+        }
+
+        String segment = path.substring(pos, end);
+        Node child = node.staticChildren.get(segment);
+        if (child != null) {
+            match(context, child, end + 1, depth);
+        }
+
+        if (node.varChild != null && !segment.isEmpty()) {
+            context.values[depth] = segment;
+            match(context, node.varChild, end + 1, depth + 1);
+        }
+    }
+
+    private void matchRegExp(MatchContext context, Entry entry) {
+        boolean better = context.isBetter(entry) && entry.operation.getHttpMethod().equals(context.httpMethod);
+        if (!better && context.resourceFound) {
+            return;
+        }
+
+        Map<String, String> values = new HashMap<>();
+        if (!"".equals(entry.operation.getAbsolutePathRegExp().match(context.path, values))) {
+            return;
+        }
+
+        context.resourceFound = true;
+        if (better) {
+            context.best = entry;
+            context.bestPathVarMap = values;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package io.servicecomb.common.rest.locator;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,7 +39,8 @@ public class OperationLocator {
 
     protected RestOperationMeta operation;
 
-    protected Map<String, String> pathVarMap = new HashMap<>();
+    // 静态path没有变量，不必创建map；动态path定位成功时替换为按operation变量个数预分配的map
+    protected Map<String, String> pathVarMap = Collections.emptyMap();
 
     protected boolean resourceFound = false;
 
@@ -60,7 +62,12 @@ public class OperationLocator {
         }
 
         // 在动态路径中查找
-        operation = locateDynamicPathOperation(path, servicePathManager.getDynamicPathOperationList(), httpMethod);
+        DynamicPathTree dynamicPathTree = servicePathManager.getDynamicPathTree();
+        if (dynamicPathTree != null) {
+            operation = dynamicPathTree.locate(this, path, httpMethod);
+        } else {
+            operation = locateDynamicPathOperation(path, servicePathManager.getDynamicPathOperationList(), httpMethod);
+        }
         if (operation != null) {
             return;
         }
@@ -90,6 +97,9 @@ public class OperationLocator {
 
     protected RestOperationMeta locateDynamicPathOperation(String path, Collection<RestOperationMeta> resourceList,
             String httpMethod) {
+        if (pathVarMap.isEmpty()) {
+            pathVarMap = new HashMap<>();
+        }
         for (RestOperationMeta resource : resourceList) {
             String remainPath = resource.getAbsolutePathRegExp().match(path, pathVarMap);
             // 刚好匹配，不多也不少
@@ -111,13 +121,13 @@ public class OperationLocator {
     }
 
     // Path: /a/b/c -> a/b/c/
+    // 最多只创建一个新的字符串
     public static String getStandardPath(String path) {
-        if (path.startsWith(SLASH)) {
-            path = path.substring(1);
+        int start = path.startsWith(SLASH) ? 1 : 0;
+        if (path.length() == start || path.endsWith(SLASH)) {
+            return start == 0 ? path : path.substring(start);
         }
-        if (path.length() > 0 && !path.endsWith(SLASH)) {
-            path += SLASH;
-        }
-        return path;
+
+        return new StringBuilder(path.length() - start + 1).append(path, start, path.length()).append(SLASH).toString();
     }
 }
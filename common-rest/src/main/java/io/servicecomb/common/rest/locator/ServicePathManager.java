@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.servicecomb.common.rest.definition.RestOperationComparator;
 import io.servicecomb.common.rest.definition.RestOperationMeta;
@@ -40,15 +41,24 @@ public class ServicePathManager {
 
     private static final String REST_PATH_MANAGER = "RestServicePathManager";
 
+    private static final String REST_PATH_MANAGER_REF = "RestServicePathManagerRef";
+
     protected MicroserviceMeta microserviceMeta;
 
     // 运行阶段,静态path,一次直接查找到目标,不必遍历查找
     // 以path为key
     protected Map<String, OperationGroup> staticPathOperations = new HashMap<>();
 
+    // 与staticPathOperations相同，以请求中常见的/a/b/c格式的path为key，命中时不必转换为标准格式
+    protected Map<String, OperationGroup> requestPathStaticOperations = new HashMap<>();
+
     // 运行阶段,以path优先级,从高到低排列的operation列表
     protected List<RestOperationMeta> dynamicPathOperationsList = new ArrayList<>();
 
+    // 运行阶段,由排好序的dynamicPathOperationsList构造,按path段查找
+    // 排序之前或者排序之后又增加了动态path时为null,退化为遍历dynamicPathOperationsList
+    protected DynamicPathTree dynamicPathTree;
+
     // 已经有哪些schemaId的path信息加进来了
     // 在producer场景中，业务before producer provider事件中将契约注册进来，此时会触发事件，携带注册范围的信息
     // 启动流程的最后阶段，同样会触发一次事件，此时是全量的信息
@@ -59,8 +69,29 @@ public class ServicePathManager {
         return microserviceMeta.getExtData(REST_PATH_MANAGER);
     }
 
+    // 同一个MicroserviceMeta总是返回同一个引用，schema加载完成时其中的ServicePathManager整体替换
+    // 处理请求时可以直接持有该引用，不必每次都查找MicroserviceMeta
+    public static AtomicReference<ServicePathManager> getServicePathManagerRef(MicroserviceMeta microserviceMeta) {
+        AtomicReference<ServicePathManager> ref = microserviceMeta.getExtData(REST_PATH_MANAGER_REF);
+        if (ref != null) {
+            return ref;
+        }
+
+        synchronized (ServicePathManager.class) {
+            ref = microserviceMeta.getExtData(REST_PATH_MANAGER_REF);
+            if (ref == null) {
+                ref = new AtomicReference<>(getServicePathManager(microserviceMeta));
+                microserviceMeta.putExtData(REST_PATH_MANAGER_REF, ref);
+            }
+            return ref;
+        }
+    }
+
     public void saveToMicroserviceMeta() {
-        microserviceMeta.putExtData(REST_PATH_MANAGER, this);
+        synchronized (ServicePathManager.class) {
+            microserviceMeta.putExtData(REST_PATH_MANAGER, this);
+            getServicePathManagerRef(microserviceMeta).set(this);
+        }
     }
 
     public ServicePathManager(MicroserviceMeta microserviceMeta) {
@@ -82,14 +113,23 @@ public class ServicePathManager {
     public ServicePathManager cloneServicePathManager() {
         ServicePathManager mgr = new ServicePathManager(microserviceMeta);
         mgr.staticPathOperations.putAll(staticPathOperations);
+        mgr.requestPathStaticOperations.putAll(requestPathStaticOperations);
         mgr.dynamicPathOperationsList.addAll(dynamicPathOperationsList);
         mgr.schemaIdSet.addAll(schemaIdSet);
         return mgr;
     }
 
     public OperationLocator locateOperation(String path, String httpMethod) {
-        String standPath = OperationLocator.getStandardPath(path);
         OperationLocator locator = new OperationLocator();
+        OperationGroup group = requestPathStaticOperations.get(path);
+        if (group != null) {
+            locator.operation = group.findValue(httpMethod);
+            if (locator.operation != null) {
+                return locator;
+            }
+        }
+
+        String standPath = OperationLocator.getStandardPath(path);
         locator.locate(this, standPath, httpMethod);
 
         return locator;
@@ -98,6 +138,7 @@ public class ServicePathManager {
     public void sortPath() {
         RestOperationComparator comparator = new RestOperationComparator();
         Collections.sort(this.dynamicPathOperationsList, comparator);
+        dynamicPathTree = new DynamicPathTree(dynamicPathOperationsList);
     }
 
     public void addResource(RestOperationMeta swaggerRestOperation) {
@@ -108,6 +149,7 @@ public class ServicePathManager {
         }
 
         dynamicPathOperationsList.add(swaggerRestOperation);
+        dynamicPathTree = null;
     }
 
     protected void addStaticPathResource(RestOperationMeta operation) {
@@ -118,6 +160,7 @@ public class ServicePathManager {
             group = new OperationGroup();
             group.register(httpMethod, operation);
             staticPathOperations.put(path, group);
+            requestPathStaticOperations.put(toRequestPath(path), group);
             return;
         }
 
@@ -130,6 +173,14 @@ public class ServicePathManager {
                 String.format("operation with url %s, method %s is duplicated", path, httpMethod));
     }
 
+    // a/b/c/ -> /a/b/c
+    protected static String toRequestPath(String path) {
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return "/" + path;
+    }
+
     public Map<String, OperationGroup> getStaticPathOperationMap() {
         return staticPathOperations;
     }
@@ -138,6 +189,10 @@ public class ServicePathManager {
         return dynamicPathOperationsList;
     }
 
+    public DynamicPathTree getDynamicPathTree() {
+        return dynamicPathTree;
+    }
+
     public void printService() {
         if (!LOGGER.isDebugEnabled()) {
             return;
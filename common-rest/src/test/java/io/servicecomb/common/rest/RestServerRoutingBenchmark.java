@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.common.rest;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.servicecomb.common.rest.codec.LocalRestServerRequest;
+import io.servicecomb.common.rest.codec.RestServerRequestInternal;
+import io.servicecomb.common.rest.codec.produce.ProduceProcessor;
+import io.servicecomb.common.rest.definition.RestOperationMeta;
+import io.servicecomb.common.rest.locator.ServicePathManager;
+import io.servicecomb.config.ConfigUtil;
+import io.servicecomb.core.CseContext;
+import io.servicecomb.core.Invocation;
+import io.servicecomb.core.definition.MicroserviceMeta;
+import io.servicecomb.core.definition.MicroserviceMetaManager;
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.serviceregistry.RegistryUtils;
+import io.servicecomb.swagger.invocation.Response;
+
+/**
+ * rest server定位operation的耗时与内存分配，分静态path与动态path两种请求
+ * 内存分配看gc.alloc.rate.norm
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestServerRoutingBenchmark {
+    static class Request extends LocalRestServerRequest implements RestServerRequestInternal {
+        private final String path;
+
+        private final String method;
+
+        Request(String path, String method) {
+            super(null, null, null, null);
+            this.path = path;
+            this.method = method;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public void setPathParamMap(Map<String, String> pathParamMap) {
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        @Override
+        public <T> T getHttpRequest() {
+            return null;
+        }
+    }
+
+    private AbstractRestServer<Response> restServer;
+
+    private Request staticRequest = new Request("/api/v1/orders", "GET");
+
+    private Request dynamicRequest = new Request("/api/v1/orders/1001/items/7", "GET");
+
+    @Setup
+    public void setup() {
+        ConfigUtil.installDynamicConfig();
+
+        MicroserviceMetaManager microserviceMetaManager = new MicroserviceMetaManager();
+        CseContext.getInstance().setMicroserviceMetaManager(microserviceMetaManager);
+        MicroserviceMeta microserviceMeta =
+            microserviceMetaManager.getOrCreateMicroserviceMeta(RegistryUtils.getMicroservice().getServiceName());
+
+        ServicePathManager servicePathManager = new ServicePathManager(microserviceMeta);
+        servicePathManager.addResource(createRestOperationMeta("GET", "api/v1/orders/"));
+        servicePathManager.addResource(createRestOperationMeta("GET", "api/v1/orders/{id}"));
+        servicePathManager.addResource(createRestOperationMeta("GET", "api/v1/orders/{id}/items/{itemId}"));
+        servicePathManager.sortPath();
+        servicePathManager.saveToMicroserviceMeta();
+
+        restServer = new AbstractRestServer<Response>() {
+            @Override
+            protected void doSendResponse(Response httpServerResponse, ProduceProcessor produceProcessor,
+                    Response response) throws Exception {
+            }
+
+            @Override
+            protected void setHttpRequestContext(Invocation invocation, RestServerRequestInternal restRequest) {
+            }
+        };
+    }
+
+    private RestOperationMeta createRestOperationMeta(String httpMethod, String path) {
+        OperationMeta operationMeta = new OperationMeta();
+        operationMeta.setHttpMethod(httpMethod);
+
+        RestOperationMeta restOperationMeta = new RestOperationMeta();
+        restOperationMeta.setOperationMeta(operationMeta);
+        restOperationMeta.setAbsolutePath(path);
+        return restOperationMeta;
+    }
+
+    @Benchmark
+    public RestOperationMeta staticPath() {
+        return restServer.findRestOperation(staticRequest);
+    }
+
+    @Benchmark
+    public RestOperationMeta dynamicPath() {
+        return restServer.findRestOperation(dynamicRequest);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(RestServerRoutingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -18,8 +18,13 @@ package io.servicecomb.common.rest;
 
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -27,13 +32,26 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import io.servicecomb.common.rest.codec.RestCodec;
+import io.servicecomb.common.rest.codec.RestServerRequest;
 import io.servicecomb.common.rest.codec.RestServerRequestInternal;
 import io.servicecomb.common.rest.codec.produce.ProduceProcessor;
+import io.servicecomb.common.rest.definition.RestOperationMeta;
+import io.servicecomb.common.rest.locator.ServicePathManager;
 import io.servicecomb.core.Const;
+import io.servicecomb.core.Endpoint;
 import io.servicecomb.core.Invocation;
 import io.servicecomb.core.Transport;
+import io.servicecomb.core.definition.MicroserviceMeta;
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.core.invocation.InvocationFactory;
+import io.servicecomb.core.invocation.InvocationPool;
 import io.servicecomb.foundation.common.utils.JsonUtils;
+import io.servicecomb.swagger.invocation.AsyncResponse;
 import io.servicecomb.swagger.invocation.Response;
+import mockit.Deencapsulation;
+import mockit.Mock;
+import mockit.MockUp;
 
 public class TestAbstractRestServer {
     private Invocation invocation;
@@ -42,6 +60,10 @@ public class TestAbstractRestServer {
 
     private AbstractRestServer<Response> restServer;
 
+    private List<Response> sentResponses = new ArrayList<>();
+
+    private int releaseCount;
+
     @Before
     public void before() throws Exception {
         invocation = Mockito.mock(Invocation.class);
@@ -50,6 +72,7 @@ public class TestAbstractRestServer {
             @Override
             protected void doSendResponse(Response httpServerResponse, ProduceProcessor produceProcessor,
                     Response response) throws Exception {
+                sentResponses.add(response);
             }
 
             @Override
@@ -94,4 +117,117 @@ public class TestAbstractRestServer {
         }
         Assert.assertFalse(status);
     }
+
+    @Test
+    public void testFindRestOperationFromProducer() {
+        MicroserviceMeta microserviceMeta = new MicroserviceMeta("app:ms");
+        Deencapsulation.setField(restServer,
+                "servicePathManagerRef",
+                ServicePathManager.getServicePathManagerRef(microserviceMeta));
+
+        ServicePathManager servicePathManager = new ServicePathManager(microserviceMeta);
+        RestOperationMeta staticOperation = createRestOperationMeta("GET", "static/");
+        RestOperationMeta dynamicOperation = createRestOperationMeta("GET", "dynamic/{id}");
+        servicePathManager.addResource(staticOperation);
+        servicePathManager.addResource(dynamicOperation);
+        servicePathManager.sortPath();
+        // schema加载完成后，已经持有的引用能看到新的路由表
+        servicePathManager.saveToMicroserviceMeta();
+
+        when(restRequest.getPath()).thenReturn("/static");
+        when(restRequest.getMethod()).thenReturn("GET");
+        Assert.assertSame(staticOperation, restServer.findRestOperation(restRequest));
+        Mockito.verify(restRequest).setPathParamMap(Collections.emptyMap());
+
+        Map<String, String> pathVarMap = new HashMap<>();
+        pathVarMap.put("id", "1");
+        when(restRequest.getPath()).thenReturn("/dynamic/1");
+        Assert.assertSame(dynamicOperation, restServer.findRestOperation(restRequest));
+        Mockito.verify(restRequest).setPathParamMap(pathVarMap);
+    }
+
+    private RestOperationMeta mockRunOnExecutor() {
+        new MockUp<RestCodec>() {
+            @Mock
+            Object[] restToArgs(RestServerRequest request, RestOperationMeta restOperation) {
+                return new Object[0];
+            }
+        };
+        new MockUp<InvocationFactory>() {
+            @Mock
+            Invocation forProvider(Endpoint endpoint, OperationMeta operationMeta, Object[] swaggerArguments) {
+                return invocation;
+            }
+        };
+        new MockUp<InvocationPool>() {
+            @Mock
+            void release(Invocation invocation) {
+                releaseCount++;
+            }
+        };
+
+        RestOperationMeta restOperation = Mockito.mock(RestOperationMeta.class);
+        when(restOperation.getOperationMeta()).thenReturn(Mockito.mock(OperationMeta.class));
+        when(restOperation.ensureFindProduceProcessor(Mockito.any()))
+                .thenReturn(Mockito.mock(ProduceProcessor.class));
+        return restOperation;
+    }
+
+    @Test
+    public void testReleaseWhenNextThrows() throws Exception {
+        RestOperationMeta restOperation = mockRunOnExecutor();
+        Mockito.doThrow(new IllegalStateException("next failed"))
+                .when(invocation)
+                .next(Mockito.any(AsyncResponse.class));
+
+        restServer.runOnExecutor(restRequest, restOperation, null, null);
+
+        Assert.assertEquals(1, sentResponses.size());
+        Assert.assertTrue(sentResponses.get(0).isFailed());
+        // transport与应答两个引用都要释放
+        Assert.assertEquals(2, releaseCount);
+    }
+
+    @Test
+    public void testReleaseWhenSetContextThrows() throws Exception {
+        RestOperationMeta restOperation = mockRunOnExecutor();
+        when(restRequest.getHeaderParam(Const.CSE_CONTEXT)).thenReturn("not json");
+
+        restServer.runOnExecutor(restRequest, restOperation, null, null);
+
+        Assert.assertEquals(1, sentResponses.size());
+        Assert.assertTrue(sentResponses.get(0).isFailed());
+        Assert.assertEquals(2, releaseCount);
+        Mockito.verify(invocation, Mockito.never()).next(Mockito.any(AsyncResponse.class));
+    }
+
+    @Test
+    public void testReleaseWhenResponseExecutorRejects() throws Exception {
+        RestOperationMeta restOperation = mockRunOnExecutor();
+        Mockito.doAnswer(invocationOnMock -> {
+            AsyncResponse asyncResp = invocationOnMock.getArgumentAt(0, AsyncResponse.class);
+            asyncResp.success("ok");
+            // 已经应答过，同步抛出的异常不能再应答一次
+            throw new IllegalStateException("next failed after response");
+        }).when(invocation).next(Mockito.any(AsyncResponse.class));
+        Executor responseExecutor = command -> {
+            throw new RejectedExecutionException("queue full");
+        };
+
+        restServer.runOnExecutor(restRequest, restOperation, null, responseExecutor);
+
+        Assert.assertEquals(1, sentResponses.size());
+        Assert.assertTrue(sentResponses.get(0).isFailed());
+        Assert.assertEquals(2, releaseCount);
+    }
+
+    private RestOperationMeta createRestOperationMeta(String httpMethod, String path) {
+        OperationMeta operationMeta = new OperationMeta();
+        operationMeta.setHttpMethod(httpMethod);
+
+        RestOperationMeta restOperationMeta = new RestOperationMeta();
+        restOperationMeta.setOperationMeta(operationMeta);
+        restOperationMeta.setAbsolutePath(path);
+        return restOperationMeta;
+    }
 }
@@ -18,6 +18,11 @@ package io.servicecomb.common.rest.codec.param;
 
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,6 +32,8 @@ import io.servicecomb.common.rest.codec.RestServerRequest;
 import io.servicecomb.swagger.generator.core.SwaggerConst;
 import io.servicecomb.foundation.vertx.stream.BufferInputStream;
 
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.swagger.models.parameters.BodyParameter;
 import io.vertx.core.buffer.Buffer;
 
@@ -55,4 +62,28 @@ public class TestBodyProcessor {
         Assert.assertEquals("abc", result);
     }
 
+    @Test
+    public void testReadFromBuffer() throws Exception {
+        BodyProcessorCreator bodyCreator =
+            (BodyProcessorCreator) ParamValueProcessorCreatorManager.INSTANCE.getBodyProcessorCreater();
+        bodyProcessor = bodyCreator.create(new BodyParameter(), List.class);
+
+        // 单块heap buffer，且readerIndex不为0
+        Buffer buffer = Buffer.buffer("xx[1,2]");
+        BufferInputStream inputStream = new BufferInputStream(buffer.getByteBuf());
+        inputStream.skip(2);
+        when(request.getBody()).thenReturn(inputStream);
+        Assert.assertEquals(Arrays.asList(1, 2), bodyProcessor.getValue(request));
+
+        // 多块组合的buffer
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, Unpooled.copiedBuffer("[3,", StandardCharsets.UTF_8));
+        composite.addComponent(true, Unpooled.copiedBuffer("4]", StandardCharsets.UTF_8));
+        when(request.getBody()).thenReturn(new BufferInputStream(composite));
+        Assert.assertEquals(Arrays.asList(3, 4), bodyProcessor.getValue(request));
+
+        // 普通stream
+        when(request.getBody()).thenReturn(new ByteArrayInputStream("[5]".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(Arrays.asList(5), bodyProcessor.getValue(request));
+    }
 }
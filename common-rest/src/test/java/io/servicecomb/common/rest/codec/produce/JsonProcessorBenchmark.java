@@ -0,0 +1,194 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.common.rest.codec.produce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+import io.servicecomb.common.rest.codec.RestObjectMapper;
+import io.servicecomb.foundation.vertx.stream.BufferInputStream;
+import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * 典型DTO（用户信息，含地址与10条订单，约1.5K）的json编解码
+ * mapper: 原来的做法，每次经过ObjectMapper查找serializer/deserializer，默认大小的buffer
+ * processor: ProduceJsonProcessor，缓存的writer/reader与估算的buffer大小
+ * afterburner: 在processor的基础上打开afterburner
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonProcessorBenchmark {
+    public static class Address {
+        public String country;
+
+        public String city;
+
+        public String street;
+
+        public String zipCode;
+    }
+
+    public static class Order {
+        public long orderId;
+
+        public String product;
+
+        public int quantity;
+
+        public double price;
+
+        public Date createTime;
+    }
+
+    public static class User {
+        public long id;
+
+        public String name;
+
+        public String email;
+
+        public int age;
+
+        public boolean vip;
+
+        public List<String> tags;
+
+        public Address address;
+
+        public List<Order> orders;
+    }
+
+    private User user;
+
+    private JavaType userType;
+
+    private Buffer encoded;
+
+    private ProduceJsonProcessor processor;
+
+    private ObjectWriter afterburnerWriter;
+
+    private ObjectReader afterburnerReader;
+
+    @Setup
+    public void setup() throws Exception {
+        user = new User();
+        user.id = 10001;
+        user.name = "benchmark user";
+        user.email = "user@servicecomb.io";
+        user.age = 30;
+        user.vip = true;
+        user.tags = Arrays.asList("new", "mobile", "north");
+        user.address = new Address();
+        user.address.country = "China";
+        user.address.city = "Shenzhen";
+        user.address.street = "Bantian";
+        user.address.zipCode = "518129";
+        user.orders = new ArrayList<>();
+        for (int idx = 0; idx < 10; idx++) {
+            Order order = new Order();
+            order.orderId = 20000 + idx;
+            order.product = "product-" + idx;
+            order.quantity = idx + 1;
+            order.price = 9.9 * (idx + 1);
+            order.createTime = new Date(1500000000000L + idx);
+            user.orders.add(order);
+        }
+
+        userType = RestObjectMapper.INSTANCE.constructType(User.class);
+        processor = (ProduceJsonProcessor) ProduceProcessorManager.JSON_PROCESSOR;
+        encoded = processor.encodeResponse(user);
+
+        ObjectMapper afterburnerMapper = new ObjectMapper();
+        afterburnerMapper.setDateFormat(RestObjectMapper.INSTANCE.getDateFormat());
+        afterburnerMapper.registerModule(new AfterburnerModule());
+        afterburnerWriter = afterburnerMapper.writerFor(User.class);
+        afterburnerReader = afterburnerMapper.readerFor(userType);
+    }
+
+    @Benchmark
+    public Buffer encodeMapper() throws Exception {
+        try (BufferOutputStream output = new BufferOutputStream()) {
+            RestObjectMapper.INSTANCE.writeValue(output, user);
+            return output.getBuffer();
+        }
+    }
+
+    @Benchmark
+    public Buffer encodeProcessor() throws Exception {
+        return processor.encodeResponse(user);
+    }
+
+    @Benchmark
+    public Buffer encodeAfterburner() throws Exception {
+        try (BufferOutputStream output = new BufferOutputStream(encoded.length(), false)) {
+            afterburnerWriter.writeValue(output, user);
+            return output.getBuffer();
+        }
+    }
+
+    @Benchmark
+    public Object decodeMapper() throws Exception {
+        return RestObjectMapper.INSTANCE.readValue(new BufferInputStream(encoded.getByteBuf()), userType);
+    }
+
+    @Benchmark
+    public Object decodeProcessor() throws Exception {
+        return processor.decodeResponse(encoded, userType);
+    }
+
+    @Benchmark
+    public Object decodeAfterburner() throws Exception {
+        return afterburnerReader.readValue(encoded.getBytes());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JsonProcessorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.common.rest.codec.produce;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
+import io.vertx.core.buffer.Buffer;
+
+public class TestProduceJsonProcessor {
+    private ProduceJsonProcessor processor = (ProduceJsonProcessor) ProduceProcessorManager.JSON_PROCESSOR;
+
+    private JavaType listType = TypeFactory.defaultInstance().constructCollectionType(List.class, Integer.class);
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        Buffer buffer = processor.encodeResponse(Arrays.asList(1, 2));
+        Assert.assertEquals("[1,2]", buffer.toString());
+        Assert.assertSame(processor.findWriterMeta(Arrays.asList(1, 2).getClass()),
+                processor.findWriterMeta(Arrays.asList(3).getClass()));
+
+        Assert.assertEquals(Arrays.asList(1, 2), processor.decodeResponse(buffer, listType));
+        Assert.assertSame(processor.findReader(listType), processor.findReader(listType));
+
+        Assert.assertNull(processor.encodeResponse(null));
+        Assert.assertNull(processor.decodeResponse(Buffer.buffer(), listType));
+
+        try (BufferOutputStream output = new BufferOutputStream()) {
+            processor.encodeResponse(output, null);
+            Assert.assertEquals("null", output.getBuffer().toString());
+        }
+    }
+
+    @Test
+    public void testDecodeComposite() throws Exception {
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, Unpooled.copiedBuffer("[3,", StandardCharsets.UTF_8));
+        composite.addComponent(true, Unpooled.copiedBuffer("4]", StandardCharsets.UTF_8));
+        Assert.assertEquals(Arrays.asList(3, 4), processor.decodeResponse(Buffer.buffer(composite), listType));
+    }
+}
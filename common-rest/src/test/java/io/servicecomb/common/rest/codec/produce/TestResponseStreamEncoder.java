@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.common.rest.codec.produce;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.netflix.config.ConfigurationManager;
+
+import io.vertx.core.buffer.Buffer;
+
+public class TestResponseStreamEncoder {
+    @After
+    public void teardown() {
+        ConfigurationManager.getConfigInstance().clearProperty(ResponseStreamEncoder.CHUNK_SIZE);
+    }
+
+    private String encodeAll(ResponseStreamEncoder encoder) throws Exception {
+        Buffer all = Buffer.buffer();
+        for (Buffer chunk = encoder.nextChunk(); chunk != null; chunk = encoder.nextChunk()) {
+            all.appendBuffer(chunk);
+        }
+        return all.toString();
+    }
+
+    @Test
+    public void testIsStream() {
+        Assert.assertTrue(ResponseStreamEncoder.isStream(Arrays.asList(1).iterator()));
+        Assert.assertTrue(ResponseStreamEncoder.isStream(Stream.of(1)));
+        Assert.assertFalse(ResponseStreamEncoder.isStream(Arrays.asList(1)));
+        Assert.assertFalse(ResponseStreamEncoder.isStream(null));
+    }
+
+    @Test
+    public void testJsonSameAsList() throws Exception {
+        ProduceProcessor processor = ProduceProcessorManager.JSON_PROCESSOR;
+        ResponseStreamEncoder encoder =
+            new ResponseStreamEncoder(processor, Arrays.asList("a", null, "c").iterator());
+        Assert.assertEquals(processor.encodeResponse(Arrays.asList("a", null, "c")).toString(), encodeAll(encoder));
+
+        encoder = new ResponseStreamEncoder(processor, Collections.emptyIterator());
+        Assert.assertEquals("[]", encodeAll(encoder));
+    }
+
+    @Test
+    public void testChunkSize() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(ResponseStreamEncoder.CHUNK_SIZE, 1);
+
+        ResponseStreamEncoder encoder =
+            new ResponseStreamEncoder(ProduceProcessorManager.JSON_PROCESSOR, Stream.of(1, 2, 3));
+        Assert.assertEquals("[1", encoder.nextChunk().toString());
+        Assert.assertEquals(",2", encoder.nextChunk().toString());
+        Assert.assertEquals(",3]", encoder.nextChunk().toString());
+        Assert.assertNull(encoder.nextChunk());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        ResponseStreamEncoder encoder = new ResponseStreamEncoder(ProduceProcessorManager.JSON_PROCESSOR,
+                Stream.of(1, 2).onClose(() -> closed.set(true)));
+        encoder.close();
+
+        Assert.assertTrue(closed.get());
+        Assert.assertNull(encoder.nextChunk());
+    }
+
+    @Test
+    public void testCloseWhileEncoding() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicBoolean closedWhileEncoding = new AtomicBoolean();
+        ResponseStreamEncoder[] holder = new ResponseStreamEncoder[1];
+        // 编码过程中连接断开，网络线程调用close
+        Stream<Integer> stream = Stream.of(1, 2, 3).peek(value -> {
+            holder[0].close();
+            closedWhileEncoding.compareAndSet(false, closed.get());
+        }).onClose(() -> closed.set(true));
+        holder[0] = new ResponseStreamEncoder(ProduceProcessorManager.JSON_PROCESSOR, stream);
+
+        Assert.assertNotNull(holder[0].nextChunk());
+        // 不能在编码过程中close，编码结束后由编码线程close
+        Assert.assertFalse(closedWhileEncoding.get());
+        Assert.assertTrue(closed.get());
+        Assert.assertNull(holder[0].nextChunk());
+    }
+
+    @Test
+    public void testTextPlain() throws Exception {
+        ResponseStreamEncoder encoder =
+            new ResponseStreamEncoder(ProduceProcessorManager.PLAIN_PROCESSOR, Stream.of(1, 2));
+        Assert.assertEquals("[1, 2]", encodeAll(encoder));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.common.rest.locator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.servicecomb.common.rest.definition.RestOperationMeta;
+import io.servicecomb.core.definition.MicroserviceMeta;
+import io.servicecomb.core.definition.OperationMeta;
+
+/**
+ * 40个资源，每个资源10个动态path的operation，共400个
+ * 比较原来按优先级逐个正则匹配与前缀树查找的耗时，请求path均匀分布在各个资源上
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationLocatorBenchmark {
+    private static final int RESOURCE_COUNT = 40;
+
+    private ServicePathManager servicePathManager;
+
+    private final List<String[]> requests = new ArrayList<>();
+
+    private int requestIdx;
+
+    @Setup
+    public void setup() {
+        servicePathManager = new ServicePathManager(new MicroserviceMeta("app:benchmark"));
+        for (int idx = 0; idx < RESOURCE_COUNT; idx++) {
+            String resource = "api/v1/resource" + idx;
+            addOperation("GET", resource + "/{id}");
+            addOperation("PUT", resource + "/{id}");
+            addOperation("DELETE", resource + "/{id}");
+            addOperation("GET", resource + "/{id}/items");
+            addOperation("POST", resource + "/{id}/items");
+            addOperation("GET", resource + "/{id}/items/{itemId}");
+            addOperation("DELETE", resource + "/{id}/items/{itemId}");
+            addOperation("GET", resource + "/{id}/tags/{tag}");
+            addOperation("GET", resource + "/search/{keyword}");
+            addOperation("GET", resource + "/files/{path : .+}");
+
+            requests.add(new String[] {resource + "/1001/", "GET"});
+            requests.add(new String[] {resource + "/1001/items/", "POST"});
+            requests.add(new String[] {resource + "/1001/items/7/", "DELETE"});
+            requests.add(new String[] {resource + "/1001/tags/hot/", "GET"});
+            requests.add(new String[] {resource + "/files/a/b/c.txt/", "GET"});
+        }
+        servicePathManager.sortPath();
+    }
+
+    private void addOperation(String httpMethod, String path) {
+        OperationMeta operationMeta = new OperationMeta();
+        operationMeta.setHttpMethod(httpMethod);
+
+        RestOperationMeta restOperationMeta = new RestOperationMeta();
+        restOperationMeta.setOperationMeta(operationMeta);
+        restOperationMeta.setAbsolutePath(path);
+        servicePathManager.addResource(restOperationMeta);
+    }
+
+    private String[] nextRequest() {
+        requestIdx = (requestIdx + 1) % requests.size();
+        return requests.get(requestIdx);
+    }
+
+    @Benchmark
+    public RestOperationMeta regExpList() {
+        String[] request = nextRequest();
+        return new OperationLocator().locateDynamicPathOperation(request[0],
+                servicePathManager.getDynamicPathOperationList(),
+                request[1]);
+    }
+
+    @Benchmark
+    public RestOperationMeta tree() {
+        String[] request = nextRequest();
+        return servicePathManager.getDynamicPathTree().locate(new OperationLocator(), request[0], request[1]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(OperationLocatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
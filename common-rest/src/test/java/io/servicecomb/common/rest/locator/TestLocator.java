@@ -16,7 +16,10 @@
 
 package io.servicecomb.common.rest.locator;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import io.servicecomb.common.rest.definition.RestOperationMeta;
 import org.junit.Assert;
@@ -104,6 +107,88 @@ public class TestLocator {
         Assert.assertEquals(Collections.emptyMap(), locator.getPathVarMap());
     }
 
+    @Test
+    public void testLocateDynamicTree() {
+        MicroserviceMeta msm = new MicroserviceMeta("app:ms");
+        ServicePathManager spm = new ServicePathManager(msm);
+        spm.addResource(createRestOperatonMeta("GET", "customers/{id}"));
+        spm.addResource(createRestOperatonMeta("GET", "customers/{id}/address"));
+        spm.addResource(createRestOperatonMeta("GET", "customers/{id}/{name}/address"));
+        spm.addResource(createRestOperatonMeta("GET", "customers/{id : .+}/address"));
+        spm.addResource(createRestOperatonMeta("PUT", "customers/{id : .+}"));
+        spm.addResource(createRestOperatonMeta("GET", "customers/v{version}/{id}"));
+        spm.addResource(createRestOperatonMeta("GET", "orders/{orderId}/items/{id}"));
+        spm.sortPath();
+        Assert.assertNotNull(spm.getDynamicPathTree());
+
+        // 静态字符数、变量数相同时，带正则表达式的优先
+        OperationLocator locator = spm.locateOperation("/customers/1/address", "GET");
+        Assert.assertEquals("customers/{id : .+}/address", locator.getOperation().getAbsolutePath());
+        Assert.assertEquals("1", locator.getPathVarMap().get("id"));
+
+        locator = spm.locateOperation("/customers/1/tom/address", "GET");
+        Assert.assertEquals("customers/{id}/{name}/address", locator.getOperation().getAbsolutePath());
+        Assert.assertEquals("tom", locator.getPathVarMap().get("name"));
+
+        // 跨段的正则表达式
+        locator = spm.locateOperation("/customers/1/2/3/address", "GET");
+        Assert.assertEquals("customers/{id : .+}/address", locator.getOperation().getAbsolutePath());
+        Assert.assertEquals("1/2/3", locator.getPathVarMap().get("id"));
+
+        locator = spm.locateOperation("/customers/1/2", "PUT");
+        Assert.assertEquals("customers/{id : .+}", locator.getOperation().getAbsolutePath());
+
+        // 一段中有静态字符和变量
+        locator = spm.locateOperation("/customers/v2/1", "GET");
+        Assert.assertEquals("customers/v{version}/{id}", locator.getOperation().getAbsolutePath());
+        Assert.assertEquals("2", locator.getPathVarMap().get("version"));
+
+        locator = spm.locateOperation("/orders/3/items/4", "GET");
+        Assert.assertEquals("3", locator.getPathVarMap().get("orderId"));
+        Assert.assertEquals("4", locator.getPathVarMap().get("id"));
+
+        try {
+            spm.locateOperation("/orders/3/items/4", "POST");
+            Assert.fail();
+        } catch (InvocationException e) {
+            Assert.assertEquals("Method Not Allowed", ((CommonExceptionData) e.getErrorData()).getMessage());
+        }
+
+        try {
+            spm.locateOperation("/orders/3/items", "GET");
+            Assert.fail();
+        } catch (InvocationException e) {
+            Assert.assertEquals("Not Found", ((CommonExceptionData) e.getErrorData()).getMessage());
+        }
+    }
+
+    @Test
+    public void testDynamicTreeSameAsRegExp() {
+        MicroserviceMeta msm = new MicroserviceMeta("app:ms");
+        ServicePathManager spm = new ServicePathManager(msm);
+        for (String path : Arrays.asList("a/{x}", "a/{x}/b", "a/b/{x}", "a/{x}/{y}", "a/{x:.+}", "{x}/b",
+                "{x}/{y}/c", "a/{x:[0-9]+}/b", "a/{x}/b/{y}")) {
+            spm.addResource(createRestOperatonMeta("GET", path));
+        }
+        spm.sortPath();
+
+        for (String path : Arrays.asList("a/1/", "a/1/b/", "a/b/1/", "a/b/b/", "a/1/2/", "a/1/2/3/", "c/b/",
+                "1/2/c/", "a/12/b/", "a/1/b/2/", "a/b/", "x/", "a//b/")) {
+            Map<String, String> expectVars = new HashMap<>();
+            OperationLocator expect = new OperationLocator();
+            RestOperationMeta expectOperation =
+                expect.locateDynamicPathOperation(path, spm.getDynamicPathOperationList(), "GET");
+
+            OperationLocator locator = new OperationLocator();
+            RestOperationMeta operation = spm.getDynamicPathTree().locate(locator, path, "GET");
+            Assert.assertSame(path, expectOperation, operation);
+            if (operation != null) {
+                operation.getAbsolutePathRegExp().match(path, expectVars);
+                Assert.assertEquals(path, expectVars, locator.getPathVarMap());
+            }
+        }
+    }
+
     protected RestOperationMeta createRestOperatonMeta(String httpMethod, String path) {
         OperationMeta om = new OperationMeta();
         om.setHttpMethod(httpMethod);
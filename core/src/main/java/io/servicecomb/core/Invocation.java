@@ -16,19 +16,31 @@
 
 package io.servicecomb.core;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import javax.ws.rs.core.Response.Status;
 
 import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.core.definition.SchemaMeta;
+import io.servicecomb.core.handler.ResponseHandler;
 import io.servicecomb.core.provider.consumer.ReferenceConfig;
 import io.servicecomb.swagger.invocation.AsyncResponse;
 import io.servicecomb.swagger.invocation.InvocationType;
+import io.servicecomb.swagger.invocation.Response;
 import io.servicecomb.swagger.invocation.SwaggerInvocation;
+import io.servicecomb.swagger.invocation.context.ContextUtils;
+import io.servicecomb.swagger.invocation.context.InvocationContext;
 
 public class Invocation extends SwaggerInvocation {
+    private static final AtomicIntegerFieldUpdater<Invocation> POOL_REFS_UPDATER =
+        AtomicIntegerFieldUpdater.newUpdater(Invocation.class, "poolRefs");
+
     private ReferenceConfig referenceConfig;
 
     // 本次调用对应的schemaMeta
@@ -42,17 +54,40 @@ public class Invocation extends SwaggerInvocation {
     private Endpoint endpoint;
 
     // 只用于handler之间传递数据，是本地数据
-    private Map<String, Object> handlerContext = new HashMap<>();
+    // 大多数调用用不到，使用时才创建
+    private Map<String, Object> handlerContext;
 
     // handler链，是arrayList，可以高效地通过index访问
     private List<Handler> handlerList;
 
     private int handlerIndex;
 
+    // 以下用于实现了ResponseHandler的handler，效果与逐层闭包包装asyncResp相同
+    // 每个bit对应链中一个等待应答的handler，应答时从下标最大的开始回调
+    private long pendingMask;
+
+    // 所有ResponseHandler共用的回调，使用时才创建
+    private AsyncResponse responseUnwinder;
+
+    // 上游的asyncResp就是responseUnwinder时不必保存
+    // 通常只有链的入口需要保存，用单独的字段，其他的才需要数组
+    private int entryIndex = -1;
+
+    private AsyncResponse entryUpstream;
+
+    private AsyncResponse[] upstreamResponses;
+
     // 应答的处理器
     // 同步模式：避免应答在网络线程中处理解码等等业务级逻辑
     private Executor responseExecutor;
 
+    // 调用的截止时间，基于System.nanoTime()，0表示未设置
+    // 同步等待与transport的超时都以此为准，避免多段超时叠加
+    private long deadline;
+
+    // 由InvocationPool管理，池化的invocation在引用计数归0时回收，0表示未池化
+    private volatile int poolRefs;
+
     public Invocation(ReferenceConfig referenceConfig, OperationMeta operationMeta, Object[] swaggerArguments) {
         this.invocationType = InvocationType.CONSUMER;
         this.referenceConfig = referenceConfig;
@@ -73,6 +108,97 @@ public class Invocation extends SwaggerInvocation {
         handlerIndex = 0;
     }
 
+    /**
+     * 回收复用时使用，恢复到与new Invocation(endpoint, operationMeta, swaggerArguments)相同的状态
+     */
+    public void resetForProvider(Endpoint endpoint, OperationMeta operationMeta, Object[] swaggerArguments) {
+        this.invocationType = InvocationType.PRODUCER;
+        this.referenceConfig = null;
+        this.endpoint = endpoint;
+        this.httpStatus = Status.OK;
+        // context可能被transport替换成了其他map，甚至是null
+        if (context == null) {
+            context = new HashMap<>();
+        } else {
+            context.clear();
+        }
+        InvocationContext threadContext = ContextUtils.getInvocationContext();
+        if (threadContext != null) {
+            addContext(threadContext.getContext());
+        }
+
+        if (handlerContext != null) {
+            handlerContext.clear();
+        }
+        pendingMask = 0;
+        entryIndex = -1;
+        entryUpstream = null;
+        if (upstreamResponses != null) {
+            Arrays.fill(upstreamResponses, null);
+        }
+        responseExecutor = null;
+        deadline = 0;
+        streamResponse = false;
+        init(operationMeta, swaggerArguments);
+    }
+
+    /**
+     * consumer端同时向多个server发送同一个请求时（比如hedge），每个请求使用独立的invocation
+     * 参数共用，context、handlerContext复制一份，handler下标、endpoint、应答回调等状态各自独立
+     */
+    public Invocation fork() {
+        Invocation fork = new Invocation(referenceConfig, operationMeta, swaggerArguments);
+        fork.context = context == null ? null : new HashMap<>(context);
+        if (handlerContext != null) {
+            fork.handlerContext = new HashMap<>(handlerContext);
+        }
+        fork.handlerIndex = handlerIndex;
+        fork.responseExecutor = responseExecutor;
+        fork.deadline = deadline;
+        return fork;
+    }
+
+    /**
+     * leak-detection模式下回收时调用，置空所有引用，回收后仍被误用时立即失败，而不是读到其他请求的数据
+     */
+    public void poison() {
+        this.invocationType = null;
+        this.referenceConfig = null;
+        this.schemaMeta = null;
+        this.operationMeta = null;
+        this.endpoint = null;
+        this.swaggerArguments = null;
+        this.context = null;
+        this.httpStatus = null;
+        this.handlerContext = null;
+        this.handlerList = null;
+        this.handlerIndex = -1;
+        this.pendingMask = 0;
+        this.responseUnwinder = null;
+        this.entryIndex = -1;
+        this.entryUpstream = null;
+        this.upstreamResponses = null;
+        this.responseExecutor = null;
+        this.deadline = 0;
+        this.streamResponse = false;
+    }
+
+    /**
+     * 以下由InvocationPool调用
+     */
+    public void setPoolRefs(int refs) {
+        this.poolRefs = refs;
+    }
+
+    public boolean isPooled() {
+        return poolRefs != 0;
+    }
+
+    // 返回剩余的引用数
+    public int releasePoolRef() {
+        return POOL_REFS_UPDATER.decrementAndGet(this);
+    }
+
     public Transport getTransport() {
         return endpoint.getTransport();
     }
@@ -90,6 +216,27 @@ public class Invocation extends SwaggerInvocation {
         this.responseExecutor = responseExecutor;
     }
 
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * 距离截止时间的剩余毫秒数，未设置截止时间时返回msDefault
+     * 已超时也至少返回1，由transport按超时处理
+     */
+    public long getRemainingTimeout(long msDefault) {
+        if (deadline == 0) {
+            return msDefault;
+        }
+
+        long msRemaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        return Math.max(msRemaining, 1);
+    }
+
     public SchemaMeta getSchemaMeta() {
         return schemaMeta;
     }
@@ -111,6 +258,9 @@ public class Invocation extends SwaggerInvocation {
     }
 
     public Map<String, Object> getHandlerContext() {
+        if (handlerContext == null) {
+            handlerContext = new HashMap<>();
+        }
         return handlerContext;
     }
 
@@ -129,6 +279,83 @@ public class Invocation extends SwaggerInvocation {
         handlerList.get(runIndex).handle(this, asyncResp);
     }
 
+    /**
+     * 由实现了ResponseHandler的handler调用，应答时回调responseHandler.onResponse
+     * 大多数场景下，一次调用无论有多少个ResponseHandler，只需要创建一个回调对象
+     */
+    public void next(ResponseHandler responseHandler, AsyncResponse asyncResp) throws Exception {
+        int currentIndex = handlerIndex - 1;
+        if (currentIndex >= Long.SIZE || handlerList.get(currentIndex) != responseHandler) {
+            next(resp -> responseHandler.onResponse(this, resp, asyncResp));
+            return;
+        }
+
+        if (responseUnwinder == null) {
+            responseUnwinder = this::unwindResponse;
+        }
+        if (asyncResp != responseUnwinder) {
+            saveUpstream(currentIndex, asyncResp);
+        }
+        pendingMask |= 1L << currentIndex;
+
+        try {
+            // 与next(asyncResp)相同，直接展开以减少调用层次
+            int runIndex = handlerIndex;
+            handlerIndex++;
+            handlerList.get(runIndex).handle(this, responseUnwinder);
+        } catch (Throwable e) {
+            // 同步抛出的异常由上游处理，不会再走应答流程
+            pendingMask &= ~(1L << currentIndex);
+            takeUpstream(currentIndex);
+            throw e;
+        }
+    }
+
+    private void saveUpstream(int index, AsyncResponse upstream) {
+        if (entryIndex < 0 || entryIndex == index) {
+            entryIndex = index;
+            entryUpstream = upstream;
+            return;
+        }
+
+        if (upstreamResponses == null) {
+            upstreamResponses = new AsyncResponse[Math.min(handlerList.size(), Long.SIZE)];
+        } else if (upstreamResponses.length <= index) {
+            // 回收复用时，数组可能是按上一个operation的handler链分配的，扩容时保留已保存的upstream
+            upstreamResponses = Arrays.copyOf(upstreamResponses, Math.min(handlerList.size(), Long.SIZE));
+        }
+        upstreamResponses[index] = upstream;
+    }
+
+    private AsyncResponse takeUpstream(int index) {
+        if (entryIndex == index) {
+            entryIndex = -1;
+            AsyncResponse upstream = entryUpstream;
+            entryUpstream = null;
+            return upstream;
+        }
+
+        if (upstreamResponses != null && upstreamResponses[index] != null) {
+            AsyncResponse upstream = upstreamResponses[index];
+            upstreamResponses[index] = null;
+            return upstream;
+        }
+
+        return responseUnwinder;
+    }
+
+    private void unwindResponse(Response response) {
+        if (pendingMask == 0) {
+            throw new IllegalStateException("no pending response handler for " + getMicroserviceQualifiedName());
+        }
+
+        // 应答总是先到达链中位置最靠后的handler
+        int idx = Long.SIZE - 1 - Long.numberOfLeadingZeros(pendingMask);
+        pendingMask &= ~(1L << idx);
+        AsyncResponse upstream = takeUpstream(idx);
+        ((ResponseHandler) handlerList.get(idx)).onResponse(this, response, upstream);
+    }
+
     public String getSchemaId() {
         return schemaMeta.getSchemaId();
     }
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.ws.rs.core.Response.Status;
+
+import com.netflix.config.DynamicPropertyFactory;
+
+import io.servicecomb.swagger.invocation.exception.InvocationException;
+
+/**
+ * 有界队列的线程池，用于将指定的schema/operation与其他operation隔离，避免慢的operation拖垮所有operation
+ * 通过cse.executors.Provider.{schemaQualifiedName或schemaId}=cse.executor.bounded启用，每个配置项对应一个独立的实例
+ *
+ * 队列满或者排队时间超过max-queue-wait-ms时，RejectableTask直接以503应答，不再调用业务
+ */
+public class BoundedQueueExecutor implements Executor {
+    public static final String TYPE = "cse.executor.bounded";
+
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    private final String name;
+
+    private final ThreadPoolExecutor pool;
+
+    private final long nsMaxQueueWait;
+
+    private final LongAdder executedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder shedCount = new LongAdder();
+
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    class QueuedTask implements Runnable {
+        private final Runnable command;
+
+        private final long nsEnqueue = System.nanoTime();
+
+        QueuedTask(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            long nsWait = System.nanoTime() - nsEnqueue;
+            queueWaitNanos.add(nsWait);
+
+            if (nsMaxQueueWait > 0 && nsWait > nsMaxQueueWait && command instanceof RejectableTask) {
+                shedCount.increment();
+                ((RejectableTask) command).reject(createRejectException("queue wait timeout"));
+                return;
+            }
+
+            executedCount.increment();
+            command.run();
+        }
+    }
+
+    public BoundedQueueExecutor(String name) {
+        this(name, getIntProperty(name, "thread-count", Runtime.getRuntime().availableProcessors()),
+                getIntProperty(name, "queue-size", DEFAULT_QUEUE_SIZE),
+                getIntProperty(name, "max-queue-wait-ms", 0));
+    }
+
+    public BoundedQueueExecutor(String name, int threadCount, int queueSize, long msMaxQueueWait) {
+        this.name = name;
+        this.nsMaxQueueWait = TimeUnit.MILLISECONDS.toNanos(msMaxQueueWait);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> new Thread(r, "cse-executor-" + name + "-" + threadIndex.getAndIncrement()));
+    }
+
+    // 优先使用cse.executor.bounded.{name}.{key}，其次cse.executor.bounded.{key}
+    private static int getIntProperty(String name, String key, int defaultValue) {
+        DynamicPropertyFactory factory = DynamicPropertyFactory.getInstance();
+        int value = factory.getIntProperty(TYPE + "." + key, defaultValue).get();
+        return factory.getIntProperty(TYPE + "." + name + "." + key, value).get();
+    }
+
+    private InvocationException createRejectException(String reason) {
+        return new InvocationException(Status.SERVICE_UNAVAILABLE,
+                String.format("executor %s is busy, %s.", name, reason));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            pool.execute(new QueuedTask(command));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            if (command instanceof RejectableTask) {
+                ((RejectableTask) command).reject(createRejectException("queue is full"));
+                return;
+            }
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+
+    public long getQueueWaitTime(TimeUnit unit) {
+        return unit.convert(queueWaitNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.executor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.config.DynamicLongProperty;
+import com.netflix.config.DynamicPropertyFactory;
+
+import io.vertx.core.Context;
+
+/**
+ * reactive模式下，业务直接在网络线程中执行，任何阻塞都会拖慢该线程上的所有连接
+ * 这里检测两类问题并记录：
+ * 1.在网络线程中发起同步调用
+ * 2.在网络线程中单次执行时间超过阈值
+ * 同一个位置只打印一次日志，避免刷屏，次数通过计数器体现
+ */
+public final class EventLoopBlockingDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLoopBlockingDetector.class);
+
+    private static final AtomicLong SYNC_INVOKE_COUNT = new AtomicLong();
+
+    private static final AtomicLong SLOW_EXECUTE_COUNT = new AtomicLong();
+
+    private static final Set<String> REPORTED = ConcurrentHashMap.newKeySet();
+
+    private static final DynamicLongProperty BLOCK_THRESHOLD_MS =
+        DynamicPropertyFactory.getInstance().getLongProperty("cse.executors.reactive.block-threshold-ms", 100);
+
+    private EventLoopBlockingDetector() {
+    }
+
+    public static boolean isOnEventLoop() {
+        return Context.isOnEventLoopThread();
+    }
+
+    public static long getBlockThresholdMillis() {
+        return BLOCK_THRESHOLD_MS.get();
+    }
+
+    /**
+     * 在网络线程中同步等待应答，网络线程会被阻塞直到应答返回
+     */
+    public static void onSyncInvoke(String microserviceQualifiedName) {
+        SYNC_INVOKE_COUNT.incrementAndGet();
+        if (REPORTED.add("sync:" + microserviceQualifiedName)) {
+            LOGGER.warn("sync invoke {} in event loop thread {}, this will block the event loop.",
+                    microserviceQualifiedName,
+                    Thread.currentThread().getName(),
+                    new Exception("blocking call stack"));
+        }
+    }
+
+    public static void checkExecuteTime(Object task, long nsStart) {
+        long msUsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nsStart);
+        if (msUsed < getBlockThresholdMillis()) {
+            return;
+        }
+
+        SLOW_EXECUTE_COUNT.incrementAndGet();
+        String taskName = getTaskName(task);
+        if (REPORTED.add("slow:" + taskName)) {
+            LOGGER.warn("{} blocked event loop thread {} for {} ms.",
+                    taskName,
+                    Thread.currentThread().getName(),
+                    msUsed);
+        }
+    }
+
+    // 业务任务通过toString给出operation名字，lambda之类的类名没有意义
+    public static String getTaskName(Object task) {
+        if (task instanceof RejectableTask) {
+            return task.toString();
+        }
+        return task.getClass().getName();
+    }
+
+    public static long getSyncInvokeCount() {
+        return SYNC_INVOKE_COUNT.get();
+    }
+
+    public static long getSlowExecuteCount() {
+        return SLOW_EXECUTE_COUNT.get();
+    }
+}
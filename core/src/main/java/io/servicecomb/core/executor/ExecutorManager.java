@@ -16,6 +16,9 @@
 
 package io.servicecomb.core.executor;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 import io.servicecomb.core.definition.OperationMeta;
@@ -23,23 +26,26 @@ import io.servicecomb.foundation.common.utils.BeanUtils;
 import com.netflix.config.DynamicPropertyFactory;
 
 public final class ExecutorManager {
+    // key为配置项中的名字，同一个配置项下的operation共用一个实例
+    private static final Map<String, BoundedQueueExecutor> BOUNDED_EXECUTORS = new ConcurrentHashMap<>();
+
     private ExecutorManager() {
     }
 
     // 只会在初始化时执行，一点点重复的查找，没必要做缓存
     public static Executor findExecutor(OperationMeta operationMeta) {
-        Executor executor = findByKey("cse.executors.Provider." + operationMeta.getSchemaQualifiedName());
+        Executor executor = findByKey("cse.executors.Provider.", operationMeta.getSchemaQualifiedName());
         if (executor != null) {
             return executor;
         }
 
         // 尝试schema级别
-        executor = findByKey("cse.executors.Provider." + operationMeta.getSchemaMeta().getName());
+        executor = findByKey("cse.executors.Provider.", operationMeta.getSchemaMeta().getName());
         if (executor != null) {
             return executor;
         }
 
-        executor = findByKey("cse.executors.default");
+        executor = findByKey("cse.executors.", "default");
         if (executor != null) {
             return executor;
         }
@@ -47,13 +53,20 @@ public final class ExecutorManager {
         return BeanUtils.getBean("cse.executor.default");
     }
 
-    protected static Executor findByKey(String beanIdKey) {
-        String beanId = DynamicPropertyFactory.getInstance().getStringProperty(beanIdKey, null).get();
-        if (beanId != null) {
-            return BeanUtils.getBean(beanId);
+    protected static Executor findByKey(String prefix, String name) {
+        String beanId = DynamicPropertyFactory.getInstance().getStringProperty(prefix + name, null).get();
+        if (beanId == null) {
+            return null;
+        }
+
+        if (BoundedQueueExecutor.TYPE.equals(beanId)) {
+            return BOUNDED_EXECUTORS.computeIfAbsent(name, BoundedQueueExecutor::new);
         }
+        return BeanUtils.getBean(beanId);
+    }
 
-        return null;
+    public static Collection<BoundedQueueExecutor> getBoundedExecutors() {
+        return BOUNDED_EXECUTORS.values();
     }
 
 }
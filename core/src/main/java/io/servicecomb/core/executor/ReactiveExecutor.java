@@ -20,12 +20,23 @@ import java.util.concurrent.Executor;
 
 /**
  * 用于在verticle中就地执行，不做多余的调度，这是性能最高的一种模型
+ * 只适用于非阻塞的operation，在网络线程中执行超时会被EventLoopBlockingDetector记录
  */
 public class ReactiveExecutor implements Executor {
 
     @Override
     public void execute(Runnable command) {
-        command.run();
+        if (!EventLoopBlockingDetector.isOnEventLoop()) {
+            command.run();
+            return;
+        }
+
+        long nsStart = System.nanoTime();
+        try {
+            command.run();
+        } finally {
+            EventLoopBlockingDetector.checkExecuteTime(command, nsStart);
+        }
     }
 
 }
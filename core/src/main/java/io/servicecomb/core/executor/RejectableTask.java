@@ -0,0 +1,28 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.executor;
+
+import io.servicecomb.swagger.invocation.exception.InvocationException;
+
+/**
+ * 提交给executor的任务，如果被executor拒绝（队列满、排队超时），通过reject通知任务直接应答
+ * 避免请求在不可能及时处理的情况下仍然进入业务流程
+ * toString返回operation的名字，用于日志中定位业务
+ */
+public interface RejectableTask extends Runnable {
+    void reject(InvocationException e);
+}
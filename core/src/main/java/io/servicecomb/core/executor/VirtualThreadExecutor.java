@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.executor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 每个任务一个虚拟线程，适用于业务中有大量阻塞操作（比如JDBC）且需要很高并发的场景
+ * 通过cse.executors.Provider.*或cse.executors.default配置为cse.executor.virtual启用
+ *
+ * 虚拟线程需要JDK21及以上，框架本身以JDK8编译，所以通过反射创建
+ * 运行在不支持虚拟线程的JDK上时，退化为FixedThreadExecutor
+ */
+public class VirtualThreadExecutor implements Executor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadExecutor.class);
+
+    // 配置了虚拟线程却退化为线程池，必须让使用者知道，但每个进程只打印一次
+    private static final AtomicBoolean FALLBACK_LOGGED = new AtomicBoolean();
+
+    private final Executor executor;
+
+    private final boolean virtual;
+
+    public VirtualThreadExecutor() {
+        ExecutorService virtualExecutor = createVirtualExecutor();
+        if (virtualExecutor != null) {
+            executor = virtualExecutor;
+            virtual = true;
+            return;
+        }
+
+        executor = new FixedThreadExecutor();
+        virtual = false;
+    }
+
+    private static ExecutorService createVirtualExecutor() {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            if (FALLBACK_LOGGED.compareAndSet(false, true)) {
+                LOGGER.warn("virtual thread is not supported by current jdk {}, use FixedThreadExecutor instead.",
+                        System.getProperty("java.version"));
+            }
+            return null;
+        }
+
+        try {
+            return (ExecutorService) method.invoke(null);
+        } catch (Throwable e) {
+            if (FALLBACK_LOGGED.compareAndSet(false, true)) {
+                LOGGER.warn("failed to create virtual thread executor, use FixedThreadExecutor instead.", e);
+            }
+            return null;
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.handler;
+
+import io.servicecomb.core.Invocation;
+import io.servicecomb.swagger.invocation.AsyncResponse;
+import io.servicecomb.swagger.invocation.Response;
+
+/**
+ * handler需要在应答流程中做处理时，可以实现此接口，并在handle中调用invocation.next(this, asyncResp)
+ * 应答时由invocation回调onResponse，不必每次调用都创建一个闭包来包装asyncResp
+ */
+public interface ResponseHandler {
+    /**
+     * @param asyncResp 调用invocation.next(this, asyncResp)时传入的asyncResp，处理完后需要调用它继续应答流程
+     */
+    void onResponse(Invocation invocation, Response response, AsyncResponse asyncResp);
+}
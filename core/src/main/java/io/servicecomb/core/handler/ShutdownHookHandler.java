@@ -30,7 +30,7 @@ import org.slf4j.LoggerFactory;
 /**
  * 实现调用链的优雅停止： 当调用链没有返回的时候，等待返回或者超时
  */
-public final class ShutdownHookHandler extends AbstractHandler implements Runnable {
+public final class ShutdownHookHandler extends AbstractHandler implements ResponseHandler, Runnable {
     private static final Logger LOG = LoggerFactory.getLogger(ShutdownHookHandler.class);
 
     public static final ShutdownHookHandler INSTANCE = new ShutdownHookHandler();
@@ -65,21 +65,22 @@ public final class ShutdownHookHandler extends AbstractHandler implements Runnab
         //      下面的两次catch，可能会导致一次请求，对应2次应答
         requestCounter.incrementAndGet();
         try {
-            invocation.next(resp -> {
-                try {
-                    asyncResp.handle(resp);
-                    responseCounter.incrementAndGet();
-                } catch (Throwable e) {
-                    responseCounter.incrementAndGet();
-                    throw e;
-                }
-            });
+            invocation.next(this, asyncResp);
         } catch (Throwable e) {
             responseCounter.incrementAndGet();
             throw e;
         }
     }
 
+    @Override
+    public void onResponse(Invocation invocation, Response response, AsyncResponse asyncResp) {
+        try {
+            asyncResp.handle(response);
+        } finally {
+            responseCounter.incrementAndGet();
+        }
+    }
+
     @Override
     public void run() {
         shuttingDown = true;
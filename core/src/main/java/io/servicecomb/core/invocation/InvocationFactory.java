@@ -78,10 +78,15 @@ public final class InvocationFactory {
 
     /**
      * transport server收到请求时，创建invocation
+     * transport开启了池化时，从InvocationPool中获取，应答发送后由transport通过InvocationPool.release回收
      */
     public static Invocation forProvider(Endpoint endpoint,
             OperationMeta operationMeta,
             Object[] swaggerArguments) {
+        if (InvocationPool.isEnabled(endpoint)) {
+            return InvocationPool.acquire(endpoint, operationMeta, swaggerArguments);
+        }
+
         return new Invocation(endpoint,
                 operationMeta,
                 swaggerArguments);
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.invocation;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.config.DynamicBooleanProperty;
+import com.netflix.config.DynamicPropertyFactory;
+
+import io.servicecomb.core.Endpoint;
+import io.servicecomb.core.Invocation;
+import io.servicecomb.core.definition.OperationMeta;
+
+/**
+ * provider端invocation的回收复用，按transport开启：cse.invocation.pool.{transportName}.enabled
+ *
+ * 池化的invocation有两个引用：
+ * 1.transport发起invocation.next的流程，next返回后释放
+ * 2.应答流程，应答发送后释放
+ * 两者都释放后才回收，所以同步、异步的producer都是安全的
+ * 约束：handler与producer在应答之后，不能再访问invocation
+ *
+ * 每个线程缓存一定数量的invocation，取用与回收都不需要加锁
+ * 开启cse.invocation.pool.leak-detection后，长时间未回收的invocation会打印出获取时的调用栈
+ * 并且回收的invocation会被置空后丢弃，不再复用，回收后仍被访问时立即失败
+ */
+public final class InvocationPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvocationPool.class);
+
+    private static final int POOL_REFS = 2;
+
+    private static final Map<String, DynamicBooleanProperty> ENABLED = new ConcurrentHashMap<>();
+
+    private static final int THREAD_CACHE_SIZE = DynamicPropertyFactory.getInstance()
+            .getIntProperty("cse.invocation.pool.thread-cache-size", 64)
+            .get();
+
+    private static final DynamicBooleanProperty LEAK_DETECTION = DynamicPropertyFactory.getInstance()
+            .getBooleanProperty("cse.invocation.pool.leak-detection", false);
+
+    private static final long NS_LEAK_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(DynamicPropertyFactory.getInstance()
+            .getLongProperty("cse.invocation.pool.leak-threshold-ms", 60000)
+            .get());
+
+    private static final ThreadLocal<ArrayDeque<Invocation>> THREAD_CACHE =
+        ThreadLocal.withInitial(() -> new ArrayDeque<>(THREAD_CACHE_SIZE));
+
+    private static final Map<Invocation, LeakRecord> IN_USE = new ConcurrentHashMap<>();
+
+    private static final AtomicLong NEXT_LEAK_CHECK = new AtomicLong(System.nanoTime());
+
+    static class LeakRecord {
+        final long nsAcquire = System.nanoTime();
+
+        final Throwable stack = new Throwable("invocation acquired here");
+    }
+
+    private InvocationPool() {
+    }
+
+    public static boolean isEnabled(Endpoint endpoint) {
+        if (endpoint == null || endpoint.getTransport() == null || endpoint.getTransport().getName() == null) {
+            return false;
+        }
+
+        return ENABLED.computeIfAbsent(endpoint.getTransport().getName(),
+                name -> DynamicPropertyFactory.getInstance()
+                        .getBooleanProperty("cse.invocation.pool." + name + ".enabled", false))
+                .get();
+    }
+
+    public static Invocation acquire(Endpoint endpoint, OperationMeta operationMeta, Object[] swaggerArguments) {
+        Invocation invocation = THREAD_CACHE.get().pollFirst();
+        if (invocation == null) {
+            invocation = new Invocation(endpoint, operationMeta, swaggerArguments);
+        } else {
+            invocation.resetForProvider(endpoint, operationMeta, swaggerArguments);
+        }
+        invocation.setPoolRefs(POOL_REFS);
+
+        if (LEAK_DETECTION.get()) {
+            IN_USE.put(invocation, new LeakRecord());
+            checkLeak();
+        }
+        return invocation;
+    }
+
+    /**
+     * 对非池化的invocation无影响，transport可以无条件调用
+     */
+    public static void release(Invocation invocation) {
+        if (!invocation.isPooled()) {
+            return;
+        }
+
+        int refs = invocation.releasePoolRef();
+        if (refs > 0) {
+            return;
+        }
+        if (refs < 0) {
+            LOGGER.error("invocation released too many times, {}.", invocation.getMicroserviceQualifiedName(),
+                    new Throwable("released here"));
+            return;
+        }
+
+        if (LEAK_DETECTION.get()) {
+            IN_USE.remove(invocation);
+            invocation.poison();
+            return;
+        }
+
+        ArrayDeque<Invocation> cache = THREAD_CACHE.get();
+        if (cache.size() < THREAD_CACHE_SIZE) {
+            cache.offerFirst(invocation);
+        }
+    }
+
+    private static void checkLeak() {
+        long now = System.nanoTime();
+        long nextCheck = NEXT_LEAK_CHECK.get();
+        if (now - nextCheck < 0 || !NEXT_LEAK_CHECK.compareAndSet(nextCheck, now + NS_LEAK_THRESHOLD)) {
+            return;
+        }
+
+        for (Iterator<Entry<Invocation, LeakRecord>> it = IN_USE.entrySet().iterator(); it.hasNext();) {
+            Entry<Invocation, LeakRecord> entry = it.next();
+            if (now - entry.getValue().nsAcquire > NS_LEAK_THRESHOLD) {
+                it.remove();
+                LOGGER.error("invocation not released in {} ms, maybe leaked, {}.",
+                        TimeUnit.NANOSECONDS.toMillis(NS_LEAK_THRESHOLD),
+                        entry.getKey().getMicroserviceQualifiedName(),
+                        entry.getValue().stack);
+            }
+        }
+    }
+
+    public static int getInUseCount() {
+        return IN_USE.size();
+    }
+}
@@ -16,13 +16,17 @@
 
 package io.servicecomb.core.provider.consumer;
 
+import java.util.concurrent.TimeUnit;
+
 import io.servicecomb.core.Invocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.servicecomb.core.CseContext;
 import io.servicecomb.core.definition.SchemaMeta;
+import io.servicecomb.core.executor.EventLoopBlockingDetector;
 import io.servicecomb.core.invocation.InvocationFactory;
+import io.servicecomb.core.transport.AbstractTransport;
 import io.servicecomb.swagger.invocation.AsyncResponse;
 import io.servicecomb.swagger.invocation.Response;
 import io.servicecomb.swagger.invocation.exception.ExceptionFactory;
@@ -61,7 +65,19 @@ public final class InvokerUtils {
 
     public static Response innerSyncInvoke(Invocation invocation) {
         try {
+            if (EventLoopBlockingDetector.isOnEventLoop()) {
+                EventLoopBlockingDetector.onSyncInvoke(invocation.getOperationMeta().getMicroserviceQualifiedName());
+            }
+
+            long deadline = invocation.getDeadline();
+            if (deadline == 0) {
+                long msTimeout = AbstractTransport.getRequestTimeout(invocation.getOperationMeta());
+                deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(msTimeout);
+                invocation.setDeadline(deadline);
+            }
+
             SyncResponseExecutor respExecutor = new SyncResponseExecutor();
+            respExecutor.setDeadline(deadline);
             invocation.setResponseExecutor(respExecutor);
 
             invocation.next(resp -> {
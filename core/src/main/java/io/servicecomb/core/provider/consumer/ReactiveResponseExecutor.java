@@ -18,12 +18,37 @@ package io.servicecomb.core.provider.consumer;
 
 import java.util.concurrent.Executor;
 
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
 /**
  * reactive场景，就地执行即可
+ * 如果调用是在某个vertx context中发起的（比如reactive的provider中调用其他服务，或者reactive的provider应答），
+ * 应答流程回到该context中执行，保证同一个请求的处理始终在同一个网络线程中，业务不需要额外的同步
+ * 已经在该context所在的网络线程中时直接执行，不再多调度一次
  */
 public class ReactiveResponseExecutor implements Executor {
+    private Context context;
+
+    // eventloop context固定在一个线程中运行
+    private Thread contextThread;
+
+    public ReactiveResponseExecutor() {
+        Context current = Vertx.currentContext();
+        if (current != null && current.isEventLoopContext()) {
+            this.context = current;
+            this.contextThread = Thread.currentThread();
+        }
+    }
+
     @Override
     public void execute(Runnable cmd) {
-        cmd.run();
+        // 同一个网络线程中的不同context（比如client连接的context）也直接执行
+        if (context == null || contextThread == Thread.currentThread()) {
+            cmd.run();
+            return;
+        }
+
+        context.runOnContext(v -> cmd.run());
     }
 }
@@ -16,43 +16,121 @@
 
 package io.servicecomb.core.provider.consumer;
 
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.ws.rs.core.Response.Status;
 
 import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.swagger.invocation.exception.InvocationException;
 
 /**
  * 业务线程在阻塞等待着，不必另起线程
  * 将应答流程包装为Runnable，先唤醒业务线程，再在业务线程中执行runnable
+ *
+ * 等待直接park业务线程本身，不再为每次调用创建CountDownLatch及其等待队列节点
+ * 等待过程中不持有任何监视器锁，业务线程是虚拟线程时，等待期间不会占住载体线程
+ * 设置了截止时间时，超时后返回408，之后迟到的应答会被丢弃
+ * 每次调用都创建新的实例，不在线程间复用：迟到的应答不能唤醒同一线程上的下一次调用
  */
 public class SyncResponseExecutor implements Executor {
-    private CountDownLatch latch;
+    private static final int WAITING = 0;
+
+    private static final int DONE = 1;
+
+    private static final int TIMEOUT = 2;
+
+    // 统计：等待次数、超时次数、park的总时间、在业务线程中执行应答流程的总时间
+    private static final LongAdder WAIT_COUNT = new LongAdder();
+
+    private static final LongAdder TIMEOUT_COUNT = new LongAdder();
+
+    private static final LongAdder PARKED_NANOS = new LongAdder();
+
+    private static final LongAdder EXECUTE_NANOS = new LongAdder();
 
-    private Runnable cmd;
+    private final AtomicInteger state = new AtomicInteger(WAITING);
 
-    private Response response;
+    private final Thread waiter;
+
+    // 基于System.nanoTime()，0表示不限时
+    // 负载均衡重试时会在等待过程中延长，以覆盖所有重试的时间
+    private volatile long deadline;
+
+    private volatile Runnable cmd;
+
+    private volatile Response response;
 
     public SyncResponseExecutor() {
-        latch = new CountDownLatch(1);
+        waiter = Thread.currentThread();
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
     }
 
     @Override
     public void execute(Runnable cmd) {
         this.cmd = cmd;
-        latch.countDown();
+        wakeup();
     }
 
     public Response waitResponse() throws InterruptedException {
-        // TODO:增加配置，指定超时时间
-        latch.await();
+        WAIT_COUNT.increment();
+        long nsStart = System.nanoTime();
+        try {
+            if (!park()) {
+                TIMEOUT_COUNT.increment();
+                return Response.createConsumerFail(new InvocationException(Status.REQUEST_TIMEOUT,
+                        "wait response timeout."));
+            }
+        } finally {
+            PARKED_NANOS.add(System.nanoTime() - nsStart);
+        }
+
         // cmd为null，是没走execute，直接返回的场景
-        if (cmd != null) {
-            cmd.run();
+        Runnable runnable = cmd;
+        if (runnable != null) {
+            nsStart = System.nanoTime();
+            try {
+                runnable.run();
+            } finally {
+                EXECUTE_NANOS.add(System.nanoTime() - nsStart);
+            }
         }
 
         return response;
     }
 
+    /**
+     * 返回false表示超时
+     */
+    private boolean park() throws InterruptedException {
+        while (state.get() == WAITING) {
+            if (deadline == 0) {
+                LockSupport.park(this);
+            } else {
+                long nsRemaining = deadline - System.nanoTime();
+                if (nsRemaining <= 0) {
+                    if (state.compareAndSet(WAITING, TIMEOUT)) {
+                        return false;
+                    }
+                    // 超时的同时应答到达，按正常应答处理
+                    break;
+                }
+                LockSupport.parkNanos(this, nsRemaining);
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
     public void setResponse(Response response) {
         this.response = response;
         if (cmd == null) {
@@ -60,7 +138,29 @@ public class SyncResponseExecutor implements Executor {
             // 说明没走到网络线程，直接就返回了
             // 或者在网络线程中没使用execute的方式返回，这会导致返回流程在网络线程中执行
             // 虽然不合适，但是也不应该导致业务线程无法唤醒
-            latch.countDown();
+            wakeup();
         }
     }
+
+    private void wakeup() {
+        if (state.compareAndSet(WAITING, DONE) && waiter != Thread.currentThread()) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    public static long getWaitCount() {
+        return WAIT_COUNT.sum();
+    }
+
+    public static long getTimeoutCount() {
+        return TIMEOUT_COUNT.sum();
+    }
+
+    public static long getParkedTime(TimeUnit unit) {
+        return unit.convert(PARKED_NANOS.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public static long getExecuteTime(TimeUnit unit) {
+        return unit.convert(EXECUTE_NANOS.sum(), TimeUnit.NANOSECONDS);
+    }
 }
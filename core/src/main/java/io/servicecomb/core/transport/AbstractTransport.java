@@ -21,10 +21,12 @@ import java.util.Map.Entry;
 
 import io.servicecomb.core.Endpoint;
 import io.servicecomb.core.Transport;
+import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.serviceregistry.RegistryUtils;
 import io.servicecomb.foundation.common.net.NetUtils;
 import io.servicecomb.foundation.common.net.URIEndpointObject;
 import io.servicecomb.foundation.vertx.VertxUtils;
+import com.netflix.config.DynamicLongProperty;
 import com.netflix.config.DynamicPropertyFactory;
 
 import io.vertx.core.Vertx;
@@ -37,6 +39,8 @@ public abstract class AbstractTransport implements Transport {
 
     private static final long DEFAULT_TIMEOUT_MILLIS = 30000;
 
+    private static final String REQUEST_TIMEOUT_EXT_KEY = "cse.request.timeout";
+
     private static Long msReqeustTimeout = null;
 
     public static long getRequestTimeout() {
@@ -55,6 +59,25 @@ public abstract class AbstractTransport implements Transport {
         return msReqeustTimeout;
     }
 
+    /**
+     * 支持按operation配置超时：cse.request.{microserviceName}.{schemaId}.{operationName}.timeout
+     * 未配置或非法时，使用cse.request.timeout
+     */
+    public static long getRequestTimeout(OperationMeta operationMeta) {
+        DynamicLongProperty property = operationMeta.getExtData(REQUEST_TIMEOUT_EXT_KEY);
+        if (property == null) {
+            property = DynamicPropertyFactory.getInstance()
+                    .getLongProperty("cse.request." + operationMeta.getMicroserviceQualifiedName() + ".timeout", 0);
+            operationMeta.putExtData(REQUEST_TIMEOUT_EXT_KEY, property);
+        }
+
+        long msTimeout = property.get();
+        if (msTimeout <= 0) {
+            return getRequestTimeout();
+        }
+        return msTimeout;
+    }
+
     // 所有transport使用同一个vertx实例，避免创建太多的线程
     protected Vertx transportVertx = VertxUtils.getOrCreateVertxByName("transport", null);
 
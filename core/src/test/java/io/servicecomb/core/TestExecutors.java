@@ -18,14 +18,26 @@ package io.servicecomb.core;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.servicecomb.core.executor.ReactiveExecutor;
 import org.junit.Assert;
 import org.junit.Test;
 
+import io.servicecomb.core.executor.BoundedQueueExecutor;
+import io.servicecomb.core.executor.EventLoopBlockingDetector;
 import io.servicecomb.core.executor.FixedThreadExecutor;
-
+import io.servicecomb.core.executor.RejectableTask;
+import io.servicecomb.core.executor.VirtualThreadExecutor;
+import io.servicecomb.foundation.common.utils.ThreadUtils;
+import io.servicecomb.core.provider.consumer.ReactiveResponseExecutor;
+import io.servicecomb.swagger.invocation.exception.InvocationException;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import mockit.Deencapsulation;
 
 public class TestExecutors {
@@ -59,4 +71,177 @@ public class TestExecutors {
         Assert.assertEquals("thread Ran", strThreadTest);
 
     }
+
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        VirtualThreadExecutor executor = new VirtualThreadExecutor();
+        AtomicReference<Boolean> virtual = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(() -> {
+            virtual.set(ThreadUtils.isVirtual(Thread.currentThread()));
+            latch.countDown();
+        });
+
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(executor.isVirtual(), virtual.get());
+        Assert.assertFalse(ThreadUtils.isVirtual(Thread.currentThread()));
+    }
+
+    @Test
+    public void testReactiveResponseExecutorNoContext() {
+        ReactiveResponseExecutor executor = new ReactiveResponseExecutor();
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> thread.set(Thread.currentThread()));
+        Assert.assertEquals(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void testReactiveResponseExecutorBackToContext() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        try {
+            Context context = vertx.getOrCreateContext();
+            AtomicReference<ReactiveResponseExecutor> executor = new AtomicReference<>();
+            AtomicReference<Thread> contextThread = new AtomicReference<>();
+            CountDownLatch created = new CountDownLatch(1);
+            context.runOnContext(v -> {
+                contextThread.set(Thread.currentThread());
+                executor.set(new ReactiveResponseExecutor());
+                created.countDown();
+            });
+            Assert.assertTrue(created.await(10, TimeUnit.SECONDS));
+
+            AtomicReference<Thread> thread = new AtomicReference<>();
+            CountDownLatch executed = new CountDownLatch(1);
+            executor.get().execute(() -> {
+                thread.set(Thread.currentThread());
+                executed.countDown();
+            });
+            Assert.assertTrue(executed.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(contextThread.get(), thread.get());
+
+            // 已经在该网络线程中，就地执行，不再调度
+            AtomicReference<Boolean> inline = new AtomicReference<>();
+            CountDownLatch checked = new CountDownLatch(1);
+            vertx.getOrCreateContext().runOnContext(v -> {
+                AtomicReference<Boolean> ran = new AtomicReference<>(false);
+                new ReactiveResponseExecutor().execute(() -> ran.set(true));
+                inline.set(ran.get());
+                checked.countDown();
+            });
+            Assert.assertTrue(checked.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(inline.get());
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void testBlockingDetector() throws Exception {
+        Assert.assertFalse(EventLoopBlockingDetector.isOnEventLoop());
+
+        long count = EventLoopBlockingDetector.getSlowExecuteCount();
+        EventLoopBlockingDetector.checkExecuteTime(this, System.nanoTime());
+        Assert.assertEquals(count, EventLoopBlockingDetector.getSlowExecuteCount());
+
+        EventLoopBlockingDetector.checkExecuteTime(this, System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+        Assert.assertEquals(count + 1, EventLoopBlockingDetector.getSlowExecuteCount());
+
+        count = EventLoopBlockingDetector.getSyncInvokeCount();
+        EventLoopBlockingDetector.onSyncInvoke("app:ms.schema.op");
+        EventLoopBlockingDetector.onSyncInvoke("app:ms.schema.op");
+        Assert.assertEquals(count + 2, EventLoopBlockingDetector.getSyncInvokeCount());
+
+        RecordTask task = new RecordTask(new CountDownLatch(0)) {
+            @Override
+            public String toString() {
+                return "app:ms.schema.op";
+            }
+        };
+        Assert.assertEquals("app:ms.schema.op", EventLoopBlockingDetector.getTaskName(task));
+        Assert.assertEquals(getClass().getName(), EventLoopBlockingDetector.getTaskName(this));
+    }
+
+    static class RecordTask implements RejectableTask {
+        private final CountDownLatch block;
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile InvocationException rejected;
+
+        RecordTask(CountDownLatch block) {
+            this.block = block;
+        }
+
+        @Override
+        public void run() {
+            try {
+                block.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        }
+
+        @Override
+        public void reject(InvocationException e) {
+            rejected = e;
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void testBoundedQueueExecutorQueueFull() throws Exception {
+        BoundedQueueExecutor executor = new BoundedQueueExecutor("full", 1, 1, 0);
+        try {
+            CountDownLatch block = new CountDownLatch(1);
+            RecordTask running = new RecordTask(block);
+            RecordTask queued = new RecordTask(block);
+            RecordTask rejected = new RecordTask(block);
+            executor.execute(running);
+            executor.execute(queued);
+            executor.execute(rejected);
+
+            Assert.assertEquals(503, rejected.rejected.getStatusCode());
+            Assert.assertEquals(1, executor.getRejectedCount());
+            Assert.assertEquals(1, executor.getQueueDepth());
+
+            try {
+                executor.execute(() -> {
+                });
+                Assert.fail("must throw exception");
+            } catch (RejectedExecutionException e) {
+                Assert.assertEquals(2, executor.getRejectedCount());
+            }
+
+            block.countDown();
+            Assert.assertTrue(queued.done.await(10, TimeUnit.SECONDS));
+            Assert.assertNull(queued.rejected);
+            Assert.assertEquals(2, executor.getExecutedCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBoundedQueueExecutorShed() throws Exception {
+        BoundedQueueExecutor executor = new BoundedQueueExecutor("shed", 1, 10, 10);
+        try {
+            CountDownLatch block = new CountDownLatch(1);
+            RecordTask running = new RecordTask(block);
+            RecordTask queued = new RecordTask(block);
+            executor.execute(running);
+            executor.execute(queued);
+
+            TimeUnit.MILLISECONDS.sleep(50);
+            block.countDown();
+
+            Assert.assertTrue(queued.done.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(503, queued.rejected.getStatusCode());
+            Assert.assertEquals(1, executor.getShedCount());
+            Assert.assertEquals(1, executor.getExecutedCount());
+            Assert.assertTrue(executor.getQueueWaitTime(TimeUnit.MILLISECONDS) >= 10);
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
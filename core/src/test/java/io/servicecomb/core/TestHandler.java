@@ -16,9 +16,23 @@
 
 package io.servicecomb.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.servicecomb.core.definition.MicroserviceMeta;
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.core.definition.SchemaMeta;
 import io.servicecomb.core.handler.ConsumerHandlerManager;
+import io.servicecomb.core.handler.ResponseHandler;
+import io.servicecomb.core.provider.consumer.ReferenceConfig;
+import io.servicecomb.swagger.invocation.AsyncResponse;
+import io.servicecomb.swagger.invocation.InvocationType;
+import io.servicecomb.swagger.invocation.Response;
+
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import io.servicecomb.core.handler.HandlerConfigUtils;
 
@@ -30,4 +44,158 @@ public class TestHandler {
         Assert.assertNotEquals(null, ConsumerHandlerManager.INSTANCE.getOrCreate("test"));
 
     }
+
+    static class RecordResponseHandler implements Handler, ResponseHandler {
+        private String name;
+
+        private List<String> records;
+
+        RecordResponseHandler(String name, List<String> records) {
+            this.name = name;
+            this.records = records;
+        }
+
+        @Override
+        public void init(MicroserviceMeta microserviceMeta, InvocationType invocationType) {
+        }
+
+        @Override
+        public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+            records.add(name + " request");
+            invocation.next(this, asyncResp);
+        }
+
+        @Override
+        public void onResponse(Invocation invocation, Response response, AsyncResponse asyncResp) {
+            records.add(name + " response");
+            asyncResp.handle(response);
+        }
+    }
+
+    @Test
+    public void testResponseHandler() throws Exception {
+        List<String> records = new ArrayList<>();
+        Handler legacy = new Handler() {
+            @Override
+            public void init(MicroserviceMeta microserviceMeta, InvocationType invocationType) {
+            }
+
+            @Override
+            public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+                records.add("legacy request");
+                invocation.next(resp -> {
+                    records.add("legacy response");
+                    asyncResp.handle(resp);
+                });
+            }
+        };
+        Handler last = new Handler() {
+            @Override
+            public void init(MicroserviceMeta microserviceMeta, InvocationType invocationType) {
+            }
+
+            @Override
+            public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+                asyncResp.success("ok");
+            }
+        };
+        List<Handler> handlerList = Arrays.asList(new RecordResponseHandler("h1", records),
+                legacy,
+                new RecordResponseHandler("h2", records),
+                last);
+
+        SchemaMeta schemaMeta = Mockito.mock(SchemaMeta.class);
+        Mockito.when(schemaMeta.getConsumerHandlerChain()).thenReturn(handlerList);
+        OperationMeta operationMeta = Mockito.mock(OperationMeta.class);
+        Mockito.when(operationMeta.getSchemaMeta()).thenReturn(schemaMeta);
+
+        Invocation invocation = new Invocation((ReferenceConfig) null, operationMeta, null);
+        List<Object> results = new ArrayList<>();
+        invocation.next(resp -> results.add(resp.getResult()));
+
+        Assert.assertEquals(Arrays.asList("ok"), results);
+        Assert.assertEquals(Arrays.asList("h1 request",
+                "legacy request",
+                "h2 request",
+                "h2 response",
+                "legacy response",
+                "h1 response"), records);
+    }
+
+    private Handler createLegacyHandler(String name, List<String> records) {
+        return new Handler() {
+            @Override
+            public void init(MicroserviceMeta microserviceMeta, InvocationType invocationType) {
+            }
+
+            @Override
+            public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+                records.add(name + " request");
+                invocation.next(resp -> {
+                    records.add(name + " response");
+                    asyncResp.handle(resp);
+                });
+            }
+        };
+    }
+
+    private OperationMeta createProviderOperation(List<Handler> handlerList) {
+        SchemaMeta schemaMeta = Mockito.mock(SchemaMeta.class);
+        Mockito.when(schemaMeta.getProviderHandlerChain()).thenReturn(handlerList);
+        OperationMeta operationMeta = Mockito.mock(OperationMeta.class);
+        Mockito.when(operationMeta.getSchemaMeta()).thenReturn(schemaMeta);
+        return operationMeta;
+    }
+
+    @Test
+    public void testResponseHandlerAfterResetToLongerChain() throws Exception {
+        List<String> records = new ArrayList<>();
+        Handler last = new Handler() {
+            @Override
+            public void init(MicroserviceMeta microserviceMeta, InvocationType invocationType) {
+            }
+
+            @Override
+            public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+                asyncResp.success("ok");
+            }
+        };
+        // legacy之后的ResponseHandler需要保存upstream，第一个保存在entry中，之后的保存在数组中
+        OperationMeta shortOperation = createProviderOperation(Arrays.asList(createLegacyHandler("l1", records),
+                new RecordResponseHandler("h1", records),
+                createLegacyHandler("l2", records),
+                new RecordResponseHandler("h2", records),
+                last));
+        OperationMeta longOperation = createProviderOperation(Arrays.asList(createLegacyHandler("l1", records),
+                new RecordResponseHandler("h1", records),
+                createLegacyHandler("l2", records),
+                new RecordResponseHandler("h2", records),
+                createLegacyHandler("l3", records),
+                new RecordResponseHandler("h3", records),
+                last));
+
+        Invocation invocation = new Invocation((Endpoint) null, shortOperation, null);
+        invocation.next(resp -> {
+        });
+
+        // 回收复用到更长的handler链，数组扩容时不能丢失已经保存的upstream
+        invocation.resetForProvider(null, longOperation, null);
+        records.clear();
+        List<Object> results = new ArrayList<>();
+        invocation.next(resp -> results.add(resp.getResult()));
+
+        Assert.assertEquals(Arrays.asList("ok"), results);
+        Assert.assertEquals(Arrays.asList("l1 request",
+                "h1 request",
+                "l2 request",
+                "h2 request",
+                "l3 request",
+                "h3 request",
+                "h3 response",
+                "l3 response",
+                "h2 response",
+                "l2 response",
+                "h1 response",
+                "l1 response"), records);
+    }
 }
@@ -19,10 +19,12 @@ package io.servicecomb.core;
 import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.core.definition.SchemaMeta;
 import io.servicecomb.core.invocation.InvocationFactory;
+import io.servicecomb.core.invocation.InvocationPool;
 import io.servicecomb.core.provider.consumer.ReferenceConfig;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import com.netflix.config.DynamicPropertyFactory;
 
@@ -61,6 +63,29 @@ public class TestInvocationFactory {
         Assert.assertEquals(invocation.getContext(Const.SRC_MICROSERVICE), "test");
     }
 
+    @Test
+    public void testFork(@Injectable ReferenceConfig referenceConfig) {
+        Invocation invocation = InvocationFactory.forConsumer(referenceConfig, "test", new String[] {"a"});
+        invocation.getHandlerContext().put("k", "v");
+        invocation.setHandlerIndex(2);
+        invocation.setDeadline(100);
+
+        Invocation fork = invocation.fork();
+        Assert.assertEquals("test", fork.getContext(Const.SRC_MICROSERVICE));
+        Assert.assertEquals("v", fork.getHandlerContext().get("k"));
+        Assert.assertEquals(2, fork.getHandlerIndex());
+        Assert.assertEquals(100, fork.getDeadline());
+        Assert.assertSame(invocation.getSwaggerArguments(), fork.getSwaggerArguments());
+
+        // 状态各自独立
+        fork.addContext("k", "v");
+        fork.getHandlerContext().put("k2", "v2");
+        fork.setHandlerIndex(3);
+        Assert.assertNull(invocation.getContext("k"));
+        Assert.assertNull(invocation.getHandlerContext().get("k2"));
+        Assert.assertEquals(2, invocation.getHandlerIndex());
+    }
+
     @Test
     public void testInvocationFactoryforProvider(@Injectable Endpoint endpoint,
             @Injectable OperationMeta operationMeta) {
@@ -68,4 +93,81 @@ public class TestInvocationFactory {
             InvocationFactory.forProvider(endpoint, operationMeta, new String[] {"a", "b"});
         Assert.assertEquals(invocation.getEndpoint(), endpoint);
     }
+
+    @Test
+    public void testInvocationPool() {
+        Transport transport = Mockito.mock(Transport.class);
+        Mockito.when(transport.getName()).thenReturn("pooltest");
+        Endpoint endpoint = Mockito.mock(Endpoint.class);
+        Mockito.when(endpoint.getTransport()).thenReturn(transport);
+        SchemaMeta schemaMeta = Mockito.mock(SchemaMeta.class);
+        OperationMeta operationMeta = Mockito.mock(OperationMeta.class);
+        Mockito.when(operationMeta.getSchemaMeta()).thenReturn(schemaMeta);
+
+        Invocation invocation = InvocationFactory.forProvider(endpoint, operationMeta, null);
+        Assert.assertFalse(invocation.isPooled());
+        InvocationPool.release(invocation);
+
+        Utils.updateProperty("cse.invocation.pool.pooltest.enabled", "true");
+        try {
+            invocation = InvocationFactory.forProvider(endpoint, operationMeta, new String[] {"a"});
+            Assert.assertTrue(invocation.isPooled());
+            invocation.addContext("k", "v");
+            invocation.getHandlerContext().put("k", "v");
+            invocation.setHandlerIndex(3);
+
+            // 应答发送、next返回，两者都释放后才回收
+            InvocationPool.release(invocation);
+            Assert.assertNotSame(invocation, InvocationFactory.forProvider(endpoint, operationMeta, null));
+            InvocationPool.release(invocation);
+
+            Invocation reused = InvocationFactory.forProvider(endpoint, operationMeta, new String[] {"b"});
+            Assert.assertSame(invocation, reused);
+            Assert.assertNull(reused.getContext("k"));
+            Assert.assertTrue(reused.getHandlerContext().isEmpty());
+            Assert.assertEquals(0, reused.getHandlerIndex());
+            Assert.assertEquals("b", reused.getSwaggerArgument(0));
+        } finally {
+            Utils.updateProperty("cse.invocation.pool.pooltest.enabled", "false");
+        }
+    }
+
+    @Test
+    public void testInvocationPoolPoison() {
+        Transport transport = Mockito.mock(Transport.class);
+        Mockito.when(transport.getName()).thenReturn("poisontest");
+        Endpoint endpoint = Mockito.mock(Endpoint.class);
+        Mockito.when(endpoint.getTransport()).thenReturn(transport);
+        SchemaMeta schemaMeta = Mockito.mock(SchemaMeta.class);
+        OperationMeta operationMeta = Mockito.mock(OperationMeta.class);
+        Mockito.when(operationMeta.getSchemaMeta()).thenReturn(schemaMeta);
+        Assert.assertFalse(InvocationFactory.forProvider(endpoint, operationMeta, null).isPooled());
+
+        Utils.updateProperty("cse.invocation.pool.poisontest.enabled", "true");
+        Utils.updateProperty("cse.invocation.pool.leak-detection", "true");
+        try {
+            Invocation invocation = InvocationFactory.forProvider(endpoint, operationMeta, new String[] {"a"});
+            Assert.assertTrue(invocation.isPooled());
+            InvocationPool.release(invocation);
+            InvocationPool.release(invocation);
+
+            // 回收后的invocation被置空，误用时立即失败，并且不会再被复用
+            Assert.assertNull(invocation.getOperationMeta());
+            Assert.assertNull(invocation.getContext());
+            try {
+                invocation.next(resp -> {
+                });
+                Assert.fail("must throw exception");
+            } catch (Exception e) {
+                Assert.assertTrue(e instanceof NullPointerException);
+            }
+            Invocation other = InvocationFactory.forProvider(endpoint, operationMeta, null);
+            Assert.assertNotSame(invocation, other);
+            InvocationPool.release(other);
+            InvocationPool.release(other);
+        } finally {
+            Utils.updateProperty("cse.invocation.pool.leak-detection", "false");
+            Utils.updateProperty("cse.invocation.pool.poisontest.enabled", "false");
+        }
+    }
 }
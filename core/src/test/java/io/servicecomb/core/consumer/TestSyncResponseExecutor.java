@@ -16,8 +16,11 @@
 
 package io.servicecomb.core.consumer;
 
+import java.util.concurrent.TimeUnit;
+
 import io.servicecomb.core.provider.consumer.SyncResponseExecutor;
 import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.swagger.invocation.exception.InvocationException;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -40,4 +43,53 @@ public class TestSyncResponseExecutor {
         }
 
     }
+
+    @Test
+    public void testWaitTimeout() throws InterruptedException {
+        long timeoutCount = SyncResponseExecutor.getTimeoutCount();
+        SyncResponseExecutor executor = new SyncResponseExecutor();
+        executor.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10));
+
+        Response response = executor.waitResponse();
+        Assert.assertTrue(response.isFailed());
+        Assert.assertEquals(408, ((InvocationException) response.getResult()).getStatusCode());
+        Assert.assertEquals(timeoutCount + 1, SyncResponseExecutor.getTimeoutCount());
+
+        // 超时之后迟到的应答被丢弃
+        Runnable cmd = Mockito.mock(Runnable.class);
+        executor.execute(cmd);
+        Mockito.verify(cmd, Mockito.never()).run();
+    }
+
+    @Test
+    public void testWakeupFromOtherThread() throws InterruptedException {
+        long waitCount = SyncResponseExecutor.getWaitCount();
+        SyncResponseExecutor executor = new SyncResponseExecutor();
+        executor.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+        Response expect = Response.succResp("ok");
+        new Thread(() -> executor.execute(() -> executor.setResponse(expect))).start();
+
+        Assert.assertSame(expect, executor.waitResponse());
+        Assert.assertEquals(waitCount + 1, SyncResponseExecutor.getWaitCount());
+        Assert.assertTrue(SyncResponseExecutor.getParkedTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    public void testExtendDeadlineWhileWaiting() throws InterruptedException {
+        SyncResponseExecutor executor = new SyncResponseExecutor();
+        executor.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+        Response expect = Response.succResp("ok");
+        new Thread(() -> {
+            // 负载均衡重试时延长等待时间，原截止时间过后应答才到达
+            executor.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor.execute(() -> executor.setResponse(expect));
+        }).start();
+
+        Assert.assertSame(expect, executor.waitResponse());
+    }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.executor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 模拟业务中的阻塞操作（比如JDBC），比较高并发下FixedThreadExecutor与VirtualThreadExecutor的吞吐量
+ * 每个op并发提交concurrency个阻塞blockMillis的任务并等待全部完成，调用吞吐量 = ops/s * concurrency
+ *
+ * 不属于单元测试，需要时直接运行main，VirtualThreadExecutor需要在JDK21及以上运行才有意义
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ExecutorThroughputBenchmark {
+    @Param({"fixed", "virtual"})
+    private String type;
+
+    @Param({"10000"})
+    private int concurrency;
+
+    @Param({"10"})
+    private int blockMillis;
+
+    private Executor executor;
+
+    @Setup
+    public void setup() {
+        executor = "virtual".equals(type) ? new VirtualThreadExecutor() : new FixedThreadExecutor();
+    }
+
+    @Benchmark
+    public void blockingCalls() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(concurrency);
+        for (int idx = 0; idx < concurrency; idx++) {
+            executor.execute(() -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(blockMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latch.countDown();
+            });
+        }
+        latch.await();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ExecutorThroughputBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.core.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.servicecomb.core.Handler;
+import io.servicecomb.core.Invocation;
+import io.servicecomb.core.definition.MicroserviceMeta;
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.core.definition.SchemaMeta;
+import io.servicecomb.core.provider.consumer.ReferenceConfig;
+import io.servicecomb.swagger.invocation.AsyncResponse;
+import io.servicecomb.swagger.invocation.InvocationType;
+import io.servicecomb.swagger.invocation.Response;
+
+/**
+ * 6个handler的调用链：5个需要处理应答的handler + 最后一个直接应答的handler
+ * 对比每层创建闭包与实现ResponseHandler两种方式的ns/op，bytes/op见gc profiler的gc.alloc.rate.norm
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerChainBenchmark {
+    private static final int CHAIN_SIZE = 6;
+
+    abstract static class BenchmarkHandler implements Handler {
+        @Override
+        public void init(MicroserviceMeta microserviceMeta, InvocationType invocationType) {
+        }
+    }
+
+    static class ClosureHandler extends BenchmarkHandler {
+        @Override
+        public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+            invocation.next(resp -> {
+                asyncResp.handle(resp);
+            });
+        }
+    }
+
+    static class NoClosureHandler extends BenchmarkHandler implements ResponseHandler {
+        @Override
+        public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+            invocation.next(this, asyncResp);
+        }
+
+        @Override
+        public void onResponse(Invocation invocation, Response response, AsyncResponse asyncResp) {
+            asyncResp.handle(response);
+        }
+    }
+
+    static class LastHandler extends BenchmarkHandler {
+        private final Response response = Response.ok("ok");
+
+        @Override
+        public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+            asyncResp.handle(response);
+        }
+    }
+
+    // 复用invocation，只测量调用链本身，排除invocation创建的开销
+    // 注意ResponseHandler方式每个invocation还有一次性的回调对象创建，不在统计范围内
+    private Invocation closureInvocation;
+
+    private Invocation noClosureInvocation;
+
+    private Response result;
+
+    private final AsyncResponse asyncResp = resp -> result = resp;
+
+    @Setup
+    public void setup() {
+        closureInvocation = createInvocation(new ClosureHandler());
+        noClosureInvocation = createInvocation(new NoClosureHandler());
+    }
+
+    private static Invocation createInvocation(Handler handler) {
+        List<Handler> handlerList = new ArrayList<>();
+        for (int idx = 0; idx < CHAIN_SIZE - 1; idx++) {
+            handlerList.add(handler);
+        }
+        handlerList.add(new LastHandler());
+
+        SchemaMeta schemaMeta = Mockito.mock(SchemaMeta.class);
+        Mockito.when(schemaMeta.getConsumerHandlerChain()).thenReturn(handlerList);
+        OperationMeta operationMeta = Mockito.mock(OperationMeta.class);
+        Mockito.when(operationMeta.getSchemaMeta()).thenReturn(schemaMeta);
+        return new Invocation((ReferenceConfig) null, operationMeta, null);
+    }
+
+    private Response invoke(Invocation invocation) throws Exception {
+        invocation.setHandlerIndex(0);
+        invocation.next(asyncResp);
+        return result;
+    }
+
+    @Benchmark
+    public Response closureChain() throws Exception {
+        return invoke(closureInvocation);
+    }
+
+    @Benchmark
+    public Response responseHandlerChain() throws Exception {
+        return invoke(noClosureInvocation);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(HandlerChainBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
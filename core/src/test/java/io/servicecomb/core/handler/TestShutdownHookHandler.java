@@ -56,7 +56,7 @@ public class TestShutdownHookHandler {
         // no reply
         Invocation invocation = new MockUp<Invocation>() {
             @Mock
-            public void next(AsyncResponse asyncResp) throws Exception {
+            public void next(ResponseHandler responseHandler, AsyncResponse asyncResp) throws Exception {
             }
         }.getMockInstance();
         handler.handle(invocation, asyncResp -> {
@@ -67,8 +67,8 @@ public class TestShutdownHookHandler {
         // normal
         invocation = new MockUp<Invocation>() {
             @Mock
-            public void next(AsyncResponse asyncResp) throws Exception {
-                asyncResp.handle(response);
+            public void next(ResponseHandler responseHandler, AsyncResponse asyncResp) throws Exception {
+                responseHandler.onResponse(null, response, asyncResp);
             }
         }.getMockInstance();
         handler.handle(invocation, asyncResp -> {
@@ -79,7 +79,7 @@ public class TestShutdownHookHandler {
         // next exception
         invocation = new MockUp<Invocation>() {
             @Mock
-            public void next(AsyncResponse asyncResp) throws Exception {
+            public void next(ResponseHandler responseHandler, AsyncResponse asyncResp) throws Exception {
                 throw new Error();
             }
         }.getMockInstance();
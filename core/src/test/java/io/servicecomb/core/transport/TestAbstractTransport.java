@@ -17,8 +17,10 @@
 package io.servicecomb.core.transport;
 
 import io.servicecomb.core.Invocation;
+import io.servicecomb.core.definition.OperationMeta;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import io.servicecomb.foundation.common.net.IpPort;
 import io.servicecomb.swagger.invocation.AsyncResponse;
@@ -56,6 +58,18 @@ public class TestAbstractTransport {
         Assert.assertEquals(AbstractTransport.getRequestTimeout(), 30000);
     }
 
+    @Test
+    public void testRequestTimeoutByOperation() {
+        OperationMeta operationMeta = Mockito.mock(OperationMeta.class);
+        Mockito.when(operationMeta.getMicroserviceQualifiedName()).thenReturn("ms.schema.defaultOp");
+        Assert.assertEquals(AbstractTransport.getRequestTimeout(), AbstractTransport.getRequestTimeout(operationMeta));
+
+        System.setProperty("cse.request.ms.schema.timeoutOp.timeout", "500");
+        Mockito.when(operationMeta.getMicroserviceQualifiedName()).thenReturn("ms.schema.timeoutOp");
+        Assert.assertEquals(500, AbstractTransport.getRequestTimeout(operationMeta));
+        System.clearProperty("cse.request.ms.schema.timeoutOp.timeout");
+    }
+
     @Test(expected = NumberFormatException.class)
     public void testMyAbstractTransportException(@Mocked TransportManager manager) throws Exception {
         MyAbstractTransport transport = new MyAbstractTransport();
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.config;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.netflix.config.DynamicProperty;
+import com.netflix.config.DynamicPropertyFactory;
+
+/**
+ * 缓存由动态配置计算得到的不可变快照，避免每次调用都逐级查找配置项
+ *
+ * 创建快照时，通过getProperty读取的配置项都会被关注，其中任意一项变化，所有快照失效，下次使用时重新创建
+ * 配置变化很少，整体失效足够简单，也不会遗漏多级配置之间的覆盖关系
+ */
+public class ConfigSnapshotCache<K, V> {
+    // 当前线程正在为哪个cache创建快照
+    private static final ThreadLocal<ConfigSnapshotCache<?, ?>> BUILDING = new ThreadLocal<>();
+
+    private final Function<K, V> factory;
+
+    // 失效时整体替换，创建过程中发生的失效，不会把旧快照放进新的map
+    private volatile Map<K, V> snapshots = new ConcurrentHashMap<>();
+
+    // 已经关注的配置项，只增不减
+    private final Set<String> watchedKeys = ConcurrentHashMap.newKeySet();
+
+    public ConfigSnapshotCache(Function<K, V> factory) {
+        this.factory = factory;
+    }
+
+    public V get(K key) {
+        Map<K, V> current = snapshots;
+        V snapshot = current.get(key);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        ConfigSnapshotCache<?, ?> outer = BUILDING.get();
+        BUILDING.set(this);
+        try {
+            snapshot = factory.apply(key);
+        } finally {
+            BUILDING.set(outer);
+        }
+
+        V old = current.putIfAbsent(key, snapshot);
+        return old != null ? old : snapshot;
+    }
+
+    public void invalidate() {
+        snapshots = new ConcurrentHashMap<>();
+    }
+
+    private void watch(String key) {
+        if (watchedKeys.add(key)) {
+            DynamicProperty.getInstance(key).addCallback(this::invalidate);
+        }
+    }
+
+    /**
+     * 按顺序查找第一个有值的配置项，都没有值时返回defaultValue
+     * 在快照创建过程中调用时，查找过的配置项会被关注
+     */
+    public static String getProperty(String defaultValue, String... keys) {
+        ConfigSnapshotCache<?, ?> building = BUILDING.get();
+        for (String key : keys) {
+            if (building != null) {
+                building.watch(key);
+            }
+
+            String property = DynamicPropertyFactory.getInstance().getStringProperty(key, null).get();
+            if (property != null) {
+                return property;
+            }
+        }
+
+        return defaultValue;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.netflix.config.ConfigurationManager;
+
+public class TestConfigSnapshotCache {
+    private static final String KEY = "cse.test.snapshot.value";
+
+    private static final String OVERRIDE_KEY = "cse.test.snapshot.ms.value";
+
+    @AfterClass
+    public static void tearDown() {
+        ConfigurationManager.getConfigInstance().clearProperty(KEY);
+        ConfigurationManager.getConfigInstance().clearProperty(OVERRIDE_KEY);
+    }
+
+    @Test
+    public void testSnapshot() {
+        AtomicInteger buildCount = new AtomicInteger();
+        ConfigSnapshotCache<String, String> cache = new ConfigSnapshotCache<>(name -> {
+            buildCount.incrementAndGet();
+            return name + ":" + ConfigSnapshotCache.getProperty("default", OVERRIDE_KEY, KEY);
+        });
+
+        Assert.assertEquals("ms:default", cache.get("ms"));
+        Assert.assertEquals("ms:default", cache.get("ms"));
+        Assert.assertEquals(1, buildCount.get());
+
+        // 被关注的配置项变化，快照失效
+        ConfigurationManager.getConfigInstance().setProperty(KEY, "global");
+        Assert.assertEquals("ms:global", cache.get("ms"));
+        Assert.assertEquals(2, buildCount.get());
+
+        ConfigurationManager.getConfigInstance().setProperty(OVERRIDE_KEY, "override");
+        Assert.assertEquals("ms:override", cache.get("ms"));
+        Assert.assertEquals(3, buildCount.get());
+
+        // 无关配置项不影响快照
+        ConfigurationManager.getConfigInstance().setProperty("cse.test.snapshot.other", "x");
+        Assert.assertEquals("ms:override", cache.get("ms"));
+        Assert.assertEquals(3, buildCount.get());
+
+        cache.invalidate();
+        Assert.assertEquals("ms:override", cache.get("ms"));
+        Assert.assertEquals(4, buildCount.get());
+    }
+
+    @Test
+    public void testGetPropertyOutsideSnapshot() {
+        Assert.assertEquals("default", ConfigSnapshotCache.getProperty("default", "cse.test.snapshot.notExist"));
+    }
+}
@@ -16,12 +16,16 @@
 
 package io.servicecomb.foundation.vertx.client;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import io.servicecomb.foundation.common.utils.ThreadUtils;
+
 /**
  * CLIENT_POOL是一个完备的连接池，支持向同一个目标建立一个或多个连接
  * 之所以再包装一层，是因为多个线程使用一个连接池的场景下
@@ -35,33 +39,133 @@ public class ClientPoolManager<CLIENT_POOL> {
     private AtomicInteger bindIndex = new AtomicInteger();
 
     // send的调用线程与CLIENT_POOL的绑定关系，不直接用hash，是担心分配不均
-    // key是调用者的线程id
-    // TODO:要不要考虑已经绑定的线程消失了的场景？
-    private Map<Long, CLIENT_POOL> threadBindMap = new ConcurrentHashMap<>();
+    // 线程消亡后，ThreadLocal中的绑定随之释放，不会无限增长
+    private ThreadLocal<CLIENT_POOL> threadBindPool = new ThreadLocal<>();
+
+    // 仅在绑定新线程时访问，用于统计每个CLIENT_POOL上仍然存活的调用线程数
+    private List<ThreadBinding<CLIENT_POOL>> bindings = new ArrayList<>();
 
     private static final Object LOCK = new Object();
 
+    // 虚拟线程数量巨大且生命周期很短，不做绑定，直接轮询所有CLIENT_POOL
+    // 所有CLIENT_POOL在第一次使用时一次性创建，之后无锁读取
+    private volatile Object[] allPools;
+
+    static class ThreadBinding<CLIENT_POOL> {
+        WeakReference<Thread> thread;
+
+        CLIENT_POOL clientPool;
+
+        ThreadBinding(Thread thread, CLIENT_POOL clientPool) {
+            this.thread = new WeakReference<>(thread);
+            this.clientPool = clientPool;
+        }
+
+        boolean isAlive() {
+            Thread t = thread.get();
+            return t != null && t.isAlive();
+        }
+    }
+
     public void addNetThread(NetThreadData<CLIENT_POOL> netThread) {
         synchronized (LOCK) {
             netThreads.add(netThread);
+            allPools = null;
         }
     }
 
     public CLIENT_POOL findThreadBindClientPool() {
-        long threadId = Thread.currentThread().getId();
-        CLIENT_POOL clientPool = threadBindMap.get(threadId);
+        if (ThreadUtils.isVirtual(Thread.currentThread())) {
+            return selectForVirtualThread();
+        }
+
+        CLIENT_POOL clientPool = threadBindPool.get();
         if (clientPool == null) {
-            synchronized (LOCK) {
-                clientPool = threadBindMap.get(threadId);
-                if (clientPool == null) {
-                    int idx = bindIndex.getAndIncrement() % netThreads.size();
-                    NetThreadData<CLIENT_POOL> netThread = netThreads.get(idx);
-                    clientPool = netThread.selectClientPool();
-                    threadBindMap.put(threadId, clientPool);
+            clientPool = bindCurrentThread();
+            threadBindPool.set(clientPool);
+        }
+
+        return clientPool;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CLIENT_POOL selectForVirtualThread() {
+        Object[] pools = allPools;
+        if (pools == null) {
+            pools = createAllPools();
+        }
+
+        int idx = bindIndex.getAndIncrement() & Integer.MAX_VALUE;
+        return (CLIENT_POOL) pools[idx % pools.length];
+    }
+
+    private Object[] createAllPools() {
+        synchronized (LOCK) {
+            if (allPools != null) {
+                return allPools;
+            }
+            checkNetThreads();
+
+            List<Object> pools = new ArrayList<>();
+            for (NetThreadData<CLIENT_POOL> netThread : netThreads) {
+                for (int poolIdx = 0; poolIdx < netThread.getPools().length; poolIdx++) {
+                    pools.add(netThread.getOrCreateClientPool(poolIdx));
                 }
             }
+            allPools = pools.toArray();
+            return allPools;
+        }
+    }
+
+    // 网络线程在transport初始化时部署，没有网络线程说明transport未初始化或部署失败
+    private void checkNetThreads() {
+        for (NetThreadData<CLIENT_POOL> netThread : netThreads) {
+            if (netThread.getPools().length > 0) {
+                return;
+            }
         }
+        throw new IllegalStateException("no client pool available, net threads of transport are not deployed.");
+    }
 
-        return clientPool;
+    /**
+     * 绑定到存活调用线程最少的CLIENT_POOL，已消亡线程的份额会被新线程重新占用
+     */
+    private CLIENT_POOL bindCurrentThread() {
+        synchronized (LOCK) {
+            checkNetThreads();
+
+            Map<CLIENT_POOL, Integer> liveCounts = new IdentityHashMap<>();
+            for (Iterator<ThreadBinding<CLIENT_POOL>> it = bindings.iterator(); it.hasNext();) {
+                ThreadBinding<CLIENT_POOL> binding = it.next();
+                if (!binding.isAlive()) {
+                    it.remove();
+                    continue;
+                }
+                liveCounts.merge(binding.clientPool, 1, Integer::sum);
+            }
+
+            // 负载相同时轮流从不同的网络线程开始，保持原来的均分效果
+            int start = bindIndex.getAndIncrement();
+            NetThreadData<CLIENT_POOL> selectedThread = null;
+            int selectedIdx = -1;
+            int selectedCount = Integer.MAX_VALUE;
+            for (int threadIdx = 0; threadIdx < netThreads.size(); threadIdx++) {
+                NetThreadData<CLIENT_POOL> netThread = netThreads.get((start + threadIdx) % netThreads.size());
+                CLIENT_POOL[] pools = netThread.getPools();
+                for (int poolIdx = 0; poolIdx < pools.length; poolIdx++) {
+                    Integer count = pools[poolIdx] == null ? null : liveCounts.get(pools[poolIdx]);
+                    int live = count == null ? 0 : count;
+                    if (live < selectedCount) {
+                        selectedThread = netThread;
+                        selectedIdx = poolIdx;
+                        selectedCount = live;
+                    }
+                }
+            }
+
+            CLIENT_POOL clientPool = selectedThread.getOrCreateClientPool(selectedIdx);
+            bindings.add(new ThreadBinding<>(Thread.currentThread(), clientPool));
+            return clientPool;
+        }
     }
 }
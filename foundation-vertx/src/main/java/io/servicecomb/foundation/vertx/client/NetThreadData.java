@@ -45,6 +45,18 @@ public class NetThreadData<CLIENT_POOL> {
         return bindIndex;
     }
 
+    /**
+     * 在ClientPoolManager中被调用，是被锁保护的
+     */
+    public CLIENT_POOL getOrCreateClientPool(int idx) {
+        CLIENT_POOL clientPool = pools[idx];
+        if (clientPool == null) {
+            clientPool = factory.createClientPool();
+            pools[idx] = clientPool;
+        }
+        return clientPool;
+    }
+
     /**
      * 在ClientPoolManager中被调用，是被锁保护的
      */
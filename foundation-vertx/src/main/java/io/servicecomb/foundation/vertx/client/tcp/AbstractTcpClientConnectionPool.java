@@ -16,13 +16,26 @@
 
 package io.servicecomb.foundation.vertx.client.tcp;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.vertx.core.Context;
 import io.vertx.core.net.NetClient;
 
 public abstract class AbstractTcpClientConnectionPool<T extends TcpClientConnection> {
+    private static final long TIMEOUT_TICK_MILLIS = 10;
+
+    // 所有连接池共用一个timer，每个HashedWheelTimer都有独立的工作线程，不能按连接池创建
+    static final Timer TIMEOUT_TIMER = new HashedWheelTimer(
+            new DefaultThreadFactory("tcp-client-timeout", true),
+            TIMEOUT_TICK_MILLIS, TimeUnit.MILLISECONDS);
+
     // 是在哪个context中创建的
     protected Context context;
 
@@ -30,8 +43,11 @@ public abstract class AbstractTcpClientConnectionPool<T extends TcpClientConnect
 
     protected NetClient netClient;
 
-    // key为address
-    protected Map<String, T> tcpClientMap = new ConcurrentHashMap<>();
+    // 每个请求发送时登记超时，收到应答时取消，不再周期性扫描所有请求
+    protected Timer timeoutTimer = TIMEOUT_TIMER;
+
+    // key为address，每个address可以有多个连接，避免大应答造成的队头阻塞
+    protected Map<String, List<T>> tcpClientMap = new ConcurrentHashMap<>();
 
     public AbstractTcpClientConnectionPool(TcpClientConfig clientConfig, Context context, NetClient netClient) {
         this.clientConfig = clientConfig;
@@ -42,32 +58,62 @@ public abstract class AbstractTcpClientConnectionPool<T extends TcpClientConnect
     }
 
     protected void startCheckTimeout(TcpClientConfig clientConfig, Context context) {
-        context.owner().setPeriodic(clientConfig.getRequestTimeoutMillis(), this::onCheckTimeout);
+        timeoutTimer = TIMEOUT_TIMER;
     }
 
-    private void onCheckTimeout(Long event) {
-        for (TcpClientConnection client : tcpClientMap.values()) {
-            client.checkTimeout();
-        }
+    public Timer getTimeoutTimer() {
+        return timeoutTimer;
     }
 
     public void send(TcpClientConnection tcpClient, AbstractTcpClientPackage tcpClientPackage, TcpResonseCallback callback) {
-        tcpClient.send(tcpClientPackage, clientConfig.getRequestTimeoutMillis(), callback);
+        long msTimeout = tcpClientPackage.getRequestTimeoutMillis();
+        if (msTimeout <= 0) {
+            msTimeout = clientConfig.getRequestTimeoutMillis();
+        }
+        tcpClient.send(tcpClientPackage, msTimeout, callback);
     }
 
     public T findOrCreateClient(String endpoint) {
-        T tcpClient = tcpClientMap.get(endpoint);
-        if (tcpClient == null) {
-            synchronized (this) {
-                tcpClient = tcpClientMap.get(endpoint);
-                if (tcpClient == null) {
-                    tcpClient = create(endpoint);
-                    tcpClientMap.put(endpoint, tcpClient);
-                }
+        return findOrCreateClient(endpoint, 1);
+    }
+
+    /**
+     * 选择等待应答最少的连接；所有连接都繁忙且未达到maxConnections时，新建连接
+     */
+    public T findOrCreateClient(String endpoint, int maxConnections) {
+        List<T> clients = tcpClientMap.get(endpoint);
+        if (clients != null) {
+            T tcpClient = selectLeastPending(clients);
+            if (tcpClient != null && (tcpClient.getPendingCount() == 0 || clients.size() >= maxConnections)) {
+                return tcpClient;
             }
         }
 
-        return tcpClient;
+        synchronized (this) {
+            clients = tcpClientMap.computeIfAbsent(endpoint, key -> new CopyOnWriteArrayList<>());
+            T tcpClient = selectLeastPending(clients);
+            if (tcpClient != null && (tcpClient.getPendingCount() == 0 || clients.size() >= maxConnections)) {
+                return tcpClient;
+            }
+
+            tcpClient = create(endpoint);
+            tcpClient.setTimeoutTimer(timeoutTimer);
+            clients.add(tcpClient);
+            return tcpClient;
+        }
+    }
+
+    protected T selectLeastPending(List<T> clients) {
+        T selected = null;
+        int selectedPending = Integer.MAX_VALUE;
+        for (T tcpClient : clients) {
+            int pending = tcpClient.getPendingCount();
+            if (pending < selectedPending) {
+                selected = tcpClient;
+                selectedPending = pending;
+            }
+        }
+        return selected;
     }
 
     protected abstract T create(String endpoint);
@@ -28,9 +28,20 @@ public abstract class AbstractTcpClientPackage {
 
     protected long msgId = getAndIncRequestId();
 
+    // 小于等于0时，使用TcpClientConfig中的默认超时
+    protected long msRequestTimeout;
+
     public long getMsgId() {
         return msgId;
     }
 
+    public long getRequestTimeoutMillis() {
+        return msRequestTimeout;
+    }
+
+    public void setRequestTimeoutMillis(long msRequestTimeout) {
+        this.msRequestTimeout = msRequestTimeout;
+    }
+
     public abstract TcpOutputStream createStream();
 }
@@ -16,16 +16,42 @@
 
 package io.servicecomb.foundation.vertx.client.tcp;
 
+import io.servicecomb.foundation.vertx.server.TcpParser;
 import io.vertx.core.net.NetClientOptions;
 
 public class TcpClientConfig extends NetClientOptions {
     private static final int DEFAULT_TIMEOUT = 30000;
 
+    private static final int DEFAULT_WRITE_BATCH_MAX_BYTES = 64 * 1024;
+
     private long msRequestTimeout;
 
+    // 合并写：单次写入socket的最大字节数，小于等于0表示不合并，每个请求单独写
+    private int writeBatchMaxBytes;
+
+    // 合并写：等待更多请求的时间，0表示在下一次event loop迭代时立即写出
+    private long writeBatchDelayMillis;
+
+    // 单个应答header + body的最大长度
+    private int maxFrameSize;
+
+    // 分片消息累积后的最大长度
+    private long maxMessageSize;
+
+    // 一个连接上所有未收齐的分片消息的总长度上限
+    private long maxPendingChunkBytes;
+
+    // 一个连接上同时未收齐的分片消息数上限
+    private int maxPendingChunkMessages;
+
     public TcpClientConfig() {
         // 30 second
         msRequestTimeout = DEFAULT_TIMEOUT;
+        writeBatchMaxBytes = DEFAULT_WRITE_BATCH_MAX_BYTES;
+        maxFrameSize = TcpParser.DEFAULT_MAX_FRAME_SIZE;
+        maxMessageSize = TcpParser.DEFAULT_MAX_MESSAGE_SIZE;
+        maxPendingChunkBytes = TcpParser.DEFAULT_MAX_PENDING_CHUNK_BYTES;
+        maxPendingChunkMessages = TcpParser.DEFAULT_MAX_PENDING_CHUNK_MESSAGES;
     }
 
     public long getRequestTimeoutMillis() {
@@ -35,4 +61,52 @@ public class TcpClientConfig extends NetClientOptions {
     public void setRequestTimeoutMillis(long msTimeout) {
         this.msRequestTimeout = msTimeout;
     }
+
+    public int getWriteBatchMaxBytes() {
+        return writeBatchMaxBytes;
+    }
+
+    public void setWriteBatchMaxBytes(int writeBatchMaxBytes) {
+        this.writeBatchMaxBytes = writeBatchMaxBytes;
+    }
+
+    public long getWriteBatchDelayMillis() {
+        return writeBatchDelayMillis;
+    }
+
+    public void setWriteBatchDelayMillis(long writeBatchDelayMillis) {
+        this.writeBatchDelayMillis = writeBatchDelayMillis;
+    }
+
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    public void setMaxFrameSize(int maxFrameSize) {
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    public long getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    public void setMaxMessageSize(long maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    public long getMaxPendingChunkBytes() {
+        return maxPendingChunkBytes;
+    }
+
+    public void setMaxPendingChunkBytes(long maxPendingChunkBytes) {
+        this.maxPendingChunkBytes = maxPendingChunkBytes;
+    }
+
+    public int getMaxPendingChunkMessages() {
+        return maxPendingChunkMessages;
+    }
+
+    public void setMaxPendingChunkMessages(int maxPendingChunkMessages) {
+        this.maxPendingChunkMessages = maxPendingChunkMessages;
+    }
 }
@@ -20,19 +20,26 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.util.Timer;
 import io.servicecomb.foundation.common.net.URIEndpointObject;
 import io.servicecomb.foundation.vertx.server.TcpParser;
+import io.servicecomb.foundation.vertx.tcp.TcpChunkWriter;
 import io.servicecomb.foundation.vertx.tcp.TcpConnection;
 import io.servicecomb.foundation.vertx.tcp.TcpConst;
 import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
+import io.servicecomb.foundation.vertx.tcp.TcpWriteUtils;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.buffer.Buffer;
@@ -69,8 +76,19 @@ public class TcpClientConnection extends TcpConnection {
     // 连接未建立时，临时保存发送消息的队列
     private List<AbstractTcpClientPackage> tmpPackageList = new LinkedList<>();
 
-    // 所有的访问，都在锁的保护中，是线程安全的
-    private volatile Map<Long, TcpRequest> requestMap = new ConcurrentHashMap<>();
+    // 等待应答的请求
+    private TcpRequestTable requestTable = new TcpRequestTable();
+
+    // 连接正常时待写出的数据，由context线程合并写出
+    private Queue<ByteBuf> writeQueue = new ConcurrentLinkedQueue<>();
+
+    private AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // 超时只由timer触发，不能为null，默认使用所有连接池共用的timer
+    private Timer timeoutTimer = AbstractTcpClientConnectionPool.TIMEOUT_TIMER;
+
+    // 对端支持分片时才创建，超过分片大小的消息拆分发送
+    private volatile TcpChunkWriter chunkWriter;
 
     public TcpClientConnection(Context context, NetClient netClient, String endpoint, TcpClientConfig clientConfig) {
         this.context = context;
@@ -85,6 +103,10 @@ public class TcpClientConnection extends TcpConnection {
         return context;
     }
 
+    public void setTimeoutTimer(Timer timeoutTimer) {
+        this.timeoutTimer = Objects.requireNonNull(timeoutTimer, "timeoutTimer must not be null.");
+    }
+
     public boolean isLocalSupportLogin() {
         return localSupportLogin;
     }
@@ -103,21 +125,117 @@ public class TcpClientConnection extends TcpConnection {
 
     /**
      * 回调在tcp client verticle线程执行
-     * send没有锁优化的意义，因为netSocket.write内部本身会加锁
+     * 连接正常时，在调用者线程编码，不加锁；编码结果放入无锁队列，由context线程合并写出
      */
-    public synchronized void send(AbstractTcpClientPackage tcpClientPackage, long msTimeout,
+    public void send(AbstractTcpClientPackage tcpClientPackage, long msTimeout,
             TcpResonseCallback callback) {
-        requestMap.put(tcpClientPackage.getMsgId(), new TcpRequest(msTimeout, callback));
+        if (!registerRequest(tcpClientPackage.getMsgId(), msTimeout, callback)) {
+            return;
+        }
 
         if (Status.WORKING.equals(status)) {
-            TcpOutputStream os = tcpClientPackage.createStream();
-            netSocket.write(os.getBuffer());
+            write(tcpClientPackage.createStream());
+            // 与断连并发时，请求可能在clearCachedRequest之后才登记，重新检查，不能等到超时才失败
+            // 已入队的数据由flushWriteQueue丢弃
+            if (!Status.WORKING.equals(status)) {
+                failRequest(tcpClientPackage.getMsgId(), new IOException(
+                        String.format("disconnected from %s", socketAddress)));
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (Status.WORKING.equals(status)) {
+                write(tcpClientPackage.createStream());
+                return;
+            }
+
+            tmpPackageList.add(tcpClientPackage);
+            if (Status.DISCONNECTED.equals(status)) {
+                connect();
+            }
+        }
+    }
+
+    // 返回false表示与断连时的清理并发，请求已经通知失败，不必再发送
+    private boolean registerRequest(long msgId, long msTimeout, TcpResonseCallback callback) {
+        TcpRequest request = new TcpRequest(msTimeout, callback);
+        if (!requestTable.put(msgId, request)) {
+            request.onSendError(new IOException(String.format("disconnected from %s", socketAddress)));
+            return false;
+        }
+
+        request.setTimeout(timeoutTimer.newTimeout(timeout -> {
+            context.runOnContext(v -> onRequestTimeout(msgId));
+        }, msTimeout, TimeUnit.MILLISECONDS));
+        return true;
+    }
+
+    protected void write(TcpOutputStream os) {
+        TcpChunkWriter writer = chunkWriter;
+        if (writer != null && writer.needChunk(os)) {
+            writer.write(os);
+            return;
+        }
+
+        if (clientConfig.getWriteBatchMaxBytes() <= 0) {
+            os.writeTo(netSocket);
+            return;
+        }
+
+        writeQueue.add(os.detachByteBuf());
+        if (flushScheduled.compareAndSet(false, true)) {
+            if (clientConfig.getWriteBatchDelayMillis() > 0) {
+                context.owner().setTimer(clientConfig.getWriteBatchDelayMillis(), id -> flushWriteQueue());
+                return;
+            }
+
+            context.runOnContext(v -> flushWriteQueue());
+        }
+    }
+
+    /**
+     * 在context线程中执行，将队列中的数据合并为CompositeByteBuf，每批不超过writeBatchMaxBytes
+     */
+    protected void flushWriteQueue() {
+        // 先复位，之后入队的数据会触发新的flush，不会遗漏
+        flushScheduled.set(false);
+
+        // 断连后才入队的数据，对应的请求已经通知失败，不能写到重连后的连接上
+        if (!Status.WORKING.equals(status)) {
+            releaseWriteQueue();
             return;
         }
 
-        tmpPackageList.add(tcpClientPackage);
-        if (Status.DISCONNECTED.equals(status)) {
-            connect();
+        ByteBuf batch = null;
+        ByteBuf buf;
+        while ((buf = writeQueue.poll()) != null) {
+            if (batch == null) {
+                batch = buf;
+            } else {
+                if (!(batch instanceof CompositeByteBuf)) {
+                    CompositeByteBuf composite = batch.alloc().compositeDirectBuffer(Integer.MAX_VALUE);
+                    composite.addComponent(true, batch);
+                    batch = composite;
+                }
+                ((CompositeByteBuf) batch).addComponent(true, buf);
+            }
+
+            if (batch.readableBytes() >= clientConfig.getWriteBatchMaxBytes()) {
+                TcpWriteUtils.write(netSocket, batch);
+                batch = null;
+            }
+        }
+
+        if (batch != null) {
+            TcpWriteUtils.write(netSocket, batch);
+        }
+    }
+
+    private void releaseWriteQueue() {
+        ByteBuf buf;
+        while ((buf = writeQueue.poll()) != null) {
+            buf.release();
         }
     }
 
@@ -135,10 +253,31 @@ public class TcpClientConnection extends TcpConnection {
         });
     }
 
+    /**
+     * 在login应答中确认对端支持分片后调用，chunkSize小于等于0表示不分片
+     */
+    protected void enableChunkWrite(int chunkSize) {
+        if (chunkSize > 0) {
+            chunkWriter = new TcpChunkWriter(context, netSocket, chunkSize);
+        }
+    }
+
+    public TcpChunkWriter getChunkWriter() {
+        return chunkWriter;
+    }
+
     private synchronized void onConnectSuccess(NetSocket socket) {
         LOGGER.info("connect to address {} success", socketAddress.toString());
         this.netSocket = socket;
-        socket.handler(new TcpParser(this::onReply));
+        TcpParser parser = new TcpParser(this::onReply, clientConfig.getMaxFrameSize());
+        parser.setMaxMessageSize(clientConfig.getMaxMessageSize());
+        parser.setMaxPendingChunkBytes(clientConfig.getMaxPendingChunkBytes());
+        parser.setMaxPendingChunkMessages(clientConfig.getMaxPendingChunkMessages());
+        parser.exceptionHandler(e -> {
+            LOGGER.error("close connection to {}, cause {}", socketAddress.toString(), e.getMessage());
+            socket.close();
+        });
+        socket.handler(parser);
 
         socket.exceptionHandler(this::onException);
         socket.closeHandler(this::onClosed);
@@ -169,6 +308,11 @@ public class TcpClientConnection extends TcpConnection {
                 Thread.currentThread().getName(),
                 e.getMessage());
 
+        releaseWriteQueue();
+        if (chunkWriter != null) {
+            chunkWriter.close();
+            chunkWriter = null;
+        }
         clearCachedRequest(e);
     }
 
@@ -187,9 +331,9 @@ public class TcpClientConnection extends TcpConnection {
         LOGGER.info("try login to address {}", socketAddress.toString());
 
         try (TcpOutputStream os = createLogin()) {
-            requestMap.put(os.getMsgId(),
-                    new TcpRequest(clientConfig.getRequestTimeoutMillis(), this::onLoginResponse));
-            netSocket.write(os.getBuffer());
+            if (registerRequest(os.getMsgId(), clientConfig.getRequestTimeoutMillis(), this::onLoginResponse)) {
+                os.writeTo(netSocket);
+            }
         }
     }
 
@@ -218,7 +362,7 @@ public class TcpClientConnection extends TcpConnection {
             for (AbstractTcpClientPackage tcpClientPackage : tmpPackageList) {
                 TcpOutputStream os = tcpClientPackage.createStream();
                 if (os != null) {
-                    netSocket.write(os.getBuffer());
+                    write(os);
                 }
             }
             tmpPackageList.clear();
@@ -239,40 +383,47 @@ public class TcpClientConnection extends TcpConnection {
 
     protected synchronized void clearCachedRequest(Throwable cause) {
         // 在onSendError，用户可能发起一次新的调用，需要避免作多余的清理
-        Map<Long, TcpRequest> oldMap = requestMap;
-        requestMap = new ConcurrentHashMap<>();
+        for (TcpRequest request : requestTable.removeAll()) {
+            request.onSendError(cause);
+        }
+    }
 
-        for (TcpRequest request : oldMap.values()) {
+    private void failRequest(long msgId, Throwable cause) {
+        // 可能已经被clearCachedRequest取走并通知了
+        TcpRequest request = requestTable.remove(msgId);
+        if (request != null) {
             request.onSendError(cause);
         }
-        oldMap.clear();
     }
 
     protected void onReply(long msgId, Buffer headerBuffer, Buffer bodyBuffer) {
-        TcpRequest request = requestMap.remove(msgId);
+        TcpRequest request = requestTable.remove(msgId);
         if (request == null) {
-            LOGGER.error("Unknown reply msgId {}, waiting count {}", msgId, requestMap.size());
+            LOGGER.error("Unknown reply msgId {}, waiting count {}", msgId, requestTable.size());
             return;
         }
 
         request.onReply(headerBuffer, bodyBuffer);
     }
 
-    public void checkTimeout() {
-        for (Entry<Long, TcpRequest> entry : requestMap.entrySet()) {
-            TcpRequest request = entry.getValue();
-            if (request.isTimeout()) {
-                // 可能正好收到reply，且被处理了，所以这里的remove不一定有效
-                // 是否有效，根据remove的结果来决定
-                request = requestMap.remove(entry.getKey());
-                if (request != null) {
-                    String msg =
-                        String.format("request timeout, msgId=%d, address=%s", entry.getKey(), socketAddress);
-                    LOGGER.error(msg);
-
-                    request.onTimeout(new TimeoutException(msg));
-                }
-            }
+    public int getPendingCount() {
+        return requestTable.size();
+    }
+
+    public TcpRequestTable getRequestTable() {
+        return requestTable;
+    }
+
+    protected void onRequestTimeout(long msgId) {
+        // 可能正好收到reply，且被处理了，所以这里的remove不一定有效
+        // 是否有效，根据remove的结果来决定
+        TcpRequest request = requestTable.remove(msgId);
+        if (request != null) {
+            String msg =
+                String.format("request timeout, msgId=%d, address=%s", msgId, socketAddress);
+            LOGGER.error(msg);
+
+            request.onTimeout(new TimeoutException(msg));
         }
     }
 }
@@ -18,11 +18,15 @@ package io.servicecomb.foundation.vertx.client.tcp;
 
 import java.util.concurrent.TimeoutException;
 
+import io.netty.util.Timeout;
 import io.vertx.core.Context;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 
 public class TcpRequest {
+    // 登记到TcpRequestTable时设置，用于校验槽位中的请求
+    private long msgId;
+
     private long begin;
 
     private long msTimeout;
@@ -33,6 +37,8 @@ public class TcpRequest {
 
     private TcpResonseCallback responseCallback;
 
+    private volatile Timeout timeout;
+
     public TcpRequest(long msTimeout, TcpResonseCallback responseCallback) {
         callContext = Vertx.currentContext();
         threadId = Thread.currentThread().getId();
@@ -41,7 +47,28 @@ public class TcpRequest {
         this.responseCallback = responseCallback;
     }
 
+    public long getMsgId() {
+        return msgId;
+    }
+
+    public void setMsgId(long msgId) {
+        this.msgId = msgId;
+    }
+
+    public void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    public void cancelTimeout() {
+        Timeout tmp = timeout;
+        if (tmp != null) {
+            tmp.cancel();
+        }
+    }
+
     public void onReply(Buffer headerBuffer, Buffer bodyBuffer) {
+        cancelTimeout();
+
         TcpData tcpData = new TcpData(headerBuffer, bodyBuffer);
 
         if (callContext == null || threadId == Thread.currentThread().getId()) {
@@ -55,6 +82,7 @@ public class TcpRequest {
     }
 
     public void onSendError(Throwable e) {
+        cancelTimeout();
         responseCallback.fail(e);
     }
 
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.foundation.vertx.client.tcp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * msgId到TcpRequest的映射
+ * 发送在业务线程，应答与超时在网络线程，不加锁：
+ * 按msgId & mask直接定位槽位，CAS占用与释放，不装箱，不分配map node
+ * 同一连接上的msgId是递增的，只有等待中的旧请求与新请求落到同一个槽位时，才进入溢出map
+ */
+public class TcpRequestTable {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final AtomicReferenceArray<TcpRequest> slots;
+
+    private final int mask;
+
+    // 槽位冲突时使用，正常情况下为空
+    private final Map<Long, TcpRequest> overflow = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    // 历史最大等待数，用于容量评估
+    private final AtomicInteger maxSize = new AtomicInteger();
+
+    // 每次removeAll递增，put据此判断是否与removeAll并发，避免插入到已扫描过的槽位而漏掉
+    private final AtomicInteger epoch = new AtomicInteger();
+
+    public TcpRequestTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // capacity必须是2的幂
+    public TcpRequestTable(int capacity) {
+        slots = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    private int indexOf(long msgId) {
+        return (int) msgId & mask;
+    }
+
+    /**
+     * 返回false表示与removeAll并发，请求已被收回，调用者需要自己通知失败
+     * 被removeAll取走的请求由removeAll的调用者通知，这里仍返回true
+     */
+    public boolean put(long msgId, TcpRequest request) {
+        int startEpoch = epoch.get();
+        doPut(msgId, request);
+        if (epoch.get() == startEpoch) {
+            return true;
+        }
+
+        return remove(msgId) != request;
+    }
+
+    private void doPut(long msgId, TcpRequest request) {
+        request.setMsgId(msgId);
+
+        int idx = indexOf(msgId);
+        for (;;) {
+            TcpRequest exist = slots.get(idx);
+            if (exist == null) {
+                if (!overflow.isEmpty() && overflow.containsKey(msgId)) {
+                    overflow.put(msgId, request);
+                    return;
+                }
+                if (slots.compareAndSet(idx, null, request)) {
+                    onAdded();
+                    return;
+                }
+                continue;
+            }
+
+            if (exist.getMsgId() == msgId) {
+                if (slots.compareAndSet(idx, exist, request)) {
+                    return;
+                }
+                continue;
+            }
+
+            if (overflow.put(msgId, request) == null) {
+                onAdded();
+            }
+            return;
+        }
+    }
+
+    private void onAdded() {
+        int current = size.incrementAndGet();
+        int max = maxSize.get();
+        while (current > max && !maxSize.compareAndSet(max, current)) {
+            max = maxSize.get();
+        }
+    }
+
+    public TcpRequest get(long msgId) {
+        TcpRequest request = slots.get(indexOf(msgId));
+        if (request != null && request.getMsgId() == msgId) {
+            return request;
+        }
+
+        return overflow.isEmpty() ? null : overflow.get(msgId);
+    }
+
+    public TcpRequest remove(long msgId) {
+        int idx = indexOf(msgId);
+        TcpRequest request = slots.get(idx);
+        if (request != null && request.getMsgId() == msgId) {
+            if (slots.compareAndSet(idx, request, null)) {
+                size.decrementAndGet();
+                return request;
+            }
+            // 已经被其他线程移除，比如应答与超时并发
+            return null;
+        }
+
+        if (overflow.isEmpty()) {
+            return null;
+        }
+        request = overflow.remove(msgId);
+        if (request != null) {
+            size.decrementAndGet();
+        }
+        return request;
+    }
+
+    /**
+     * 取出所有请求并清空，调用者逐个通知失败，回调中发起新请求不受影响
+     */
+    public TcpRequest[] removeAll() {
+        // 先递增，在此之前开始的put，插入后都能感知到；之后开始的put属于removeAll之后的新请求
+        epoch.incrementAndGet();
+
+        List<TcpRequest> result = new ArrayList<>();
+        for (int idx = 0; idx < slots.length(); idx++) {
+            TcpRequest request = slots.getAndSet(idx, null);
+            if (request != null) {
+                result.add(request);
+            }
+        }
+        for (Long msgId : overflow.keySet()) {
+            TcpRequest request = overflow.remove(msgId);
+            if (request != null) {
+                result.add(request);
+            }
+        }
+
+        size.addAndGet(-result.size());
+        return result.toArray(new TcpRequest[result.size()]);
+    }
+
+    public long[] msgIds() {
+        List<TcpRequest> requests = new ArrayList<>();
+        for (int idx = 0; idx < slots.length(); idx++) {
+            TcpRequest request = slots.get(idx);
+            if (request != null) {
+                requests.add(request);
+            }
+        }
+        requests.addAll(overflow.values());
+
+        long[] result = new long[requests.size()];
+        for (int idx = 0; idx < result.length; idx++) {
+            result[idx] = requests.get(idx).getMsgId();
+        }
+        return result;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize.get();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public int overflowSize() {
+        return overflow.size();
+    }
+}
@@ -17,22 +17,44 @@
 package io.servicecomb.foundation.vertx.server;
 
 import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.Map;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.parsetools.RecordParser;
-import io.vertx.core.parsetools.impl.RecordParserImpl;
 
 /**
  * TcpParser
  *
+ * 直接在累积的ByteBuf上拆包，header和body是对累积缓冲区的切片，不做拷贝
+ * 已经切片交给上层的缓冲区不会再被写入，新数据会追加到新的缓冲区中
+ * 因此调用方在handle之后不能再修改传入的Buffer
  *
+ * headerLen字段带CHUNK_FLAG的frame是大消息的分片，按msgId累积，直到收到同一msgId不带该标记的frame，见TcpChunkWriter
+ * 分片只是拆分frame，完整消息仍然在内存中拼装，占用的内存由maxMessageSize、maxPendingChunkBytes限制
  */
 public class TcpParser implements Handler<Buffer> {
     public static final byte[] TCP_MAGIC;
 
     public static final int TCP_HEADER_LENGTH = 23;
+
+    // headerLen字段的最高位，标记frame只携带body分片，不能只靠header长度为0判断，正常消息的header也可以为空
+    // 只在对端login时声明支持分片后才会发送，旧版本按负的headerLen视为非法
+    public static final int CHUNK_FLAG = 0x80000000;
+
+    public static final int DEFAULT_MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    public static final long DEFAULT_MAX_MESSAGE_SIZE = 256L * 1024 * 1024;
+
+    public static final long DEFAULT_MAX_PENDING_CHUNK_BYTES = DEFAULT_MAX_MESSAGE_SIZE;
+
+    public static final int DEFAULT_MAX_PENDING_CHUNK_MESSAGES = 16;
+
+    private static final int TOTAL_LEN_OFFSET = 15;
+
     static {
         try {
             TCP_MAGIC = "CSE.TCP".getBytes("UTF-8");
@@ -41,38 +63,89 @@ public class TcpParser implements Handler<Buffer> {
         }
     }
 
-    enum ParseStatus {
-        TCP_HEADER,
-        TCP_PAYLOAD
-    }
-
     private TcpBufferHandler outputHandler;
 
-    private RecordParser parser;
+    // header + body的最大长度，防止非法的totalLen导致分配超大内存
+    private int maxFrameSize;
+
+    // 分片累积后的最大长度
+    private long maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+
+    // 一个连接上所有未收齐的分片消息累积的总长度上限，防止交错发送大量分片消息占用N倍的maxMessageSize
+    private long maxPendingChunkBytes = DEFAULT_MAX_PENDING_CHUNK_BYTES;
 
-    private ParseStatus status;
+    // 一个连接上同时未收齐的分片消息数上限
+    private int maxPendingChunkMessages = DEFAULT_MAX_PENDING_CHUNK_MESSAGES;
 
-    private long msgId;
+    // 当前所有未收齐的分片消息累积的总长度
+    private long pendingChunkBytes;
 
-    // 仅仅是header + body，不包括headerLen本身
-    private int totalLen;
+    private Handler<Throwable> exceptionHandler;
 
-    private int headerLen;
+    // 尚未收齐的分片消息，key为msgId
+    private Map<Long, CompositeByteBuf> chunks;
+
+    // 尚未解析完的数据
+    private ByteBuf cumulation;
+
+    // cumulation不属于本parser，或者已经有切片交给了上层，不能再往里面写数据
+    private boolean shared;
 
     public TcpParser(TcpBufferHandler output) {
+        this(output, DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    public TcpParser(TcpBufferHandler output, int maxFrameSize) {
         this.outputHandler = output;
+        this.maxFrameSize = maxFrameSize;
+    }
 
-        reset();
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    public long getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    public void setMaxMessageSize(long maxMessageSize) {
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    public long getMaxPendingChunkBytes() {
+        return maxPendingChunkBytes;
+    }
+
+    public void setMaxPendingChunkBytes(long maxPendingChunkBytes) {
+        this.maxPendingChunkBytes = maxPendingChunkBytes;
+    }
+
+    public int getMaxPendingChunkMessages() {
+        return maxPendingChunkMessages;
+    }
+
+    public void setMaxPendingChunkMessages(int maxPendingChunkMessages) {
+        this.maxPendingChunkMessages = maxPendingChunkMessages;
+    }
+
+    public long getPendingChunkBytes() {
+        return pendingChunkBytes;
     }
 
     /**
-     * 在解析出错时，通过重新创建parser对象，将整个缓冲区重置
+     * 收到非法数据时调用，此时已缓存的数据都被丢弃
      */
-    protected void reset() {
-        parser = RecordParserImpl.newFixed(TCP_HEADER_LENGTH, this::onParse);
-        status = ParseStatus.TCP_HEADER;
+    public TcpParser exceptionHandler(Handler<Throwable> handler) {
+        this.exceptionHandler = handler;
+        return this;
+    }
 
-        parser.handle(Buffer.buffer(0));
+    /**
+     * 在解析出错时，丢弃所有已缓存的数据
+     */
+    protected void reset() {
+        cumulation = null;
+        shared = false;
     }
 
     public boolean firstNEqual(byte[] a, byte[] b, int n) {
@@ -86,48 +159,165 @@ public class TcpParser implements Handler<Buffer> {
         return true;
     }
 
-    protected void onParse(Buffer buffer) {
-        switch (status) {
-            case TCP_HEADER:
-                ByteBuf buf = buffer.getByteBuf();
-                if (!firstNEqual(TCP_MAGIC, buf.array(), TCP_MAGIC.length)) {
-                    reset();
-                    return;
-                }
+    protected boolean isMagicMatch(ByteBuf buf, int index) {
+        for (int i = 0; i < TCP_MAGIC.length; i++) {
+            if (buf.getByte(index + i) != TCP_MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void handle(Buffer buf) {
+        ByteBuf input = buf.getByteBuf();
+        if (!input.isReadable()) {
+            return;
+        }
+
+        cumulate(input);
+        parse();
+    }
+
+    private void cumulate(ByteBuf input) {
+        if (cumulation == null) {
+            cumulation = input;
+            shared = true;
+            return;
+        }
+
+        if (!shared) {
+            cumulation.writeBytes(input);
+            return;
+        }
+
+        // 尽量一次分配出整包的空间，大包分多次到达时只拷贝一次
+        int required = cumulation.readableBytes() + input.readableBytes();
+        int frameSize = cumulation.readableBytes() >= TCP_HEADER_LENGTH
+                ? TCP_HEADER_LENGTH + Math.max(0, cumulation.getInt(cumulation.readerIndex() + TOTAL_LEN_OFFSET))
+                : 0;
+        ByteBuf newCumulation = Unpooled.buffer(Math.max(required, Math.min(frameSize, maxFrameSize)));
+        newCumulation.writeBytes(cumulation);
+        newCumulation.writeBytes(input);
+        cumulation = newCumulation;
+        shared = false;
+    }
+
+    private void parse() {
+        while (cumulation != null) {
+            int readable = cumulation.readableBytes();
+            if (readable < TCP_HEADER_LENGTH) {
+                return;
+            }
+
+            int idx = cumulation.readerIndex();
+            if (!isMagicMatch(cumulation, idx)) {
+                onInvalidFrame("invalid tcp magic.");
+                return;
+            }
+
+            long msgId = cumulation.getLong(idx + TCP_MAGIC.length);
+            // 仅仅是header + body，不包括headerLen本身
+            int totalLen = cumulation.getInt(idx + TOTAL_LEN_OFFSET);
+            int headerLenField = cumulation.getInt(idx + TOTAL_LEN_OFFSET + 4);
+            boolean chunk = (headerLenField & CHUNK_FLAG) != 0;
+            int headerLen = headerLenField & ~CHUNK_FLAG;
+            if (totalLen < 0 || totalLen > maxFrameSize) {
+                onInvalidFrame(String.format("invalid tcp frame length %d, max frame size is %d.",
+                        totalLen,
+                        maxFrameSize));
+                return;
+            }
+            if (headerLen > totalLen) {
+                onInvalidFrame(String.format("invalid tcp header length %d, frame length is %d.",
+                        headerLen,
+                        totalLen));
+                return;
+            }
+            if (chunk && (headerLen != 0 || totalLen == 0)) {
+                onInvalidFrame(String.format("invalid tcp chunk, header length %d, frame length %d.",
+                        headerLen,
+                        totalLen));
+                return;
+            }
+
+            if (readable < TCP_HEADER_LENGTH + totalLen) {
+                return;
+            }
+
+            Buffer headerBuffer = null;
+            Buffer bodyBuffer = null;
+            if (totalLen != 0) {
+                int start = idx + TCP_HEADER_LENGTH;
+                headerBuffer = Buffer.buffer(cumulation.slice(start, headerLen));
+                bodyBuffer = Buffer.buffer(cumulation.slice(start + headerLen, totalLen - headerLen));
+                shared = true;
+            }
 
-                buf.skipBytes(TCP_MAGIC.length);
-                msgId = buf.readLong();
-                totalLen = buf.readInt();
-                headerLen = buf.readInt();
+            cumulation.skipBytes(TCP_HEADER_LENGTH + totalLen);
+            if (!cumulation.isReadable()) {
+                reset();
+            }
 
-                if (totalLen == 0) {
-                    onReadOnePackage(null, null);
+            if (chunk) {
+                if (!onChunk(msgId, bodyBuffer)) {
                     return;
                 }
+                continue;
+            }
 
-                parser.fixedSizeMode(totalLen);
-                status = ParseStatus.TCP_PAYLOAD;
-                break;
-
-            case TCP_PAYLOAD:
-                Buffer headerBuffer = buffer.slice(0, headerLen);
-                Buffer bodyBuffer = buffer.slice(headerLen, buffer.length());
-                onReadOnePackage(headerBuffer, bodyBuffer);
-                break;
+            if (chunks != null && bodyBuffer != null) {
+                CompositeByteBuf pending = chunks.remove(msgId);
+                if (pending != null) {
+                    pendingChunkBytes -= pending.readableBytes();
+                    pending.addComponent(true, bodyBuffer.getByteBuf());
+                    bodyBuffer = Buffer.buffer(pending);
+                }
+            }
 
-            default:
-                break;
+            outputHandler.handle(msgId, headerBuffer, bodyBuffer);
         }
     }
 
-    private void onReadOnePackage(Buffer headerBuffer, Buffer bodyBuffer) {
-        outputHandler.handle(msgId, headerBuffer, bodyBuffer);
+    private boolean onChunk(long msgId, Buffer chunk) {
+        if (chunks == null) {
+            chunks = new HashMap<>();
+        }
 
-        parser.fixedSizeMode(TCP_HEADER_LENGTH);
-        status = ParseStatus.TCP_HEADER;
+        // 分片都是cumulation的切片，不会再被改写，直接组合，不拷贝
+        CompositeByteBuf pending = chunks.get(msgId);
+        if (pending == null) {
+            if (chunks.size() >= maxPendingChunkMessages) {
+                onInvalidFrame(String.format("too many pending chunked tcp messages, max is %d.",
+                        maxPendingChunkMessages));
+                return false;
+            }
+            pending = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+            chunks.put(msgId, pending);
+        }
+
+        if ((long) pending.readableBytes() + chunk.length() > maxMessageSize) {
+            onInvalidFrame(String.format("tcp message too large, msgId=%d, max message size is %d.",
+                    msgId,
+                    maxMessageSize));
+            return false;
+        }
+        if (pendingChunkBytes + chunk.length() > maxPendingChunkBytes) {
+            onInvalidFrame(String.format("too many pending chunk bytes, max is %d.", maxPendingChunkBytes));
+            return false;
+        }
+
+        pending.addComponent(true, chunk.getByteBuf());
+        pendingChunkBytes += chunk.length();
+        return true;
     }
 
-    public void handle(Buffer buf) {
-        parser.handle(buf);
+    private void onInvalidFrame(String msg) {
+        reset();
+        chunks = null;
+        pendingChunkBytes = 0;
+
+        if (exceptionHandler != null) {
+            exceptionHandler.handle(new IllegalStateException(msg));
+        }
     }
 }
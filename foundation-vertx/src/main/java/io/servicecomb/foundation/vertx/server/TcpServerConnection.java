@@ -46,8 +46,18 @@ public class TcpServerConnection extends TcpConnection {
             LOGGER.error("disconected from {}, in thread {}",
                     remoteAddress,
                     Thread.currentThread().getName());
+            onClosed();
         });
 
+        if (splitter != null) {
+            splitter.exceptionHandler(e -> {
+                LOGGER.error("close connection from {}, cause {}", remoteAddress, e.getMessage());
+                netSocket.close();
+            });
+        }
         netSocket.handler(splitter);
     }
+
+    protected void onClosed() {
+    }
 }
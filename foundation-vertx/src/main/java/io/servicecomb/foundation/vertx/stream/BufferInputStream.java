@@ -33,6 +33,10 @@ public class BufferInputStream extends InputStream {
         this.byteBuf = buffer;
     }
 
+    public ByteBuf getByteBuf() {
+        return byteBuf;
+    }
+
     @Override
     public long skip(long len) {
         int skipLen = Math.min((int) len, available());
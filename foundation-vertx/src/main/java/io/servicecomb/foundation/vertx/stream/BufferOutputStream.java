@@ -35,27 +35,45 @@ public class BufferOutputStream extends OutputStream {
     private boolean needReleaseBuffer;
 
     public BufferOutputStream() {
-        // TODO:默认大小加配置项
-        // TODO:如何与pool配合起来，vertx中默认都是unpool的，我们的阻塞模式下，申请与释放也不在一个线程，估计更用不上？
-        //        后续通道没问题了，再来验证这个问题
-        //        this(PooledByteBufAllocator.DEFAULT.directBuffer());
-
-        //        this(PooledByteBufAllocator.DEFAULT.directBuffer(DIRECT_BUFFER_SIZE));
-
-        //        this(UnpooledByteBufAllocator.DEFAULT.directBuffer(DIRECT_BUFFER_SIZE));
-        //        needReleaseBuffer = false;
-
-        //                this(UnpooledByteBufAllocator.DEFAULT.heapBuffer(DIRECT_BUFFER_SIZE));
+        this(DIRECT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * pooled为true时，从PooledByteBufAllocator申请direct buffer
+     * 此时buffer的所有权属于本stream，close时释放，或者通过detachByteBuf转移给调用者
+     */
+    public BufferOutputStream(int initialCapacity, boolean pooled) {
+        if (pooled) {
+            this.byteBuf = PooledBufferStatistics.allocate(initialCapacity);
+            this.needReleaseBuffer = true;
+            return;
+        }
 
-        this(Buffer.buffer(DIRECT_BUFFER_SIZE).getByteBuf());
-        needReleaseBuffer = false;
+        this.byteBuf = Buffer.buffer(initialCapacity).getByteBuf();
+        this.needReleaseBuffer = false;
     }
 
-
     public BufferOutputStream(ByteBuf buffer) {
         this.byteBuf = buffer;
     }
 
+    public boolean isPooled() {
+        return needReleaseBuffer;
+    }
+
+    /**
+     * 将buffer的所有权转移给调用者，之后close不再释放buffer
+     * 对于pooled buffer，调用者负责release，通常是交给netty在写完后释放
+     */
+    public ByteBuf detachByteBuf() {
+        ByteBuf buf = byteBuf;
+        if (needReleaseBuffer) {
+            needReleaseBuffer = false;
+            PooledBufferStatistics.onTransferred();
+        }
+        return buf;
+    }
+
     public ByteBuf getByteBuf() {
         return byteBuf;
     }
@@ -115,7 +133,8 @@ public class BufferOutputStream extends OutputStream {
     @Override
     public void close() {
         if (needReleaseBuffer && byteBuf != null) {
-            byteBuf.release();
+            needReleaseBuffer = false;
+            PooledBufferStatistics.release(byteBuf);
         }
     }
 
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.foundation.vertx.stream;
+
+/**
+ * 根据最近的编码长度，估算下一次申请buffer的初始大小，避免扩容与拷贝
+ * 并发更新时允许丢失部分样本，只影响估算精度
+ */
+public class BufferSizeEstimator {
+    public static final int DEFAULT_SIZE = 1024;
+
+    private static final int MIN_SIZE = 64;
+
+    private static final int MAX_SIZE = 1024 * 1024;
+
+    // 新样本的权重为1/8
+    private static final int WEIGHT_SHIFT = 3;
+
+    private volatile int average;
+
+    public BufferSizeEstimator() {
+        this(DEFAULT_SIZE);
+    }
+
+    public BufferSizeEstimator(int initialSize) {
+        this.average = initialSize;
+    }
+
+    public void record(int size) {
+        int avg = average;
+        average = avg + ((size - avg) >> WEIGHT_SHIFT);
+    }
+
+    /**
+     * 在平均值基础上留1/4的余量，并按64字节对齐
+     */
+    public int estimate() {
+        int avg = average;
+        int size = avg + (avg >> 2);
+        size = (size + MIN_SIZE - 1) & ~(MIN_SIZE - 1);
+        return Math.max(MIN_SIZE, Math.min(size, MAX_SIZE));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.foundation.vertx.stream;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * pooled direct buffer的申请入口及泄漏检测计数
+ * outstanding = allocated - released - transferred，长期持续增长说明有泄漏
+ */
+public final class PooledBufferStatistics {
+    private static final AtomicLong ALLOCATED = new AtomicLong();
+
+    private static final AtomicLong RELEASED = new AtomicLong();
+
+    // 所有权已经转交给netty，由netty在写完或失败后释放
+    private static final AtomicLong TRANSFERRED = new AtomicLong();
+
+    private PooledBufferStatistics() {
+    }
+
+    public static ByteBuf allocate(int initialCapacity) {
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer(initialCapacity);
+        ALLOCATED.incrementAndGet();
+        return buf;
+    }
+
+    public static void release(ByteBuf buf) {
+        buf.release();
+        RELEASED.incrementAndGet();
+    }
+
+    public static void onTransferred() {
+        TRANSFERRED.incrementAndGet();
+    }
+
+    public static long getAllocatedCount() {
+        return ALLOCATED.get();
+    }
+
+    public static long getReleasedCount() {
+        return RELEASED.get();
+    }
+
+    public static long getTransferredCount() {
+        return TRANSFERRED.get();
+    }
+
+    public static long getOutstandingCount() {
+        return ALLOCATED.get() - RELEASED.get() - TRANSFERRED.get();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.foundation.vertx.tcp;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.servicecomb.foundation.vertx.server.TcpParser;
+import io.vertx.core.Context;
+import io.vertx.core.net.NetSocket;
+
+/**
+ * 将超过chunkSize的消息拆分为多个frame发送
+ * 前面的frame在headerLen字段中带TcpParser.CHUNK_FLAG，只携带body分片；最后一个frame携带完整的header和剩余的body
+ * 接收端按msgId累积分片，收到最后一个frame时拼装成完整消息，见TcpParser
+ *
+ * 只是frame级别的拆分：发送端在拆分前已经编码出完整的消息，接收端也要收齐后才交给上层
+ * 所以两端内存占用与不分片时相同，解决的是大消息独占连接、阻塞其他小消息的问题
+ *
+ * 只在socket写队列未满时才写出下一个分片，大消息不会一次占满发送缓冲区，其他消息可以穿插发送
+ * 队列只在context中访问
+ */
+public class TcpChunkWriter {
+    private static final int MSG_ID_OFFSET = TcpParser.TCP_MAGIC.length;
+
+    private static final int HEADER_LEN_OFFSET = TcpParser.TCP_HEADER_LENGTH - Integer.BYTES;
+
+    private final Context context;
+
+    private final NetSocket netSocket;
+
+    private final int chunkSize;
+
+    private final Queue<ChunkedMessage> pending = new ArrayDeque<>();
+
+    private boolean closed;
+
+    public TcpChunkWriter(Context context, NetSocket netSocket, int chunkSize) {
+        this.context = context;
+        this.netSocket = netSocket;
+        this.chunkSize = chunkSize;
+
+        netSocket.drainHandler(v -> writePending());
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public boolean needChunk(TcpOutputStream os) {
+        return os.length() > TcpParser.TCP_HEADER_LENGTH + chunkSize;
+    }
+
+    /**
+     * 调用后不能再访问os
+     */
+    public void write(TcpOutputStream os) {
+        ByteBuf frame = os.detachByteBuf();
+        ChunkedMessage message = new ChunkedMessage(frame);
+        context.runOnContext(v -> {
+            if (closed) {
+                frame.release();
+                return;
+            }
+
+            pending.add(message);
+            writePending();
+        });
+    }
+
+    public void close() {
+        context.runOnContext(v -> {
+            closed = true;
+            for (ChunkedMessage message : pending) {
+                message.frame.release();
+            }
+            pending.clear();
+        });
+    }
+
+    protected void writePending() {
+        while (!pending.isEmpty() && !netSocket.writeQueueFull()) {
+            ChunkedMessage message = pending.peek();
+            if (message.writeNext()) {
+                pending.poll();
+            }
+        }
+    }
+
+    class ChunkedMessage {
+        private final ByteBuf frame;
+
+        private final long msgId;
+
+        private final int headerLen;
+
+        private final int headerStart;
+
+        // 下一个需要发送的body分片的起始位置
+        private int bodyIndex;
+
+        ChunkedMessage(ByteBuf frame) {
+            this.frame = frame;
+            int start = frame.readerIndex();
+            this.msgId = frame.getLong(start + MSG_ID_OFFSET);
+            this.headerLen = frame.getInt(start + HEADER_LEN_OFFSET);
+            this.headerStart = start + TcpParser.TCP_HEADER_LENGTH;
+            this.bodyIndex = headerStart + headerLen;
+        }
+
+        /**
+         * 返回true表示已经全部写完
+         */
+        boolean writeNext() {
+            int remaining = frame.writerIndex() - bodyIndex;
+            if (remaining > chunkSize) {
+                writeFrame(TcpParser.CHUNK_FLAG, frame.retainedSlice(bodyIndex, chunkSize));
+                bodyIndex += chunkSize;
+                return false;
+            }
+
+            ByteBuf header = frame.retainedSlice(headerStart, headerLen);
+            ByteBuf body = frame.retainedSlice(bodyIndex, remaining);
+            writeFrame(headerLen, Unpooled.wrappedBuffer(header, body));
+            frame.release();
+            return true;
+        }
+
+        private void writeFrame(int frameHeaderLen, ByteBuf data) {
+            ByteBuf frameHeader = Unpooled.buffer(TcpParser.TCP_HEADER_LENGTH);
+            frameHeader.writeBytes(TcpParser.TCP_MAGIC);
+            frameHeader.writeLong(msgId);
+            frameHeader.writeInt(data.readableBytes());
+            frameHeader.writeInt(frameHeaderLen);
+            TcpWriteUtils.write(netSocket, Unpooled.wrappedBuffer(frameHeader, data));
+        }
+    }
+}
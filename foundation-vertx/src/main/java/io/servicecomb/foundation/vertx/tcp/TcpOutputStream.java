@@ -18,6 +18,7 @@ package io.servicecomb.foundation.vertx.tcp;
 
 import io.servicecomb.foundation.vertx.server.TcpParser;
 import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
+import io.vertx.core.net.NetSocket;
 
 /**
  * TcpOutputStream
@@ -30,6 +31,16 @@ public class TcpOutputStream extends BufferOutputStream {
     public TcpOutputStream(long msgId) {
         super();
 
+        init(msgId);
+    }
+
+    public TcpOutputStream(long msgId, int initialCapacity, boolean pooled) {
+        super(initialCapacity, pooled);
+
+        init(msgId);
+    }
+
+    private void init(long msgId) {
         this.msgId = msgId;
         write(TcpParser.TCP_MAGIC);
         writeLong(msgId);
@@ -43,4 +54,17 @@ public class TcpOutputStream extends BufferOutputStream {
         writeInt(totalLen);
         writeInt(headerLen);
     }
+
+    /**
+     * 将数据写入socket，pooled时调用后不能再访问本stream中的buffer
+     * pooled buffer直接交给netty channel，由netty在写完或失败后释放，避免跨线程时提前释放
+     */
+    public void writeTo(NetSocket netSocket) {
+        if (!isPooled()) {
+            netSocket.write(getBuffer());
+            return;
+        }
+
+        TcpWriteUtils.write(netSocket, detachByteBuf());
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.foundation.vertx.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.impl.ConnectionBase;
+
+public final class TcpWriteUtils {
+    private TcpWriteUtils() {
+    }
+
+    /**
+     * buf的所有权转移给本方法：直接交给netty channel，由netty在写完或失败后释放
+     * vertx的Buffer.buffer(ByteBuf)会包装为unreleasable，不能用于pooled buffer
+     */
+    public static void write(NetSocket netSocket, ByteBuf buf) {
+        if (netSocket instanceof ConnectionBase) {
+            ChannelFuture future = ((ConnectionBase) netSocket).writeToChannel(buf);
+            if (future == null) {
+                // channel已经关闭，netty没有接管buffer
+                buf.release();
+            }
+            return;
+        }
+
+        // 非vertx原生socket，无法感知写完成，只能拷贝到heap
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.getBytes(buf.readerIndex(), bytes);
+        buf.release();
+        netSocket.write(Buffer.buffer(bytes));
+    }
+}
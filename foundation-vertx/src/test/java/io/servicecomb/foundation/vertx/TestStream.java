@@ -21,6 +21,8 @@ import org.junit.Test;
 
 import io.servicecomb.foundation.vertx.stream.BufferInputStream;
 import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
+import io.servicecomb.foundation.vertx.stream.BufferSizeEstimator;
+import io.servicecomb.foundation.vertx.stream.PooledBufferStatistics;
 
 import io.netty.buffer.ByteBuf;
 import io.vertx.core.buffer.Buffer;
@@ -55,4 +57,50 @@ public class TestStream {
         Assert.assertEquals(true, (1 < oBufferOutputStream.length()));
     }
 
+    @Test
+    public void testPooledBufferOutputStreamClose() {
+        long released = PooledBufferStatistics.getReleasedCount();
+        BufferOutputStream os = new BufferOutputStream(DIRECT_BUFFER_SIZE, true);
+        Assert.assertTrue(os.isPooled());
+        Assert.assertTrue(os.getByteBuf().isDirect());
+        os.writeInt(1);
+
+        ByteBuf buf = os.getByteBuf();
+        os.close();
+        Assert.assertEquals(0, buf.refCnt());
+        Assert.assertEquals(released + 1, PooledBufferStatistics.getReleasedCount());
+
+        // 重复close不会重复释放
+        os.close();
+        Assert.assertEquals(released + 1, PooledBufferStatistics.getReleasedCount());
+    }
+
+    @Test
+    public void testPooledBufferOutputStreamDetach() {
+        long transferred = PooledBufferStatistics.getTransferredCount();
+        BufferOutputStream os = new BufferOutputStream(DIRECT_BUFFER_SIZE, true);
+        ByteBuf buf = os.detachByteBuf();
+        Assert.assertFalse(os.isPooled());
+        Assert.assertEquals(transferred + 1, PooledBufferStatistics.getTransferredCount());
+
+        os.close();
+        Assert.assertEquals(1, buf.refCnt());
+        buf.release();
+    }
+
+    @Test
+    public void testBufferSizeEstimator() {
+        BufferSizeEstimator estimator = new BufferSizeEstimator(100);
+        Assert.assertEquals(128, estimator.estimate());
+
+        for (int idx = 0; idx < 100; idx++) {
+            estimator.record(4000);
+        }
+        int estimate = estimator.estimate();
+        Assert.assertTrue(estimate >= 4000);
+        Assert.assertEquals(0, estimate % 64);
+
+        estimator = new BufferSizeEstimator(0);
+        Assert.assertEquals(64, estimator.estimate());
+    }
 }
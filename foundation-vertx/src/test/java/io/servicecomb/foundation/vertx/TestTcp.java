@@ -73,7 +73,6 @@ public class TestTcp {
         TcpClientConnection oTcpClient =
             new TcpClientConnection(Mockito.mock(Context.class), oNetClient, "highway://127.2.0.1:8080",
                     new TcpClientConfig());
-        oTcpClient.checkTimeout();
         oTcpClient.send(new TcpClientPackage(null), 123, Mockito.mock(TcpResonseCallback.class));
         oTcpClient.send(new TcpClientPackage(null), 123, Mockito.mock(TcpResonseCallback.class));
         Assert.assertNotEquals(null, oTcpClient.getContext());
@@ -118,7 +117,6 @@ public class TestTcp {
         Deencapsulation.invoke(oTcpClient, "onConnectFailed", e);
         long l = 10;
         Deencapsulation.invoke(oTcpClient, "onReply", l, hBuffer, bBuffer);
-        oTcpClient.checkTimeout();
         Assert.assertNotNull(oTcpClient);
     }
 
@@ -16,19 +16,33 @@
 
 package io.servicecomb.foundation.vertx.client.tcp;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mockito;
 
+import io.netty.util.HashedWheelTimer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.ChannelFuture;
 import io.servicecomb.foundation.common.net.IpPort;
 import io.servicecomb.foundation.common.net.NetUtils;
+import io.servicecomb.foundation.vertx.server.TcpParser;
+import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
 import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetSocket;
+import io.vertx.core.net.impl.NetSocketImpl;
+import mockit.Deencapsulation;
 import mockit.Mock;
 import mockit.MockUp;
 
@@ -78,4 +92,130 @@ public class TcpClientTest {
         }
 
     }
+
+    @Test
+    public void testWriteCoalescing() {
+        NetSocket netSocket = Mockito.mock(NetSocket.class);
+        Deencapsulation.setField(instance, "netSocket", netSocket);
+        Deencapsulation.setField(instance, "status", TcpClientConnection.Status.WORKING);
+
+        TcpOutputStream os1 = new TcpOutputStream(1);
+        TcpOutputStream os2 = new TcpOutputStream(2);
+        int totalLen = os1.length() + os2.length();
+        instance.write(os1);
+        instance.write(os2);
+        Mockito.verify(netSocket, Mockito.never()).write(Mockito.any(Buffer.class));
+
+        instance.flushWriteQueue();
+        ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
+        Mockito.verify(netSocket, Mockito.times(1)).write(captor.capture());
+        Assert.assertEquals(totalLen, captor.getValue().length());
+        Assert.assertEquals(2, captor.getValue().getLong(totalLen / 2 + TcpParser.TCP_MAGIC.length));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testRequestTimeoutByTimer() {
+        Context context = Mockito.mock(Context.class);
+        Mockito.doAnswer(invocation -> {
+            ((Handler<Void>) invocation.getArguments()[0]).handle(null);
+            return null;
+        }).when(context).runOnContext(Mockito.any());
+        TcpClientConnection connection =
+            new TcpClientConnection(context, Mockito.mock(NetClient.class), "highway://127.0.0.1:80",
+                    new TcpClientConfig());
+        HashedWheelTimer timer = new HashedWheelTimer();
+        connection.setTimeoutTimer(timer);
+
+        try {
+            TcpResonseCallback callback = Mockito.mock(TcpResonseCallback.class);
+            connection.send(new TcpClientPackage(null), 10, callback);
+            Mockito.verify(callback, Mockito.timeout(3000)).fail(Mockito.any(TimeoutException.class));
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testWriteCoalescingZeroCopy() {
+        // vertx原生socket，合并后的CompositeByteBuf直接交给netty channel，不拷贝
+        NetSocketImpl netSocket = Mockito.mock(NetSocketImpl.class);
+        Mockito.when(netSocket.writeToChannel(Mockito.any())).thenReturn(Mockito.mock(ChannelFuture.class));
+        Deencapsulation.setField(instance, "netSocket", netSocket);
+        Deencapsulation.setField(instance, "status", TcpClientConnection.Status.WORKING);
+
+        TcpOutputStream os1 = new TcpOutputStream(1, 64, true);
+        TcpOutputStream os2 = new TcpOutputStream(2, 64, true);
+        ByteBuf buf1 = os1.getByteBuf();
+        ByteBuf buf2 = os2.getByteBuf();
+        instance.write(os1);
+        instance.write(os2);
+        instance.flushWriteQueue();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(netSocket, Mockito.times(1)).writeToChannel(captor.capture());
+        Mockito.verify(netSocket, Mockito.never()).write(Mockito.any(Buffer.class));
+        CompositeByteBuf composite = (CompositeByteBuf) captor.getValue();
+        Assert.assertEquals(2, composite.numComponents());
+        Assert.assertSame(buf1, composite.internalComponent(0).unwrap());
+        Assert.assertSame(buf2, composite.internalComponent(1).unwrap());
+
+        // 所有权已转移给netty，发送方不能释放
+        Assert.assertEquals(1, composite.refCnt());
+        Assert.assertEquals(1, buf1.refCnt());
+        Assert.assertEquals(1, buf2.refCnt());
+
+        // 模拟netty写完后释放，只释放一次即全部归还
+        Assert.assertTrue(composite.release());
+        Assert.assertEquals(0, buf1.refCnt());
+        Assert.assertEquals(0, buf2.refCnt());
+    }
+
+    @Test
+    public void testWriteChannelClosedReleaseOnce() {
+        // channel已经关闭，netty没有接管buffer，由发送方释放
+        NetSocketImpl netSocket = Mockito.mock(NetSocketImpl.class);
+        Mockito.when(netSocket.writeToChannel(Mockito.any())).thenReturn(null);
+        Deencapsulation.setField(instance, "netSocket", netSocket);
+        Deencapsulation.setField(instance, "status", TcpClientConnection.Status.WORKING);
+
+        TcpOutputStream os = new TcpOutputStream(1, 64, true);
+        ByteBuf buf = os.getByteBuf();
+        instance.write(os);
+        instance.flushWriteQueue();
+
+        Mockito.verify(netSocket, Mockito.times(1)).writeToChannel(buf);
+        Assert.assertEquals(0, buf.refCnt());
+        // 所有权已经转移，close不会再次释放，否则会抛IllegalReferenceCountException
+        os.close();
+    }
+
+    @Test
+    public void testSendWhileDisconnecting() {
+        NetSocketImpl netSocket = Mockito.mock(NetSocketImpl.class);
+        Deencapsulation.setField(instance, "netSocket", netSocket);
+        Deencapsulation.setField(instance, "status", TcpClientConnection.Status.WORKING);
+
+        TcpOutputStream os = new TcpOutputStream(1, 64, true);
+        ByteBuf buf = os.getByteBuf();
+        // 读到WORKING之后，编码过程中连接断开，断连时的清理已经完成
+        TcpClientPackage tcpClientPackage = new TcpClientPackage(os) {
+            @Override
+            public TcpOutputStream createStream() {
+                Deencapsulation.setField(instance, "status", TcpClientConnection.Status.DISCONNECTED);
+                return super.createStream();
+            }
+        };
+        TcpResonseCallback callback = Mockito.mock(TcpResonseCallback.class);
+        instance.send(tcpClientPackage, 1000, callback);
+
+        // 立即失败，不等超时
+        Mockito.verify(callback).fail(Mockito.any(IOException.class));
+        Assert.assertEquals(0, instance.getPendingCount());
+
+        // 断连后入队的数据直接丢弃，不写到连接上
+        instance.flushWriteQueue();
+        Mockito.verify(netSocket, Mockito.never()).writeToChannel(Mockito.any());
+        Assert.assertEquals(0, buf.refCnt());
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.foundation.vertx.client.tcp;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 模拟一个连接上保持pending个等待中的请求：每次登记一个新请求，并移除最早的请求
+ * 比较原来的ConcurrentHashMap<Long, TcpRequest>与TcpRequestTable
+ * msgId按步长递增，模拟多个连接共用全局msgId的场景
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TcpRequestTableBenchmark {
+    @Param({"16", "256"})
+    private int pending;
+
+    @Param({"1", "3"})
+    private int step;
+
+    // 同时存活的请求最多pending + 1个，循环使用，避免把请求对象的创建计入耗时
+    private TcpRequest[] requests;
+
+    private Map<Long, TcpRequest> map;
+
+    private TcpRequestTable table;
+
+    private long msgId;
+
+    @Setup
+    public void setup() {
+        requests = new TcpRequest[pending + 1];
+        for (int idx = 0; idx < requests.length; idx++) {
+            requests[idx] = new TcpRequest(1000, null);
+        }
+
+        map = new ConcurrentHashMap<>();
+        table = new TcpRequestTable();
+        for (msgId = 0; msgId < pending * step; msgId += step) {
+            map.put(msgId, nextRequest());
+            table.put(msgId, nextRequest());
+        }
+    }
+
+    private TcpRequest nextRequest() {
+        return requests[(int) (msgId / step % requests.length)];
+    }
+
+    @Benchmark
+    public TcpRequest concurrentHashMap() {
+        map.put(msgId, nextRequest());
+        TcpRequest removed = map.remove(msgId - pending * step);
+        msgId += step;
+        return removed;
+    }
+
+    @Benchmark
+    public TcpRequest requestTable() {
+        table.put(msgId, nextRequest());
+        TcpRequest removed = table.remove(msgId - pending * step);
+        msgId += step;
+        return removed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TcpRequestTableBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.foundation.vertx.client.tcp;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import io.vertx.core.Context;
+import io.vertx.core.net.NetClient;
+
+public class TestAbstractTcpClientConnectionPool {
+    static class MockConnectionPool extends AbstractTcpClientConnectionPool<TcpClientConnection> {
+        MockConnectionPool() {
+            super(new TcpClientConfig(), Mockito.mock(Context.class), Mockito.mock(NetClient.class));
+        }
+
+        @Override
+        protected void startCheckTimeout(TcpClientConfig clientConfig, Context context) {
+        }
+
+        @Override
+        protected TcpClientConnection create(String endpoint) {
+            return Mockito.mock(TcpClientConnection.class);
+        }
+    }
+
+    @Test
+    public void testSingleConnection() {
+        MockConnectionPool pool = new MockConnectionPool();
+        TcpClientConnection client = pool.findOrCreateClient("rest://127.0.0.1:80");
+        Mockito.when(client.getPendingCount()).thenReturn(10);
+
+        Assert.assertSame(client, pool.findOrCreateClient("rest://127.0.0.1:80"));
+        Assert.assertNotSame(client, pool.findOrCreateClient("rest://127.0.0.1:81"));
+    }
+
+    @Test
+    public void testLeastPending() {
+        MockConnectionPool pool = new MockConnectionPool();
+        TcpClientConnection first = pool.findOrCreateClient("rest://127.0.0.1:80", 2);
+        // 空闲时复用已有连接
+        Assert.assertSame(first, pool.findOrCreateClient("rest://127.0.0.1:80", 2));
+
+        Mockito.when(first.getPendingCount()).thenReturn(5);
+        TcpClientConnection second = pool.findOrCreateClient("rest://127.0.0.1:80", 2);
+        Assert.assertNotSame(first, second);
+
+        Mockito.when(second.getPendingCount()).thenReturn(8);
+        Assert.assertSame(first, pool.findOrCreateClient("rest://127.0.0.1:80", 2));
+
+        Mockito.when(first.getPendingCount()).thenReturn(9);
+        Assert.assertSame(second, pool.findOrCreateClient("rest://127.0.0.1:80", 2));
+    }
+}
@@ -16,6 +16,9 @@
 
 package io.servicecomb.foundation.vertx.client.tcp;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -24,6 +27,7 @@ import org.mockito.Mockito;
 import io.servicecomb.foundation.vertx.client.ClientPoolManager;
 import io.servicecomb.foundation.vertx.client.NetThreadData;
 import io.servicecomb.foundation.vertx.client.http.HttpClientWithContext;
+import mockit.Deencapsulation;
 
 public class TestClientPoolManager {
     private ClientPoolManager<HttpClientWithContext> instance;
@@ -35,12 +39,69 @@ public class TestClientPoolManager {
 
     @Test
     public void testAddNetThread() {
-        @SuppressWarnings("unchecked")
-        NetThreadData<HttpClientWithContext> netThread = Mockito.mock(NetThreadData.class);
-        instance.addNetThread(netThread);
         HttpClientWithContext context = Mockito.mock(HttpClientWithContext.class);
-        Mockito.when(netThread.selectClientPool()).thenReturn(context);
+        NetThreadData<HttpClientWithContext> netThread = new NetThreadData<>(() -> context, 1);
+        instance.addNetThread(netThread);
         HttpClientWithContext netThreadValue = instance.findThreadBindClientPool();
-        Assert.assertNotNull(netThreadValue);
+        Assert.assertSame(context, netThreadValue);
+        Assert.assertSame(netThreadValue, instance.findThreadBindClientPool());
+    }
+
+    private HttpClientWithContext bindInNewThread() throws InterruptedException {
+        List<HttpClientWithContext> result = new ArrayList<>();
+        Thread thread = new Thread(() -> result.add(instance.findThreadBindClientPool()));
+        thread.start();
+        thread.join();
+        return result.get(0);
+    }
+
+    @Test
+    public void testRebindAfterThreadDead() throws InterruptedException {
+        NetThreadData<HttpClientWithContext> netThread =
+            new NetThreadData<>(() -> Mockito.mock(HttpClientWithContext.class), 2);
+        instance.addNetThread(netThread);
+
+        HttpClientWithContext pool = instance.findThreadBindClientPool();
+        // 线程已经结束，所以它占用的份额可以被重新分配
+        HttpClientWithContext deadThreadPool = bindInNewThread();
+        Assert.assertNotSame(pool, deadThreadPool);
+        Assert.assertSame(deadThreadPool, bindInNewThread());
+    }
+
+    @Test
+    public void testSelectForVirtualThread() {
+        NetThreadData<HttpClientWithContext> netThread =
+            new NetThreadData<>(() -> Mockito.mock(HttpClientWithContext.class), 2);
+        instance.addNetThread(netThread);
+
+        HttpClientWithContext first = Deencapsulation.invoke(instance, "selectForVirtualThread");
+        HttpClientWithContext second = Deencapsulation.invoke(instance, "selectForVirtualThread");
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first, Deencapsulation.invoke(instance, "selectForVirtualThread"));
+        Assert.assertSame(netThread.getOrCreateClientPool(0), first);
+    }
+
+    @Test
+    public void testNoNetThread() {
+        try {
+            instance.findThreadBindClientPool();
+            Assert.fail("must throw exception");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("no client pool available, net threads of transport are not deployed.",
+                    e.getMessage());
+        }
+
+        try {
+            Deencapsulation.invoke(instance, "selectForVirtualThread");
+            Assert.fail("must throw exception");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("no client pool available, net threads of transport are not deployed.",
+                    e.getMessage());
+        }
+
+        // 网络线程部署后可以正常使用
+        HttpClientWithContext context = Mockito.mock(HttpClientWithContext.class);
+        instance.addNetThread(new NetThreadData<>(() -> context, 1));
+        Assert.assertSame(context, Deencapsulation.invoke(instance, "selectForVirtualThread"));
     }
 }
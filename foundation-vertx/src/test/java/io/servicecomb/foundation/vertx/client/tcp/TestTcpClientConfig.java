@@ -27,5 +27,12 @@ public class TestTcpClientConfig {
         Assert.assertEquals(config.isSsl(), false);
         config.setRequestTimeoutMillis(500);
         Assert.assertEquals(config.getRequestTimeoutMillis(), 500);
+
+        Assert.assertEquals(64 * 1024, config.getWriteBatchMaxBytes());
+        Assert.assertEquals(0, config.getWriteBatchDelayMillis());
+        config.setWriteBatchMaxBytes(0);
+        config.setWriteBatchDelayMillis(1);
+        Assert.assertEquals(0, config.getWriteBatchMaxBytes());
+        Assert.assertEquals(1, config.getWriteBatchDelayMillis());
     }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.foundation.vertx.client.tcp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import mockit.Deencapsulation;
+
+public class TestTcpRequestTable {
+    private TcpResonseCallback callback = Mockito.mock(TcpResonseCallback.class);
+
+    private TcpRequest createRequest() {
+        return new TcpRequest(1000, callback);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        TcpRequestTable table = new TcpRequestTable();
+        TcpRequest request = createRequest();
+        table.put(1, request);
+        Assert.assertSame(request, table.get(1));
+        Assert.assertEquals(1, table.size());
+        Assert.assertNull(table.get(2));
+        Assert.assertNull(table.remove(2));
+
+        Assert.assertSame(request, table.remove(1));
+        Assert.assertNull(table.get(1));
+        Assert.assertEquals(0, table.size());
+        Assert.assertEquals(1, table.getMaxSize());
+    }
+
+    @Test
+    public void testGrowAndRemoveAll() {
+        TcpRequestTable table = new TcpRequestTable();
+        for (long msgId = 0; msgId < 1000; msgId++) {
+            table.put(msgId, createRequest());
+        }
+        Assert.assertEquals(1000, table.size());
+        Assert.assertEquals(1000, table.msgIds().length);
+        // msgId连续，全部落在槽位中
+        Assert.assertEquals(0, table.overflowSize());
+
+        Assert.assertEquals(1000, table.removeAll().length);
+        Assert.assertEquals(0, table.size());
+        Assert.assertEquals(1000, table.getMaxSize());
+        Assert.assertNull(table.get(10));
+    }
+
+    @Test
+    public void testOverflow() {
+        TcpRequestTable table = new TcpRequestTable(4);
+        TcpRequest request1 = createRequest();
+        TcpRequest request5 = createRequest();
+        table.put(1, request1);
+        table.put(5, request5);
+        Assert.assertEquals(1, table.overflowSize());
+        Assert.assertEquals(2, table.size());
+        Assert.assertSame(request5, table.get(5));
+
+        Assert.assertSame(request1, table.remove(1));
+        Assert.assertSame(request5, table.get(5));
+        Assert.assertSame(request5, table.remove(5));
+        Assert.assertEquals(0, table.overflowSize());
+        Assert.assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        TcpRequestTable table = new TcpRequestTable(64);
+        Map<Long, TcpRequest> expected = new HashMap<>();
+        Random random = new Random(0);
+
+        for (int idx = 0; idx < 100000; idx++) {
+            // key范围大于槽位数，制造大量冲突与删除
+            long msgId = random.nextInt(256);
+            if (random.nextBoolean()) {
+                TcpRequest request = createRequest();
+                table.put(msgId, request);
+                expected.put(msgId, request);
+            } else {
+                Assert.assertSame(expected.remove(msgId), table.remove(msgId));
+            }
+            Assert.assertEquals(expected.size(), table.size());
+        }
+
+        for (long msgId = 0; msgId < 256; msgId++) {
+            Assert.assertSame(expected.get(msgId), table.get(msgId));
+        }
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        TcpRequestTable table = new TcpRequestTable(16);
+        AtomicLong reqId = new AtomicLong();
+        AtomicInteger errors = new AtomicInteger();
+
+        Thread[] threads = new Thread[4];
+        for (int idx = 0; idx < threads.length; idx++) {
+            threads[idx] = new Thread(() -> {
+                for (int count = 0; count < 20000; count++) {
+                    long msgId = reqId.getAndIncrement();
+                    TcpRequest request = createRequest();
+                    table.put(msgId, request);
+                    if (table.get(msgId) != request || table.remove(msgId) != request) {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            threads[idx].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(0, table.size());
+        Assert.assertEquals(0, table.overflowSize());
+    }
+
+    @Test
+    public void testConcurrentPutAndRemoveAll() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            TcpRequestTable table = new TcpRequestTable(16);
+            int count = 2000;
+            TcpRequest[] requests = new TcpRequest[count];
+            boolean[] rejected = new boolean[count];
+
+            Thread putThread = new Thread(() -> {
+                for (int idx = 0; idx < count; idx++) {
+                    requests[idx] = createRequest();
+                    rejected[idx] = !table.put(idx, requests[idx]);
+                }
+            });
+            putThread.start();
+            Thread.yield();
+            TcpRequest[] removed = table.removeAll();
+            putThread.join();
+            TcpRequest[] remain = table.removeAll();
+
+            // 每个请求只能有一个归宿：被并发的removeAll取走、被put收回、或者残留到下一次removeAll
+            Map<TcpRequest, Integer> owners = new IdentityHashMap<>();
+            for (TcpRequest request : removed) {
+                owners.merge(request, 1, Integer::sum);
+            }
+            for (TcpRequest request : remain) {
+                owners.merge(request, 1, Integer::sum);
+            }
+            for (int idx = 0; idx < count; idx++) {
+                int owner = owners.getOrDefault(requests[idx], 0) + (rejected[idx] ? 1 : 0);
+                Assert.assertEquals(1, owner);
+            }
+            Assert.assertEquals(0, table.size());
+        }
+    }
+
+    @Test
+    public void testPutAfterRemoveAllScanned() {
+        TcpRequestTable table = new TcpRequestTable(16);
+        TcpRequest request1 = createRequest();
+        TcpRequest request17 = createRequest();
+        table.put(1, request1);
+
+        // 模拟put读取epoch之后、插入之前，removeAll已经扫描完成
+        List<TcpRequest> removed = new ArrayList<>();
+        Deencapsulation.setField(table, "overflow", new ConcurrentHashMap<Long, TcpRequest>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public TcpRequest put(Long key, TcpRequest value) {
+                if (removed.isEmpty()) {
+                    Collections.addAll(removed, table.removeAll());
+                }
+                return super.put(key, value);
+            }
+        });
+
+        Assert.assertFalse(table.put(17, request17));
+        Assert.assertEquals(1, removed.size());
+        Assert.assertSame(request1, removed.get(0));
+        Assert.assertNull(table.get(17));
+        Assert.assertEquals(0, table.size());
+    }
+}
@@ -16,11 +16,15 @@
 package io.servicecomb.foundation.vertx.server;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
 
 import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
 import org.junit.Assert;
 import org.junit.Test;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.vertx.core.buffer.Buffer;
 
 public class TestTcpParser {
@@ -57,4 +61,183 @@ public class TestTcpParser {
         Assert.assertArrayEquals(header, headerBuffer.getBytes());
         Assert.assertArrayEquals(body, bodyBuffer.getBytes());
     }
+
+    private Buffer createFrame(long id, byte[] header, byte[] body) {
+        TcpOutputStream os = new TcpOutputStream(id);
+        os.writeInt(header.length + body.length);
+        os.writeInt(header.length);
+        os.write(header);
+        os.write(body);
+        Buffer buffer = os.getBuffer().copy();
+        os.close();
+        return buffer;
+    }
+
+    @Test
+    public void testFragmentAndMultiFrame() {
+        List<Buffer> bodies = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> bodies.add(_bodyBuffer));
+
+        Buffer frames = Buffer.buffer()
+                .appendBuffer(createFrame(1, new byte[] {1}, new byte[] {1, 1}))
+                .appendBuffer(createFrame(2, new byte[] {2}, new byte[] {2, 2, 2}))
+                .appendBuffer(createFrame(3, new byte[] {3}, new byte[] {3, 3, 3, 3}));
+        // 第一包与第二包的一部分一起到达，剩余部分逐字节到达
+        int split = frames.length() / 2;
+        parser.handle(frames.slice(0, split));
+        Assert.assertEquals(1, bodies.size());
+        for (int idx = split; idx < frames.length(); idx++) {
+            parser.handle(frames.slice(idx, idx + 1));
+        }
+
+        Assert.assertEquals(3, bodies.size());
+        Assert.assertArrayEquals(new byte[] {1, 1}, bodies.get(0).getBytes());
+        Assert.assertArrayEquals(new byte[] {2, 2, 2}, bodies.get(1).getBytes());
+        Assert.assertArrayEquals(new byte[] {3, 3, 3, 3}, bodies.get(2).getBytes());
+    }
+
+    @Test
+    public void testDirectBuffer() {
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> {
+            msgId = _msgId;
+            bodyBuffer = _bodyBuffer;
+        });
+
+        Buffer frame = createFrame(5, new byte[] {1}, new byte[] {9, 8});
+        ByteBuf direct = Unpooled.directBuffer(frame.length());
+        direct.writeBytes(frame.getByteBuf());
+        parser.handle(Buffer.buffer(direct));
+
+        Assert.assertEquals(5, msgId);
+        Assert.assertArrayEquals(new byte[] {9, 8}, bodyBuffer.getBytes());
+    }
+
+    @Test
+    public void testInvalidMagic() {
+        List<Throwable> errors = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> msgId = _msgId)
+                .exceptionHandler(errors::add);
+
+        Buffer frame = createFrame(7, new byte[] {1}, new byte[] {1});
+        frame.setByte(0, (byte) 0);
+        parser.handle(frame);
+        Assert.assertEquals(1, errors.size());
+
+        parser.handle(createFrame(8, new byte[] {1}, new byte[] {1}));
+        Assert.assertEquals(8, msgId);
+    }
+
+    @Test
+    public void testFrameTooLarge() {
+        List<Throwable> errors = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> msgId = _msgId, 4)
+                .exceptionHandler(errors::add);
+
+        parser.handle(createFrame(9, new byte[] {1, 2}, new byte[] {1, 2, 3}));
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals(0, msgId);
+    }
+
+    private Buffer createChunk(long id, byte[] chunk) {
+        TcpOutputStream os = new TcpOutputStream(id);
+        os.writeLength(chunk.length, TcpParser.CHUNK_FLAG);
+        os.write(chunk);
+        return os.getBuffer();
+    }
+
+    @Test
+    public void testChunkedMessage() {
+        List<Buffer> bodies = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> bodies.add(_bodyBuffer));
+
+        parser.handle(createChunk(1, new byte[] {1, 2}));
+        // 不同msgId的消息可以穿插在分片之间
+        parser.handle(createFrame(2, new byte[] {9}, new byte[] {9}));
+        parser.handle(createChunk(1, new byte[] {3, 4}));
+        Assert.assertEquals(1, bodies.size());
+
+        parser.handle(createFrame(1, new byte[] {1}, new byte[] {5}));
+        Assert.assertEquals(2, bodies.size());
+        Assert.assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, bodies.get(1).getBytes());
+    }
+
+    @Test
+    public void testChunkedMessageTooLarge() {
+        List<Throwable> errors = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> msgId = _msgId)
+                .exceptionHandler(errors::add);
+        parser.setMaxMessageSize(3);
+
+        parser.handle(createChunk(1, new byte[] {1, 2}));
+        parser.handle(createChunk(1, new byte[] {3, 4}));
+        Assert.assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void testTooManyPendingChunkedMessages() {
+        List<Throwable> errors = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> msgId = _msgId)
+                .exceptionHandler(errors::add);
+        parser.setMaxPendingChunkMessages(2);
+
+        parser.handle(createChunk(1, new byte[] {1}));
+        parser.handle(createChunk(2, new byte[] {2}));
+        // 已收齐的消息不再占用名额
+        parser.handle(createFrame(1, new byte[] {1}, new byte[] {1}));
+        Assert.assertEquals(1, msgId);
+        parser.handle(createChunk(3, new byte[] {3}));
+        Assert.assertEquals(0, errors.size());
+
+        parser.handle(createChunk(4, new byte[] {4}));
+        Assert.assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void testTooManyPendingChunkBytes() {
+        List<Throwable> errors = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> msgId = _msgId)
+                .exceptionHandler(errors::add);
+        parser.setMaxMessageSize(4);
+        parser.setMaxPendingChunkBytes(6);
+
+        parser.handle(createChunk(1, new byte[] {1, 2, 3}));
+        parser.handle(createChunk(2, new byte[] {1, 2, 3}));
+        Assert.assertEquals(6, parser.getPendingChunkBytes());
+        Assert.assertEquals(0, errors.size());
+
+        // 单条消息未超过maxMessageSize，但所有分片消息累计超过上限
+        parser.handle(createChunk(1, new byte[] {4}));
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals(0, parser.getPendingChunkBytes());
+    }
+
+    @Test
+    public void testEmptyHeaderNotChunk() {
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> {
+            msgId = _msgId;
+            headerBuffer = _headerBuffer;
+            bodyBuffer = _bodyBuffer;
+        });
+
+        // header为空的正常消息，不带分片标记，直接交给上层
+        parser.handle(createFrame(3, new byte[0], new byte[] {1, 2}));
+        Assert.assertEquals(3, msgId);
+        Assert.assertEquals(0, headerBuffer.length());
+        Assert.assertArrayEquals(new byte[] {1, 2}, bodyBuffer.getBytes());
+        Assert.assertEquals(0, parser.getPendingChunkBytes());
+    }
+
+    @Test
+    public void testInvalidChunk() {
+        List<Throwable> errors = new ArrayList<>();
+        TcpParser parser = new TcpParser((_msgId, _headerBuffer, _bodyBuffer) -> msgId = _msgId)
+                .exceptionHandler(errors::add);
+
+        TcpOutputStream os = new TcpOutputStream(1);
+        os.writeLength(2, TcpParser.CHUNK_FLAG | 1);
+        os.write(new byte[] {1, 2});
+        parser.handle(os.getBuffer());
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals(0, msgId);
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.foundation.vertx.tcp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import io.servicecomb.foundation.vertx.server.TcpParser;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.NetSocket;
+
+public class TestTcpChunkWriter {
+    private NetSocket netSocket;
+
+    private List<Buffer> written = new ArrayList<>();
+
+    private Handler<Void> drainHandler;
+
+    private TcpChunkWriter writer;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        Context context = Mockito.mock(Context.class);
+        Mockito.doAnswer(invocation -> {
+            ((Handler<Void>) invocation.getArguments()[0]).handle(null);
+            return null;
+        }).when(context).runOnContext(Mockito.any());
+
+        netSocket = Mockito.mock(NetSocket.class);
+        Mockito.when(netSocket.write(Mockito.any(Buffer.class))).thenAnswer(invocation -> {
+            written.add((Buffer) invocation.getArguments()[0]);
+            return netSocket;
+        });
+
+        writer = new TcpChunkWriter(context, netSocket, 4);
+        ArgumentCaptor<Handler<Void>> captor = ArgumentCaptor.forClass((Class) Handler.class);
+        Mockito.verify(netSocket).drainHandler(captor.capture());
+        drainHandler = captor.getValue();
+    }
+
+    private TcpOutputStream createStream(long msgId, byte[] header, byte[] body) {
+        TcpOutputStream os = new TcpOutputStream(msgId);
+        os.writeLength(header.length + body.length, header.length);
+        os.write(header);
+        os.write(body);
+        return os;
+    }
+
+    @Test
+    public void testChunk() {
+        byte[] header = new byte[] {1, 2, 3};
+        byte[] body = new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        TcpOutputStream os = createStream(1, header, body);
+        Assert.assertTrue(writer.needChunk(os));
+        Assert.assertFalse(writer.needChunk(createStream(2, new byte[] {1}, new byte[] {1, 2})));
+
+        writer.write(os);
+        // 两个只有body的分片，最后一个frame携带header
+        Assert.assertEquals(3, written.size());
+
+        List<Buffer> bodies = new ArrayList<>();
+        List<Buffer> headers = new ArrayList<>();
+        TcpParser parser = new TcpParser((msgId, headerBuffer, bodyBuffer) -> {
+            headers.add(headerBuffer);
+            bodies.add(bodyBuffer);
+        });
+        written.forEach(parser::handle);
+
+        Assert.assertEquals(1, bodies.size());
+        Assert.assertArrayEquals(header, headers.get(0).getBytes());
+        Assert.assertArrayEquals(body, bodies.get(0).getBytes());
+    }
+
+    @Test
+    public void testFlowControl() {
+        Mockito.when(netSocket.writeQueueFull()).thenReturn(true);
+        writer.write(createStream(1, new byte[] {1}, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        Assert.assertEquals(0, written.size());
+
+        Mockito.when(netSocket.writeQueueFull()).thenReturn(false);
+        drainHandler.handle(null);
+        Assert.assertEquals(3, written.size());
+    }
+
+    @Test
+    public void testClose() {
+        Mockito.when(netSocket.writeQueueFull()).thenReturn(true);
+        writer.write(createStream(1, new byte[] {1}, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        writer.close();
+
+        Mockito.when(netSocket.writeQueueFull()).thenReturn(false);
+        drainHandler.handle(null);
+        writer.write(createStream(2, new byte[] {1}, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9}));
+        Assert.assertEquals(0, written.size());
+    }
+}
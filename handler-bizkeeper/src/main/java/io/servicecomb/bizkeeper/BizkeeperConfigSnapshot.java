@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.bizkeeper;
+
+import io.servicecomb.core.definition.OperationMeta;
+
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+
+/**
+ * 一个operation的隔离、熔断、容错配置快照，配置变化时重新创建，调用流程中直接读取字段
+ */
+public final class BizkeeperConfigSnapshot {
+    private static final int WINDOW_IN_MILLISECONDS = 10000;
+
+    private static final int WINDOW_BUCKETS = 10;
+
+    private static final int SNAPSHOT_INTERVAL = 1000;
+
+    private final int isolationTimeoutInMilliseconds;
+
+    private final int isolationMaxConcurrentRequests;
+
+    private final boolean isolationTimeoutEnabled;
+
+    private final boolean circuitBreakerEnabled;
+
+    private final boolean circuitBreakerForceOpen;
+
+    private final boolean circuitBreakerForceClosed;
+
+    private final int circuitBreakerSleepWindowInMilliseconds;
+
+    private final int circuitBreakerRequestVolumeThreshold;
+
+    private final int circuitBreakerErrorThresholdPercentage;
+
+    private final boolean fallbackEnabled;
+
+    private final boolean fallbackForce;
+
+    private final int fallbackMaxConcurrentRequests;
+
+    public BizkeeperConfigSnapshot(String type, OperationMeta operationMeta) {
+        String microserviceName = operationMeta.getMicroserviceName();
+        String qualifiedName = operationMeta.getMicroserviceQualifiedName();
+        Configuration config = Configuration.INSTANCE;
+        isolationTimeoutInMilliseconds =
+            config.getIsolationTimeoutInMilliseconds(type, microserviceName, qualifiedName);
+        isolationMaxConcurrentRequests =
+            config.getIsolationMaxConcurrentRequests(type, microserviceName, qualifiedName);
+        isolationTimeoutEnabled = config.getIsolationTimeoutEnabled(type, microserviceName, qualifiedName);
+        circuitBreakerEnabled = config.isCircuitBreakerEnabled(type, microserviceName, qualifiedName);
+        circuitBreakerForceOpen = config.isCircuitBreakerForceOpen(type, microserviceName, qualifiedName);
+        circuitBreakerForceClosed = config.isCircuitBreakerForceClosed(type, microserviceName, qualifiedName);
+        circuitBreakerSleepWindowInMilliseconds =
+            config.getCircuitBreakerSleepWindowInMilliseconds(type, microserviceName, qualifiedName);
+        circuitBreakerRequestVolumeThreshold =
+            config.getCircuitBreakerRequestVolumeThreshold(type, microserviceName, qualifiedName);
+        circuitBreakerErrorThresholdPercentage =
+            config.getCircuitBreakerErrorThresholdPercentage(type, microserviceName, qualifiedName);
+        fallbackEnabled = config.isFallbackEnabled(type, microserviceName, qualifiedName);
+        fallbackForce = config.isFallbackForce(type, microserviceName, qualifiedName);
+        fallbackMaxConcurrentRequests =
+            config.getFallbackMaxConcurrentRequests(type, microserviceName, qualifiedName);
+    }
+
+    public boolean isFallbackForce() {
+        return fallbackForce;
+    }
+
+    public void applyTo(HystrixCommandProperties.Setter setter) {
+        setter.withExecutionTimeoutInMilliseconds(isolationTimeoutInMilliseconds)
+                .withExecutionIsolationSemaphoreMaxConcurrentRequests(isolationMaxConcurrentRequests)
+                .withExecutionTimeoutEnabled(isolationTimeoutEnabled)
+                .withCircuitBreakerEnabled(circuitBreakerEnabled)
+                .withCircuitBreakerForceOpen(circuitBreakerForceOpen)
+                .withCircuitBreakerForceClosed(circuitBreakerForceClosed)
+                .withCircuitBreakerSleepWindowInMilliseconds(circuitBreakerSleepWindowInMilliseconds)
+                .withCircuitBreakerRequestVolumeThreshold(circuitBreakerRequestVolumeThreshold)
+                .withCircuitBreakerErrorThresholdPercentage(circuitBreakerErrorThresholdPercentage)
+                .withFallbackEnabled(fallbackEnabled)
+                .withExecutionIsolationStrategy(ExecutionIsolationStrategy.SEMAPHORE)
+                .withMetricsRollingPercentileEnabled(false)
+                .withMetricsRollingStatisticalWindowInMilliseconds(WINDOW_IN_MILLISECONDS)
+                .withMetricsRollingStatisticalWindowBuckets(WINDOW_BUCKETS)
+                .withMetricsHealthSnapshotIntervalInMilliseconds(SNAPSHOT_INTERVAL)
+                .withFallbackIsolationSemaphoreMaxConcurrentRequests(fallbackMaxConcurrentRequests);
+    }
+}
@@ -19,13 +19,14 @@ package io.servicecomb.bizkeeper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.servicecomb.config.ConfigSnapshotCache;
 import io.servicecomb.core.Invocation;
+import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.core.handler.impl.AbstractHandler;
 import io.servicecomb.swagger.invocation.AsyncResponse;
 import io.servicecomb.swagger.invocation.Response;
 
 import com.netflix.hystrix.HystrixCommandProperties;
-import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
 import com.netflix.hystrix.HystrixInvokable;
 import com.netflix.hystrix.HystrixObservable;
 import com.netflix.hystrix.strategy.HystrixPlugins;
@@ -42,12 +43,6 @@ public abstract class BizkeeperHandler extends AbstractHandler {
 
     protected final String groupname;
 
-    private static final int WINDOW_IN_MILLISECONDS = 10000;
-
-    private static final int WINDOW_BUCKETS = 10;
-
-    private static final int SNAPSHOT_INTERVAL = 1000;
-
     static {
         try {
             HystrixPlugins.getInstance().registerPropertiesStrategy(HystrixPropertiesStrategyExt.getInstance());
@@ -68,9 +63,14 @@ public abstract class BizkeeperHandler extends AbstractHandler {
 
     private BizkeeperHandlerDelegate delegate;
 
+    // key为OperationMeta，配置变化时重新创建
+    private final ConfigSnapshotCache<OperationMeta, BizkeeperConfigSnapshot> configSnapshotCache;
+
     public BizkeeperHandler(String groupname) {
         this.groupname = groupname;
         delegate = new BizkeeperHandlerDelegate(this);
+        configSnapshotCache = new ConfigSnapshotCache<>(
+                operationMeta -> new BizkeeperConfigSnapshot(groupname, operationMeta));
     }
 
     protected abstract BizkeeperCommand createBizkeeperCommand(Invocation invocation);
@@ -90,60 +90,11 @@ public abstract class BizkeeperHandler extends AbstractHandler {
         });
     }
 
+    public BizkeeperConfigSnapshot getConfigSnapshot(Invocation invocation) {
+        return configSnapshotCache.get(invocation.getOperationMeta());
+    }
+
     protected void setCommonProperties(Invocation invocation, HystrixCommandProperties.Setter setter) {
-        setter.withExecutionTimeoutInMilliseconds(Configuration.INSTANCE
-                .getIsolationTimeoutInMilliseconds(groupname,
-                        invocation.getMicroserviceName(),
-                        invocation.getOperationMeta().getMicroserviceQualifiedName()))
-                .withExecutionIsolationSemaphoreMaxConcurrentRequests(Configuration.INSTANCE
-                        .getIsolationMaxConcurrentRequests(groupname,
-                                invocation.getMicroserviceName(),
-                                invocation.getOperationMeta()
-                                        .getMicroserviceQualifiedName()))
-                .withExecutionTimeoutEnabled(
-                        Configuration.INSTANCE.getIsolationTimeoutEnabled(groupname,
-                                invocation.getMicroserviceName(),
-                                invocation.getOperationMeta()
-                                        .getMicroserviceQualifiedName()))
-                .withCircuitBreakerEnabled(Configuration.INSTANCE.isCircuitBreakerEnabled(groupname,
-                        invocation.getMicroserviceName(),
-                        invocation.getOperationMeta()
-                                .getMicroserviceQualifiedName()))
-                .withCircuitBreakerForceOpen(Configuration.INSTANCE.isCircuitBreakerForceOpen(groupname,
-                        invocation.getMicroserviceName(),
-                        invocation.getOperationMeta()
-                                .getMicroserviceQualifiedName()))
-                .withCircuitBreakerForceClosed(Configuration.INSTANCE.isCircuitBreakerForceClosed(groupname,
-                        invocation.getMicroserviceName(),
-                        invocation.getOperationMeta()
-                                .getMicroserviceQualifiedName()))
-                .withCircuitBreakerSleepWindowInMilliseconds(
-                        Configuration.INSTANCE.getCircuitBreakerSleepWindowInMilliseconds(groupname,
-                                invocation.getMicroserviceName(),
-                                invocation.getOperationMeta()
-                                        .getMicroserviceQualifiedName()))
-                .withCircuitBreakerRequestVolumeThreshold(
-                        Configuration.INSTANCE.getCircuitBreakerRequestVolumeThreshold(groupname,
-                                invocation.getMicroserviceName(),
-                                invocation.getOperationMeta()
-                                        .getMicroserviceQualifiedName()))
-                .withCircuitBreakerErrorThresholdPercentage(
-                        Configuration.INSTANCE.getCircuitBreakerErrorThresholdPercentage(groupname,
-                                invocation.getMicroserviceName(),
-                                invocation.getOperationMeta()
-                                        .getMicroserviceQualifiedName()))
-                .withFallbackEnabled(
-                        Configuration.INSTANCE.isFallbackEnabled(groupname,
-                                invocation.getMicroserviceName(),
-                                invocation.getOperationMeta().getMicroserviceQualifiedName()))
-                .withExecutionIsolationStrategy(ExecutionIsolationStrategy.SEMAPHORE)
-                .withMetricsRollingPercentileEnabled(false)
-                .withMetricsRollingStatisticalWindowInMilliseconds(WINDOW_IN_MILLISECONDS)
-                .withMetricsRollingStatisticalWindowBuckets(WINDOW_BUCKETS)
-                .withMetricsHealthSnapshotIntervalInMilliseconds(SNAPSHOT_INTERVAL)
-                .withFallbackIsolationSemaphoreMaxConcurrentRequests(Configuration.INSTANCE
-                        .getFallbackMaxConcurrentRequests(groupname,
-                                invocation.getMicroserviceName(),
-                                invocation.getOperationMeta().getMicroserviceQualifiedName()));
+        getConfigSnapshot(invocation).applyTo(setter);
     }
 }
@@ -35,9 +35,7 @@ public class BizkeeperHandlerDelegate {
     }
 
     protected HystrixObservable<Response> createBizkeeperCommand(Invocation invocation) {
-        if (Configuration.INSTANCE.isFallbackForce(handler.groupname,
-                invocation.getMicroserviceName(),
-                invocation.getOperationMeta().getMicroserviceQualifiedName())) {
+        if (handler.getConfigSnapshot(invocation).isFallbackForce()) {
             return forceFallbackCommand(invocation);
         }
         return handler.createBizkeeperCommand(invocation);
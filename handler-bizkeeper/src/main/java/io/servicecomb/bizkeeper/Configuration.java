@@ -16,7 +16,7 @@
 
 package io.servicecomb.bizkeeper;
 
-import com.netflix.config.DynamicPropertyFactory;
+import io.servicecomb.config.ConfigSnapshotCache;
 
 public final class Configuration {
     //isolation
@@ -236,18 +236,6 @@ public final class Configuration {
     }
 
     private String getProperty(String defaultValue, String... keys) {
-        String property = null;
-        for (String key : keys) {
-            property = DynamicPropertyFactory.getInstance().getStringProperty(key, null).get();
-            if (property != null) {
-                break;
-            }
-        }
-
-        if (property != null) {
-            return property;
-        } else {
-            return defaultValue;
-        }
+        return ConfigSnapshotCache.getProperty(defaultValue, keys);
     }
 }
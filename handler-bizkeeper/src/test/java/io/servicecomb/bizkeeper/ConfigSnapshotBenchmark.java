@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.bizkeeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.servicecomb.config.ConfigSnapshotCache;
+import io.servicecomb.core.definition.OperationMeta;
+
+import com.netflix.hystrix.HystrixCommandProperties;
+
+/**
+ * 比较每次调用逐项查找配置与读取快照的耗时
+ * perCallLookup等价于原来setCommonProperties的做法，每次调用查找12个配置项，每项最多查找3级
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigSnapshotBenchmark {
+    private OperationMeta operationMeta;
+
+    private ConfigSnapshotCache<OperationMeta, BizkeeperConfigSnapshot> cache;
+
+    @Setup
+    public void setup() {
+        operationMeta = new OperationMeta() {
+            @Override
+            public String getMicroserviceName() {
+                return "benchmark";
+            }
+
+            @Override
+            public String getMicroserviceQualifiedName() {
+                return "benchmark.schema.operation";
+            }
+        };
+        cache = new ConfigSnapshotCache<>(meta -> new BizkeeperConfigSnapshot("Consumer", meta));
+    }
+
+    @Benchmark
+    public HystrixCommandProperties.Setter perCallLookup() {
+        HystrixCommandProperties.Setter setter = HystrixCommandProperties.Setter();
+        new BizkeeperConfigSnapshot("Consumer", operationMeta).applyTo(setter);
+        return setter;
+    }
+
+    @Benchmark
+    public HystrixCommandProperties.Setter snapshot() {
+        HystrixCommandProperties.Setter setter = HystrixCommandProperties.Setter();
+        cache.get(operationMeta).applyTo(setter);
+        return setter;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ConfigSnapshotBenchmark.class.getSimpleName()).build()).run();
+    }
+}
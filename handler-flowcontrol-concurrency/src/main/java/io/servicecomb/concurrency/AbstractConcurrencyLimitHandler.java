@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.concurrency;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import javax.ws.rs.core.Response.Status;
+
+import io.servicecomb.core.Invocation;
+import io.servicecomb.core.handler.impl.AbstractHandler;
+import io.servicecomb.swagger.invocation.AsyncResponse;
+import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.swagger.invocation.exception.CommonExceptionData;
+import io.servicecomb.swagger.invocation.exception.InvocationException;
+
+/**
+ * consumer、provider的公共流程：
+ * 在途请求数超过limit时立即拒绝，否则记录开始时间，应答时将时延反馈给limiter
+ */
+public abstract class AbstractConcurrencyLimitHandler extends AbstractHandler {
+    // 超时、被拒绝、服务不可用，视为过载信号
+    private static final int[] DROPPED_STATUS_CODES = {408, 429, Status.SERVICE_UNAVAILABLE.getStatusCode()};
+
+    protected ConcurrencyLimiterManager limiterMgr = new ConcurrencyLimiterManager();
+
+    public ConcurrencyLimiterManager getLimiterMgr() {
+        return limiterMgr;
+    }
+
+    protected abstract boolean isEnabled();
+
+    protected abstract void fail(AsyncResponse asyncResp, InvocationException e);
+
+    @Override
+    public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
+        if (!isEnabled()) {
+            invocation.next(asyncResp);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = limiterMgr.getOrCreate(invocation.getOperationMeta());
+        if (!limiter.tryAcquire()) {
+            // 503
+            CommonExceptionData errorData = new CommonExceptionData("rejected by concurrency limit");
+            fail(asyncResp, new InvocationException(Status.SERVICE_UNAVAILABLE, errorData));
+            return;
+        }
+
+        LimitedResponse limitedResp = new LimitedResponse(this, limiter, asyncResp);
+        try {
+            invocation.next(limitedResp);
+        } catch (Throwable e) {
+            // 异常会直接抛给调用链的起点，不会再经过应答流程，在这里归还名额
+            if (limitedResp.tryRelease()) {
+                limiter.release();
+            }
+            throw e;
+        }
+    }
+
+    protected boolean isDropped(Response response) {
+        int statusCode = response.getStatusCode();
+        for (int dropped : DROPPED_STATUS_CODES) {
+            if (statusCode == dropped) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 每次调用创建一个该对象，开始时间与归还标记都放在这里，不再另外创建闭包和AtomicBoolean
+     * 不经过handlerContext，避免装箱和map操作
+     */
+    private static final class LimitedResponse implements AsyncResponse {
+        private static final AtomicIntegerFieldUpdater<LimitedResponse> RELEASED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(LimitedResponse.class, "released");
+
+        private final AbstractConcurrencyLimitHandler handler;
+
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        private final AsyncResponse asyncResp;
+
+        private final long start = System.nanoTime();
+
+        // 应答与异常两条路径只能归还一次名额
+        private volatile int released;
+
+        LimitedResponse(AbstractConcurrencyLimitHandler handler, AdaptiveConcurrencyLimiter limiter,
+                AsyncResponse asyncResp) {
+            this.handler = handler;
+            this.limiter = limiter;
+            this.asyncResp = asyncResp;
+        }
+
+        boolean tryRelease() {
+            return RELEASED_UPDATER.compareAndSet(this, 0, 1);
+        }
+
+        @Override
+        public void handle(Response response) {
+            if (tryRelease()) {
+                limiter.release(System.nanoTime() - start, handler.isDropped(response));
+            }
+            asyncResp.handle(response);
+        }
+    }
+}
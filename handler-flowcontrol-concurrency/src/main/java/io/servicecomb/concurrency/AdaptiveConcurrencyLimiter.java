@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 根据实测时延自适应调整并发上限，算法参考gradient：
+ * 1.longRtt为长窗口的时延均值，作为无排队时的基线，rtt为本采样窗口内的时延均值
+ * 2.gradient = tolerance * longRtt / rtt，限制在[0.5, 1]之间，时延升高则limit按比例收缩
+ * 3.每次在收缩后的limit上再加sqrt(limit)作为排队余量，使得时延稳定时limit能逐步增长
+ * 4.窗口内出现超时、被下游拒绝等过载信号，直接按比例退避(AIMD中的MD)
+ *
+ * 每个应答只累加到窗口统计中，窗口结束后由抢到更新权的一个线程计算新的limit，应答之间不竞争锁
+ * 在途请求数达到limit时，新请求立即拒绝，不排队
+ */
+public class AdaptiveConcurrencyLimiter {
+    // 过载信号时limit的退避比例
+    private static final double BACKOFF_RATIO = 0.9;
+
+    // 基线远高于当前采样时，说明负载已经降下来了，基线需要加速回落
+    private static final double LONG_RTT_DECAY = 0.95;
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double smoothing;
+
+    private final double rttTolerance;
+
+    private final int longWindow;
+
+    private final long sampleWindowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejectCount = new LongAdder();
+
+    // 当前采样窗口的统计，应答线程并发累加
+    private final LongAdder windowRttSum = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final LongAdder windowDropped = new LongAdder();
+
+    private final LongAccumulator windowMaxInFlight = new LongAccumulator(Math::max, 0);
+
+    // 同一时刻只有一个线程能结束窗口，抢不到的直接返回，样本留给下一个窗口
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private volatile long windowStart = System.nanoTime();
+
+    // 请求处理线程只读limit，只有抢到updating的线程才会修改estimatedLimit和longRtt
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private double longRtt;
+
+    private long sampleCount;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double smoothing,
+            double rttTolerance, int longWindow, int sampleWindowMs) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.smoothing = smoothing;
+        this.rttTolerance = Math.max(1.0, rttTolerance);
+        this.longWindow = Math.max(1, longWindow);
+        this.sampleWindowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, sampleWindowMs));
+        this.estimatedLimit = clamp(initialLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectCount() {
+        return rejectCount.sum();
+    }
+
+    /**
+     * 成功后，必须调用一次release
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejectCount.increment();
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 不采样，仅归还名额，用于调用流程异常中断，拿不到有效时延的场景
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @param rttNanos 从tryAcquire成功到收到应答的耗时
+     * @param dropped 是否为超时、被拒绝等过载信号
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        onSample(rttNanos, current, dropped);
+    }
+
+    protected void onSample(long rttNanos, int inFlightAtSample, boolean dropped) {
+        if (dropped) {
+            windowDropped.increment();
+        } else if (rttNanos > 0) {
+            windowRttSum.add(rttNanos);
+            windowSamples.increment();
+            windowMaxInFlight.accumulate(inFlightAtSample);
+        } else {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (now - windowStart < sampleWindowNanos || !updating.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            // 抢到时窗口可能已经被其他线程结束了
+            if (now - windowStart >= sampleWindowNanos) {
+                windowStart = now;
+                closeWindow();
+            }
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    // 各项统计不是原子地一起清零，并发累加的样本可能部分计入下一个窗口，对均值影响可以忽略
+    private void closeWindow() {
+        long dropped = windowDropped.sumThenReset();
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttSum.sumThenReset();
+        long maxInFlight = windowMaxInFlight.getThenReset();
+        if (dropped > 0) {
+            updateLimit(estimatedLimit * BACKOFF_RATIO);
+            return;
+        }
+
+        if (samples <= 0 || rttSum <= 0) {
+            return;
+        }
+
+        double rtt = (double) rttSum / samples;
+        if (sampleCount < longWindow) {
+            sampleCount++;
+        }
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            // 窗口未填满前按实际窗口数计算均值，避免被第一个窗口带偏
+            longRtt += (rtt - longRtt) / sampleCount;
+        }
+
+        if (longRtt / rtt > 2) {
+            longRtt *= LONG_RTT_DECAY;
+        }
+
+        // 实际并发远未达到limit时，时延不能说明limit是否合适，不调整
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        updateLimit(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private void updateLimit(double newLimit) {
+        estimatedLimit = clamp(newLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: limit=%d, inFlight=%d, rejected=%d", name, limit, inFlight.get(), rejectCount.sum());
+    }
+}
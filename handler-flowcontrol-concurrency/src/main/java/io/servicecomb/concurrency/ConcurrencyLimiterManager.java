@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.foundation.common.AbstractObjectManager;
+
+/**
+ * 以microservice.schema.operation为key，每个operation独立计算并发上限
+ * 不同operation时延差异可能很大，放在一起统计会互相干扰
+ */
+public class ConcurrencyLimiterManager
+        extends AbstractObjectManager<OperationMeta, String, AdaptiveConcurrencyLimiter> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimiterManager.class);
+
+    @Override
+    protected String getKey(OperationMeta operationMeta) {
+        return operationMeta.getMicroserviceQualifiedName();
+    }
+
+    @Override
+    protected AdaptiveConcurrencyLimiter create(OperationMeta operationMeta) {
+        String key = operationMeta.getMicroserviceQualifiedName();
+        Config config = Config.INSTANCE;
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(key,
+                config.getInitialLimit(),
+                config.getMinLimit(),
+                config.getMaxLimit(),
+                config.getSmoothing(),
+                config.getRttTolerance(),
+                config.getLongWindow(),
+                config.getSampleWindow());
+        LOGGER.info("concurrency limit of {} init as {}", key, limiter.getLimit());
+        return limiter;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.netflix.config.DynamicBooleanProperty;
+import com.netflix.config.DynamicDoubleProperty;
+import com.netflix.config.DynamicIntProperty;
+import com.netflix.config.DynamicPropertyFactory;
+
+public final class Config {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Config.class);
+
+    public static final String CONSUMER_ENABLED = "cse.flowcontrol.Consumer.concurrency.enabled";
+
+    public static final String PROVIDER_ENABLED = "cse.flowcontrol.Provider.concurrency.enabled";
+
+    public static final String INITIAL_LIMIT = "cse.flowcontrol.concurrency.initial-limit";
+
+    public static final String MIN_LIMIT = "cse.flowcontrol.concurrency.min-limit";
+
+    public static final String MAX_LIMIT = "cse.flowcontrol.concurrency.max-limit";
+
+    public static final String SMOOTHING = "cse.flowcontrol.concurrency.smoothing";
+
+    public static final String RTT_TOLERANCE = "cse.flowcontrol.concurrency.rtt-tolerance";
+
+    // 以采样窗口为单位
+    public static final String LONG_WINDOW = "cse.flowcontrol.concurrency.long-window";
+
+    // 毫秒
+    public static final String SAMPLE_WINDOW = "cse.flowcontrol.concurrency.sample-window";
+
+    public static final Config INSTANCE = new Config();
+
+    private final DynamicBooleanProperty consumerEnabled = DynamicPropertyFactory.getInstance()
+            .getBooleanProperty(CONSUMER_ENABLED, true);
+
+    private final DynamicBooleanProperty providerEnabled = DynamicPropertyFactory.getInstance()
+            .getBooleanProperty(PROVIDER_ENABLED, true);
+
+    private final DynamicIntProperty initialLimit = DynamicPropertyFactory.getInstance()
+            .getIntProperty(INITIAL_LIMIT, 20);
+
+    private final DynamicIntProperty minLimit = DynamicPropertyFactory.getInstance()
+            .getIntProperty(MIN_LIMIT, 1);
+
+    private final DynamicIntProperty maxLimit = DynamicPropertyFactory.getInstance()
+            .getIntProperty(MAX_LIMIT, 1000);
+
+    private final DynamicDoubleProperty smoothing = DynamicPropertyFactory.getInstance()
+            .getDoubleProperty(SMOOTHING, 0.2);
+
+    private final DynamicDoubleProperty rttTolerance = DynamicPropertyFactory.getInstance()
+            .getDoubleProperty(RTT_TOLERANCE, 1.5);
+
+    private final DynamicIntProperty longWindow = DynamicPropertyFactory.getInstance()
+            .getIntProperty(LONG_WINDOW, 600);
+
+    private final DynamicIntProperty sampleWindow = DynamicPropertyFactory.getInstance()
+            .getIntProperty(SAMPLE_WINDOW, 100);
+
+    private Config() {
+        consumerEnabled.addCallback(() -> {
+            LOGGER.info("{} changed to {}", CONSUMER_ENABLED, consumerEnabled.get());
+        });
+
+        providerEnabled.addCallback(() -> {
+            LOGGER.info("{} changed to {}", PROVIDER_ENABLED, providerEnabled.get());
+        });
+    }
+
+    public boolean isConsumerEnabled() {
+        return consumerEnabled.get();
+    }
+
+    public boolean isProviderEnabled() {
+        return providerEnabled.get();
+    }
+
+    public int getInitialLimit() {
+        return initialLimit.get();
+    }
+
+    public int getMinLimit() {
+        return minLimit.get();
+    }
+
+    public int getMaxLimit() {
+        return maxLimit.get();
+    }
+
+    public double getSmoothing() {
+        return smoothing.get();
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance.get();
+    }
+
+    public int getLongWindow() {
+        return longWindow.get();
+    }
+
+    public int getSampleWindow() {
+        return sampleWindow.get();
+    }
+}
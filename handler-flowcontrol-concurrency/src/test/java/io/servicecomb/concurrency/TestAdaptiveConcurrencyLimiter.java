@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.concurrency;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAdaptiveConcurrencyLimiter {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testRejectWhenFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 0.2, 1.5, 600, 0);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        Assert.assertEquals(1, limiter.getRejectCount());
+
+        limiter.release();
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testIncreaseWhenRttStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, 0.2, 1.5, 600, 0);
+        for (int idx = 0; idx < 100; idx++) {
+            limiter.onSample(10 * MS, limiter.getLimit(), false);
+        }
+        Assert.assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    public void testDecreaseWhenRttIncrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 100, 1, 100, 0.2, 1.5, 600, 0);
+        for (int idx = 0; idx < 100; idx++) {
+            limiter.onSample(10 * MS, limiter.getLimit(), false);
+        }
+        for (int idx = 0; idx < 20; idx++) {
+            limiter.onSample(100 * MS, limiter.getLimit(), false);
+        }
+        Assert.assertTrue(limiter.getLimit() < 50);
+    }
+
+    @Test
+    public void testNotChangeWhenAppLimited() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, 0.2, 1.5, 600, 0);
+        for (int idx = 0; idx < 100; idx++) {
+            limiter.onSample(10 * MS, 1, false);
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testBackoffWhenDropped() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 5, 100, 0.2, 1.5, 600, 0);
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release(10 * MS, true);
+        Assert.assertEquals(9, limiter.getLimit());
+        Assert.assertEquals(0, limiter.getInFlight());
+
+        for (int idx = 0; idx < 100; idx++) {
+            limiter.onSample(0, 0, true);
+        }
+        Assert.assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    public void testNotChangeWithinSampleWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 5, 100, 0.2, 1.5, 600,
+                (int) TimeUnit.HOURS.toMillis(1));
+        for (int idx = 0; idx < 100; idx++) {
+            limiter.onSample(0, 0, true);
+            limiter.onSample(10 * MS, limiter.getLimit(), false);
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testConcurrentSamples() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, 0.2, 1.5, 600, 0);
+        int threadCount = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int threadIdx = 0; threadIdx < threadCount; threadIdx++) {
+            executor.execute(() -> {
+                for (int idx = 0; idx < 10000; idx++) {
+                    if (limiter.tryAcquire()) {
+                        limiter.release(10 * MS, false);
+                    }
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        Assert.assertEquals(0, limiter.getInFlight());
+        Assert.assertTrue(limiter.getLimit() >= 1 && limiter.getLimit() <= 100);
+    }
+}
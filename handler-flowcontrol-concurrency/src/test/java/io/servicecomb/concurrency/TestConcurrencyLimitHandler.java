@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.concurrency;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import io.servicecomb.core.Invocation;
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.swagger.invocation.AsyncResponse;
+import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.swagger.invocation.exception.InvocationException;
+
+public class TestConcurrencyLimitHandler {
+    Invocation invocation = Mockito.mock(Invocation.class);
+
+    OperationMeta operationMeta = Mockito.mock(OperationMeta.class);
+
+    AsyncResponse asyncResp = Mockito.mock(AsyncResponse.class);
+
+    @BeforeClass
+    public static void classSetUp() {
+        // 先完成动态配置的初始化，否则下面修改的配置项会在初始化时丢失
+        Config.INSTANCE.getInitialLimit();
+    }
+
+    @Before
+    public void setUp() {
+        Utils.updateProperty(Config.INITIAL_LIMIT, 1);
+        Mockito.when(operationMeta.getMicroserviceQualifiedName()).thenReturn("app.schema.op");
+        Mockito.when(invocation.getOperationMeta()).thenReturn(operationMeta);
+    }
+
+    @After
+    public void tearDown() {
+        Utils.updateProperty(Config.INITIAL_LIMIT, 20);
+        Utils.updateProperty(Config.CONSUMER_ENABLED, true);
+    }
+
+    @Test
+    public void testConsumerReject() throws Exception {
+        ConsumerConcurrencyLimitHandler handler = new ConsumerConcurrencyLimitHandler();
+        handler.handle(invocation, asyncResp);
+        ArgumentCaptor<AsyncResponse> nextCaptor = ArgumentCaptor.forClass(AsyncResponse.class);
+        Mockito.verify(invocation).next(nextCaptor.capture());
+
+        AdaptiveConcurrencyLimiter limiter = handler.getLimiterMgr().findByKey("app.schema.op");
+        Assert.assertEquals(1, limiter.getInFlight());
+
+        handler.handle(invocation, asyncResp);
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        Mockito.verify(asyncResp).consumerFail(captor.capture());
+        Assert.assertEquals(Status.SERVICE_UNAVAILABLE, ((InvocationException) captor.getValue()).getStatus());
+        Assert.assertEquals(1, limiter.getRejectCount());
+
+        Response response = Response.succResp(null);
+        nextCaptor.getValue().handle(response);
+        Mockito.verify(asyncResp).handle(response);
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testProviderReject() throws Exception {
+        ProviderConcurrencyLimitHandler handler = new ProviderConcurrencyLimitHandler();
+        handler.handle(invocation, asyncResp);
+        handler.handle(invocation, asyncResp);
+        Mockito.verify(asyncResp).producerFail(Mockito.any(InvocationException.class));
+    }
+
+    @Test
+    public void testReleaseWhenNextThrow() throws Exception {
+        ConsumerConcurrencyLimitHandler handler = new ConsumerConcurrencyLimitHandler();
+        Mockito.doThrow(new IllegalStateException("failed")).when(invocation).next(Mockito.any(AsyncResponse.class));
+        try {
+            handler.handle(invocation, asyncResp);
+            Assert.fail("must throw exception");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+
+        AdaptiveConcurrencyLimiter limiter = handler.getLimiterMgr().findByKey("app.schema.op");
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testReleaseOnceWhenRespondThenThrow() throws Exception {
+        ConsumerConcurrencyLimitHandler handler = new ConsumerConcurrencyLimitHandler();
+        Mockito.doAnswer(invocationOnMock -> {
+            ((AsyncResponse) invocationOnMock.getArguments()[0]).handle(Response.succResp(null));
+            throw new IllegalStateException("failed");
+        }).when(invocation).next(Mockito.any(AsyncResponse.class));
+        try {
+            handler.handle(invocation, asyncResp);
+            Assert.fail("must throw exception");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+
+        AdaptiveConcurrencyLimiter limiter = handler.getLimiterMgr().findByKey("app.schema.op");
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        Utils.updateProperty(Config.CONSUMER_ENABLED, false);
+        ConsumerConcurrencyLimitHandler handler = new ConsumerConcurrencyLimitHandler();
+        handler.handle(invocation, asyncResp);
+        handler.handle(invocation, asyncResp);
+        Mockito.verify(invocation, Mockito.times(2)).next(asyncResp);
+        Assert.assertNull(handler.getLimiterMgr().findByKey("app.schema.op"));
+    }
+
+    @Test
+    public void testIsDropped() {
+        ConsumerConcurrencyLimitHandler handler = new ConsumerConcurrencyLimitHandler();
+        Assert.assertTrue(handler.isDropped(Response.create(408, "timeout", null)));
+        Assert.assertTrue(handler.isDropped(Response.create(Status.SERVICE_UNAVAILABLE, null)));
+        Assert.assertFalse(handler.isDropped(Response.succResp(null)));
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.concurrency;
+
+import java.lang.reflect.Method;
+
+import org.springframework.util.ReflectionUtils;
+
+import com.netflix.config.DynamicProperty;
+
+public class Utils {
+    private static Method updatePropertyMethod =
+        ReflectionUtils.findMethod(DynamicProperty.class, "updateProperty", String.class, Object.class);
+
+    static {
+        updatePropertyMethod.setAccessible(true);
+    }
+
+    public static void updateProperty(String key, Object value) {
+        ReflectionUtils.invokeMethod(updatePropertyMethod, null, key, value);
+    }
+}
@@ -19,7 +19,15 @@ package io.servicecomb.qps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.servicecomb.qps.cluster.LocalQuotaCoordinator;
+import io.servicecomb.qps.cluster.QuotaCoordinator;
+import io.servicecomb.serviceregistry.RegistryUtils;
+import io.servicecomb.serviceregistry.api.registry.Microservice;
+import io.servicecomb.serviceregistry.cache.InstanceCache;
+import io.servicecomb.serviceregistry.cache.InstanceCacheManager;
+
 import com.netflix.config.DynamicBooleanProperty;
+import com.netflix.config.DynamicIntProperty;
 import com.netflix.config.DynamicPropertyFactory;
 
 public final class Config {
@@ -29,18 +37,48 @@ public final class Config {
 
     public static final String PROVIDER_LIMIT_KEY_PREFIX = "cse.flowcontrol.Provider.qps.limit.";
 
+    public static final String CONSUMER_STRATEGY_KEY_PREFIX = "cse.flowcontrol.Consumer.qps.strategy.";
+
+    public static final String PROVIDER_STRATEGY_KEY_PREFIX = "cse.flowcontrol.Provider.qps.strategy.";
+
+    // 未按key配置时使用的算法
+    public static final String STRATEGY = "cse.flowcontrol.qps.strategy";
+
+    public static final String TOKEN_BUCKET_BURST_MS = "cse.flowcontrol.qps.tokenBucket.burstMs";
+
+    public static final String CLUSTER_COORDINATOR = "cse.flowcontrol.qps.cluster.coordinator";
+
+    public static final String CLUSTER_WINDOW_MS = "cse.flowcontrol.qps.cluster.windowMs";
+
+    // 共享集群配额的实例数，每个实例的本地份额为 集群预算/实例数
+    // 不配置时，使用服务中心中本微服务所有版本的实例数
+    public static final String CLUSTER_INSTANCES = "cse.flowcontrol.qps.cluster.instances";
+
     public static final String CONSUMER_ENABLED = "cse.flowcontrol.Consumer.qps.enabled";
 
     public static final String PROVIDER_ENABLED = "cse.flowcontrol.Provider.qps.enabled";
 
     public static final Config INSTANCE = new Config();
 
+    private static final String ALL_VERSIONS_RULE = "0.0.0+";
+
     private final DynamicBooleanProperty consumerEanbled = DynamicPropertyFactory.getInstance()
             .getBooleanProperty(CONSUMER_ENABLED, true);
 
     private final DynamicBooleanProperty providerEanbled = DynamicPropertyFactory.getInstance()
             .getBooleanProperty(PROVIDER_ENABLED, true);
 
+    private final DynamicIntProperty tokenBucketBurstMs = DynamicPropertyFactory.getInstance()
+            .getIntProperty(TOKEN_BUCKET_BURST_MS, 100);
+
+    private final DynamicIntProperty clusterWindowMs = DynamicPropertyFactory.getInstance()
+            .getIntProperty(CLUSTER_WINDOW_MS, 1000);
+
+    private final DynamicIntProperty clusterInstances = DynamicPropertyFactory.getInstance()
+            .getIntProperty(CLUSTER_INSTANCES, 0);
+
+    private QuotaCoordinator quotaCoordinator;
+
     private Config() {
         consumerEanbled.addCallback(() -> {
             boolean newValue = consumerEanbled.get();
@@ -60,4 +98,84 @@ public final class Config {
     public boolean isProviderEnabled() {
         return providerEanbled.get();
     }
+
+    public int getTokenBucketBurstMs() {
+        return tokenBucketBurstMs.get();
+    }
+
+    public int getClusterWindowMs() {
+        int windowMs = clusterWindowMs.get();
+        return windowMs > 0 ? windowMs : 1000;
+    }
+
+    /**
+     * @return 未配置且无法从服务中心获取时返回0，表示未知
+     */
+    public int getClusterInstances() {
+        int instances = clusterInstances.get();
+        return instances > 0 ? instances : getRegisteredInstances();
+    }
+
+    // 首次查询会访问服务中心，之后使用本地缓存，实例变化由服务中心推送更新缓存
+    private int getRegisteredInstances() {
+        try {
+            Microservice microservice = RegistryUtils.getMicroservice();
+            InstanceCache cache = InstanceCacheManager.INSTANCE.getOrCreate(microservice.getAppId(),
+                    microservice.getServiceName(),
+                    ALL_VERSIONS_RULE);
+            return cache == null ? 0 : cache.getInstanceMap().size();
+        } catch (Throwable e) {
+            LOGGER.error("failed to get instances count from service center. cause: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 第一次使用时创建，之后修改配置不再生效
+     */
+    public synchronized QuotaCoordinator getQuotaCoordinator() {
+        if (quotaCoordinator != null) {
+            return quotaCoordinator;
+        }
+
+        String clsName = DynamicPropertyFactory.getInstance()
+                .getStringProperty(CLUSTER_COORDINATOR, LocalQuotaCoordinator.class.getName())
+                .get();
+        try {
+            quotaCoordinator = (QuotaCoordinator) Class.forName(clsName, true,
+                    Thread.currentThread().getContextClassLoader()).newInstance();
+        } catch (Throwable e) {
+            LOGGER.error("failed to create qps quota coordinator {}, use {}",
+                    clsName, LocalQuotaCoordinator.class.getName(), e);
+            quotaCoordinator = new LocalQuotaCoordinator();
+        }
+        LOGGER.info("qps quota coordinator: {}", quotaCoordinator.getClass().getName());
+        return quotaCoordinator;
+    }
+
+    public QpsStrategy getConsumerStrategy(String key) {
+        return getStrategy(CONSUMER_STRATEGY_KEY_PREFIX + key);
+    }
+
+    public QpsStrategy getProviderStrategy(String key) {
+        return getStrategy(PROVIDER_STRATEGY_KEY_PREFIX + key);
+    }
+
+    private QpsStrategy getStrategy(String configKey) {
+        DynamicPropertyFactory factory = DynamicPropertyFactory.getInstance();
+        String name = factory.getStringProperty(configKey, null).get();
+        if (name == null) {
+            name = factory.getStringProperty(STRATEGY, null).get();
+        }
+        if (name == null) {
+            return QpsStrategy.FixedWindow;
+        }
+
+        QpsStrategy strategy = QpsStrategy.parse(name);
+        if (strategy == null) {
+            LOGGER.error("unknown qps strategy {} of {}, use {}", name, configKey, QpsStrategy.FixedWindow);
+            return QpsStrategy.FixedWindow;
+        }
+        return strategy;
+    }
 }
@@ -56,6 +56,18 @@ public class ConsumerQpsControllerManager extends AbstractObjectManager<Operatio
         return operationMeta.getMicroserviceQualifiedName();
     }
 
+    private QpsController createQpsController(String key, Integer qpsLimit) {
+        return Config.INSTANCE.getConsumerStrategy(key).create(Config.CONSUMER_LIMIT_KEY_PREFIX, key, qpsLimit);
+    }
+
+    // 被替换的QpsController可能持有后台任务，需要释放
+    private void putQpsController(String key, QpsController qpsController) {
+        QpsController old = qpsControllerMap.put(key, qpsController);
+        if (old != null && old != qpsController) {
+            old.close();
+        }
+    }
+
     private QpsController initQpsLimit(String key, Integer qpsLimit) {
         if (qpsLimit == null) {
             return null;
@@ -63,16 +75,16 @@ public class ConsumerQpsControllerManager extends AbstractObjectManager<Operatio
 
         LOGGER.info("qpsLimit of {} init as {}", key, qpsLimit);
 
-        QpsController qpsController = new QpsController(key, qpsLimit);
-        qpsControllerMap.put(key, qpsController);
+        QpsController qpsController = createQpsController(key, qpsLimit);
+        putQpsController(key, qpsController);
         return qpsController;
     }
 
     private QpsController updateQpsLimit(String key, Integer qpsLimit) {
         QpsController qpsController = qpsControllerMap.get(key);
         if (qpsController == null && qpsLimit != null) {
-            qpsController = new QpsController(key, qpsLimit);
-            qpsControllerMap.put(key, qpsController);
+            qpsController = createQpsController(key, qpsLimit);
+            putQpsController(key, qpsController);
         }
 
         if (qpsController != null) {
@@ -41,6 +41,18 @@ public class ProviderQpsControllerManager extends AbstractObjectManager<String,
         return microServiceName;
     }
 
+    private QpsController createQpsController(String key, Integer qpsLimit) {
+        return Config.INSTANCE.getProviderStrategy(key).create(Config.PROVIDER_LIMIT_KEY_PREFIX, key, qpsLimit);
+    }
+
+    // 被替换的QpsController可能持有后台任务，需要释放
+    private void putQpsController(String key, QpsController qpsController) {
+        QpsController old = qpsControllerMap.put(key, qpsController);
+        if (old != null && old != qpsController) {
+            old.close();
+        }
+    }
+
     private QpsController initQpsLimit(String key, Integer qpsLimit) {
         if (qpsLimit == null) {
             qpsLimit = null;
@@ -48,16 +60,16 @@ public class ProviderQpsControllerManager extends AbstractObjectManager<String,
 
         LOGGER.info("qpsLimit of {} init as {}", key, qpsLimit);
 
-        QpsController qpsController = new QpsController(key, qpsLimit);
-        qpsControllerMap.put(key, qpsController);
+        QpsController qpsController = createQpsController(key, qpsLimit);
+        putQpsController(key, qpsController);
         return qpsController;
     }
 
     private QpsController updateQpsLimit(String key, Integer qpsLimit) {
         QpsController qpsController = qpsControllerMap.get(key);
         if (qpsController == null && qpsLimit != null) {
-            qpsController = new QpsController(key, qpsLimit);
-            qpsControllerMap.put(key, qpsController);
+            qpsController = createQpsController(key, qpsLimit);
+            putQpsController(key, qpsController);
         }
 
         if (qpsController != null) {
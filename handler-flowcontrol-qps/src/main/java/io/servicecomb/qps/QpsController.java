@@ -21,7 +21,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class QpsController {
     private String key;
 
-    private Integer qpsLimit;
+    private volatile Integer qpsLimit;
 
     // 本周期的开始时间
     private volatile long msCycleBegin;
@@ -33,7 +33,7 @@ public class QpsController {
     private volatile long lastRequestCount = 0;
 
     private static final int CYCLE_LENGTH = 1000;
-    
+
     public QpsController(String key, Integer qpsLimit) {
         this.key = key;
         this.qpsLimit = qpsLimit;
@@ -52,7 +52,20 @@ public class QpsController {
         this.qpsLimit = qpsLimit;
     }
 
+    // 被替换时调用，释放后台任务等资源
+    public void close() {
+    }
+
+    // 配置更新与配置使用是多线程并发的
+    // 所以可能operation级别刚刚更新为null
+    // 还没来得及修改为引用schema级别或是microservice级别，其他线程还在使用，所以需要规避
+    protected int getLimitValue() {
+        Integer limit = qpsLimit;
+        return (limit == null) ? Integer.MAX_VALUE : limit;
+    }
+
     // 返回true，表示需要被控制
+    // 固定1秒的周期，周期边界上最多可能通过2倍的请求，需要精确控制时使用SlidingWindow或TokenBucket
     public boolean isLimitNewRequest() {
         long newCount = requestCount.incrementAndGet();
         long msNow = System.currentTimeMillis();
@@ -63,10 +76,6 @@ public class QpsController {
             msCycleBegin = msNow;
         }
 
-        // 配置更新与配置使用是多线程并发的
-        // 所以可能operation级别刚刚更新为null
-        // 还没来得及修改为引用schema级别或是microservice级别，其他线程还在使用，所以需要规避
-        int limitValue = (qpsLimit == null) ? Integer.MAX_VALUE : qpsLimit;
-        return newCount - lastRequestCount >= limitValue;
+        return newCount - lastRequestCount >= getLimitValue();
     }
 }
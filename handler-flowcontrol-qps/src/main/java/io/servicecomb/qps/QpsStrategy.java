@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps;
+
+import io.servicecomb.qps.cluster.LeasedQpsController;
+
+/**
+ * qps控制算法，可以按key配置，只在QpsController创建时生效
+ */
+public enum QpsStrategy {
+    // 固定1秒周期，兼容原有行为
+    FixedWindow {
+        @Override
+        public QpsController create(String key, Integer qpsLimit) {
+            return new QpsController(key, qpsLimit);
+        }
+    },
+    SlidingWindow {
+        @Override
+        public QpsController create(String key, Integer qpsLimit) {
+            return new SlidingWindowQpsController(key, qpsLimit);
+        }
+    },
+    TokenBucket {
+        @Override
+        public QpsController create(String key, Integer qpsLimit) {
+            return new TokenBucketQpsController(key, qpsLimit, Config.INSTANCE.getTokenBucketBurstMs());
+        }
+    },
+    // qpsLimit为整个集群的限制，各实例通过QuotaCoordinator租用配额
+    Cluster {
+        @Override
+        public QpsController create(String key, Integer qpsLimit) {
+            return create(Config.PROVIDER_LIMIT_KEY_PREFIX, key, qpsLimit);
+        }
+
+        @Override
+        public QpsController create(String configKeyPrefix, String key, Integer qpsLimit) {
+            return new LeasedQpsController(key, qpsLimit, configKeyPrefix + key,
+                    Config.INSTANCE.getQuotaCoordinator(),
+                    Config.INSTANCE.getClusterWindowMs(),
+                    Config.INSTANCE::getClusterInstances);
+        }
+    };
+
+    public abstract QpsController create(String key, Integer qpsLimit);
+
+    /**
+     * @param configKeyPrefix consumer、provider的key可能相同，集群配额需要以此区分
+     */
+    public QpsController create(String configKeyPrefix, String key, Integer qpsLimit) {
+        return create(key, qpsLimit);
+    }
+
+    /**
+     * @return 不认识的名字返回null
+     */
+    public static QpsStrategy parse(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        for (QpsStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(name.trim())) {
+                return strategy;
+            }
+        }
+        return null;
+    }
+}
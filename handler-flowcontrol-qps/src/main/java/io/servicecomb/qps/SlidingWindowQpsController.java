@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口，1秒分为BUCKET_COUNT个bucket，统计最近1秒内的请求数
+ *
+ * 每个bucket的高位保存所属的周期序号，低位保存计数
+ * 周期变化时，序号与计数通过一次CAS整体替换，不会出现重置与计数互相覆盖的问题
+ */
+public class SlidingWindowQpsController extends QpsController {
+    private static final int BUCKET_COUNT = 10;
+
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1) / BUCKET_COUNT;
+
+    private static final int COUNT_BITS = 24;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    public SlidingWindowQpsController(String key, Integer qpsLimit) {
+        super(key, qpsLimit);
+    }
+
+    @Override
+    public boolean isLimitNewRequest() {
+        int limitValue = getLimitValue();
+        if (limitValue == Integer.MAX_VALUE) {
+            return false;
+        }
+
+        long cycle = (System.nanoTime() - startNanos) / BUCKET_NANOS;
+        int idx = (int) (cycle % BUCKET_COUNT);
+
+        // 先计数再判断，并发时不会同时放过多个超限的请求
+        // 线程被挂起后，bucket可能已经属于更新的周期，此时直接计入，不能用旧周期覆盖
+        for (;;) {
+            long value = buckets.get(idx);
+            long newValue = (value >>> COUNT_BITS) >= cycle ? value + 1 : (cycle << COUNT_BITS) + 1;
+            if (buckets.compareAndSet(idx, value, newValue)) {
+                break;
+            }
+        }
+
+        if (countWindow(cycle) <= limitValue) {
+            return false;
+        }
+
+        // 被拒绝的请求不计入统计
+        for (;;) {
+            long value = buckets.get(idx);
+            if ((value >>> COUNT_BITS) < cycle || (value & COUNT_MASK) == 0) {
+                return true;
+            }
+            if (buckets.compareAndSet(idx, value, value - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private long countWindow(long cycle) {
+        long total = 0;
+        for (int idx = 0; idx < BUCKET_COUNT; idx++) {
+            long value = buckets.get(idx);
+            if (cycle - (value >>> COUNT_BITS) < BUCKET_COUNT) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 令牌桶，按GCRA算法实现，每个请求只需要一次CAS：
+ * theoreticalArrival表示按限流速率匀速放行时，下一个请求理论上的放行时间
+ * 只要它领先当前时间不超过burst，就放行，并将其推后一个间隔
+ *
+ * burst即桶的容量，以时间表示，默认100ms，即最多允许瞬间通过100ms的配额
+ */
+public class TokenBucketQpsController extends QpsController {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long burstNanos;
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    public TokenBucketQpsController(String key, Integer qpsLimit, int burstMs) {
+        super(key, qpsLimit);
+        this.burstNanos = TimeUnit.MILLISECONDS.toNanos(burstMs);
+    }
+
+    @Override
+    public boolean isLimitNewRequest() {
+        int limitValue = getLimitValue();
+        if (limitValue == Integer.MAX_VALUE) {
+            return false;
+        }
+        if (limitValue <= 0) {
+            return true;
+        }
+
+        long interval = NANOS_PER_SECOND / limitValue;
+        // 容量至少为1个请求，否则低qps时永远无法放行
+        long tolerance = Math.max(interval, burstNanos);
+        for (;;) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long newTat = Math.max(tat, now) + interval;
+            if (newTat - now > tolerance) {
+                return true;
+            }
+
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps.cluster;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+import com.netflix.config.DynamicPropertyFactory;
+
+/**
+ * 基于本地文件的协调者，同一台机器上的多个进程通过文件锁共享预算，用于测试
+ * 每个key一个文件，内容为{window, used}两个long
+ */
+public class FileQuotaCoordinator implements QuotaCoordinator {
+    public static final String DIR = "cse.flowcontrol.qps.cluster.file.dir";
+
+    private final File dir;
+
+    public FileQuotaCoordinator() {
+        this(new File(DynamicPropertyFactory.getInstance()
+                .getStringProperty(DIR, new File(System.getProperty("java.io.tmpdir"), "cse-qps").getPath())
+                .get()));
+    }
+
+    public FileQuotaCoordinator(File dir) {
+        this.dir = dir;
+        dir.mkdirs();
+    }
+
+    // 文件锁是进程级的，同一进程内的并发需要另外加锁
+    @Override
+    public synchronized long lease(String key, long window, long windowLimit, long requested) throws Exception {
+        File file = new File(dir, key.replaceAll("[^A-Za-z0-9._-]", "_"));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                FileChannel channel = raf.getChannel();
+                FileLock lock = channel.lock()) {
+            long lastWindow = 0;
+            long used = 0;
+            if (raf.length() >= 2 * Long.BYTES) {
+                lastWindow = raf.readLong();
+                used = raf.readLong();
+            }
+            if (lastWindow > window) {
+                return 0;
+            }
+            if (lastWindow < window) {
+                used = 0;
+            }
+
+            long granted = Math.max(0, Math.min(requested, windowLimit - used));
+            raf.seek(0);
+            raf.writeLong(window);
+            raf.writeLong(used + granted);
+            return granted;
+        }
+    }
+}
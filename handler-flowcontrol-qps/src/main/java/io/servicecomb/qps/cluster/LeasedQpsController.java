@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps.cluster;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.servicecomb.qps.QpsController;
+
+/**
+ * 集群级的qps控制，qpsLimit为整个集群的限制
+ *
+ * 每个实例按窗口从QuotaCoordinator租用令牌，请求到来时只扣减本地的令牌，不访问协调者
+ * 本地令牌低于半个chunk时，异步再租用一个chunk；窗口切换时，未用完的令牌作废
+ * 协调者故障时，每个窗口只在本地份额（窗口预算 / 实例数）内放行，不会多放；实例数未知时全部拒绝
+ *
+ * 所有租用（包括创建时的首次租用）都在同一个后台线程中执行，相互之间不存在并发，也不阻塞请求线程
+ * 首次租用完成之前，先在本地份额内预支一个chunk，之后从协调者租到的令牌中扣回
+ */
+public class LeasedQpsController extends QpsController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeasedQpsController.class);
+
+    // 每次租用窗口预算的1/LEASE_PARTS，避免一个实例一次拿走全部预算
+    private static final int LEASE_PARTS = 10;
+
+    private static final ScheduledExecutorService LEASE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cse-qps-lease");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String quotaKey;
+
+    private final QuotaCoordinator coordinator;
+
+    private final long windowMs;
+
+    // 共享集群配额的实例数，用于计算本地份额，返回值<=0表示未知
+    private final IntSupplier instanceCounter;
+
+    private final ScheduledFuture<?> rollTask;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private final AtomicBoolean leasing = new AtomicBoolean();
+
+    // 预支的、还没有从协调者租到的令牌中扣回的数量
+    private final AtomicLong prepaid = new AtomicLong();
+
+    private volatile long window;
+
+    // 该窗口的预算已经用完，不必再向协调者申请
+    private volatile long exhaustedWindow = -1;
+
+    // 以下只在租用线程中访问：本实例在grantedWindow中已经拿到的令牌数
+    private long grantedWindow = -1;
+
+    private long grantedCount;
+
+    public LeasedQpsController(String key, Integer qpsLimit, String quotaKey, QuotaCoordinator coordinator,
+            long windowMs) {
+        this(key, qpsLimit, quotaKey, coordinator, windowMs, 1);
+    }
+
+    public LeasedQpsController(String key, Integer qpsLimit, String quotaKey, QuotaCoordinator coordinator,
+            long windowMs, int instances) {
+        this(key, qpsLimit, quotaKey, coordinator, windowMs, () -> instances);
+    }
+
+    public LeasedQpsController(String key, Integer qpsLimit, String quotaKey, QuotaCoordinator coordinator,
+            long windowMs, IntSupplier instanceCounter) {
+        super(key, qpsLimit);
+        this.quotaKey = quotaKey;
+        this.coordinator = coordinator;
+        this.windowMs = windowMs;
+        this.instanceCounter = instanceCounter;
+
+        // 协调者可能涉及网络或文件IO，创建者通常是请求线程，首次租用也放到后台线程中
+        this.window = System.currentTimeMillis() / windowMs;
+        prepay(getLimitValue());
+        triggerLease();
+
+        long delay = windowMs - System.currentTimeMillis() % windowMs;
+        rollTask = LEASE_EXECUTOR.scheduleAtFixedRate(this::rollWindow, delay, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        rollTask.cancel(false);
+    }
+
+    @Override
+    public void setQpsLimit(Integer qpsLimit) {
+        boolean wasUnlimited = getLimitValue() == Integer.MAX_VALUE;
+        super.setQpsLimit(qpsLimit);
+
+        // 限流值变化后，已经标记为用完的窗口可能还有预算
+        exhaustedWindow = -1;
+        // 不限流时没有租用令牌，与创建时一样先预支
+        if (wasUnlimited) {
+            prepay(getLimitValue());
+        }
+        triggerLease();
+    }
+
+    public boolean isClosed() {
+        return rollTask.isCancelled();
+    }
+
+    public long getTokens() {
+        return tokens.get();
+    }
+
+    @Override
+    public boolean isLimitNewRequest() {
+        int limitValue = getLimitValue();
+        if (limitValue == Integer.MAX_VALUE) {
+            return false;
+        }
+
+        for (;;) {
+            long current = tokens.get();
+            if (current <= 0) {
+                triggerLease();
+                return true;
+            }
+
+            if (tokens.compareAndSet(current, current - 1)) {
+                if ((current - 1) * 2 < getChunk(limitValue)) {
+                    triggerLease();
+                }
+                return false;
+            }
+        }
+    }
+
+    private long getWindowLimit(int limitValue) {
+        return Math.max(1, limitValue * windowMs / 1000);
+    }
+
+    private long getChunk(int limitValue) {
+        return Math.max(1, getWindowLimit(limitValue) / LEASE_PARTS);
+    }
+
+    private long getLocalShare(long windowLimit) {
+        int instances = instanceCounter.getAsInt();
+        return instances > 0 ? Math.max(1, windowLimit / instances) : 0;
+    }
+
+    private void prepay(int limitValue) {
+        if (limitValue == Integer.MAX_VALUE) {
+            return;
+        }
+
+        long advance = Math.min(getChunk(limitValue), getLocalShare(getWindowLimit(limitValue)));
+        if (advance > 0) {
+            prepaid.addAndGet(advance);
+            tokens.addAndGet(advance);
+        }
+    }
+
+    private void triggerLease() {
+        if (exhaustedWindow == window || !leasing.compareAndSet(false, true)) {
+            return;
+        }
+
+        LEASE_EXECUTOR.execute(() -> {
+            try {
+                long leaseWindow = window;
+                long granted = lease(leaseWindow);
+                if (leaseWindow == window) {
+                    tokens.addAndGet(granted);
+                }
+            } finally {
+                leasing.set(false);
+            }
+        });
+    }
+
+    protected void rollWindow() {
+        long newWindow = System.currentTimeMillis() / windowMs;
+        if (newWindow == window) {
+            return;
+        }
+
+        // 租用期间仍然使用上一个窗口剩余的令牌
+        prepaid.set(0);
+        long granted = lease(newWindow);
+        window = newWindow;
+        tokens.set(granted);
+    }
+
+    private long lease(long leaseWindow) {
+        int limitValue = getLimitValue();
+        if (limitValue == Integer.MAX_VALUE) {
+            return 0;
+        }
+
+        if (grantedWindow != leaseWindow) {
+            grantedWindow = leaseWindow;
+            grantedCount = 0;
+        }
+
+        long windowLimit = getWindowLimit(limitValue);
+        long requested = getChunk(limitValue);
+        long granted;
+        try {
+            granted = coordinator.lease(quotaKey, leaseWindow, windowLimit, requested);
+        } catch (Throwable e) {
+            // 协调者不可用时，既不能拒绝全部请求，也不能多于本实例应得的份额，预支的部分也计入份额
+            grantedCount += prepaid.getAndSet(0);
+            long localShare = getLocalShare(windowLimit);
+            granted = Math.max(0, Math.min(requested, localShare - grantedCount));
+            LOGGER.error("failed to lease qps quota of {}, use local share {}. cause: {}",
+                    quotaKey,
+                    localShare,
+                    e.getMessage());
+        }
+
+        if (granted <= 0) {
+            exhaustedWindow = leaseWindow;
+        }
+        grantedCount += granted;
+
+        // 只有租用线程会减少prepaid，其他线程只会增加
+        long repaid = Math.min(granted, prepaid.get());
+        prepaid.addAndGet(-repaid);
+        return granted - repaid;
+    }
+}
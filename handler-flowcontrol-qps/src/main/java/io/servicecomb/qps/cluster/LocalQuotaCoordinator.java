@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内的协调者，只能协调同一个进程内的多个controller，用于测试以及单实例部署
+ */
+public class LocalQuotaCoordinator implements QuotaCoordinator {
+    // value为{window, used}
+    private final Map<String, long[]> usageMap = new ConcurrentHashMap<>();
+
+    @Override
+    public long lease(String key, long window, long windowLimit, long requested) {
+        long[] usage = usageMap.computeIfAbsent(key, k -> new long[2]);
+        synchronized (usage) {
+            if (usage[0] > window) {
+                return 0;
+            }
+            if (usage[0] < window) {
+                usage[0] = window;
+                usage[1] = 0;
+            }
+
+            long granted = Math.max(0, Math.min(requested, windowLimit - usage[1]));
+            usage[1] += granted;
+            return granted;
+        }
+    }
+}
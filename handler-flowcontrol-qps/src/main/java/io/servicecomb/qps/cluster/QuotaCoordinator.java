@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps.cluster;
+
+/**
+ * 集群配额的协调者，各实例通过它从共享的预算中租用令牌
+ * 生产环境可以基于redis、配置中心等实现
+ * LocalQuotaCoordinator、FileQuotaCoordinator只能在单进程、单机内协调，用于测试
+ */
+public interface QuotaCoordinator {
+    /**
+     * 同一个key，同一个窗口内，所有实例租到的令牌总数不能超过windowLimit
+     *
+     * @param key 限流的key，已包含consumer/provider的配置前缀
+     * @param window 窗口序号，各实例按系统时间对齐
+     * @param windowLimit 整个集群在该窗口内的预算
+     * @param requested 本次希望租用的令牌数
+     * @return 实际租到的令牌数，预算用完或者window已经过期时返回0
+     */
+    long lease(String key, long window, long windowLimit, long requested) throws Exception;
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 32个线程竞争同一个QpsController，比较各算法isLimitNewRequest的耗时
+ * limit分为不会触发限流与大部分请求被拒绝两种场景
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class QpsControllerBenchmark {
+    @Param({"FixedWindow", "SlidingWindow", "TokenBucket"})
+    private String strategy;
+
+    @Param({"2147483647", "10000"})
+    private int limit;
+
+    private QpsController qpsController;
+
+    @Setup
+    public void setup() {
+        // 用Integer.MAX_VALUE - 1，避免被当作不限流而直接返回
+        int qpsLimit = limit == Integer.MAX_VALUE ? Integer.MAX_VALUE - 1 : limit;
+        qpsController = QpsStrategy.valueOf(strategy).create("benchmark", qpsLimit);
+    }
+
+    @Benchmark
+    public boolean isLimitNewRequest() {
+        return qpsController.isLimitNewRequest();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(QpsControllerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.servicecomb.qps.cluster.LeasedQpsController;
+
+public class TestQpsStrategy {
+    @After
+    public void tearDown() {
+        Utils.updateProperty(Config.STRATEGY, null);
+        Utils.updateProperty(Config.CONSUMER_STRATEGY_KEY_PREFIX + "test", null);
+    }
+
+    private int countPassed(QpsController qpsController, int requests) {
+        int passed = 0;
+        for (int idx = 0; idx < requests; idx++) {
+            if (!qpsController.isLimitNewRequest()) {
+                passed++;
+            }
+        }
+        return passed;
+    }
+
+    @Test
+    public void testTokenBucket() throws InterruptedException {
+        // 100ms的burst，即最多瞬间通过10个
+        QpsController qpsController = new TokenBucketQpsController("test", 100, 100);
+        Assert.assertEquals(10, countPassed(qpsController, 1000));
+
+        Thread.sleep(50);
+        int passed = countPassed(qpsController, 1000);
+        Assert.assertTrue(String.valueOf(passed), passed >= 4 && passed <= 10);
+
+        qpsController.setQpsLimit(null);
+        Assert.assertEquals(1000, countPassed(qpsController, 1000));
+    }
+
+    @Test
+    public void testTokenBucketLowLimit() {
+        // limit低于burst时，至少允许1个
+        QpsController qpsController = new TokenBucketQpsController("test", 1, 100);
+        Assert.assertEquals(1, countPassed(qpsController, 100));
+
+        qpsController.setQpsLimit(0);
+        Assert.assertEquals(0, countPassed(qpsController, 100));
+    }
+
+    @Test
+    public void testSlidingWindow() throws InterruptedException {
+        QpsController qpsController = new SlidingWindowQpsController("test", 100);
+        Assert.assertEquals(100, countPassed(qpsController, 1000));
+
+        // 跨越固定周期的边界，仍然不会超过limit
+        Thread.sleep(500);
+        Assert.assertEquals(0, countPassed(qpsController, 1000));
+
+        Thread.sleep(700);
+        Assert.assertEquals(100, countPassed(qpsController, 1000));
+
+        qpsController.setQpsLimit(null);
+        Assert.assertEquals(1000, countPassed(qpsController, 1000));
+    }
+
+    @Test
+    public void testParse() {
+        Assert.assertEquals(QpsStrategy.TokenBucket, QpsStrategy.parse("tokenbucket"));
+        Assert.assertEquals(QpsStrategy.SlidingWindow, QpsStrategy.parse(" SlidingWindow "));
+        Assert.assertNull(QpsStrategy.parse("unknown"));
+        Assert.assertNull(QpsStrategy.parse(null));
+    }
+
+    @Test
+    public void testConfig() {
+        Assert.assertEquals(QpsStrategy.FixedWindow, Config.INSTANCE.getConsumerStrategy("test"));
+
+        Utils.updateProperty(Config.STRATEGY, "SlidingWindow");
+        Assert.assertEquals(QpsStrategy.SlidingWindow, Config.INSTANCE.getConsumerStrategy("test"));
+        Assert.assertEquals(QpsStrategy.SlidingWindow, Config.INSTANCE.getProviderStrategy("test"));
+
+        Utils.updateProperty(Config.CONSUMER_STRATEGY_KEY_PREFIX + "test", "TokenBucket");
+        Assert.assertEquals(QpsStrategy.TokenBucket, Config.INSTANCE.getConsumerStrategy("test"));
+        Assert.assertTrue(
+                QpsStrategy.TokenBucket.create("test", 10) instanceof TokenBucketQpsController);
+
+        Utils.updateProperty(Config.CONSUMER_STRATEGY_KEY_PREFIX + "test", "Cluster");
+        Assert.assertTrue(Config.INSTANCE.getConsumerStrategy("test")
+                .create(Config.CONSUMER_LIMIT_KEY_PREFIX, "test", 10) instanceof LeasedQpsController);
+
+        Utils.updateProperty(Config.CONSUMER_STRATEGY_KEY_PREFIX + "test", "unknown");
+        Assert.assertEquals(QpsStrategy.FixedWindow, Config.INSTANCE.getConsumerStrategy("test"));
+    }
+}
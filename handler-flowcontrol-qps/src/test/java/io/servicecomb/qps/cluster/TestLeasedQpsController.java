@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.qps.cluster;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLeasedQpsController {
+    // 窗口足够长，测试期间不会切换，预算为limit * 100
+    private static final long WINDOW_MS = 100 * 1000;
+
+    private int countPassed(QpsControllerPair pair) throws InterruptedException {
+        int passed = 0;
+        int rejected = 0;
+        // 连续被拒绝足够多次，才认为预算已经用完，期间异步租用有机会完成
+        while (rejected < 100) {
+            boolean limited1 = pair.controller1.isLimitNewRequest();
+            boolean limited2 = pair.controller2.isLimitNewRequest();
+            passed += (limited1 ? 0 : 1) + (limited2 ? 0 : 1);
+            if (limited1 && limited2) {
+                rejected++;
+                Thread.sleep(1);
+            } else {
+                rejected = 0;
+            }
+        }
+        return passed;
+    }
+
+    private static class QpsControllerPair {
+        LeasedQpsController controller1;
+
+        LeasedQpsController controller2;
+
+        QpsControllerPair(QuotaCoordinator coordinator, int limit) {
+            controller1 = new LeasedQpsController("test", limit, "quota", coordinator, WINDOW_MS);
+            controller2 = new LeasedQpsController("test", limit, "quota", coordinator, WINDOW_MS);
+        }
+
+        void close() {
+            controller1.close();
+            controller2.close();
+        }
+    }
+
+    @Test
+    public void testShareBudget() throws InterruptedException {
+        QpsControllerPair pair = new QpsControllerPair(new LocalQuotaCoordinator(), 1);
+        Assert.assertEquals(100, countPassed(pair));
+        Assert.assertTrue(pair.controller1.isLimitNewRequest());
+        pair.close();
+    }
+
+    @Test
+    public void testFileCoordinator() throws Exception {
+        File dir = Files.createTempDirectory("cse-qps").toFile();
+        QpsControllerPair pair = new QpsControllerPair(new FileQuotaCoordinator(dir), 1);
+        Assert.assertEquals(100, countPassed(pair));
+
+        // 另一个进程使用同一个目录时，共享同一份预算
+        Assert.assertEquals(0, new FileQuotaCoordinator(dir).lease("quota", System.currentTimeMillis() / WINDOW_MS,
+                100, 10));
+        pair.close();
+    }
+
+    private int countPassed(LeasedQpsController controller) throws InterruptedException {
+        int passed = 0;
+        int rejected = 0;
+        while (rejected < 100) {
+            if (controller.isLimitNewRequest()) {
+                rejected++;
+                Thread.sleep(1);
+            } else {
+                passed++;
+                rejected = 0;
+            }
+        }
+        return passed;
+    }
+
+    private static final QuotaCoordinator FAILED_COORDINATOR = (key, window, windowLimit, requested) -> {
+        throw new IllegalStateException("unavailable");
+    };
+
+    @Test
+    public void testCoordinatorFailed() throws InterruptedException {
+        LeasedQpsController controller = new LeasedQpsController("test", 1, "quota", FAILED_COORDINATOR, WINDOW_MS);
+        // 协调者故障时，单实例的本地份额就是整个预算，包括预支的部分
+        Assert.assertEquals(100, countPassed(controller));
+        controller.close();
+    }
+
+    @Test
+    public void testCoordinatorFailedInstancesUnknown() throws InterruptedException {
+        LeasedQpsController controller =
+            new LeasedQpsController("test", 1, "quota", FAILED_COORDINATOR, WINDOW_MS, () -> 0);
+        // 实例数未知时无法计算本地份额，不能放行
+        Assert.assertEquals(0, countPassed(controller));
+        controller.close();
+    }
+
+    @Test
+    public void testCoordinatorFailedLocalShare() throws InterruptedException {
+        // 4个实例共享100的预算，协调者故障时本实例最多放行25
+        LeasedQpsController controller =
+            new LeasedQpsController("test", 1, "quota", FAILED_COORDINATOR, WINDOW_MS, 4);
+        Assert.assertEquals(25, countPassed(controller));
+        controller.close();
+    }
+
+    @Test
+    public void testLeaseNotBlockCreator() throws InterruptedException {
+        CountDownLatch leased = new CountDownLatch(1);
+        LocalQuotaCoordinator coordinator = new LocalQuotaCoordinator();
+        LeasedQpsController controller = new LeasedQpsController("test", 1, "quota", (key, window, windowLimit,
+                requested) -> {
+            leased.await();
+            return coordinator.lease(key, window, windowLimit, requested);
+        }, WINDOW_MS, 4);
+        // 首次租用完成之前，在本地份额内预支一个chunk
+        for (int idx = 0; idx < 10; idx++) {
+            Assert.assertFalse(controller.isLimitNewRequest());
+        }
+        Assert.assertTrue(controller.isLimitNewRequest());
+
+        // 预支的部分从租到的令牌中扣回，总数不超过预算
+        leased.countDown();
+        Assert.assertEquals(90, countPassed(controller));
+        controller.close();
+    }
+
+    @Test
+    public void testSetLimitFromUnlimited() throws InterruptedException {
+        LeasedQpsController controller =
+            new LeasedQpsController("test", Integer.MAX_VALUE, "quota", new LocalQuotaCoordinator(), WINDOW_MS);
+        controller.setQpsLimit(1);
+        Assert.assertFalse(controller.isLimitNewRequest());
+        Assert.assertEquals(99, countPassed(controller));
+        controller.close();
+    }
+
+    @Test
+    public void testClose() {
+        LeasedQpsController controller =
+            new LeasedQpsController("test", 1, "quota", new LocalQuotaCoordinator(), WINDOW_MS);
+        Assert.assertFalse(controller.isClosed());
+        controller.close();
+        Assert.assertTrue(controller.isClosed());
+    }
+
+    @Test
+    public void testNoLimit() {
+        LeasedQpsController controller =
+            new LeasedQpsController("test", Integer.MAX_VALUE, "quota", new LocalQuotaCoordinator(), WINDOW_MS);
+        Assert.assertEquals(0, controller.getTokens());
+        Assert.assertFalse(controller.isLimitNewRequest());
+    }
+
+    @Test
+    public void testCoordinatorWindow() {
+        LocalQuotaCoordinator coordinator = new LocalQuotaCoordinator();
+        Assert.assertEquals(8, coordinator.lease("key", 1, 10, 8));
+        Assert.assertEquals(2, coordinator.lease("key", 1, 10, 8));
+        Assert.assertEquals(0, coordinator.lease("key", 1, 10, 8));
+        Assert.assertEquals(8, coordinator.lease("other", 1, 10, 8));
+
+        // 新窗口重新计算，过期窗口不再分配
+        Assert.assertEquals(8, coordinator.lease("key", 2, 10, 8));
+        Assert.assertEquals(0, coordinator.lease("key", 1, 10, 8));
+    }
+}
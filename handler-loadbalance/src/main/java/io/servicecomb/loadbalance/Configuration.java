@@ -18,8 +18,8 @@ package io.servicecomb.loadbalance;
 
 import java.util.Map;
 
+import io.servicecomb.config.ConfigSnapshotCache;
 import io.servicecomb.serviceregistry.config.ConfigurePropertyUtils;
-import com.netflix.config.DynamicPropertyFactory;
 
 /**
  * configuration items
@@ -63,6 +63,19 @@ public final class Configuration {
 
     public static final String FILTER_SINGLE_TEST = "singleTestTime";
 
+    // hedge configurations
+    public static final String HEDGE = "hedge.";
+
+    public static final String HEDGE_ENABLED = "enabled";
+
+    public static final String HEDGE_IDEMPOTENT = "idempotent";
+
+    public static final String HEDGE_DELAY_PERCENTILE = "delayPercentile";
+
+    public static final String HEDGE_MIN_DELAY = "minDelay";
+
+    public static final String HEDGE_MAX_EXTRA_PERCENT = "maxExtraPercent";
+
     public static final String TRANSACTIONCONTROL_OPTIONS_PREFIX_PATTERN =
         "cse.loadbalance.%s.transactionControl.options";
 
@@ -204,6 +217,72 @@ public final class Configuration {
         }
     }
 
+    public boolean isHedgeEnabled(String microservice) {
+        String p = getProperty("false",
+                PROP_ROOT + microservice + "." + HEDGE + HEDGE_ENABLED,
+                PROP_ROOT + HEDGE + HEDGE_ENABLED);
+        return Boolean.parseBoolean(p);
+    }
+
+    /**
+     * 未配置时返回null，由调用者根据http method判断
+     */
+    public Boolean isHedgeIdempotent(String microserviceQualifiedName) {
+        String p = getProperty(null, PROP_ROOT + microserviceQualifiedName + "." + HEDGE + HEDGE_IDEMPOTENT);
+        return p == null ? null : Boolean.parseBoolean(p);
+    }
+
+    public int getHedgeDelayPercentile(String microservice) {
+        final int defaultValue = 95;
+        String p = getProperty("95",
+                PROP_ROOT + microservice + "." + HEDGE + HEDGE_DELAY_PERCENTILE,
+                PROP_ROOT + HEDGE + HEDGE_DELAY_PERCENTILE);
+        try {
+            int result = Integer.parseInt(p);
+            if (result < PERCENT && result > 0) {
+                return result;
+            } else {
+                return defaultValue;
+            }
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public int getHedgeMinDelay(String microservice) {
+        final int defaultValue = 5;
+        String p = getProperty("5",
+                PROP_ROOT + microservice + "." + HEDGE + HEDGE_MIN_DELAY,
+                PROP_ROOT + HEDGE + HEDGE_MIN_DELAY);
+        try {
+            int result = Integer.parseInt(p);
+            if (result >= 0) {
+                return result;
+            } else {
+                return defaultValue;
+            }
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public int getHedgeMaxExtraPercent(String microservice) {
+        final int defaultValue = 5;
+        String p = getProperty("5",
+                PROP_ROOT + microservice + "." + HEDGE + HEDGE_MAX_EXTRA_PERCENT,
+                PROP_ROOT + HEDGE + HEDGE_MAX_EXTRA_PERCENT);
+        try {
+            int result = Integer.parseInt(p);
+            if (result <= PERCENT && result >= 0) {
+                return result;
+            } else {
+                return defaultValue;
+            }
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     public String getFlowsplitFilterPolicy(String microservice) {
         return getProperty("", String.format(TRANSACTIONCONTROL_POLICY_KEY_PATTERN, microservice));
     }
@@ -214,19 +293,7 @@ public final class Configuration {
     }
 
     private String getProperty(String defaultValue, String... keys) {
-        String property = null;
-        for (String key : keys) {
-            property = DynamicPropertyFactory.getInstance().getStringProperty(key, null).get();
-            if (property != null) {
-                break;
-            }
-        }
-
-        if (property != null) {
-            return property;
-        } else {
-            return defaultValue;
-        }
+        return ConfigSnapshotCache.getProperty(defaultValue, keys);
     }
 
     // Gray Release
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.loadbalance;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.servicecomb.core.Invocation;
+import io.servicecomb.core.exception.ExceptionUtils;
+import io.servicecomb.core.provider.consumer.SyncResponseExecutor;
+import io.servicecomb.loadbalance.hedge.HedgePolicy;
+import io.servicecomb.swagger.invocation.AsyncResponse;
+import io.servicecomb.swagger.invocation.Response;
+
+/**
+ * 一次hedge调用的过程：
+ * 1.先向一个server发送请求，超过delay仍未应答，则选择另一个server再发一次
+ * 2.第一个请求在delay之前失败，也立即向另一个server发送
+ * 3.以先成功的应答作为结果，另一个应答直接丢弃，只计入时延统计
+ * 4.都失败时，如果开启了重试，再走重试流程
+ *
+ * 每个请求使用invocation.fork()出来的独立invocation，各自有handler下标、endpoint及应答回调的状态
+ * 原invocation只作为选择server的key，不会被hedge定时器线程修改
+ */
+class HedgedCall {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HedgedCall.class);
+
+    // 同一个server最多尝试选这么多次，仍然选不到其他server，则放弃hedge
+    private static final int CHOOSE_TIMES = 3;
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cse-loadbalance-hedge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 同步调用时，各个请求的应答在网络线程中就地处理
+    private static final Executor INLINE_EXECUTOR = command -> command.run();
+
+    private final Invocation invocation;
+
+    private final AsyncResponse asyncResp;
+
+    private final LoadBalancer lb;
+
+    private final HedgePolicy policy;
+
+    private final SyncResponseExecutor orginExecutor;
+
+    // 所有请求都失败后的重试流程，未开启重试时为null
+    private final Runnable retry;
+
+    // 以下字段只在锁内访问
+    private CseServer primary;
+
+    private boolean hedged;
+
+    private boolean completed;
+
+    private int outstanding;
+
+    private ScheduledFuture<?> timer;
+
+    HedgedCall(Invocation invocation, AsyncResponse asyncResp, LoadBalancer lb, HedgePolicy policy) {
+        this(invocation, asyncResp, lb, policy, null);
+    }
+
+    HedgedCall(Invocation invocation, AsyncResponse asyncResp, LoadBalancer lb, HedgePolicy policy, Runnable retry) {
+        this.invocation = invocation;
+        this.asyncResp = asyncResp;
+        this.lb = lb;
+        this.policy = policy;
+        this.retry = retry;
+
+        // 与retry相同，同步调用的主线程已经挂起，两个应答都需要在网络线程中处理，最终结果再交给主线程
+        if (invocation.getResponseExecutor() instanceof SyncResponseExecutor) {
+            orginExecutor = (SyncResponseExecutor) invocation.getResponseExecutor();
+        } else {
+            orginExecutor = null;
+        }
+    }
+
+    public void start(long delayMs) {
+        synchronized (this) {
+            primary = (CseServer) lb.chooseServer(invocation);
+            if (primary == null) {
+                completed = true;
+            } else {
+                send(primary, false);
+                if (!completed && delayMs > 0) {
+                    timer = TIMER.schedule(this::onTimeout, delayMs, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+
+        complete(Response.createConsumerFail(ExceptionUtils.lbAddressNotFound(invocation.getMicroserviceName(),
+                invocation.getMicroserviceVersionRule(),
+                invocation.getConfigTransportName())));
+    }
+
+    private void onTimeout() {
+        synchronized (this) {
+            if (!completed && !hedged) {
+                hedge();
+            }
+        }
+    }
+
+    // 只在锁内调用
+    private boolean hedge() {
+        CseServer server = chooseOther();
+        if (server == null || !policy.tryHedge()) {
+            return false;
+        }
+
+        hedged = true;
+        send(server, true);
+        return true;
+    }
+
+    private CseServer chooseOther() {
+        for (int idx = 0; idx < CHOOSE_TIMES; idx++) {
+            CseServer server = (CseServer) lb.chooseServer(invocation);
+            if (server == null) {
+                return null;
+            }
+            if (!server.equals(primary)) {
+                return server;
+            }
+        }
+        return null;
+    }
+
+    // 只在锁内调用
+    private void send(CseServer server, boolean isHedge) {
+        long time = System.currentTimeMillis();
+        server.setLastVisitTime(time);
+        lb.getLoadBalancerStats().incrementNumRequests(server);
+        outstanding++;
+
+        Invocation attempt = invocation.fork();
+        attempt.setEndpoint(server.getEndpoint());
+        if (orginExecutor != null) {
+            attempt.setResponseExecutor(INLINE_EXECUTOR);
+        }
+        try {
+            attempt.next(resp -> onResponse(server, isHedge, time, resp));
+        } catch (Throwable e) {
+            LOGGER.error("execution error, msg is {}, server is {}", e.getMessage(), server);
+            onResponse(server, isHedge, time, Response.createConsumerFail(e));
+        }
+    }
+
+    private void onResponse(CseServer server, boolean isHedge, long time, Response resp) {
+        long latency = System.currentTimeMillis() - time;
+        if (!resp.isFailed()) {
+            // 输掉的请求也要记录时延，只记录胜者会使分位数偏小，hedge越来越早
+            policy.getLatencyRecorder().record(latency);
+        }
+
+        synchronized (this) {
+            outstanding--;
+            if (completed) {
+                // 另一个请求已经应答，本应答丢弃，不再计入负载均衡统计
+                return;
+            }
+
+            // this stats is for WeightedResponseTimeRule
+            lb.getLoadBalancerStats().noteResponseTime(server, latency);
+            if (resp.isFailed()) {
+                lb.getLoadBalancerStats().incrementSuccessiveConnectionFailureCount(server);
+                if (outstanding > 0 || (!hedged && hedge())) {
+                    // 还有请求未应答，以它的结果为准
+                    return;
+                }
+            } else {
+                lb.getLoadBalancerStats().incrementActiveRequestsCount(server);
+                if (isHedge) {
+                    policy.onHedgeWin();
+                }
+            }
+
+            completed = true;
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+
+        deliver(resp);
+    }
+
+    private void deliver(Response resp) {
+        if (resp.isFailed() && retry != null) {
+            // 原invocation没有被修改过，直接交给重试流程，由它负责转回业务线程
+            retry.run();
+            return;
+        }
+
+        complete(resp);
+    }
+
+    private void complete(Response resp) {
+        if (orginExecutor != null) {
+            orginExecutor.execute(() -> {
+                asyncResp.handle(resp);
+            });
+        } else {
+            asyncResp.handle(resp);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.loadbalance;
+
+import io.servicecomb.config.ConfigSnapshotCache;
+
+/**
+ * 一个微服务的负载均衡配置快照，配置变化时重新创建，调用流程中直接读取字段
+ */
+public final class LoadbalanceConfigSnapshot {
+    private static final ConfigSnapshotCache<String, LoadbalanceConfigSnapshot> CACHE =
+        new ConfigSnapshotCache<>(LoadbalanceConfigSnapshot::new);
+
+    private final String policy;
+
+    private final boolean retryEnabled;
+
+    private final int retryOnSame;
+
+    private final int retryOnNext;
+
+    private final boolean isolationFilterOpen;
+
+    private final int errorThresholdPercentage;
+
+    private final int enableRequestThreshold;
+
+    private final int singleTestTime;
+
+    private final String flowsplitFilterPolicy;
+
+    private final boolean hedgeEnabled;
+
+    private final int hedgeDelayPercentile;
+
+    private final int hedgeMinDelay;
+
+    private final int hedgeMaxExtraPercent;
+
+    private LoadbalanceConfigSnapshot(String microserviceName) {
+        Configuration config = Configuration.INSTANCE;
+        policy = config.getPolicy(microserviceName);
+        retryEnabled = config.isRetryEnabled(microserviceName);
+        retryOnSame = config.getRetryOnSame(microserviceName);
+        retryOnNext = config.getRetryOnNext(microserviceName);
+        isolationFilterOpen = config.isIsolationFilterOpen(microserviceName);
+        errorThresholdPercentage = config.getErrorThresholdPercentage(microserviceName);
+        enableRequestThreshold = config.getEnableRequestThreshold(microserviceName);
+        singleTestTime = config.getSingleTestTime(microserviceName);
+        flowsplitFilterPolicy = config.getFlowsplitFilterPolicy(microserviceName);
+        hedgeEnabled = config.isHedgeEnabled(microserviceName);
+        hedgeDelayPercentile = config.getHedgeDelayPercentile(microserviceName);
+        hedgeMinDelay = config.getHedgeMinDelay(microserviceName);
+        hedgeMaxExtraPercent = config.getHedgeMaxExtraPercent(microserviceName);
+    }
+
+    public static LoadbalanceConfigSnapshot get(String microserviceName) {
+        // 未设置微服务名时，只能使用全局配置
+        return CACHE.get(microserviceName == null ? "" : microserviceName);
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public boolean isRetryEnabled() {
+        return retryEnabled;
+    }
+
+    public int getRetryOnSame() {
+        return retryOnSame;
+    }
+
+    public int getRetryOnNext() {
+        return retryOnNext;
+    }
+
+    public boolean isIsolationFilterOpen() {
+        return isolationFilterOpen;
+    }
+
+    public int getErrorThresholdPercentage() {
+        return errorThresholdPercentage;
+    }
+
+    public int getEnableRequestThreshold() {
+        return enableRequestThreshold;
+    }
+
+    public int getSingleTestTime() {
+        return singleTestTime;
+    }
+
+    public String getFlowsplitFilterPolicy() {
+        return flowsplitFilterPolicy;
+    }
+
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    public int getHedgeDelayPercentile() {
+        return hedgeDelayPercentile;
+    }
+
+    public int getHedgeMinDelay() {
+        return hedgeMinDelay;
+    }
+
+    public int getHedgeMaxExtraPercent() {
+        return hedgeMaxExtraPercent;
+    }
+}
@@ -21,16 +21,23 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.HttpMethod;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.servicecomb.config.ConfigSnapshotCache;
 import io.servicecomb.core.Invocation;
+import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.core.exception.ExceptionUtils;
 import io.servicecomb.core.handler.impl.AbstractHandler;
 import io.servicecomb.core.provider.consumer.SyncResponseExecutor;
+import io.servicecomb.core.transport.AbstractTransport;
 import io.servicecomb.loadbalance.filter.IsolationServerListFilter;
 import io.servicecomb.loadbalance.filter.TransactionControlFilter;
+import io.servicecomb.loadbalance.hedge.HedgePolicy;
 import io.servicecomb.swagger.invocation.AsyncResponse;
 import io.servicecomb.swagger.invocation.Response;
 
@@ -56,13 +63,21 @@ public class LoadbalanceHandler extends AbstractHandler {
     // 会给每个Microservice创建一个handler实例，因此这里的key为transportName，保证每个通道使用一个负载均衡策略
     private volatile Map<String, LoadBalancer> loadBalancerMap = new ConcurrentHashMap<>();
 
+    // key为OperationMeta，配置变化时重新计算
+    private static final ConfigSnapshotCache<OperationMeta, Boolean> HEDGE_IDEMPOTENT_CACHE =
+        new ConfigSnapshotCache<>(LoadbalanceHandler::isIdempotent);
+
     private final Object lock = new Object();
 
     private String policy = null;
 
+    // key为microserviceQualifiedName，每个operation独立统计时延
+    private final Map<String, HedgePolicy> hedgePolicyMap = new ConcurrentHashMap<>();
+
     @Override
     public void handle(Invocation invocation, AsyncResponse asyncResp) throws Exception {
-        String p = Configuration.INSTANCE.getPolicy(invocation.getMicroserviceName());
+        LoadbalanceConfigSnapshot config = LoadbalanceConfigSnapshot.get(invocation.getMicroserviceName());
+        String p = config.getPolicy();
         if (this.policy != null && !this.policy.equals(p)) {
             //配置变化，需要重新生成所有的lb实例
             synchronized (lock) {
@@ -91,7 +106,9 @@ public class LoadbalanceHandler extends AbstractHandler {
         setIsolationFilter(choosenLB, invocation);
         setTransactionControlFilter(choosenLB, invocation);
 
-        if (!Configuration.INSTANCE.isRetryEnabled(invocation.getMicroserviceName())) {
+        if (config.isHedgeEnabled() && isHedgeApplicable(invocation)) {
+            sendWithHedge(invocation, asyncResp, choosenLB, config);
+        } else if (!config.isRetryEnabled()) {
             send(invocation, asyncResp, choosenLB);
         } else {
             sendWithRetry(invocation, asyncResp, choosenLB);
@@ -100,7 +117,8 @@ public class LoadbalanceHandler extends AbstractHandler {
 
     protected void setIsolationFilter(LoadBalancer lb, Invocation invocation) {
         final String filterName = IsolationServerListFilter.class.getName();
-        boolean isIsolationOpen = Configuration.INSTANCE.isIsolationFilterOpen(invocation.getMicroserviceName());
+        boolean isIsolationOpen =
+            LoadbalanceConfigSnapshot.get(invocation.getMicroserviceName()).isIsolationFilterOpen();
         if (!isIsolationOpen) {
             lb.removeFilter(filterName);
             return;
@@ -116,7 +134,8 @@ public class LoadbalanceHandler extends AbstractHandler {
 
     protected void setTransactionControlFilter(LoadBalancer lb, Invocation invocation) {
         final String filterName = TransactionControlFilter.class.getName();
-        String policyClsName = Configuration.INSTANCE.getFlowsplitFilterPolicy(invocation.getMicroserviceName());
+        String policyClsName =
+            LoadbalanceConfigSnapshot.get(invocation.getMicroserviceName()).getFlowsplitFilterPolicy();
         if (policyClsName.isEmpty()) {
             lb.removeFilter(filterName);
             return;
@@ -168,8 +187,54 @@ public class LoadbalanceHandler extends AbstractHandler {
         });
     }
 
+    public Map<String, HedgePolicy> getHedgePolicyMap() {
+        return hedgePolicyMap;
+    }
+
+    protected boolean isHedgeApplicable(Invocation invocation) {
+        return HEDGE_IDEMPOTENT_CACHE.get(invocation.getOperationMeta());
+    }
+
+    /**
+     * 只有幂等的operation才允许hedge
+     * 未显式配置时，GET、HEAD视为幂等
+     */
+    private static boolean isIdempotent(OperationMeta operationMeta) {
+        Boolean idempotent = Configuration.INSTANCE.isHedgeIdempotent(operationMeta.getMicroserviceQualifiedName());
+        if (idempotent != null) {
+            return idempotent;
+        }
+
+        String httpMethod = operationMeta.getHttpMethod();
+        return HttpMethod.GET.equalsIgnoreCase(httpMethod) || HttpMethod.HEAD.equalsIgnoreCase(httpMethod);
+    }
+
+    private void sendWithHedge(Invocation invocation, AsyncResponse asyncResp, final LoadBalancer choosenLB,
+            LoadbalanceConfigSnapshot config) {
+        HedgePolicy hedgePolicy = hedgePolicyMap.computeIfAbsent(invocation.getMicroserviceQualifiedName(),
+                HedgePolicy::new);
+        hedgePolicy.onRequest(config.getHedgeMaxExtraPercent());
+
+        // hedge的请求都失败时，仍然按配置重试
+        Runnable retry = null;
+        if (config.isRetryEnabled()) {
+            retry = () -> {
+                try {
+                    sendWithRetry(invocation, asyncResp, choosenLB);
+                } catch (Throwable e) {
+                    LOGGER.error("retry after hedge failed, {}", invocation.getMicroserviceQualifiedName(), e);
+                    asyncResp.consumerFail(e);
+                }
+            };
+        }
+
+        long delay = hedgePolicy.getHedgeDelay(config.getHedgeDelayPercentile(), config.getHedgeMinDelay());
+        new HedgedCall(invocation, asyncResp, choosenLB, hedgePolicy, retry).start(delay);
+    }
+
     private void sendWithRetry(Invocation invocation, AsyncResponse asyncResp,
             final LoadBalancer choosenLB) throws Exception {
+        LoadbalanceConfigSnapshot config = LoadbalanceConfigSnapshot.get(invocation.getMicroserviceName());
         long time = System.currentTimeMillis();
         // retry in loadbalance, 2.0 feature
         final int currentHandler = invocation.getHandlerIndex();
@@ -190,6 +255,15 @@ public class LoadbalanceHandler extends AbstractHandler {
             newExecutor = null;
         }
 
+        // 每次重试都有完整的超时时间，而不是共用第一次调用剩下的时间
+        // 同步调用的总等待时间相应延长到覆盖所有重试
+        boolean hasDeadline = invocation.getDeadline() != 0;
+        long msTimeout = hasDeadline ? AbstractTransport.getRequestTimeout(invocation.getOperationMeta()) : 0;
+        if (hasDeadline && orginExecutor != null) {
+            long attempts = (config.getRetryOnSame() + 1L) * (config.getRetryOnNext() + 1L);
+            orginExecutor.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(msTimeout * attempts));
+        }
+
         ExecutionListener<Invocation, Response> listener = new ExecutionListener<Invocation, Response>() {
             @Override
             public void onExecutionStart(ExecutionContext<Invocation> context) throws AbortExecutionException {
@@ -240,8 +314,8 @@ public class LoadbalanceHandler extends AbstractHandler {
                 .withLoadBalancer(choosenLB)
                 .withServerLocator(invocation)
                 .withRetryHandler(new DefaultLoadBalancerRetryHandler(
-                        Configuration.INSTANCE.getRetryOnSame(invocation.getMicroserviceName()),
-                        Configuration.INSTANCE.getRetryOnNext(invocation.getMicroserviceName()), true))
+                        config.getRetryOnSame(),
+                        config.getRetryOnNext(), true))
                 .withListeners(listeners)
                 .withExecutionContext(context)
                 .build();
@@ -254,6 +328,9 @@ public class LoadbalanceHandler extends AbstractHandler {
                         choosenLB.getLoadBalancerStats().incrementNumRequests(s);
                         invocation.setHandlerIndex(currentHandler); // for retry
                         invocation.setEndpoint(((CseServer) s).getEndpoint());
+                        if (hasDeadline) {
+                            invocation.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(msTimeout));
+                        }
                         invocation.next(resp -> {
                             if (resp.isFailed()) {
                                 LOGGER.error("service call error, msg is {}, server is {} ",
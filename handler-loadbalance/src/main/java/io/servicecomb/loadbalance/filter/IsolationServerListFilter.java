@@ -23,7 +23,7 @@ import io.servicecomb.loadbalance.CseServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import io.servicecomb.loadbalance.Configuration;
+import io.servicecomb.loadbalance.LoadbalanceConfigSnapshot;
 import com.netflix.loadbalancer.LoadBalancerStats;
 import com.netflix.loadbalancer.Server;
 import com.netflix.loadbalancer.ServerListFilter;
@@ -63,6 +63,8 @@ public final class IsolationServerListFilter implements ServerListFilter<Server>
 
     @Override
     public List<Server> getFilteredListOfServers(List<Server> servers) {
+        // 一次过滤使用同一份配置，不必每个server都重新读取
+        updateSettings();
         List<Server> filteredServers = new ArrayList<Server>();
         for (Server server : servers) {
             if (allowVisit(server)) {
@@ -73,13 +75,13 @@ public final class IsolationServerListFilter implements ServerListFilter<Server>
     }
 
     private void updateSettings() {
-        errorThresholdPercentage = Configuration.INSTANCE.getErrorThresholdPercentage(microserviceName);
-        singleTestTime = Configuration.INSTANCE.getSingleTestTime(microserviceName);
-        enableRequestThreshold = Configuration.INSTANCE.getEnableRequestThreshold(microserviceName);
+        LoadbalanceConfigSnapshot config = LoadbalanceConfigSnapshot.get(microserviceName);
+        errorThresholdPercentage = config.getErrorThresholdPercentage();
+        singleTestTime = config.getSingleTestTime();
+        enableRequestThreshold = config.getEnableRequestThreshold();
     }
 
     private boolean allowVisit(Server server) {
-        updateSettings();
         ServerStats serverStats = stats.getSingleServerStat(server);
         long totalRequest = serverStats.getTotalRequestsCount();
         long failureRequest = serverStats.getSuccessiveConnectionFailureCount();
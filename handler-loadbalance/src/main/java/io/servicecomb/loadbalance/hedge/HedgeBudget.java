@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.loadbalance.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限制hedge产生的额外负载
+ * 每个请求存入extraPercent个token，每次hedge消耗100个，即hedge数不超过请求数的extraPercent%
+ */
+public class HedgeBudget {
+    private static final long HEDGE_COST = 100;
+
+    // 最多积攒这么多次hedge的额度，避免长时间空闲后突发大量hedge
+    private static final long MAX_BURST = 10;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    public void onRequest(int extraPercent) {
+        for (;;) {
+            long current = tokens.get();
+            long next = Math.min(HEDGE_COST * MAX_BURST, current + extraPercent);
+            if (next == current || tokens.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    public boolean tryAcquire() {
+        for (;;) {
+            long current = tokens.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+
+            if (tokens.compareAndSet(current, current - HEDGE_COST)) {
+                return true;
+            }
+        }
+    }
+}
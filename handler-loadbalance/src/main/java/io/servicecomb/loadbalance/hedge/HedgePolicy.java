@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.loadbalance.hedge;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 每个operation一个实例，记录时延、hedge额度以及统计
+ */
+public class HedgePolicy {
+    private final String name;
+
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+
+    private final HedgeBudget budget = new HedgeBudget();
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder hedgeCount = new LongAdder();
+
+    private final LongAdder hedgeWinCount = new LongAdder();
+
+    private final LongAdder budgetRejectCount = new LongAdder();
+
+    public HedgePolicy(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    public void onRequest(int extraPercent) {
+        requestCount.increment();
+        budget.onRequest(extraPercent);
+    }
+
+    /**
+     * @return 额度不足时返回false
+     */
+    public boolean tryHedge() {
+        if (!budget.tryAcquire()) {
+            budgetRejectCount.increment();
+            return false;
+        }
+
+        hedgeCount.increment();
+        return true;
+    }
+
+    public void onHedgeWin() {
+        hedgeWinCount.increment();
+    }
+
+    /**
+     * @return 还没有足够样本时返回-1，表示不需要定时触发hedge
+     */
+    public long getHedgeDelay(int percentile, int minDelay) {
+        long delay = latencyRecorder.getPercentile(percentile);
+        if (delay < 0) {
+            return -1;
+        }
+        return Math.max(delay, minDelay);
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedgeCount.sum();
+    }
+
+    public long getHedgeWinCount() {
+        return hedgeWinCount.sum();
+    }
+
+    public long getBudgetRejectCount() {
+        return budgetRejectCount.sum();
+    }
+}
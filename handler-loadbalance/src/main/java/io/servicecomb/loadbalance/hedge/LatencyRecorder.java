@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.loadbalance.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记录最近的应答时延，用于计算hedge的触发延时
+ * 并发写入时允许个别样本被覆盖，对百分位的估算没有影响
+ */
+public class LatencyRecorder {
+    // 必须为2的幂
+    private static final int SIZE = 256;
+
+    // 样本数不足时，百分位没有意义
+    public static final int MIN_SAMPLES = 32;
+
+    // 每新增这么多样本，才重新计算一次百分位
+    private static final int REFRESH_INTERVAL = 32;
+
+    private final long[] samples = new long[SIZE];
+
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long computedCount = -1;
+
+    private volatile int computedPercentile;
+
+    private volatile long computedValue;
+
+    public void record(long latencyMs) {
+        long idx = count.getAndIncrement();
+        samples[(int) (idx & (SIZE - 1))] = latencyMs;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return 样本不足时返回-1
+     */
+    public long getPercentile(int percentile) {
+        long current = count.get();
+        if (current < MIN_SAMPLES) {
+            return -1;
+        }
+
+        if (percentile == computedPercentile && current - computedCount < REFRESH_INTERVAL) {
+            return computedValue;
+        }
+
+        synchronized (this) {
+            if (percentile == computedPercentile && current - computedCount < REFRESH_INTERVAL) {
+                return computedValue;
+            }
+
+            int size = (int) Math.min(current, SIZE);
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int idx = (int) Math.ceil(size * percentile / 100.0) - 1;
+            computedValue = sorted[Math.max(0, Math.min(size - 1, idx))];
+            computedPercentile = percentile;
+            computedCount = current;
+            return computedValue;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.netflix.loadbalancer.LoadBalancerStats;
+
+import io.servicecomb.core.Invocation;
+import io.servicecomb.loadbalance.hedge.HedgePolicy;
+import io.servicecomb.swagger.invocation.AsyncResponse;
+import io.servicecomb.swagger.invocation.Response;
+
+public class TestHedgedCall {
+    Invocation invocation = Mockito.mock(Invocation.class);
+
+    AsyncResponse asyncResp = Mockito.mock(AsyncResponse.class);
+
+    LoadBalancer lb = Mockito.mock(LoadBalancer.class);
+
+    CseServer server1 = Mockito.mock(CseServer.class);
+
+    CseServer server2 = Mockito.mock(CseServer.class);
+
+    HedgePolicy policy = new HedgePolicy("app.schema.op");
+
+    // 每个请求fork出来的invocation
+    List<Invocation> attempts = new CopyOnWriteArrayList<>();
+
+    // 每次attempt.next传入的回调
+    List<AsyncResponse> sent = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        Mockito.when(lb.getLoadBalancerStats()).thenReturn(Mockito.mock(LoadBalancerStats.class));
+        Mockito.when(lb.chooseServer(invocation)).thenReturn(server1, server1, server2);
+        Mockito.when(invocation.fork()).thenAnswer(invocationOnMock -> {
+            Invocation attempt = Mockito.mock(Invocation.class);
+            Mockito.doAnswer(nextOnMock -> {
+                sent.add(nextOnMock.getArgumentAt(0, AsyncResponse.class));
+                return null;
+            }).when(attempt).next(Mockito.any(AsyncResponse.class));
+            attempts.add(attempt);
+            return attempt;
+        });
+    }
+
+    private void waitSent(int count) throws InterruptedException {
+        for (int idx = 0; idx < 100 && sent.size() < count; idx++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, sent.size());
+    }
+
+    @Test
+    public void testPrimarySuccess() throws Exception {
+        policy.onRequest(100);
+        new HedgedCall(invocation, asyncResp, lb, policy).start(-1);
+        waitSent(1);
+
+        Response response = Response.succResp("ok");
+        sent.get(0).handle(response);
+        Mockito.verify(asyncResp).handle(response);
+        Assert.assertEquals(0, policy.getHedgeCount());
+        Assert.assertEquals(1, policy.getLatencyRecorder().getCount());
+    }
+
+    @Test
+    public void testHedgeWin() throws Exception {
+        policy.onRequest(100);
+        new HedgedCall(invocation, asyncResp, lb, policy).start(10);
+        waitSent(2);
+        // 第二次选到的仍是server1，需要重新选择
+        Mockito.verify(lb, Mockito.times(3)).chooseServer(invocation);
+
+        Response hedgeResponse = Response.succResp("hedge");
+        sent.get(1).handle(hedgeResponse);
+        sent.get(0).handle(Response.succResp("primary"));
+
+        Mockito.verify(asyncResp, Mockito.times(1)).handle(Mockito.any(Response.class));
+        Mockito.verify(asyncResp).handle(hedgeResponse);
+        Assert.assertEquals(1, policy.getHedgeCount());
+        Assert.assertEquals(1, policy.getHedgeWinCount());
+        // 输掉的请求也计入时延统计
+        Assert.assertEquals(2, policy.getLatencyRecorder().getCount());
+
+        // 两个请求各自使用独立的invocation，原invocation不被修改
+        Assert.assertEquals(2, attempts.size());
+        Assert.assertNotSame(attempts.get(0), attempts.get(1));
+        Mockito.verify(attempts.get(1)).setEndpoint(Mockito.any());
+        Mockito.verify(invocation, Mockito.never()).setHandlerIndex(Mockito.anyInt());
+        Mockito.verify(invocation, Mockito.never()).setEndpoint(Mockito.any());
+    }
+
+    @Test
+    public void testRetryAfterAllFailed() throws Exception {
+        policy.onRequest(100);
+        Runnable retry = Mockito.mock(Runnable.class);
+        new HedgedCall(invocation, asyncResp, lb, policy, retry).start(-1);
+        waitSent(1);
+
+        sent.get(0).handle(Response.consumerFailResp(new Error("failed")));
+        waitSent(2);
+        sent.get(1).handle(Response.consumerFailResp(new Error("failed")));
+
+        Mockito.verify(retry).run();
+        Mockito.verify(asyncResp, Mockito.never()).handle(Mockito.any(Response.class));
+    }
+
+    @Test
+    public void testHedgeOnFailure() throws Exception {
+        policy.onRequest(100);
+        new HedgedCall(invocation, asyncResp, lb, policy).start(-1);
+        waitSent(1);
+
+        sent.get(0).handle(Response.consumerFailResp(new Error("failed")));
+        waitSent(2);
+        Mockito.verify(asyncResp, Mockito.never()).handle(Mockito.any(Response.class));
+
+        Response response = Response.succResp("hedge");
+        sent.get(1).handle(response);
+        Mockito.verify(asyncResp).handle(response);
+    }
+
+    @Test
+    public void testNoBudget() throws Exception {
+        new HedgedCall(invocation, asyncResp, lb, policy).start(-1);
+        waitSent(1);
+
+        Response response = Response.consumerFailResp(new Error("failed"));
+        sent.get(0).handle(response);
+        Mockito.verify(asyncResp).handle(response);
+        Assert.assertEquals(1, policy.getBudgetRejectCount());
+    }
+
+    @Test
+    public void testNoServer() {
+        Mockito.when(lb.chooseServer(invocation)).thenReturn(null);
+        new HedgedCall(invocation, asyncResp, lb, policy).start(-1);
+        Assert.assertTrue(sent.isEmpty());
+        Mockito.verify(asyncResp).handle(Mockito.any(Response.class));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.loadbalance.hedge;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestHedgePolicy {
+    @Test
+    public void testLatencyRecorder() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int idx = 1; idx < LatencyRecorder.MIN_SAMPLES; idx++) {
+            recorder.record(idx);
+        }
+        Assert.assertEquals(-1, recorder.getPercentile(95));
+
+        for (int idx = LatencyRecorder.MIN_SAMPLES; idx <= 100; idx++) {
+            recorder.record(idx);
+        }
+        Assert.assertEquals(95, recorder.getPercentile(95));
+        Assert.assertEquals(50, recorder.getPercentile(50));
+
+        // 只保留最近的样本
+        for (int idx = 0; idx < 1000; idx++) {
+            recorder.record(7);
+        }
+        Assert.assertEquals(7, recorder.getPercentile(95));
+    }
+
+    @Test
+    public void testBudget() {
+        HedgePolicy policy = new HedgePolicy("test");
+        for (int idx = 0; idx < 19; idx++) {
+            policy.onRequest(5);
+        }
+        Assert.assertFalse(policy.tryHedge());
+
+        policy.onRequest(5);
+        Assert.assertTrue(policy.tryHedge());
+        Assert.assertFalse(policy.tryHedge());
+
+        Assert.assertEquals(20, policy.getRequestCount());
+        Assert.assertEquals(1, policy.getHedgeCount());
+        Assert.assertEquals(2, policy.getBudgetRejectCount());
+    }
+
+    @Test
+    public void testBudgetBurst() {
+        HedgePolicy policy = new HedgePolicy("test");
+        for (int idx = 0; idx < 10000; idx++) {
+            policy.onRequest(100);
+        }
+
+        int hedges = 0;
+        while (policy.tryHedge()) {
+            hedges++;
+        }
+        Assert.assertEquals(10, hedges);
+    }
+
+    @Test
+    public void testHedgeDelay() {
+        HedgePolicy policy = new HedgePolicy("test");
+        Assert.assertEquals(-1, policy.getHedgeDelay(95, 5));
+
+        for (int idx = 0; idx < LatencyRecorder.MIN_SAMPLES; idx++) {
+            policy.getLatencyRecorder().record(1);
+        }
+        Assert.assertEquals(5, policy.getHedgeDelay(95, 5));
+        Assert.assertEquals(1, policy.getHedgeDelay(95, 0));
+    }
+}
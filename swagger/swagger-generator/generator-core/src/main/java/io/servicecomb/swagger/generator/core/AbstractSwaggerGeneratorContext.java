@@ -18,6 +18,8 @@ package io.servicecomb.swagger.generator.core;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 import io.servicecomb.foundation.common.RegisterManager;
 import io.servicecomb.foundation.common.utils.SPIServiceUtils;
@@ -36,6 +38,7 @@ import io.servicecomb.swagger.generator.core.processor.annotation.ResponseHeader
 import io.servicecomb.swagger.generator.core.processor.annotation.ResponseHeadersProcessor;
 import io.servicecomb.swagger.generator.core.processor.annotation.SwaggerDefinitionProcessor;
 import io.servicecomb.swagger.generator.core.processor.response.DefaultResponseTypeProcessor;
+import io.servicecomb.swagger.generator.core.processor.response.StreamResponseTypeProcessor;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
@@ -118,7 +121,9 @@ public abstract class AbstractSwaggerGeneratorContext implements SwaggerGenerato
     }
 
     protected void initResponseTypeProcessorMgr() {
-
+        StreamResponseTypeProcessor streamProcessor = new StreamResponseTypeProcessor();
+        responseTypeProcessorMgr.register(Iterator.class, streamProcessor);
+        responseTypeProcessorMgr.register(Stream.class, streamProcessor);
     }
 
     public void setDefaultParamProcessor(DefaultParameterProcessor defaultParamProcessor) {
@@ -16,6 +16,8 @@
 package io.servicecomb.swagger.generator.core;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -39,6 +41,20 @@ public class TestArrayType {
         Assert.assertEquals(byte[].class, method.getReturnType());
     }
 
+    @Test
+    public void testStream() throws Exception {
+        SwaggerGenerator generator = UnitTestSwaggerUtils.generateSwagger(ArrayType.class);
+        Class<?> cls = ClassUtils.getOrCreateInterface(generator);
+
+        // 契约中与List<User>相同
+        for (String methodName : new String[] {"testUserIterator", "testUserStream"}) {
+            Method method = ReflectUtils.findMethod(cls, methodName);
+            ParameterizedType type = (ParameterizedType) method.getGenericReturnType();
+            Assert.assertEquals(List.class, type.getRawType());
+            Assert.assertEquals("User", ((Class<?>) type.getActualTypeArguments()[0]).getSimpleName());
+        }
+    }
+
     public CtMethod findMethod(CtClass cc, String methodName) {
         for (CtMethod method : cc.getMethods()) {
             if (methodName.equals(method.getName())) {
@@ -15,6 +15,9 @@
  */
 package io.servicecomb.swagger.generator.core.schema;
 
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 public class ArrayType {
     public byte[] testBytes(byte[] value) {
         return null;
@@ -23,4 +26,12 @@ public class ArrayType {
     public User[] testUsers(User[] value) {
         return null;
     }
+
+    public Iterator<User> testUserIterator() {
+        return null;
+    }
+
+    public Stream<User> testUserStream() {
+        return null;
+    }
 }
@@ -17,6 +17,8 @@ package io.servicecomb.swagger.engine;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -118,7 +120,12 @@ public class SwaggerProducerOperation {
         try {
             Object[] args = argumentsMapper.toProducerArgs(invocation);
             Object result = producerMethod.invoke(producerInstance, args);
-            response = responseMapper.mapResponse(invocation.getStatus(), result);
+            if (invocation.isStreamResponse() && (result instanceof Iterator || result instanceof Stream)) {
+                // 由transport边遍历边编码，不展开
+                response = Response.create(invocation.getStatus(), result);
+            } else {
+                response = responseMapper.mapResponse(invocation.getStatus(), result);
+            }
         } catch (Throwable e) {
             response = processException(e);
         }
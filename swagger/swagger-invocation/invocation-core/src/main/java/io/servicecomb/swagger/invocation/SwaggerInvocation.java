@@ -25,6 +25,9 @@ public class SwaggerInvocation extends InvocationContext {
 
     protected Object[] swaggerArguments;
 
+    // transport能否边遍历边编码producer返回的Iterator/Stream，不能时展开成契约中的集合再应答
+    protected boolean streamResponse;
+
     public SwaggerInvocation() {
         InvocationContext context = ContextUtils.getInvocationContext();
         if (context != null) {
@@ -52,4 +55,12 @@ public class SwaggerInvocation extends InvocationContext {
     public void setSwaggerArgument(int idx, Object swaggerArgument) {
         this.swaggerArguments[idx] = swaggerArgument;
     }
+
+    public boolean isStreamResponse() {
+        return streamResponse;
+    }
+
+    public void setStreamResponse(boolean streamResponse) {
+        this.streamResponse = streamResponse;
+    }
 }
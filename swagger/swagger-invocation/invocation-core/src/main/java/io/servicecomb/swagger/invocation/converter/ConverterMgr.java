@@ -19,10 +19,12 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.reflect.TypeUtils;
 import org.slf4j.Logger;
@@ -36,6 +38,7 @@ import io.servicecomb.swagger.invocation.converter.impl.ConverterSame;
 import io.servicecomb.swagger.invocation.converter.impl.SameElementArrayToList;
 import io.servicecomb.swagger.invocation.converter.impl.SameElementArrayToSet;
 import io.servicecomb.swagger.invocation.converter.impl.SameElementCollectionToArray;
+import io.servicecomb.swagger.invocation.converter.impl.StreamToCollection;
 
 @Component
 public class ConverterMgr {
@@ -58,6 +61,9 @@ public class ConverterMgr {
     // array的构造需要有类型，不能使用统一的处理
     private Map<Type, Converter> collectionToArrayMap = new ConcurrentHashMap<>();
 
+    // key为target type，展开Iterator/Stream时需要知道构造哪种集合
+    private Map<Type, Converter> streamToCollectionMap = new ConcurrentHashMap<>();
+
     @Autowired(required = false)
     public void setCustomizedConverters(List<CustomizedConverter> converters) {
         for (CustomizedConverter converter : converters) {
@@ -99,6 +105,11 @@ public class ConverterMgr {
             return converter;
         }
 
+        converter = findStreamToCollection(src, target);
+        if (converter != null) {
+            return converter;
+        }
+
         LOGGER.warn("Bad practice, low performance, convert from {} to {}", src, target);
         return findCommonConverter(target);
     }
@@ -143,6 +154,28 @@ public class ConverterMgr {
         return null;
     }
 
+    // producer返回Iterator/Stream，契约中是数组，这里展开成契约中的集合，highway等transport只认识集合
+    // 支持流式应答的rest transport不经过这个转换，见SwaggerProducerOperation.doInvoke
+    protected Converter findStreamToCollection(Type src, Type target) {
+        Class<?> srcCls = TypeUtils.getRawType(src, null);
+        Class<?> targetCls = TypeUtils.getRawType(target, null);
+        if (srcCls == null || targetCls == null) {
+            return null;
+        }
+
+        if ((Iterator.class.isAssignableFrom(srcCls) || Stream.class.isAssignableFrom(srcCls))
+                && (Collection.class.isAssignableFrom(targetCls) || targetCls.isArray())) {
+            Converter converter = streamToCollectionMap.get(target);
+            if (converter == null) {
+                converter = new StreamToCollection(targetCls);
+                streamToCollectionMap.put(target, converter);
+            }
+            return converter;
+        }
+
+        return null;
+    }
+
     protected Converter findAssignable(Type src, Type target) {
         if (TypeUtils.isAssignable(src, target)) {
             return same;
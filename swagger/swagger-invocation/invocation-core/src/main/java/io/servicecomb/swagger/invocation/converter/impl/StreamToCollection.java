@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.swagger.invocation.converter.impl;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import io.servicecomb.swagger.invocation.converter.Converter;
+
+/**
+ * producer返回Iterator/Stream，而transport不支持流式应答时，展开成契约中的集合
+ * Stream以及实现了AutoCloseable的Iterator，展开后close
+ */
+public class StreamToCollection implements Converter {
+    private Class<?> targetCls;
+
+    public StreamToCollection(Class<?> targetCls) {
+        this.targetCls = targetCls;
+    }
+
+    @Override
+    public Object convert(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        List<Object> list = new ArrayList<>();
+        if (value instanceof Stream) {
+            try (Stream<?> stream = (Stream<?>) value) {
+                stream.forEachOrdered(list::add);
+            }
+        } else {
+            Iterator<?> iterator = (Iterator<?>) value;
+            try {
+                iterator.forEachRemaining(list::add);
+            } finally {
+                close(iterator);
+            }
+        }
+
+        if (targetCls.isArray()) {
+            Object array = Array.newInstance(targetCls.getComponentType(), list.size());
+            return list.toArray((Object[]) array);
+        }
+        if (Set.class.isAssignableFrom(targetCls)) {
+            return new LinkedHashSet<>(list);
+        }
+        return list;
+    }
+
+    private void close(Iterator<?> iterator) {
+        if (!AutoCloseable.class.isInstance(iterator)) {
+            return;
+        }
+
+        try {
+            ((AutoCloseable) iterator).close();
+        } catch (Exception e) {
+            throw new IllegalStateException("close response iterator failed.", e);
+        }
+    }
+}
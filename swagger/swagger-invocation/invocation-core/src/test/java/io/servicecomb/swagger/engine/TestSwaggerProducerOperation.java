@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.swagger.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.swagger.invocation.SwaggerInvocation;
+import io.servicecomb.swagger.invocation.arguments.producer.ProducerArgumentsMapper;
+import io.servicecomb.swagger.invocation.converter.ConverterMgr;
+import io.servicecomb.swagger.invocation.response.producer.ProducerResponseMapperCommon;
+
+public class TestSwaggerProducerOperation {
+    public static class StreamProducer {
+        public Iterator<String> query() {
+            return Arrays.asList("a", "b").iterator();
+        }
+    }
+
+    private SwaggerProducerOperation operation = new SwaggerProducerOperation();
+
+    @Before
+    public void setUp() throws Exception {
+        operation.setProducerClass(StreamProducer.class);
+        operation.setProducerInstance(new StreamProducer());
+        operation.setProducerMethod(StreamProducer.class.getMethod("query"));
+        operation.setArgumentsMapper(new ProducerArgumentsMapper(Collections.emptyList(), 0));
+        operation.setResponseMapper(new ProducerResponseMapperCommon(new ConverterMgr().findConverter(
+                TypeUtils.parameterize(Iterator.class, String.class),
+                TypeUtils.parameterize(List.class, String.class))));
+    }
+
+    @Test
+    public void testMaterializeStream() {
+        Response response = operation.doInvoke(new SwaggerInvocation());
+
+        Assert.assertEquals(Status.OK.getStatusCode(), response.getStatusCode());
+        Assert.assertEquals(Arrays.asList("a", "b"), response.getResult());
+    }
+
+    @Test
+    public void testKeepStreamForStreamResponse() {
+        SwaggerInvocation invocation = new SwaggerInvocation();
+        invocation.setStreamResponse(true);
+        Response response = operation.doInvoke(invocation);
+
+        Assert.assertTrue(response.getResult() instanceof Iterator);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.servicecomb.swagger.invocation.converter;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.reflect.TypeUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestConverterMgr {
+    private ConverterMgr converterMgr = new ConverterMgr();
+
+    @Test
+    public void testIteratorToList() {
+        Converter converter = converterMgr.findConverter(TypeUtils.parameterize(Iterator.class, String.class),
+                TypeUtils.parameterize(List.class, String.class));
+
+        Object result = converter.convert(Arrays.asList("a", "b").iterator());
+        Assert.assertEquals(Arrays.asList("a", "b"), result);
+        Assert.assertNull(converter.convert(null));
+    }
+
+    @Test
+    public void testStreamToArray() {
+        Converter converter =
+            converterMgr.findConverter(TypeUtils.parameterize(Stream.class, String.class), String[].class);
+        Assert.assertSame(converter,
+                converterMgr.findConverter(TypeUtils.parameterize(Stream.class, String.class), String[].class));
+
+        AtomicBoolean closed = new AtomicBoolean();
+        Object result = converter.convert(Stream.of("a", "b").onClose(() -> closed.set(true)));
+        Assert.assertArrayEquals(new String[] {"a", "b"}, (String[]) result);
+        Assert.assertTrue(closed.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testIteratorToSet() {
+        Converter converter = converterMgr.findConverter(TypeUtils.parameterize(Iterator.class, String.class),
+                TypeUtils.parameterize(Set.class, String.class));
+
+        Set<String> result = (Set<String>) converter.convert(Arrays.asList("a", "b", "a").iterator());
+        Assert.assertEquals(2, result.size());
+        Assert.assertTrue(result.contains("a"));
+        Assert.assertTrue(result.contains("b"));
+    }
+}
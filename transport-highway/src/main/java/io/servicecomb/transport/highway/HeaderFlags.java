@@ -0,0 +1,32 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway;
+
+/**
+ * RequestHeader/ResponseHeader中flags的取值，按位组合
+ */
+public final class HeaderFlags {
+    // body经过了压缩，压缩算法在login时协商
+    public static final int COMPRESSED_BODY = 1;
+
+    private HeaderFlags() {
+    }
+
+    public static boolean isCompressedBody(int flags) {
+        return (flags & COMPRESSED_BODY) != 0;
+    }
+}
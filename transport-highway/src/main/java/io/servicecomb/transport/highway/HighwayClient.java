@@ -29,8 +29,10 @@ import io.servicecomb.foundation.vertx.VertxTLSBuilder;
 import io.servicecomb.foundation.vertx.VertxUtils;
 import io.servicecomb.foundation.vertx.client.ClientPoolManager;
 import io.servicecomb.foundation.vertx.client.tcp.TcpClientConfig;
+import io.servicecomb.foundation.vertx.client.tcp.TcpData;
 import io.servicecomb.swagger.invocation.AsyncResponse;
 import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.transport.highway.message.ResponseHeader;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
 
@@ -59,6 +61,12 @@ public class HighwayClient {
     private TcpClientConfig createTcpClientConfig() {
         TcpClientConfig tcpClientConfig = new TcpClientConfig();
         tcpClientConfig.setRequestTimeoutMillis(AbstractTransport.getRequestTimeout());
+        tcpClientConfig.setWriteBatchMaxBytes(HighwayConfig.getClientWriteBatchMaxBytes());
+        tcpClientConfig.setWriteBatchDelayMillis(HighwayConfig.getClientWriteBatchDelayMillis());
+        tcpClientConfig.setMaxFrameSize(HighwayConfig.getMaxFrameSize());
+        tcpClientConfig.setMaxMessageSize(HighwayConfig.getMaxMessageSize());
+        tcpClientConfig.setMaxPendingChunkBytes(HighwayConfig.getMaxPendingChunkBytes());
+        tcpClientConfig.setMaxPendingChunkMessages(HighwayConfig.getMaxPendingChunkMessages());
 
         if (this.sslEnabled) {
             SSLOptionFactory factory =
@@ -81,7 +89,8 @@ public class HighwayClient {
         OperationMeta operationMeta = invocation.getOperationMeta();
         OperationProtobuf operationProtobuf = ProtobufManager.getOrCreateOperation(operationMeta);
 
-        HighwayClientConnection tcpClient = tcpClientPool.findOrCreateClient(invocation.getEndpoint().getEndpoint());
+        HighwayClientConnection tcpClient = tcpClientPool.findOrCreateClient(invocation.getEndpoint().getEndpoint(),
+                HighwayConfig.getClientConnectionsPerEndpoint(invocation.getMicroserviceName()));
         HighwayClientPackage clientPackage = new HighwayClientPackage(invocation, operationProtobuf, tcpClient);
         tcpClientPool.send(tcpClient, clientPackage, ar -> {
             // 此时是在网络线程中，转换线程
@@ -94,11 +103,18 @@ public class HighwayClient {
 
                 // 处理应答
                 try {
+                    TcpData tcpData = ar.result();
+                    ResponseHeader header =
+                        HighwayCodec.readResponseHeader(tcpData.getHeaderBuffer(), tcpClient.getProtobufFeature());
+                    tcpClient.setOperationId(operationProtobuf, header.getOperationId());
+
                     Response response =
                         HighwayCodec.decodeResponse(invocation,
                                 operationProtobuf,
-                                ar.result(),
-                                tcpClient.getProtobufFeature());
+                                header,
+                                tcpData.getBodyBuffer(),
+                                tcpClient.getProtobufFeature(),
+                                tcpClient.getCompressor());
                     asyncResp.complete(response);
                 } catch (Throwable e) {
                     asyncResp.consumerFail(e);
@@ -15,16 +15,22 @@
  */
 package io.servicecomb.transport.highway;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.protostuff.LinkedBuffer;
 import io.protostuff.ProtobufOutput;
 import io.protostuff.runtime.ProtobufFeature;
+import io.servicecomb.codec.protobuf.definition.OperationProtobuf;
 import io.servicecomb.foundation.vertx.client.tcp.AbstractTcpClientPackage;
 import io.servicecomb.foundation.vertx.client.tcp.TcpClientConfig;
 import io.servicecomb.foundation.vertx.client.tcp.TcpClientConnection;
 import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
+import io.servicecomb.transport.highway.compress.Compressor;
+import io.servicecomb.transport.highway.compress.CompressorManager;
 import io.servicecomb.transport.highway.message.LoginRequest;
 import io.servicecomb.transport.highway.message.LoginResponse;
 import io.servicecomb.transport.highway.message.RequestHeader;
@@ -37,6 +43,12 @@ public class HighwayClientConnection extends TcpClientConnection {
 
     private ProtobufFeature protobufFeature = new ProtobufFeature();
 
+    // login时与server协商出的压缩算法，为null表示不压缩
+    private volatile Compressor compressor;
+
+    // server为operation分配的id，每次login后重新获取
+    private Map<OperationProtobuf, Integer> operationIds = new ConcurrentHashMap<>();
+
     public HighwayClientConnection(Context context, NetClient netClient, String endpoint,
             TcpClientConfig clientConfig) {
         super(context, netClient, endpoint, clientConfig);
@@ -47,6 +59,24 @@ public class HighwayClientConnection extends TcpClientConnection {
         return protobufFeature;
     }
 
+    public Compressor getCompressor() {
+        return compressor;
+    }
+
+    /**
+     * 返回0表示server还没有分配id，需要携带完整的operation名字
+     */
+    public int findOperationId(OperationProtobuf operationProtobuf) {
+        Integer operationId = operationIds.get(operationProtobuf);
+        return operationId == null ? 0 : operationId;
+    }
+
+    public void setOperationId(OperationProtobuf operationProtobuf, int operationId) {
+        if (operationId > 0) {
+            operationIds.put(operationProtobuf, operationId);
+        }
+    }
+
     @Override
     protected TcpOutputStream createLogin() {
         try {
@@ -60,6 +90,8 @@ public class HighwayClientConnection extends TcpClientConnection {
             LoginRequest login = new LoginRequest();
             login.setProtocol(HighwayTransport.NAME);
             login.setUseProtobufMapCodec(true);
+            login.setZipName(HighwayConfig.getCompressName());
+            login.setSupportChunk(true);
             login.writeObject(output);
 
             HighwayOutputStream os = new HighwayOutputStream(AbstractTcpClientPackage.getAndIncRequestId(), null);
@@ -75,6 +107,13 @@ public class HighwayClientConnection extends TcpClientConnection {
         try {
             LoginResponse response = LoginResponse.readObject(bodyBuffer);
             protobufFeature.setUseProtobufMapCodec(response.isUseProtobufMapCodec());
+            // 可能是重连到了重启后的server，之前分配的id不再有效
+            operationIds.clear();
+            compressor = CompressorManager.findCompressor(response.getZipName());
+            setZipName(compressor == null ? null : compressor.getName());
+            if (response.isSupportChunk()) {
+                enableChunkWrite(HighwayConfig.getChunkSize());
+            }
             return true;
         } catch (Throwable e) {
             LOGGER.error("decode login response failed.", e);
@@ -17,6 +17,7 @@ package io.servicecomb.transport.highway;
 
 import io.servicecomb.codec.protobuf.definition.OperationProtobuf;
 import io.servicecomb.core.Invocation;
+import io.servicecomb.core.transport.AbstractTransport;
 import io.servicecomb.foundation.vertx.client.tcp.AbstractTcpClientPackage;
 import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
 
@@ -32,12 +33,19 @@ public class HighwayClientPackage extends AbstractTcpClientPackage {
         this.invocation = invocation;
         this.operationProtobuf = operationProtobuf;
         this.tcpClient = tcpClient;
+        this.msRequestTimeout =
+            invocation.getRemainingTimeout(AbstractTransport.getRequestTimeout(invocation.getOperationMeta()));
     }
 
     @Override
     public TcpOutputStream createStream() {
         try {
-            return HighwayCodec.encodeRequest(msgId, invocation, operationProtobuf, tcpClient.getProtobufFeature());
+            return HighwayCodec.encodeRequest(msgId,
+                    invocation,
+                    operationProtobuf,
+                    tcpClient.getProtobufFeature(),
+                    tcpClient.getCompressor(),
+                    tcpClient.findOperationId(operationProtobuf));
         } catch (Exception e) {
             String msg = String.format("encode request failed. appid=%s, qualifiedName=%s",
                     invocation.getAppId(),
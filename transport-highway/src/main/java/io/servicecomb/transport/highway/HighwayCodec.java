@@ -23,8 +23,10 @@ import io.servicecomb.core.invocation.InvocationFactory;
 
 import io.protostuff.runtime.ProtobufFeature;
 import io.servicecomb.foundation.vertx.client.tcp.TcpData;
+import io.servicecomb.foundation.vertx.stream.BufferSizeEstimator;
 import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
 import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.transport.highway.compress.Compressor;
 import io.servicecomb.transport.highway.message.RequestHeader;
 import io.servicecomb.transport.highway.message.ResponseHeader;
 import io.vertx.core.buffer.Buffer;
@@ -41,24 +43,56 @@ public final class HighwayCodec {
 
     public static TcpOutputStream encodeRequest(long msgId, Invocation invocation,
             OperationProtobuf operationProtobuf, ProtobufFeature protobufFeature) throws Exception {
+        return encodeRequest(msgId, invocation, operationProtobuf, protobufFeature, null);
+    }
+
+    public static TcpOutputStream encodeRequest(long msgId, Invocation invocation,
+            OperationProtobuf operationProtobuf, ProtobufFeature protobufFeature,
+            Compressor compressor) throws Exception {
+        return encodeRequest(msgId, invocation, operationProtobuf, protobufFeature, compressor, 0);
+    }
+
+    /**
+     * operationId为0时，通过预先编码好的header前缀携带destMicroservice/schemaId/operationName
+     */
+    public static TcpOutputStream encodeRequest(long msgId, Invocation invocation,
+            OperationProtobuf operationProtobuf, ProtobufFeature protobufFeature,
+            Compressor compressor, int operationId) throws Exception {
         // 写header
         RequestHeader header = new RequestHeader();
         header.setMsgType(MsgType.REQUEST);
         header.setFlags(0);
-        header.setDestMicroservice(invocation.getMicroserviceName());
-        header.setSchemaId(invocation.getSchemaId());
-        header.setOperationName(invocation.getOperationName());
+        header.setOperationId(operationId);
         header.setContext(invocation.getContext());
 
-        HighwayOutputStream os = new HighwayOutputStream(msgId, protobufFeature);
-        os.write(header, operationProtobuf.getRequestSchema(), invocation.getArgs());
+        BufferSizeEstimator estimator =
+            HighwayOperationManager.getRequestSizeEstimator(operationProtobuf.getOperationMeta());
+        HighwayOutputStream os = new HighwayOutputStream(msgId, protobufFeature, estimator.estimate(),
+                HighwayConfig.isPooledBufferEnabled());
+        os.setCompressor(compressor);
+        if (operationId == 0) {
+            os.setHeaderPrefix(HighwayOperationManager.getRequestHeaderPrefix(operationProtobuf.getOperationMeta()));
+        }
+        try {
+            os.write(header, operationProtobuf.getRequestSchema(), invocation.getArgs());
+        } catch (Throwable e) {
+            os.close();
+            throw e;
+        }
+        estimator.record(os.length());
         return os;
     }
 
     public static Invocation decodeRequest(RequestHeader header, OperationProtobuf operationProtobuf,
             Buffer bodyBuffer, ProtobufFeature protobufFeature) throws Exception {
+        return decodeRequest(header, operationProtobuf, bodyBuffer, protobufFeature, null);
+    }
+
+    public static Invocation decodeRequest(RequestHeader header, OperationProtobuf operationProtobuf,
+            Buffer bodyBuffer, ProtobufFeature protobufFeature, Compressor compressor) throws Exception {
         WrapSchema schema = operationProtobuf.getRequestSchema();
-        Object[] args = schema.readObject(bodyBuffer, protobufFeature);
+        Buffer body = decompressBody(header.getFlags(), bodyBuffer, compressor);
+        Object[] args = schema.readObject(body, protobufFeature);
 
         Invocation invocation =
             InvocationFactory.forProvider(highwayTransport.getEndpoint(),
@@ -82,19 +116,74 @@ public final class HighwayCodec {
         }
     }
 
+    /**
+     * 返回的stream可能持有pooled buffer，调用者必须通过writeTo或close释放
+     */
+    public static HighwayOutputStream encodeResponse(long msgId, ResponseHeader header, WrapSchema bodySchema,
+            Object body, ProtobufFeature protobufFeature, BufferSizeEstimator estimator) throws Exception {
+        return encodeResponse(msgId, header, bodySchema, body, protobufFeature, estimator, null);
+    }
+
+    public static HighwayOutputStream encodeResponse(long msgId, ResponseHeader header, WrapSchema bodySchema,
+            Object body, ProtobufFeature protobufFeature, BufferSizeEstimator estimator,
+            Compressor compressor) throws Exception {
+        HighwayOutputStream os = new HighwayOutputStream(msgId, protobufFeature, estimator.estimate(),
+                HighwayConfig.isPooledBufferEnabled());
+        os.setCompressor(compressor);
+        try {
+            os.write(header, bodySchema, body);
+        } catch (Throwable e) {
+            os.close();
+            throw e;
+        }
+        estimator.record(os.length());
+        return os;
+    }
+
     public static Response decodeResponse(Invocation invocation, OperationProtobuf operationProtobuf,
             TcpData tcpData, ProtobufFeature protobufFeature) throws Exception {
-        ResponseHeader header = ResponseHeader.readObject(tcpData.getHeaderBuffer(), protobufFeature);
+        return decodeResponse(invocation, operationProtobuf, tcpData, protobufFeature, null);
+    }
+
+    public static Response decodeResponse(Invocation invocation, OperationProtobuf operationProtobuf,
+            TcpData tcpData, ProtobufFeature protobufFeature, Compressor compressor) throws Exception {
+        ResponseHeader header = readResponseHeader(tcpData.getHeaderBuffer(), protobufFeature);
+        return decodeResponse(invocation, operationProtobuf, header, tcpData.getBodyBuffer(), protobufFeature,
+                compressor);
+    }
+
+    public static ResponseHeader readResponseHeader(Buffer headerBuffer,
+            ProtobufFeature protobufFeature) throws Exception {
+        return ResponseHeader.readObject(headerBuffer, protobufFeature);
+    }
+
+    public static Response decodeResponse(Invocation invocation, OperationProtobuf operationProtobuf,
+            ResponseHeader header, Buffer bodyBuffer, ProtobufFeature protobufFeature,
+            Compressor compressor) throws Exception {
         if (header.getContext() != null) {
             invocation.getContext().putAll(header.getContext());
         }
 
         WrapSchema bodySchema = operationProtobuf.findResponseSchema(header.getStatusCode());
-        Object body = bodySchema.readObject(tcpData.getBodyBuffer(), protobufFeature);
+        bodyBuffer = decompressBody(header.getFlags(), bodyBuffer, compressor);
+        Object body = bodySchema.readObject(bodyBuffer, protobufFeature);
 
         Response response = Response.create(header.getStatusCode(), header.getReasonPhrase(), body);
         response.setHeaders(header.getHeaders());
 
         return response;
     }
+
+    public static Buffer decompressBody(int flags, Buffer bodyBuffer, Compressor compressor) throws Exception {
+        if (!HeaderFlags.isCompressedBody(flags) || bodyBuffer == null) {
+            return bodyBuffer;
+        }
+
+        if (compressor == null) {
+            throw new IllegalStateException("body is compressed, but no compressor negotiated.");
+        }
+        // 解压后的大小同样受最大消息长度限制
+        int maxSize = (int) Math.min(HighwayConfig.getMaxMessageSize(), Integer.MAX_VALUE);
+        return compressor.decompress(bodyBuffer, maxSize);
+    }
 }
@@ -16,11 +16,29 @@
 
 package io.servicecomb.transport.highway;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.netflix.config.DynamicBooleanProperty;
 import com.netflix.config.DynamicIntProperty;
+import com.netflix.config.DynamicLongProperty;
 import com.netflix.config.DynamicPropertyFactory;
 import com.netflix.config.DynamicStringProperty;
 
+import io.servicecomb.foundation.vertx.server.TcpParser;
+
 public final class HighwayConfig {
+    // 每次编码都会读取，避免每次都查找属性
+    private static final DynamicBooleanProperty POOLED_BUFFER_ENABLED =
+        DynamicPropertyFactory.getInstance().getBooleanProperty("cse.highway.pooled-buffer.enabled", false);
+
+    private static final DynamicIntProperty CONNECTIONS_PER_ENDPOINT =
+        DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.client.connections-per-endpoint", 1);
+
+    // key为微服务名
+    private static final Map<String, DynamicIntProperty> CONNECTIONS_PER_ENDPOINT_MAP =
+        new ConcurrentHashMap<>();
+
     private HighwayConfig() {
     }
 
@@ -47,4 +65,101 @@ public final class HighwayConfig {
             DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.client.connection-pool-per-thread", 1);
         return address.get();
     }
+
+    public static boolean isPooledBufferEnabled() {
+        return POOLED_BUFFER_ENABLED.get();
+    }
+
+    public static int getClientWriteBatchMaxBytes() {
+        DynamicIntProperty maxBytes =
+            DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.client.write-batch.max-bytes",
+                    64 * 1024);
+        return maxBytes.get();
+    }
+
+    public static int getClientWriteBatchDelayMillis() {
+        DynamicIntProperty delay =
+            DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.client.write-batch.delay-ms", 0);
+        return delay.get();
+    }
+
+    /**
+     * 每个endpoint允许建立的连接数，可以按微服务单独配置
+     * 每次发送都会读取，按微服务缓存属性，未单独配置时使用全局配置
+     */
+    public static int getClientConnectionsPerEndpoint(String microserviceName) {
+        if (microserviceName == null) {
+            return Math.max(1, CONNECTIONS_PER_ENDPOINT.get());
+        }
+
+        DynamicIntProperty connections = CONNECTIONS_PER_ENDPOINT_MAP.computeIfAbsent(microserviceName,
+                name -> DynamicPropertyFactory.getInstance().getIntProperty(
+                        "cse.highway.client." + name + ".connections-per-endpoint",
+                        0));
+        int value = connections.get();
+        if (value <= 0) {
+            value = CONNECTIONS_PER_ENDPOINT.get();
+        }
+        return Math.max(1, value);
+    }
+
+    public static int getMaxFrameSize() {
+        DynamicIntProperty maxFrameSize =
+            DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.max-frame-size",
+                    TcpParser.DEFAULT_MAX_FRAME_SIZE);
+        return maxFrameSize.get();
+    }
+
+    /**
+     * client期望使用的压缩算法，为空表示不压缩；server支持时才会生效
+     */
+    public static String getCompressName() {
+        DynamicStringProperty name =
+            DynamicPropertyFactory.getInstance().getStringProperty("cse.highway.compress.name", null);
+        return name.get();
+    }
+
+    // body小于该值时不压缩
+    public static int getCompressMinSize() {
+        DynamicIntProperty minSize =
+            DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.compress.min-size", 1024);
+        return minSize.get();
+    }
+
+    /**
+     * 超过该大小的消息拆分为多个frame发送，小于等于0表示不分片
+     * 只避免大消息阻塞同一连接上的其他消息，两端仍然需要容纳整条消息，不能降低内存占用
+     */
+    public static int getChunkSize() {
+        DynamicIntProperty chunkSize =
+            DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.chunk-size", 1024 * 1024);
+        return chunkSize.get();
+    }
+
+    public static long getMaxMessageSize() {
+        DynamicLongProperty maxMessageSize =
+            DynamicPropertyFactory.getInstance().getLongProperty("cse.highway.max-message-size",
+                    TcpParser.DEFAULT_MAX_MESSAGE_SIZE);
+        return maxMessageSize.get();
+    }
+
+    /**
+     * 一个连接上所有未收齐的分片消息累积的总长度上限，超过时断开连接
+     */
+    public static long getMaxPendingChunkBytes() {
+        DynamicLongProperty maxBytes =
+            DynamicPropertyFactory.getInstance().getLongProperty("cse.highway.max-pending-chunk-bytes",
+                    TcpParser.DEFAULT_MAX_PENDING_CHUNK_BYTES);
+        return maxBytes.get();
+    }
+
+    /**
+     * 一个连接上同时未收齐的分片消息数上限，超过时断开连接
+     */
+    public static int getMaxPendingChunkMessages() {
+        DynamicIntProperty maxMessages =
+            DynamicPropertyFactory.getInstance().getIntProperty("cse.highway.max-pending-chunk-messages",
+                    TcpParser.DEFAULT_MAX_PENDING_CHUNK_MESSAGES);
+        return maxMessages.get();
+    }
 }
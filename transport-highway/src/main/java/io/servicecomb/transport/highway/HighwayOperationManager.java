@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway;
+
+import java.util.Arrays;
+
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtobufOutput;
+import io.servicecomb.codec.protobuf.definition.OperationProtobuf;
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.foundation.vertx.stream.BufferSizeEstimator;
+import io.servicecomb.transport.highway.message.RequestHeader;
+
+/**
+ * destMicroservice/schemaId/operationName对于同一个operation是固定的
+ * 1.consumer侧预先编码为header前缀，每次请求只需要编码msgType、flags、context
+ * 2.provider侧为operation分配数字id，client通过应答获知后，后续请求只携带id，查找时直接按下标访问
+ *   id在进程生命周期内不变，client在每次login后重新获取
+ * 3.请求、应答分别根据最近的编码长度估算buffer初始大小
+ */
+public final class HighwayOperationManager {
+    private static final String EXT_HEADER_PREFIX = "highway.request-header-prefix";
+
+    private static final String EXT_OPERATION_ID = "highway.operation-id";
+
+    private static final String EXT_REQUEST_SIZE_ESTIMATOR = "highway.request-size-estimator";
+
+    private static final String EXT_RESPONSE_SIZE_ESTIMATOR = "highway.response-size-estimator";
+
+    private static final Object LOCK = new Object();
+
+    // 下标即operation id，0保留表示未分配
+    private static volatile OperationProtobuf[] operations = new OperationProtobuf[16];
+
+    private static int nextOperationId = 1;
+
+    private HighwayOperationManager() {
+    }
+
+    public static byte[] getRequestHeaderPrefix(OperationMeta operationMeta) throws Exception {
+        byte[] prefix = operationMeta.getExtData(EXT_HEADER_PREFIX);
+        if (prefix == null) {
+            RequestHeader header = new RequestHeader();
+            header.setDestMicroservice(operationMeta.getMicroserviceName());
+            header.setSchemaId(operationMeta.getSchemaMeta().getSchemaId());
+            header.setOperationName(operationMeta.getOperationId());
+
+            ProtobufOutput output = new ProtobufOutput(LinkedBuffer.allocate());
+            header.writeObject(output);
+            prefix = output.toByteArray();
+            operationMeta.putExtData(EXT_HEADER_PREFIX, prefix);
+        }
+        return prefix;
+    }
+
+    public static BufferSizeEstimator getRequestSizeEstimator(OperationMeta operationMeta) {
+        return getSizeEstimator(operationMeta, EXT_REQUEST_SIZE_ESTIMATOR);
+    }
+
+    public static BufferSizeEstimator getResponseSizeEstimator(OperationMeta operationMeta) {
+        return getSizeEstimator(operationMeta, EXT_RESPONSE_SIZE_ESTIMATOR);
+    }
+
+    // 并发创建时只是丢失部分样本，不影响正确性
+    private static BufferSizeEstimator getSizeEstimator(OperationMeta operationMeta, String key) {
+        BufferSizeEstimator estimator = operationMeta.getExtData(key);
+        if (estimator == null) {
+            estimator = new BufferSizeEstimator();
+            operationMeta.putExtData(key, estimator);
+        }
+        return estimator;
+    }
+
+    public static int getOrAssignId(OperationProtobuf operationProtobuf) {
+        OperationMeta operationMeta = operationProtobuf.getOperationMeta();
+        Integer id = operationMeta.getExtData(EXT_OPERATION_ID);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (LOCK) {
+            id = operationMeta.getExtData(EXT_OPERATION_ID);
+            if (id == null) {
+                id = nextOperationId++;
+                OperationProtobuf[] newOperations = operations;
+                if (id >= newOperations.length) {
+                    newOperations = Arrays.copyOf(newOperations, newOperations.length * 2);
+                }
+                newOperations[id] = operationProtobuf;
+                operations = newOperations;
+                operationMeta.putExtData(EXT_OPERATION_ID, id);
+            }
+            return id;
+        }
+    }
+
+    public static OperationProtobuf ensureFindOperation(int operationId) {
+        OperationProtobuf[] current = operations;
+        if (operationId > 0 && operationId < current.length && current[operationId] != null) {
+            return current[operationId];
+        }
+
+        throw new IllegalArgumentException(String.format("invalid highway operation id %d.", operationId));
+    }
+}
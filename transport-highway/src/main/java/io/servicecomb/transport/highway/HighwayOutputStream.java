@@ -15,29 +15,156 @@
  */
 package io.servicecomb.transport.highway;
 
-import io.servicecomb.codec.protobuf.utils.WrapSchema;
+import java.io.IOException;
+import java.io.OutputStream;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.protostuff.LinkedBuffer;
 import io.protostuff.ProtobufOutput;
 import io.protostuff.runtime.ProtobufFeature;
+import io.servicecomb.codec.protobuf.utils.WrapSchema;
 import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
+import io.servicecomb.transport.highway.compress.Compressor;
 import io.servicecomb.transport.highway.message.RequestHeader;
 import io.servicecomb.transport.highway.message.ResponseHeader;
 
 public class HighwayOutputStream extends TcpOutputStream {
+    private static final byte[] EMPTY_PREFIX = new byte[0];
+
     private ProtobufFeature protobufFeature;
 
+    // 连接上协商出的压缩算法，为null表示不压缩
+    private Compressor compressor;
+
+    // 预先编码好的header字段，写在header之前，与header合并为一个protobuf消息
+    private byte[] headerPrefix = EMPTY_PREFIX;
+
     public HighwayOutputStream(long msgId, ProtobufFeature protobufFeature) {
         super(msgId);
         this.protobufFeature = protobufFeature;
     }
 
+    public HighwayOutputStream(long msgId, ProtobufFeature protobufFeature, int initialCapacity, boolean pooled) {
+        super(msgId, initialCapacity, pooled);
+        this.protobufFeature = protobufFeature;
+    }
+
+    public void setCompressor(Compressor compressor) {
+        this.compressor = compressor;
+    }
+
+    public void setHeaderPrefix(byte[] headerPrefix) {
+        this.headerPrefix = headerPrefix == null ? EMPTY_PREFIX : headerPrefix;
+    }
+
     public void write(RequestHeader header, WrapSchema bodySchema, Object body) throws Exception {
-        write(RequestHeader.getRequestHeaderSchema(), header, bodySchema, body);
+        if (compressor == null || bodySchema == null) {
+            write(RequestHeader.getRequestHeaderSchema(), header, bodySchema, body);
+            return;
+        }
+
+        ProtobufOutput bodyOutput = writeBody(bodySchema, body);
+        int flags = header.getFlags();
+        header.setFlags(flags | HeaderFlags.COMPRESSED_BODY);
+        if (writeCompressed(RequestHeader.getRequestHeaderSchema(), header, bodyOutput)) {
+            return;
+        }
+
+        header.setFlags(flags);
+        write(RequestHeader.getRequestHeaderSchema(), header, bodyOutput);
     }
 
     public void write(ResponseHeader header, WrapSchema bodySchema, Object body) throws Exception {
-        write(ResponseHeader.getResponseHeaderSchema(), header, bodySchema, body);
+        if (compressor == null || bodySchema == null) {
+            write(ResponseHeader.getResponseHeaderSchema(), header, bodySchema, body);
+            return;
+        }
+
+        ProtobufOutput bodyOutput = writeBody(bodySchema, body);
+        int flags = header.getFlags();
+        header.setFlags(flags | HeaderFlags.COMPRESSED_BODY);
+        if (writeCompressed(ResponseHeader.getResponseHeaderSchema(), header, bodyOutput)) {
+            return;
+        }
+
+        header.setFlags(flags);
+        write(ResponseHeader.getResponseHeaderSchema(), header, bodyOutput);
+    }
+
+    protected ProtobufOutput writeBody(WrapSchema bodySchema, Object body) throws Exception {
+        ProtobufOutput output = new ProtobufOutput(LinkedBuffer.allocate());
+        bodySchema.writeObject(output, body, protobufFeature);
+        return output;
+    }
+
+    protected ProtobufOutput writeHeader(WrapSchema headerSchema, Object header) throws Exception {
+        ProtobufOutput output = new ProtobufOutput(LinkedBuffer.allocate());
+        headerSchema.writeObject(output, header, protobufFeature);
+        return output;
+    }
+
+    /**
+     * header中已经设置了压缩标记，body直接压缩到本stream的buffer中，不经过中间数组
+     * 太小或者压缩后没有变小时，回退已写入的内容，返回false，由调用者按原样发送
+     */
+    protected boolean writeCompressed(WrapSchema headerSchema, Object header, ProtobufOutput bodyOutput)
+            throws Exception {
+        int bodySize = bodyOutput.getSize();
+        if (bodySize < HighwayConfig.getCompressMinSize()) {
+            return false;
+        }
+
+        ProtobufOutput headerOutput = writeHeader(headerSchema, header);
+        int headerSize = headerPrefix.length + headerOutput.getSize();
+
+        // 压缩后不变小就放弃，所以按原始长度扩容即可
+        int frameStart = byteBuf.writerIndex();
+        byteBuf.ensureWritable(Integer.BYTES * 2 + headerSize + bodySize);
+        // 总长度压缩后回填
+        writeLength(0, headerSize);
+        write(headerPrefix);
+        LinkedBuffer.writeTo(this, headerOutput.head);
+
+        int bodyStart = byteBuf.writerIndex();
+        compressor.compress(wrap(bodyOutput.head), byteBuf);
+        int compressedSize = byteBuf.writerIndex() - bodyStart;
+        if (compressedSize >= bodySize) {
+            byteBuf.writerIndex(frameStart);
+            return false;
+        }
+
+        writeInt(frameStart, headerSize + compressedSize);
+        return true;
+    }
+
+    // LinkedBuffer的各段直接包装为ByteBuf，不拷贝，压缩算法可以直接读取
+    private static ByteBuf wrap(LinkedBuffer linkedBuffer) throws IOException {
+        CompositeByteBuf composite = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        LinkedBuffer.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int len) {
+                composite.addComponent(true, Unpooled.wrappedBuffer(bytes, offset, len));
+            }
+        }, linkedBuffer);
+        return composite;
+    }
+
+    protected void write(WrapSchema headerSchema, Object header, ProtobufOutput bodyOutput) throws Exception {
+        ProtobufOutput headerOutput = writeHeader(headerSchema, header);
+        int headerSize = headerPrefix.length + headerOutput.getSize();
+
+        byteBuf.ensureWritable(Integer.BYTES * 2 + headerSize + bodyOutput.getSize());
+        writeLength(headerSize + bodyOutput.getSize(), headerSize);
+        write(headerPrefix);
+        LinkedBuffer.writeTo(this, headerOutput.head);
+        LinkedBuffer.writeTo(this, bodyOutput.head);
     }
 
     public void write(WrapSchema headerSchema, Object header, WrapSchema bodySchema, Object body) throws Exception {
@@ -49,7 +176,7 @@ public class HighwayOutputStream extends TcpOutputStream {
         if (headerSchema != null) {
             headerSchema.writeObject(output, header, protobufFeature);
         }
-        int headerSize = output.getSize();
+        int headerSize = headerPrefix.length + output.getSize();
 
         // 写body
         // void时bodySchema为null
@@ -57,7 +184,10 @@ public class HighwayOutputStream extends TcpOutputStream {
             bodySchema.writeObject(output, body, protobufFeature);
         }
 
-        writeLength(output.getSize(), headerSize);
+        // 长度已知，一次性扩容，避免分段写入时反复扩容拷贝
+        byteBuf.ensureWritable(Integer.BYTES * 2 + headerPrefix.length + output.getSize());
+        writeLength(headerPrefix.length + output.getSize(), headerSize);
+        write(headerPrefix);
         LinkedBuffer.writeTo(this, linkedBuffer);
     }
 }
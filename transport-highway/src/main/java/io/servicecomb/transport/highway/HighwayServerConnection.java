@@ -24,10 +24,14 @@ import io.protostuff.runtime.ProtobufFeature;
 import io.servicecomb.foundation.vertx.server.TcpBufferHandler;
 import io.servicecomb.foundation.vertx.server.TcpParser;
 import io.servicecomb.foundation.vertx.server.TcpServerConnection;
+import io.servicecomb.foundation.vertx.tcp.TcpChunkWriter;
+import io.servicecomb.transport.highway.compress.Compressor;
+import io.servicecomb.transport.highway.compress.CompressorManager;
 import io.servicecomb.transport.highway.message.LoginRequest;
 import io.servicecomb.transport.highway.message.LoginResponse;
 import io.servicecomb.transport.highway.message.RequestHeader;
 import io.servicecomb.transport.highway.message.ResponseHeader;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetSocket;
 
@@ -36,9 +40,18 @@ public class HighwayServerConnection extends TcpServerConnection implements TcpB
 
     private ProtobufFeature protobufFeature = new ProtobufFeature();
 
+    // client在login时要求且本端支持的压缩算法，为null表示不压缩
+    private Compressor compressor;
+
+    // client支持分片时才创建，大的应答拆分发送
+    private TcpChunkWriter chunkWriter;
+
     @Override
     public void init(NetSocket netSocket) {
-        splitter = new TcpParser(this);
+        splitter = new TcpParser(this, HighwayConfig.getMaxFrameSize());
+        splitter.setMaxMessageSize(HighwayConfig.getMaxMessageSize());
+        splitter.setMaxPendingChunkBytes(HighwayConfig.getMaxPendingChunkBytes());
+        splitter.setMaxPendingChunkMessages(HighwayConfig.getMaxPendingChunkMessages());
         super.init(netSocket);
     }
 
@@ -92,7 +105,11 @@ public class HighwayServerConnection extends TcpServerConnection implements TcpB
 
         if (request != null) {
             this.setProtocol(request.getProtocol());
-            this.setZipName(request.getZipName());
+            this.compressor = CompressorManager.findCompressor(request.getZipName());
+            this.setZipName(compressor == null ? null : compressor.getName());
+            if (request.isSupportChunk() && HighwayConfig.getChunkSize() > 0 && chunkWriter == null) {
+                chunkWriter = new TcpChunkWriter(Vertx.currentContext(), netSocket, HighwayConfig.getChunkSize());
+            }
             this.protobufFeature.setUseProtobufMapCodec(request.isUseProtobufMapCodec());
         }
 
@@ -102,21 +119,31 @@ public class HighwayServerConnection extends TcpServerConnection implements TcpB
 
             LoginResponse response = new LoginResponse();
             response.setUseProtobufMapCodec(protobufFeature.isUseProtobufMapCodec());
+            response.setZipName(zipName);
+            response.setSupportChunk(true);
 
             os.write(ResponseHeader.getResponseHeaderSchema(),
                     responseHeader,
                     LoginResponse.getLoginResponseSchema(),
                     response);
-            netSocket.write(os.getBuffer());
+            os.writeTo(netSocket);
         } catch (Exception e) {
             throw new Error("impossible.", e);
         }
     }
 
     protected void onRequest(long msgId, RequestHeader header, Buffer bodyBuffer) {
-        HighwayServerInvoke invoke = new HighwayServerInvoke(protobufFeature);
+        HighwayServerInvoke invoke = new HighwayServerInvoke(protobufFeature, compressor);
+        invoke.setChunkWriter(chunkWriter);
         if (invoke.init(netSocket, msgId, header, bodyBuffer)) {
             invoke.execute();
         }
     }
+
+    @Override
+    protected void onClosed() {
+        if (chunkWriter != null) {
+            chunkWriter.close();
+        }
+    }
 }
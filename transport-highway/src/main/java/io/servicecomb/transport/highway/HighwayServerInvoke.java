@@ -17,6 +17,8 @@
 package io.servicecomb.transport.highway;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,9 +32,15 @@ import io.servicecomb.core.definition.MicroserviceMeta;
 import io.servicecomb.core.definition.MicroserviceMetaManager;
 import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.core.definition.SchemaMeta;
+import io.servicecomb.core.executor.ReactiveExecutor;
+import io.servicecomb.core.executor.RejectableTask;
+import io.servicecomb.core.invocation.InvocationPool;
+import io.servicecomb.core.provider.consumer.ReactiveResponseExecutor;
+import io.servicecomb.foundation.vertx.tcp.TcpChunkWriter;
 import io.servicecomb.swagger.invocation.Response;
 import io.servicecomb.swagger.invocation.exception.InvocationException;
 import io.protostuff.runtime.ProtobufFeature;
+import io.servicecomb.transport.highway.compress.Compressor;
 import io.servicecomb.transport.highway.message.RequestHeader;
 import io.servicecomb.transport.highway.message.ResponseHeader;
 
@@ -46,24 +54,44 @@ public class HighwayServerInvoke {
 
     private ProtobufFeature protobufFeature;
 
+    private Compressor compressor;
+
+    // 为null表示client不支持分片
+    private TcpChunkWriter chunkWriter;
+
     private RequestHeader header;
 
     private OperationMeta operationMeta;
 
     private OperationProtobuf operationProtobuf;
 
+    // 请求中没有携带operation id时，通过应答告诉client
+    private int operationId;
+
     private NetSocket netSocket;
 
     private long msgId;
 
     private Buffer bodyBuffer;
 
+    // reactive的operation，应答回到请求到达的网络线程中编码、发送
+    private Executor responseExecutor;
+
     public HighwayServerInvoke() {
         this(null);
     }
 
     public HighwayServerInvoke(ProtobufFeature protobufFeature) {
+        this(protobufFeature, null);
+    }
+
+    public HighwayServerInvoke(ProtobufFeature protobufFeature, Compressor compressor) {
         this.protobufFeature = protobufFeature;
+        this.compressor = compressor;
+    }
+
+    public void setChunkWriter(TcpChunkWriter chunkWriter) {
+        this.chunkWriter = chunkWriter;
     }
 
     public void setMicroserviceMetaManager(MicroserviceMetaManager microserviceMetaManager) {
@@ -94,33 +122,72 @@ public class HighwayServerInvoke {
         this.msgId = msgId;
         this.header = header;
 
-        MicroserviceMeta microserviceMeta = microserviceMetaManager.ensureFindValue(header.getDestMicroservice());
-        SchemaMeta schemaMeta = microserviceMeta.ensureFindSchemaMeta(header.getSchemaId());
-        this.operationMeta = schemaMeta.ensureFindOperation(header.getOperationName());
-        this.operationProtobuf = ProtobufManager.getOrCreateOperation(operationMeta);
+        if (header.getOperationId() > 0) {
+            this.operationProtobuf = HighwayOperationManager.ensureFindOperation(header.getOperationId());
+            this.operationMeta = operationProtobuf.getOperationMeta();
+        } else {
+            MicroserviceMeta microserviceMeta = microserviceMetaManager.ensureFindValue(header.getDestMicroservice());
+            SchemaMeta schemaMeta = microserviceMeta.ensureFindSchemaMeta(header.getSchemaId());
+            this.operationMeta = schemaMeta.ensureFindOperation(header.getOperationName());
+            this.operationProtobuf = ProtobufManager.getOrCreateOperation(operationMeta);
+            this.operationId = HighwayOperationManager.getOrAssignId(operationProtobuf);
+        }
 
         this.bodyBuffer = bodyBuffer;
     }
 
     private void runInExecutor() {
+        Invocation invocation = null;
+        // 应答只能发送一次，池化时应答的引用也只能释放一次：应答回调与下面的异常处理谁先到谁负责
+        AtomicBoolean responded = new AtomicBoolean();
         try {
-            doRunInExecutor();
+            invocation = HighwayCodec.decodeRequest(header, operationProtobuf, bodyBuffer, protobufFeature,
+                    compressor);
+            Invocation current = invocation;
+            invocation.next(response -> {
+                if (!responded.compareAndSet(false, true)) {
+                    return;
+                }
+
+                if (responseExecutor == null) {
+                    sendResponseAndRelease(current, response);
+                    return;
+                }
+
+                try {
+                    responseExecutor.execute(() -> sendResponseAndRelease(current, response));
+                } catch (Throwable e) {
+                    LOGGER.error(String.format("dispatch response error, %s, msgId=%d",
+                            operationMeta.getMicroserviceQualifiedName(),
+                            msgId), e);
+                    sendResponseAndRelease(current, Response.providerFailResp(e));
+                }
+            });
         } catch (Throwable e) {
             String msg = String.format("handle request error, %s, msgId=%d",
                     operationMeta.getMicroserviceQualifiedName(),
                     msgId);
             LOGGER.error(msg, e);
 
-            sendResponse(header.getContext(), Response.providerFailResp(e));
+            if (invocation == null) {
+                // 解码失败，还没有获取invocation
+                sendResponse(header.getContext(), Response.providerFailResp(e));
+            } else if (responded.compareAndSet(false, true)) {
+                sendResponseAndRelease(invocation, Response.providerFailResp(e));
+            }
+        } finally {
+            if (invocation != null) {
+                InvocationPool.release(invocation);
+            }
         }
     }
 
-    private void doRunInExecutor() throws Exception {
-        Invocation invocation = HighwayCodec.decodeRequest(header, operationProtobuf, bodyBuffer, protobufFeature);
-
-        invocation.next(response -> {
+    private void sendResponseAndRelease(Invocation invocation, Response response) {
+        try {
             sendResponse(invocation.getContext(), response);
-        });
+        } finally {
+            InvocationPool.release(invocation);
+        }
     }
 
     private void sendResponse(Map<String, String> context, Response response) {
@@ -129,6 +196,7 @@ public class HighwayServerInvoke {
         header.setReasonPhrase(response.getReasonPhrase());
         header.setContext(context);
         header.setHeaders(response.getHeaders());
+        header.setOperationId(operationId);
 
         WrapSchema bodySchema = operationProtobuf.findResponseSchema(response.getStatusCode());
         Object body = response.getResult();
@@ -137,8 +205,14 @@ public class HighwayServerInvoke {
         }
 
         try {
-            Buffer respBuffer = HighwayCodec.encodeResponse(msgId, header, bodySchema, body, protobufFeature);
-            netSocket.write(respBuffer);
+            HighwayOutputStream os = HighwayCodec.encodeResponse(msgId, header, bodySchema, body, protobufFeature,
+                    HighwayOperationManager.getResponseSizeEstimator(operationProtobuf.getOperationMeta()),
+                    compressor);
+            if (chunkWriter != null && chunkWriter.needChunk(os)) {
+                chunkWriter.write(os);
+                return;
+            }
+            os.writeTo(netSocket);
         } catch (Exception e) {
             // 没招了，直接打日志
             String msg = String.format("encode response failed, %s, msgId=%d",
@@ -149,6 +223,27 @@ public class HighwayServerInvoke {
     }
 
     public void execute() {
-        operationMeta.getExecutor().execute(this::runInExecutor);
+        Executor executor = operationMeta.getExecutor();
+        if (executor instanceof ReactiveExecutor) {
+            // 在网络线程中解码、调用业务，业务异步应答时也回到该线程
+            responseExecutor = new ReactiveResponseExecutor();
+        }
+
+        executor.execute(new RejectableTask() {
+            @Override
+            public void run() {
+                runInExecutor();
+            }
+
+            @Override
+            public void reject(InvocationException e) {
+                sendResponse(header.getContext(), Response.providerFailResp(e));
+            }
+
+            @Override
+            public String toString() {
+                return operationMeta.getMicroserviceQualifiedName();
+            }
+        });
     }
 }
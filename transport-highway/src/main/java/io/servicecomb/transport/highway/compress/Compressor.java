@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * highway body的压缩算法，实现必须是线程安全的
+ * 扩展的算法通过SPI注册，名字在login时协商
+ */
+public interface Compressor {
+    String getName();
+
+    /**
+     * 压缩in中全部可读的数据，追加写入out
+     * out通常就是最终发送的buffer，可能是pooled direct buffer，不要假设有底层数组
+     */
+    void compress(ByteBuf in, ByteBuf out) throws Exception;
+
+    /**
+     * 解压后超过maxSize时必须失败，且不能先把数据全部解压出来再检查，避免解压炸弹
+     */
+    Buffer decompress(Buffer data, int maxSize) throws Exception;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway.compress;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.servicecomb.foundation.common.utils.SPIServiceUtils;
+
+public final class CompressorManager {
+    private static final Map<String, Compressor> COMPRESSORS = new ConcurrentHashMap<>();
+
+    static {
+        register(new DeflateCompressor());
+        register(new SnappyCompressor());
+
+        for (Compressor compressor : SPIServiceUtils.getAllService(Compressor.class)) {
+            register(compressor);
+        }
+    }
+
+    private CompressorManager() {
+    }
+
+    public static void register(Compressor compressor) {
+        COMPRESSORS.put(compressor.getName(), compressor);
+    }
+
+    /**
+     * name为空或者不支持时返回null，表示不压缩
+     */
+    public static Compressor findCompressor(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        return COMPRESSORS.get(name);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway.compress;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+
+public class DeflateCompressor implements Compressor {
+    public static final String NAME = "deflate";
+
+    private static final int CHUNK_SIZE = 4096;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            // 只在输入或输出不是heap buffer时才需要中转
+            byte[] chunk = null;
+            for (ByteBuffer segment : in.nioBuffers()) {
+                if (segment.hasArray()) {
+                    deflater.setInput(segment.array(), segment.arrayOffset() + segment.position(), segment.remaining());
+                } else {
+                    byte[] input = new byte[segment.remaining()];
+                    segment.get(input);
+                    deflater.setInput(input);
+                }
+                while (!deflater.needsInput()) {
+                    chunk = deflate(deflater, out, chunk);
+                }
+            }
+            in.skipBytes(in.readableBytes());
+
+            deflater.finish();
+            while (!deflater.finished()) {
+                chunk = deflate(deflater, out, chunk);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // java8的Deflater只能输出到byte[]，heap buffer直接写入底层数组，direct buffer经过一个小块中转
+    private byte[] deflate(Deflater deflater, ByteBuf out, byte[] chunk) {
+        out.ensureWritable(CHUNK_SIZE);
+        if (out.hasArray()) {
+            int writerIndex = out.writerIndex();
+            int len = deflater.deflate(out.array(), out.arrayOffset() + writerIndex, out.writableBytes());
+            out.writerIndex(writerIndex + len);
+            return chunk;
+        }
+
+        byte[] buf = chunk != null ? chunk : new byte[CHUNK_SIZE];
+        int len = deflater.deflate(buf);
+        out.writeBytes(buf, 0, len);
+        return buf;
+    }
+
+    @Override
+    public Buffer decompress(Buffer data, int maxSize) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data.getBytes());
+
+            Buffer result = Buffer.buffer((int) Math.min((long) data.length() * 2, maxSize));
+            byte[] chunk = new byte[CHUNK_SIZE];
+            while (!inflater.finished()) {
+                int len = inflater.inflate(chunk);
+                if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated deflate data.");
+                }
+                if ((long) result.length() + len > maxSize) {
+                    throw new DataFormatException(
+                            String.format("decompressed body exceeds max message size %d.", maxSize));
+                }
+                result.appendBytes(chunk, 0, len);
+            }
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.DecompressionException;
+import io.netty.handler.codec.compression.Snappy;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * 基于netty自带的snappy实现，不需要额外依赖
+ * 压缩率低于deflate，但是速度快得多
+ */
+public class SnappyCompressor implements Compressor {
+    public static final String NAME = "snappy";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        // Snappy对象有状态，每次新建
+        new Snappy().encode(in, out, in.readableBytes());
+    }
+
+    @Override
+    public Buffer decompress(Buffer data, int maxSize) {
+        ByteBuf in = data.getByteBuf();
+        // 先检查头部声明的解压后长度，再按该长度限制输出buffer，声明不实也无法超出
+        int uncompressedLength = readUncompressedLength(in);
+        if (uncompressedLength > maxSize) {
+            throw new DecompressionException(
+                    String.format("decompressed body length %d exceeds max message size %d.",
+                            uncompressedLength,
+                            maxSize));
+        }
+
+        ByteBuf out = Unpooled.buffer(uncompressedLength, uncompressedLength);
+        try {
+            new Snappy().decode(in, out);
+        } catch (IndexOutOfBoundsException e) {
+            throw new DecompressionException("snappy data is larger than the declared length.", e);
+        }
+        if (out.readableBytes() != uncompressedLength) {
+            throw new DecompressionException(
+                    String.format("snappy length mismatch, declared %d, actual %d.",
+                            uncompressedLength,
+                            out.readableBytes()));
+        }
+        return Buffer.buffer(out);
+    }
+
+    // snappy格式的头部：解压后长度，little-endian varint，最多5字节
+    static int readUncompressedLength(ByteBuf in) {
+        long result = 0;
+        int idx = in.readerIndex();
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (idx >= in.writerIndex()) {
+                break;
+            }
+
+            int b = in.getByte(idx++);
+            result |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (result > Integer.MAX_VALUE) {
+                    break;
+                }
+                return (int) result;
+            }
+        }
+        throw new DecompressionException("invalid snappy length preamble.");
+    }
+}
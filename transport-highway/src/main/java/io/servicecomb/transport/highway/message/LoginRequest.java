@@ -46,6 +46,10 @@ public class LoginRequest {
     @Tag(3)
     private boolean useProtobufMapCodec;
 
+    // 是否能够接收分片发送的大消息
+    @Tag(4)
+    private boolean supportChunk;
+
     public String getProtocol() {
         return protocol;
     }
@@ -70,6 +74,14 @@ public class LoginRequest {
         this.useProtobufMapCodec = useProtobufMapCodec;
     }
 
+    public boolean isSupportChunk() {
+        return supportChunk;
+    }
+
+    public void setSupportChunk(boolean supportChunk) {
+        this.supportChunk = supportChunk;
+    }
+
     public void writeObject(ProtobufOutput output) throws Exception {
         loginRequestSchema.writeObject(output, this);
     }
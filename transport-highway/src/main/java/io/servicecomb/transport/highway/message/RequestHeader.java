@@ -29,6 +29,7 @@ import io.vertx.core.buffer.Buffer;
 /**
  * tag的缺失、乱序，是因为要兼容历史版本
  * 1.tag(4)，是历史版本中的压缩算法名，转移到login消息中传递
+ * 2.tag(8)，server分配的operation id，非0时不再携带destMicroservice/schemaId/operationName
  */
 public class RequestHeader {
     private static WrapSchema requestHeaderSchema = ProtobufSchemaUtils.getOrCreateSchema(RequestHeader.class);
@@ -62,6 +63,9 @@ public class RequestHeader {
     @Tag(7)
     private Map<String, String> context;
 
+    @Tag(8)
+    private int operationId;
+
     //CHECKSTYLE:ON
     public byte getMsgType() {
         return msgType;
@@ -111,6 +115,14 @@ public class RequestHeader {
         this.context = context;
     }
 
+    public int getOperationId() {
+        return operationId;
+    }
+
+    public void setOperationId(int operationId) {
+        this.operationId = operationId;
+    }
+
     public void writeObject(ProtobufOutput output) throws Exception {
         requestHeaderSchema.writeObject(output, this);
     }
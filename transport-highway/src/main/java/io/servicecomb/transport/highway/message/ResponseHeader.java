@@ -56,7 +56,27 @@ public class ResponseHeader {
     @Tag(4)
     private Headers headers = new Headers();
 
+    // server为该operation分配的id，client后续请求只需要携带id
+    @Tag(6)
+    private int operationId;
+
     //CHECKSTYLE:ON: magicnumber
+    public int getFlags() {
+        return flags;
+    }
+
+    public void setFlags(int flags) {
+        this.flags = flags;
+    }
+
+    public int getOperationId() {
+        return operationId;
+    }
+
+    public void setOperationId(int operationId) {
+        this.operationId = operationId;
+    }
+
     public int getStatusCode() {
         return statusCode;
     }
@@ -25,6 +25,7 @@ import io.servicecomb.core.definition.OperationMeta;
 import io.protostuff.runtime.ProtobufFeature;
 import io.servicecomb.transport.highway.HighwayCodec;
 import io.servicecomb.transport.highway.HighwayConfig;
+import io.servicecomb.transport.highway.compress.Compressor;
 import io.servicecomb.transport.highway.message.RequestHeader;
 
 import io.vertx.core.buffer.Buffer;
@@ -68,7 +69,7 @@ public class MockUtil {
 
             @Mock
             public Invocation decodeRequest(RequestHeader header, OperationProtobuf operationProtobuf,
-                    Buffer bodyBuffer, ProtobufFeature protobufFeature) throws Exception {
+                    Buffer bodyBuffer, ProtobufFeature protobufFeature, Compressor compressor) throws Exception {
                 if (decodeRequestSucc) {
                     return Mockito.mock(Invocation.class);
                 }
@@ -18,8 +18,10 @@ package io.servicecomb.transport.highway;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -33,6 +35,7 @@ import io.protostuff.Input;
 import io.protostuff.runtime.ProtobufCompatibleUtils;
 import io.protostuff.runtime.ProtobufFeature;
 import io.servicecomb.codec.protobuf.definition.OperationProtobuf;
+import io.servicecomb.codec.protobuf.utils.ProtobufSchemaUtils;
 import io.servicecomb.codec.protobuf.utils.WrapSchema;
 import io.servicecomb.codec.protobuf.utils.schema.NotWrapSchema;
 import io.servicecomb.core.Invocation;
@@ -40,8 +43,12 @@ import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.core.definition.SchemaMeta;
 import io.servicecomb.foundation.vertx.client.tcp.TcpData;
 import io.servicecomb.foundation.vertx.server.TcpParser;
+import io.servicecomb.foundation.vertx.stream.BufferSizeEstimator;
 import io.servicecomb.foundation.vertx.tcp.TcpOutputStream;
 import io.servicecomb.swagger.invocation.Response;
+import io.servicecomb.transport.highway.compress.Compressor;
+import io.servicecomb.transport.highway.compress.DeflateCompressor;
+import io.servicecomb.transport.highway.compress.SnappyCompressor;
 import io.servicecomb.transport.highway.message.RequestHeader;
 import io.servicecomb.transport.highway.message.ResponseHeader;
 import io.vertx.core.buffer.Buffer;
@@ -170,6 +177,113 @@ public class TestHighwayCodec {
         Assert.assertTrue(status);
     }
 
+    @Test
+    public void testEncodeResponseWithEstimator() throws Exception {
+        BufferSizeEstimator estimator = new BufferSizeEstimator(0);
+        ResponseHeader header = new ResponseHeader();
+        header.setStatusCode(200);
+
+        try (HighwayOutputStream os =
+            HighwayCodec.encodeResponse(0, header, null, null, new ProtobufFeature(), estimator)) {
+            Assert.assertArrayEquals(TcpParser.TCP_MAGIC, os.getBuffer().getBytes(0, 7));
+            Assert.assertTrue(os.length() > TcpParser.TCP_HEADER_LENGTH);
+        }
+    }
+
+    @Test
+    public void testCompressedResponse() throws Exception {
+        WrapSchema bodySchema = ProtobufSchemaUtils.getOrCreateSchema(String.class);
+        Mockito.when(operationProtobuf.findResponseSchema(200)).thenReturn(bodySchema);
+        Mockito.when(invocation.getContext()).thenReturn(new HashMap<>());
+        Compressor compressor = new DeflateCompressor();
+        String body = String.join("", Collections.nCopies(1000, "abcd"));
+
+        ResponseHeader header = new ResponseHeader();
+        header.setStatusCode(200);
+        try (HighwayOutputStream os = HighwayCodec.encodeResponse(0, header, bodySchema, body,
+                new ProtobufFeature(), new BufferSizeEstimator(), compressor)) {
+            Assert.assertTrue(HeaderFlags.isCompressedBody(header.getFlags()));
+            Assert.assertTrue(os.length() < body.length());
+
+            Buffer buffer = os.getBuffer();
+            int headerLen = buffer.getInt(TcpParser.TCP_HEADER_LENGTH - Integer.BYTES);
+            TcpData tcpData = new TcpData(buffer.slice(TcpParser.TCP_HEADER_LENGTH,
+                    TcpParser.TCP_HEADER_LENGTH + headerLen),
+                    buffer.slice(TcpParser.TCP_HEADER_LENGTH + headerLen, buffer.length()));
+            Response response =
+                HighwayCodec.decodeResponse(invocation, operationProtobuf, tcpData, new ProtobufFeature(), compressor);
+            Assert.assertEquals(body, response.getResult());
+        }
+    }
+
+    private Response decodeResponse(HighwayOutputStream os, Compressor compressor) throws Exception {
+        Buffer buffer = Buffer.buffer(os.getBuffer().getBytes());
+        int headerLen = buffer.getInt(TcpParser.TCP_HEADER_LENGTH - Integer.BYTES);
+        TcpData tcpData = new TcpData(buffer.slice(TcpParser.TCP_HEADER_LENGTH,
+                TcpParser.TCP_HEADER_LENGTH + headerLen),
+                buffer.slice(TcpParser.TCP_HEADER_LENGTH + headerLen, buffer.length()));
+        return HighwayCodec.decodeResponse(invocation, operationProtobuf, tcpData, new ProtobufFeature(), compressor);
+    }
+
+    @Test
+    public void testCompressIntoPooledBuffer() throws Exception {
+        WrapSchema bodySchema = ProtobufSchemaUtils.getOrCreateSchema(String.class);
+        Mockito.when(operationProtobuf.findResponseSchema(200)).thenReturn(bodySchema);
+        Mockito.when(invocation.getContext()).thenReturn(new HashMap<>());
+        Compressor compressor = new DeflateCompressor();
+        String body = String.join("", Collections.nCopies(1000, "abcd"));
+
+        ResponseHeader header = new ResponseHeader();
+        header.setStatusCode(200);
+        try (HighwayOutputStream os = new HighwayOutputStream(0, new ProtobufFeature(), 64, true)) {
+            os.setCompressor(compressor);
+            os.write(header, bodySchema, body);
+            Assert.assertTrue(os.isPooled());
+            Assert.assertTrue(HeaderFlags.isCompressedBody(header.getFlags()));
+            Assert.assertEquals(body, decodeResponse(os, compressor).getResult());
+        }
+    }
+
+    @Test
+    public void testIncompressibleResponseNotCompressed() throws Exception {
+        WrapSchema bodySchema = ProtobufSchemaUtils.getOrCreateSchema(String.class);
+        Mockito.when(operationProtobuf.findResponseSchema(200)).thenReturn(bodySchema);
+        Mockito.when(invocation.getContext()).thenReturn(new HashMap<>());
+        // 随机的汉字，snappy找不到重复片段，压缩后会变大
+        Random random = new Random(0);
+        StringBuilder sb = new StringBuilder();
+        for (int idx = 0; idx < 2000; idx++) {
+            sb.append((char) (0x4E00 + random.nextInt(0x5000)));
+        }
+        String body = sb.toString();
+
+        ResponseHeader header = new ResponseHeader();
+        header.setStatusCode(200);
+        Compressor compressor = new SnappyCompressor();
+        try (HighwayOutputStream os = new HighwayOutputStream(0, new ProtobufFeature(), 64, true)) {
+            os.setCompressor(compressor);
+            os.write(header, bodySchema, body);
+            Assert.assertFalse(HeaderFlags.isCompressedBody(header.getFlags()));
+            Assert.assertEquals(body, decodeResponse(os, compressor).getResult());
+        }
+    }
+
+    @Test
+    public void testSmallResponseNotCompressed() throws Exception {
+        ResponseHeader header = new ResponseHeader();
+        header.setStatusCode(200);
+        try (HighwayOutputStream os = HighwayCodec.encodeResponse(0, header,
+                ProtobufSchemaUtils.getOrCreateSchema(String.class), "abc",
+                new ProtobufFeature(), new BufferSizeEstimator(), new DeflateCompressor())) {
+            Assert.assertFalse(HeaderFlags.isCompressedBody(header.getFlags()));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDecompressWithoutCompressor() throws Exception {
+        HighwayCodec.decompressBody(HeaderFlags.COMPRESSED_BODY, Buffer.buffer("abc"), null);
+    }
+
     @Test
     public void testEncodeRequest() {
         boolean status = true;
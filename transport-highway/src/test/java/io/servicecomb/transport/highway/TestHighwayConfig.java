@@ -16,9 +16,12 @@
 
 package io.servicecomb.transport.highway;
 
+import org.apache.commons.configuration.AbstractConfiguration;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.netflix.config.ConfigurationManager;
+
 public class TestHighwayConfig {
     @Test
     public void testGetThreadCount() {
@@ -35,4 +38,22 @@ public class TestHighwayConfig {
     public void testGetConnectionPoolPerThread() {
         Assert.assertEquals(HighwayConfig.getClientConnectionPoolPerThread(), 1);
     }
+
+    @Test
+    public void testGetClientConnectionsPerEndpoint() {
+        AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+        try {
+            Assert.assertEquals(1, HighwayConfig.getClientConnectionsPerEndpoint("ms"));
+
+            config.setProperty("cse.highway.client.connections-per-endpoint", 2);
+            Assert.assertEquals(2, HighwayConfig.getClientConnectionsPerEndpoint("ms"));
+
+            config.setProperty("cse.highway.client.ms.connections-per-endpoint", 3);
+            Assert.assertEquals(3, HighwayConfig.getClientConnectionsPerEndpoint("ms"));
+            Assert.assertEquals(2, HighwayConfig.getClientConnectionsPerEndpoint("other"));
+        } finally {
+            config.clearProperty("cse.highway.client.connections-per-endpoint");
+            config.clearProperty("cse.highway.client.ms.connections-per-endpoint");
+        }
+    }
 }
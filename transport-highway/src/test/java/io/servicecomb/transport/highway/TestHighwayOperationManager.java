@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtobufOutput;
+import io.protostuff.runtime.ProtobufCompatibleUtils;
+import io.servicecomb.codec.protobuf.definition.OperationProtobuf;
+import io.servicecomb.codec.protobuf.definition.ProtobufManager;
+import io.servicecomb.core.definition.OperationMeta;
+import io.servicecomb.core.definition.SchemaMeta;
+import io.servicecomb.core.unittest.UnitTestMeta;
+import io.servicecomb.transport.highway.message.RequestHeader;
+import io.vertx.core.buffer.Buffer;
+
+public class TestHighwayOperationManager {
+    class Impl {
+        public int add(int x, int y) {
+            return x + y;
+        }
+
+        public int sub(int x, int y) {
+            return x - y;
+        }
+    }
+
+    private static UnitTestMeta unitTestMeta;
+
+    @BeforeClass
+    public static void setupClass() {
+        ProtobufCompatibleUtils.init();
+        unitTestMeta = new UnitTestMeta();
+    }
+
+    @Test
+    public void testRequestHeaderPrefix() throws Exception {
+        SchemaMeta schemaMeta = unitTestMeta.getOrCreateSchemaMeta(Impl.class);
+        OperationMeta operationMeta = schemaMeta.ensureFindOperation("add");
+        byte[] prefix = HighwayOperationManager.getRequestHeaderPrefix(operationMeta);
+        Assert.assertSame(prefix, HighwayOperationManager.getRequestHeaderPrefix(operationMeta));
+
+        RequestHeader header = new RequestHeader();
+        header.setMsgType(MsgType.REQUEST);
+        header.setFlags(HeaderFlags.COMPRESSED_BODY);
+        header.setContext(Collections.singletonMap("k", "v"));
+        ProtobufOutput output = new ProtobufOutput(LinkedBuffer.allocate());
+        header.writeObject(output);
+
+        // 前缀与每次编码的部分拼接后，是一个完整的header
+        Buffer buffer = Buffer.buffer().appendBytes(prefix).appendBytes(output.toByteArray());
+        RequestHeader decoded = RequestHeader.readObject(buffer, null);
+        Assert.assertEquals(schemaMeta.getMicroserviceName(), decoded.getDestMicroservice());
+        Assert.assertEquals(schemaMeta.getSchemaId(), decoded.getSchemaId());
+        Assert.assertEquals("add", decoded.getOperationName());
+        Assert.assertEquals(MsgType.REQUEST, decoded.getMsgType());
+        Assert.assertEquals(HeaderFlags.COMPRESSED_BODY, decoded.getFlags());
+        Assert.assertEquals("v", decoded.getContext().get("k"));
+    }
+
+    @Test
+    public void testOperationId() throws Exception {
+        SchemaMeta schemaMeta = unitTestMeta.getOrCreateSchemaMeta(Impl.class);
+        OperationProtobuf add = ProtobufManager.getOrCreateOperation(schemaMeta.ensureFindOperation("add"));
+        OperationProtobuf sub = ProtobufManager.getOrCreateOperation(schemaMeta.ensureFindOperation("sub"));
+
+        int addId = HighwayOperationManager.getOrAssignId(add);
+        int subId = HighwayOperationManager.getOrAssignId(sub);
+        Assert.assertTrue(addId > 0);
+        Assert.assertNotEquals(addId, subId);
+        Assert.assertEquals(addId, HighwayOperationManager.getOrAssignId(add));
+
+        Assert.assertSame(add, HighwayOperationManager.ensureFindOperation(addId));
+        Assert.assertSame(sub, HighwayOperationManager.ensureFindOperation(subId));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOperationId() {
+        HighwayOperationManager.ensureFindOperation(Integer.MAX_VALUE);
+    }
+}
@@ -25,6 +25,7 @@ import org.junit.Test;
 
 import io.servicecomb.codec.protobuf.utils.ProtobufSchemaUtils;
 import io.servicecomb.codec.protobuf.utils.WrapSchema;
+import io.servicecomb.transport.highway.compress.DeflateCompressor;
 import io.servicecomb.transport.highway.message.LoginRequest;
 import io.servicecomb.transport.highway.message.RequestHeader;
 import io.servicecomb.foundation.vertx.stream.BufferOutputStream;
@@ -98,6 +99,22 @@ public class TestHighwayServerConnection {
         header.setMsgType(MsgType.LOGIN);
         Buffer headerBuffer = createBuffer(requestHeaderSchema, header);
 
+        LoginRequest body = new LoginRequest();
+        body.setProtocol("p");
+        body.setZipName(DeflateCompressor.NAME);
+        Buffer bodyBuffer = createBuffer(setParameterRequestSchema, body);
+
+        connection.handle(0, headerBuffer, bodyBuffer);
+
+        Assert.assertEquals("p", connection.getProtocol());
+        Assert.assertEquals(DeflateCompressor.NAME, connection.getZipName());
+    }
+
+    @Test
+    public void testSetParameterZipNotSupported() throws Exception {
+        header.setMsgType(MsgType.LOGIN);
+        Buffer headerBuffer = createBuffer(requestHeaderSchema, header);
+
         LoginRequest body = new LoginRequest();
         body.setProtocol("p");
         body.setZipName("z");
@@ -106,7 +123,7 @@ public class TestHighwayServerConnection {
         connection.handle(0, headerBuffer, bodyBuffer);
 
         Assert.assertEquals("p", connection.getProtocol());
-        Assert.assertEquals("z", connection.getZipName());
+        Assert.assertEquals(null, connection.getZipName());
     }
 
     @Test
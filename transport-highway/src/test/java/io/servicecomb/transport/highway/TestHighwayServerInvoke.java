@@ -19,14 +19,21 @@ package io.servicecomb.transport.highway;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import io.servicecomb.codec.protobuf.definition.OperationProtobuf;
+import io.servicecomb.core.Invocation;
 import io.servicecomb.core.definition.OperationMeta;
 import io.servicecomb.core.definition.SchemaMeta;
 import io.servicecomb.core.executor.ReactiveExecutor;
+import io.servicecomb.core.invocation.InvocationPool;
 import io.servicecomb.core.unittest.UnitTestMeta;
+import io.servicecomb.swagger.invocation.AsyncResponse;
 import io.servicecomb.transport.common.MockUtil;
+import io.servicecomb.transport.highway.compress.Compressor;
 import io.servicecomb.transport.highway.message.RequestHeader;
 
+import io.protostuff.runtime.ProtobufFeature;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.net.NetSocket;
 import mockit.Mock;
@@ -90,4 +97,45 @@ public class TestHighwayServerInvoke {
         highwayServerInvoke.execute();
         Assert.assertEquals(true, netSocketBuffer.toString().startsWith("CSE.TCP"));
     }
+
+    @Test
+    public void testReleaseWhenNextThrows() throws Exception {
+        Invocation invocation = Mockito.mock(Invocation.class);
+        Mockito.doThrow(new IllegalStateException("next failed"))
+                .when(invocation)
+                .next(Mockito.any(AsyncResponse.class));
+        new MockUp<HighwayCodec>() {
+            @Mock
+            Invocation decodeRequest(RequestHeader header, OperationProtobuf operationProtobuf,
+                    Buffer bodyBuffer, ProtobufFeature protobufFeature, Compressor compressor) {
+                return invocation;
+            }
+        };
+        int[] releaseCount = new int[1];
+        new MockUp<InvocationPool>() {
+            @Mock
+            void release(Invocation invocation) {
+                releaseCount[0]++;
+            }
+        };
+
+        SchemaMeta schemaMeta = unitTestMeta.getOrCreateSchemaMeta(Impl.class);
+        OperationMeta operationMeta = schemaMeta.ensureFindOperation("add");
+        operationMeta.setExecutor(new ReactiveExecutor());
+
+        HighwayServerInvoke highwayServerInvoke = new HighwayServerInvoke();
+        highwayServerInvoke.setMicroserviceMetaManager(unitTestMeta.getMicroserviceMetaManager());
+        RequestHeader requestHeader = new RequestHeader();
+        requestHeader.setDestMicroservice(schemaMeta.getMicroserviceName());
+        requestHeader.setSchemaId(schemaMeta.getSchemaId());
+        requestHeader.setOperationName(operationMeta.getOperationId());
+        Assert.assertTrue(highwayServerInvoke.init(netSocket, 0, requestHeader, null));
+
+        netSocketBuffer = null;
+        highwayServerInvoke.execute();
+
+        // 同步异常也要应答，并且transport与应答两个引用都要释放
+        Assert.assertTrue(netSocketBuffer.toString().startsWith("CSE.TCP"));
+        Assert.assertEquals(2, releaseCount[0]);
+    }
 }
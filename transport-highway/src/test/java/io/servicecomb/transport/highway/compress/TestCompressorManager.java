@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.highway.compress;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.DecompressionException;
+import io.vertx.core.buffer.Buffer;
+
+public class TestCompressorManager {
+    private static final byte[] DATA = String.join(",", Collections.nCopies(500, "highway")).getBytes();
+
+    private static byte[] compress(Compressor compressor, ByteBuf in, ByteBuf out) throws Exception {
+        compressor.compress(in, out);
+        Assert.assertEquals(0, in.readableBytes());
+
+        byte[] result = new byte[out.readableBytes()];
+        out.readBytes(result);
+        return result;
+    }
+
+    private static byte[] compress(Compressor compressor, byte[] data) throws Exception {
+        return compress(compressor, Unpooled.wrappedBuffer(data), Unpooled.buffer());
+    }
+
+    private void checkRoundTrip(Compressor compressor) throws Exception {
+        byte[] compressed = compress(compressor, DATA);
+        Assert.assertTrue(compressed.length < DATA.length);
+
+        Buffer decompressed = compressor.decompress(Buffer.buffer(compressed), DATA.length);
+        Assert.assertArrayEquals(DATA, decompressed.getBytes());
+
+        // 分段的输入、direct的输出，与highway编码时的场景相同
+        int half = DATA.length / 2;
+        ByteBuf in = Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(DATA, 0, half),
+                Unpooled.wrappedBuffer(DATA, half, DATA.length - half));
+        ByteBuf out = Unpooled.directBuffer(16);
+        try {
+            compressed = compress(compressor, in, out);
+        } finally {
+            out.release();
+        }
+        decompressed = compressor.decompress(Buffer.buffer(compressed), DATA.length);
+        Assert.assertArrayEquals(DATA, decompressed.getBytes());
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        Compressor compressor = CompressorManager.findCompressor(DeflateCompressor.NAME);
+        Assert.assertTrue(compressor instanceof DeflateCompressor);
+        checkRoundTrip(compressor);
+    }
+
+    @Test
+    public void testSnappy() throws Exception {
+        Compressor compressor = CompressorManager.findCompressor(SnappyCompressor.NAME);
+        Assert.assertTrue(compressor instanceof SnappyCompressor);
+        checkRoundTrip(compressor);
+    }
+
+    private void checkExceedMaxSize(Compressor compressor) throws Exception {
+        // 高压缩率的数据，解压后超过限制
+        byte[] compressed = compress(compressor, new byte[1024 * 1024]);
+        try {
+            compressor.decompress(Buffer.buffer(compressed), 64 * 1024);
+            Assert.fail("must throw exception");
+        } catch (Exception e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("max message size 65536"));
+        }
+    }
+
+    @Test
+    public void testDeflateExceedMaxSize() throws Exception {
+        checkExceedMaxSize(CompressorManager.findCompressor(DeflateCompressor.NAME));
+    }
+
+    @Test
+    public void testSnappyExceedMaxSize() throws Exception {
+        checkExceedMaxSize(CompressorManager.findCompressor(SnappyCompressor.NAME));
+    }
+
+    @Test
+    public void testSnappyLengthMismatch() throws Exception {
+        Compressor compressor = CompressorManager.findCompressor(SnappyCompressor.NAME);
+        byte[] compressed = compress(compressor, DATA);
+        // 把头部声明的长度改小，实际数据超出声明长度
+        int preambleLen = 1;
+        while ((compressed[preambleLen - 1] & 0x80) != 0) {
+            preambleLen++;
+        }
+        byte[] forged = new byte[1 + compressed.length - preambleLen];
+        forged[0] = 10;
+        System.arraycopy(compressed, preambleLen, forged, 1, compressed.length - preambleLen);
+        try {
+            compressor.decompress(Buffer.buffer(forged), DATA.length);
+            Assert.fail("must throw exception");
+        } catch (DecompressionException e) {
+            Assert.assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNotSupported() {
+        Assert.assertNull(CompressorManager.findCompressor(null));
+        Assert.assertNull(CompressorManager.findCompressor(""));
+        Assert.assertNull(CompressorManager.findCompressor("unknown"));
+    }
+}
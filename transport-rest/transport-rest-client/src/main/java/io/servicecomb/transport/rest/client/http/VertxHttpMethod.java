@@ -72,7 +72,8 @@ public abstract class VertxHttpMethod {
         // 从业务线程转移到网络线程中去发送
         httpClientWithContext.runOnContext(httpClient -> {
             this.setCseContext(invocation, clientRequest);
-            clientRequest.setTimeout(AbstractTransport.getRequestTimeout());
+            clientRequest.setTimeout(
+                    invocation.getRemainingTimeout(AbstractTransport.getRequestTimeout(invocation.getOperationMeta())));
             try {
                 restClientRequest.end();
             } catch (Exception e) {
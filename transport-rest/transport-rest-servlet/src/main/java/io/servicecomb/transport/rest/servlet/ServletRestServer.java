@@ -28,9 +28,11 @@ import io.servicecomb.common.rest.AbstractRestServer;
 import io.servicecomb.common.rest.RestConst;
 import io.servicecomb.common.rest.codec.RestServerRequestInternal;
 import io.servicecomb.common.rest.codec.produce.ProduceProcessor;
+import io.servicecomb.common.rest.codec.produce.ResponseStreamEncoder;
 import io.servicecomb.core.Invocation;
 import io.servicecomb.swagger.invocation.Response;
 import io.servicecomb.swagger.invocation.exception.InvocationException;
+import io.vertx.core.buffer.Buffer;
 
 public class ServletRestServer extends AbstractRestServer<HttpServletResponse> {
     protected RestAsyncListener restAsyncListener = new RestAsyncListener();
@@ -65,12 +67,30 @@ public class ServletRestServer extends AbstractRestServer<HttpServletResponse> {
         Object body = response.getResult();
         if (response.isFailed()) {
             body = ((InvocationException) body).getErrorData();
+        } else if (ResponseStreamEncoder.isStream(body)) {
+            sendStream(httpServerResponse, new ResponseStreamEncoder(produceProcessor, body));
+            return;
         }
         OutputStream output = httpServerResponse.getOutputStream();
         produceProcessor.encodeResponse(output, body);
         httpServerResponse.flushBuffer();
     }
 
+    // 在业务线程中阻塞写，每个chunk都flush出去，写不动时自然阻塞，即是背压
+    // 返回后才会complete异步上下文
+    protected void sendStream(HttpServletResponse httpServerResponse, ResponseStreamEncoder encoder)
+            throws Exception {
+        try {
+            OutputStream output = httpServerResponse.getOutputStream();
+            for (Buffer chunk = encoder.nextChunk(); chunk != null; chunk = encoder.nextChunk()) {
+                chunk.getByteBuf().readBytes(output, chunk.length());
+                httpServerResponse.flushBuffer();
+            }
+        } finally {
+            encoder.close();
+        }
+    }
+
     @Override
     protected void setHttpRequestContext(Invocation invocation, RestServerRequestInternal restRequest) {
         invocation.getHandlerContext().put(RestConst.HTTP_REQUEST_CREATOR,
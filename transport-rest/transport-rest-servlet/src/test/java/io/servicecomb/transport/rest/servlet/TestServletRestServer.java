@@ -18,7 +18,13 @@ package io.servicecomb.transport.rest.servlet;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
 import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -31,6 +37,7 @@ import org.mockito.Mockito;
 
 import io.servicecomb.common.rest.codec.RestServerRequestInternal;
 import io.servicecomb.common.rest.codec.produce.ProduceProcessor;
+import io.servicecomb.common.rest.codec.produce.ProduceProcessorManager;
 import io.servicecomb.common.rest.definition.RestOperationMeta;
 import io.servicecomb.core.Invocation;
 import io.servicecomb.core.definition.OperationMeta;
@@ -113,4 +120,29 @@ public class TestServletRestServer {
         }
         Assert.assertTrue(status);
     }
+
+    @Test
+    public void testDoSendStream() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                body.write(b);
+            }
+        });
+
+        Response resp = Response.create(200, "OK", Arrays.asList(1, 2).iterator());
+        servletRestServer.doSendResponse(response, ProduceProcessorManager.JSON_PROCESSOR, resp);
+        Assert.assertEquals("[1,2]", body.toString("UTF-8"));
+        Mockito.verify(response).flushBuffer();
+    }
 }
@@ -22,6 +22,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.ws.rs.core.Response.Status;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder.ErrorDataDecoderException;
 import io.servicecomb.swagger.invocation.exception.CommonExceptionData;
 import io.servicecomb.swagger.invocation.exception.ExceptionFactory;
@@ -43,6 +46,7 @@ import io.vertx.ext.web.impl.FileUploadImpl;
  * and modified.
  *
  * allowed to disable fileupload by setUploadsDirectory(null)
+ * body chunks are composed instead of being copied into one growing buffer
  */
 public class RestBodyHandler implements BodyHandler {
 
@@ -86,6 +90,28 @@ public class RestBodyHandler implements BodyHandler {
         }
     }
 
+    // *** cse begin ***
+    // 只有一块数据时直接使用；多块时组合在一起，不再复制到一个不断扩容的buffer中
+    // vertx交给handler的buffer是已经复制出来的heap buffer，可以直接持有
+    static ByteBuf appendBody(ByteBuf body, Buffer buff) {
+        ByteBuf byteBuf = buff.getByteBuf();
+        if (body == null) {
+            return byteBuf;
+        }
+
+        CompositeByteBuf composite;
+        if (body instanceof CompositeByteBuf) {
+            composite = (CompositeByteBuf) body;
+        } else {
+            // 不限制组件个数，避免超过上限时被合并复制
+            composite = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+            composite.addComponent(true, body);
+        }
+        composite.addComponent(true, byteBuf);
+        return composite;
+    }
+    // *** cse end ***
+
     @Override
     public BodyHandler setBodyLimit(long bodyLimit) {
         this.bodyLimit = bodyLimit;
@@ -114,7 +140,9 @@ public class RestBodyHandler implements BodyHandler {
 
         private RoutingContext context;
 
-        private Buffer body = Buffer.buffer();
+        // *** cse begin ***
+        private ByteBuf body;
+        // *** cse end ***
 
         private boolean failed;
 
@@ -187,7 +215,9 @@ public class RestBodyHandler implements BodyHandler {
                 // url encoded should also not, however jQuery by default
                 // post in urlencoded even if the payload is something else
                 if (!isMultipart /* && !isUrlEncoded */) {
-                    body.appendBuffer(buff);
+                    // *** cse begin ***
+                    body = appendBody(body, buff);
+                    // *** cse end ***
                 }
             }
         }
@@ -228,7 +258,9 @@ public class RestBodyHandler implements BodyHandler {
             if (mergeFormAttributes && req.isExpectMultipart()) {
                 req.params().addAll(req.formAttributes());
             }
-            context.setBody(body);
+            // *** cse begin ***
+            context.setBody(body == null ? Buffer.buffer() : Buffer.buffer(body));
+            // *** cse end ***
             context.next();
         }
 
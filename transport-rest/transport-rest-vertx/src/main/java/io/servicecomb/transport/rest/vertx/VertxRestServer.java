@@ -18,6 +18,7 @@ package io.servicecomb.transport.rest.vertx;
 
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +27,7 @@ import io.servicecomb.common.rest.AbstractRestServer;
 import io.servicecomb.common.rest.RestConst;
 import io.servicecomb.common.rest.codec.RestServerRequestInternal;
 import io.servicecomb.common.rest.codec.produce.ProduceProcessor;
+import io.servicecomb.common.rest.codec.produce.ResponseStreamEncoder;
 import io.servicecomb.core.Invocation;
 import io.servicecomb.swagger.invocation.Response;
 import io.servicecomb.swagger.invocation.exception.InvocationException;
@@ -74,6 +76,12 @@ public class VertxRestServer extends AbstractRestServer<HttpServerResponse> {
     @Override
     protected void doSendResponse(HttpServerResponse httpServerResponse, ProduceProcessor produceProcessor,
             Response response) throws Exception {
+        doSendResponse(httpServerResponse, produceProcessor, response, null);
+    }
+
+    @Override
+    protected void doSendResponse(HttpServerResponse httpServerResponse, ProduceProcessor produceProcessor,
+            Response response, Executor executor) throws Exception {
         httpServerResponse.setStatusCode(response.getStatusCode());
         httpServerResponse.setStatusMessage(response.getReasonPhrase());
         httpServerResponse.putHeader("Content-Type", produceProcessor.getName());
@@ -89,6 +97,9 @@ public class VertxRestServer extends AbstractRestServer<HttpServerResponse> {
         Object body = response.getResult();
         if (response.isFailed()) {
             body = ((InvocationException) body).getErrorData();
+        } else if (ResponseStreamEncoder.isStream(body)) {
+            sendStream(httpServerResponse, new ResponseStreamEncoder(produceProcessor, body), executor);
+            return;
         }
         Buffer buffer = produceProcessor.encodeResponse(body);
 
@@ -99,6 +110,63 @@ public class VertxRestServer extends AbstractRestServer<HttpServerResponse> {
         httpServerResponse.end(buffer);
     }
 
+    // chunk模式边编码边发送，写队列满时等待drain再继续，避免大应答全部堆积在内存中
+    // 遍历、编码都在operation的executor中执行，网络线程中只做write（vertx将write投递到连接所在的网络线程）
+    protected void sendStream(HttpServerResponse httpServerResponse, ResponseStreamEncoder encoder,
+            Executor executor) {
+        httpServerResponse.setChunked(true);
+        httpServerResponse.closeHandler(v -> encoder.close());
+        writeStream(httpServerResponse, encoder, executor);
+    }
+
+    protected void writeStream(HttpServerResponse httpServerResponse, ResponseStreamEncoder encoder,
+            Executor executor) {
+        try {
+            while (!httpServerResponse.writeQueueFull()) {
+                Buffer chunk = encoder.nextChunk();
+                if (chunk == null) {
+                    // 正常结束，或者连接已经断开
+                    encoder.close();
+                    if (!httpServerResponse.closed()) {
+                        // end之后不能再被drain触发
+                        httpServerResponse.drainHandler(null);
+                        httpServerResponse.end();
+                    }
+                    return;
+                }
+                httpServerResponse.write(chunk);
+            }
+
+            // drain在网络线程中触发，不能在网络线程中继续遍历producer的数据
+            httpServerResponse.drainHandler(v -> resumeStream(httpServerResponse, encoder, executor));
+        } catch (Throwable e) {
+            abortStream(httpServerResponse, encoder, e);
+        }
+    }
+
+    // executor为null时没有关联的operation，只能原地继续；reactive的executor本身就是原地执行
+    protected void resumeStream(HttpServerResponse httpServerResponse, ResponseStreamEncoder encoder,
+            Executor executor) {
+        if (executor == null) {
+            writeStream(httpServerResponse, encoder, null);
+            return;
+        }
+
+        try {
+            executor.execute(() -> writeStream(httpServerResponse, encoder, executor));
+        } catch (Throwable e) {
+            // 比如线程池满了
+            abortStream(httpServerResponse, encoder, e);
+        }
+    }
+
+    // 应答头已经发送，无法再改为错误应答，只能断开连接，让调用方感知失败
+    private void abortStream(HttpServerResponse httpServerResponse, ResponseStreamEncoder encoder, Throwable e) {
+        LOGGER.error("write stream response failed.", e);
+        encoder.close();
+        httpServerResponse.close();
+    }
+
     @Override
     protected void setHttpRequestContext(Invocation invocation, RestServerRequestInternal restRequest) {
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.rest.vertx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import io.netty.buffer.ByteBuf;
+import io.servicecomb.common.rest.codec.LocalRestServerRequest;
+import io.servicecomb.common.rest.codec.RestObjectMapper;
+import io.servicecomb.common.rest.codec.param.BodyProcessorCreator.BodyProcessor;
+import io.servicecomb.foundation.vertx.stream.BufferInputStream;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * body按8K分块到达，比较原来先复制到一个buffer再经过stream解码，与组合buffer后直接解码的耗时与内存分配
+ * body大小分为1K、64K、1M，1K时只有一块，走byte数组解析
+ *
+ * 不属于单元测试，需要时直接运行main
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyDecodeBenchmark {
+    private static final int CHUNK_SIZE = 8192;
+
+    public static class Item {
+        public long id;
+
+        public String name;
+
+        public double price;
+
+        public List<String> tags;
+    }
+
+    @Param({"1024", "65536", "1048576"})
+    private int bodySize;
+
+    private final List<Buffer> chunks = new ArrayList<>();
+
+    private JavaType targetType;
+
+    private BodyProcessor bodyProcessor;
+
+    @Setup
+    public void setup() throws Exception {
+        List<Item> items = new ArrayList<>();
+        int size = 2;
+        while (size < bodySize) {
+            Item item = new Item();
+            item.id = items.size();
+            item.name = "name-" + item.id;
+            item.price = item.id * 1.5;
+            item.tags = Arrays.asList("tag-a", "tag-b");
+            items.add(item);
+            size += RestObjectMapper.INSTANCE.writeValueAsBytes(item).length + 1;
+        }
+
+        byte[] bytes = RestObjectMapper.INSTANCE.writeValueAsBytes(items);
+        for (int offset = 0; offset < bytes.length; offset += CHUNK_SIZE) {
+            chunks.add(Buffer.buffer().appendBytes(bytes, offset, Math.min(CHUNK_SIZE, bytes.length - offset)));
+        }
+
+        targetType = RestObjectMapper.INSTANCE.getTypeFactory().constructCollectionType(List.class, Item.class);
+        bodyProcessor = new BodyProcessor(targetType);
+    }
+
+    @Benchmark
+    public Object appendAndStream() throws Exception {
+        Buffer body = Buffer.buffer();
+        for (Buffer chunk : chunks) {
+            body.appendBuffer(chunk);
+        }
+        return RestObjectMapper.INSTANCE.readValue(new BufferInputStream(body.getByteBuf()), targetType);
+    }
+
+    @Benchmark
+    public Object compositeAndReader() throws Exception {
+        ByteBuf body = null;
+        for (Buffer chunk : chunks) {
+            body = RestBodyHandler.appendBody(body, chunk);
+        }
+        BufferInputStream inputStream = new BufferInputStream(Buffer.buffer(body).getByteBuf());
+        return bodyProcessor.getValue(new LocalRestServerRequest(null, null, null, inputStream));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(BodyDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Huawei Technologies Co., Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.servicecomb.transport.rest.vertx;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.vertx.core.buffer.Buffer;
+
+public class TestRestBodyHandler {
+    @Test
+    public void testAppendBody() {
+        ByteBuf body = RestBodyHandler.appendBody(null, Buffer.buffer("abc"));
+        Assert.assertTrue(body.hasArray());
+        Assert.assertEquals("abc", body.toString(StandardCharsets.UTF_8));
+
+        body = RestBodyHandler.appendBody(body, Buffer.buffer("def"));
+        body = RestBodyHandler.appendBody(body, Buffer.buffer("g"));
+        Assert.assertTrue(body instanceof CompositeByteBuf);
+        Assert.assertEquals(3, ((CompositeByteBuf) body).numComponents());
+        Assert.assertEquals("abcdefg", body.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -16,17 +16,29 @@
 
 package io.servicecomb.transport.rest.vertx;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import com.netflix.config.ConfigurationManager;
+
 import io.servicecomb.common.rest.codec.RestServerRequestInternal;
 import io.servicecomb.common.rest.codec.produce.ProduceProcessor;
+import io.servicecomb.common.rest.codec.produce.ProduceProcessorManager;
+import io.servicecomb.common.rest.codec.produce.ResponseStreamEncoder;
 import io.servicecomb.common.rest.definition.RestOperationMeta;
 import io.servicecomb.core.Invocation;
 import io.servicecomb.swagger.invocation.Response;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
@@ -92,6 +104,44 @@ public class TestVertxRestServer {
         Assert.assertFalse(status);
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test
+    public void testDoSendStream() throws Exception {
+        ConfigurationManager.getConfigInstance().setProperty(ResponseStreamEncoder.CHUNK_SIZE, 1);
+        try {
+            HttpServerResponse httpServerResponse = Mockito.mock(HttpServerResponse.class);
+            // 写一个chunk后写队列满，drain之后继续
+            Mockito.when(httpServerResponse.writeQueueFull()).thenReturn(false, true, false);
+            Buffer body = Buffer.buffer();
+            Mockito.when(httpServerResponse.write(Mockito.any(Buffer.class))).then(invocation -> {
+                body.appendBuffer(invocation.getArgumentAt(0, Buffer.class));
+                return httpServerResponse;
+            });
+            ArgumentCaptor<Handler<Void>> drainCaptor = (ArgumentCaptor) ArgumentCaptor.forClass(Handler.class);
+
+            // drain之后的编码要回到operation的executor中执行
+            List<Runnable> tasks = new ArrayList<>();
+            Executor executor = tasks::add;
+
+            Response response = Response.create(200, "OK", Stream.of(1, 2));
+            instance.doSendResponse(httpServerResponse, ProduceProcessorManager.JSON_PROCESSOR, response, executor);
+            Mockito.verify(httpServerResponse).setChunked(true);
+            Mockito.verify(httpServerResponse, Mockito.never()).end();
+            Assert.assertEquals("[1", body.toString());
+
+            Mockito.verify(httpServerResponse).drainHandler(drainCaptor.capture());
+            drainCaptor.getValue().handle(null);
+            Assert.assertEquals("[1", body.toString());
+            Assert.assertEquals(1, tasks.size());
+
+            tasks.get(0).run();
+            Mockito.verify(httpServerResponse).end();
+            Assert.assertEquals("[1,2]", body.toString());
+        } finally {
+            ConfigurationManager.getConfigInstance().clearProperty(ResponseStreamEncoder.CHUNK_SIZE);
+        }
+    }
+
     @Test
     public void testFailureHandler() {
         RoutingContext context = Mockito.mock(RoutingContext.class);